@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.common;
+
+/**
+ * Metadata of a stored application artifact, which is required to serve the artifact with byte ranges and
+ * conditional requests.
+ */
+public class ArtifactDescriptor {
+    private String fileName;
+    private String absolutePath;
+    private long length;
+    private long lastModified;
+    private String eTag;
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getAbsolutePath() {
+        return absolutePath;
+    }
+
+    public void setAbsolutePath(String absolutePath) {
+        this.absolutePath = absolutePath;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * @return Strong entity tag of the artifact, including the enclosing quotes
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    public void setETag(String eTag) {
+        this.eTag = eTag;
+    }
+
+    /**
+     * Checks whether the artifact matches an If-None-Match or If-Range header value.
+     *
+     * @param eTags Comma separated list of entity tags or *
+     * @return true if any of the given entity tags is the entity tag of the artifact
+     */
+    public boolean isETagMatched(String eTags) {
+        if (eTags == null || eTag == null) {
+            return false;
+        }
+        for (String candidate : eTags.split(",")) {
+            String trimmed = candidate.trim();
+            if ("*".equals(trimmed) || eTag.equals(trimmed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
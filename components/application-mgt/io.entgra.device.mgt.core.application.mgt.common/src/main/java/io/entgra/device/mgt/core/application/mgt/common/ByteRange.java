@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.common;
+
+/**
+ * A single byte range of an artifact, resolved from the Range header of a download request.
+ */
+public class ByteRange {
+    private static final String BYTES_UNIT = "bytes";
+
+    private final long start;
+    private final long end;
+    private final long total;
+
+    private ByteRange(long start, long end, long total) {
+        this.start = start;
+        this.end = end;
+        this.total = total;
+    }
+
+    /**
+     * @param total Length of the artifact
+     * @return Range which covers the whole artifact
+     */
+    public static ByteRange full(long total) {
+        return new ByteRange(0, total - 1, total);
+    }
+
+    /**
+     * Resolves the Range header of a request against the length of the artifact. Only a single range is supported,
+     * hence a header with multiple ranges is ignored in the same way as a malformed header.
+     *
+     * @param rangeHeader Value of the Range header, i.e. bytes=0-499, bytes=500- or bytes=-500
+     * @param total       Length of the artifact
+     * @return Resolved range, or null if the header is absent or not supported, in which case the whole artifact is
+     * expected to be served. Check {@link #isSatisfiable()} before serving the returned range.
+     */
+    public static ByteRange parse(String rangeHeader, long total) {
+        if (rangeHeader == null || !rangeHeader.startsWith(BYTES_UNIT + "=")) {
+            return null;
+        }
+        String spec = rangeHeader.substring(BYTES_UNIT.length() + 1).trim();
+        int separatorIdx = spec.indexOf('-');
+        if (spec.indexOf(',') != -1 || separatorIdx == -1) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, separatorIdx).trim();
+            String last = spec.substring(separatorIdx + 1).trim();
+            if (first.isEmpty()) {
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength == 0) {
+                    return new ByteRange(total, total - 1, total);
+                }
+                return new ByteRange(Math.max(0, total - suffixLength), total - 1, total);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? total - 1 : Math.min(Long.parseLong(last), total - 1);
+            if (start < 0 || (!last.isEmpty() && Long.parseLong(last) < start)) {
+                return null;
+            }
+            return new ByteRange(start, end, total);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return false if the range starts beyond the end of the artifact, which is to be answered with status 416
+     */
+    public boolean isSatisfiable() {
+        return start < total && start <= end;
+    }
+
+    /**
+     * @return true if the range covers only a part of the artifact, which is to be answered with status 206
+     */
+    public boolean isPartial() {
+        return start > 0 || end < total - 1;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long getLength() {
+        return isSatisfiable() ? end - start + 1 : 0;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Value of the Content-Range header of the response
+     */
+    public String toContentRange() {
+        if (!isSatisfiable()) {
+            return BYTES_UNIT + " */" + total;
+        }
+        return BYTES_UNIT + " " + start + "-" + end + "/" + total;
+    }
+}
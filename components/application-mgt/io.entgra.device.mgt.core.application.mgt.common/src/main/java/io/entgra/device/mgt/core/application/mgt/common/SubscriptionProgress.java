@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.common;
+
+/**
+ * Progress of a bulk subscription of an application release, which is processed in chunks of devices. The status is
+ * {@link ExecutionStatus#PENDING} while the chunks are processed, and it turns to {@link ExecutionStatus#EXECUTED}
+ * or {@link ExecutionStatus#FAILED} once the subscription is over.
+ */
+public class SubscriptionProgress {
+
+    private String applicationUUID;
+    private String action;
+    private String subType;
+    private ExecutionStatus status;
+    private int processedChunkCount;
+    private int processedDeviceCount;
+    private int triggeredDeviceCount;
+    private int skippedDeviceCount;
+    private long startedAt;
+    private long updatedAt;
+
+    public String getApplicationUUID() {
+        return applicationUUID;
+    }
+
+    public void setApplicationUUID(String applicationUUID) {
+        this.applicationUUID = applicationUUID;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getSubType() {
+        return subType;
+    }
+
+    public void setSubType(String subType) {
+        this.subType = subType;
+    }
+
+    public ExecutionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ExecutionStatus status) {
+        this.status = status;
+    }
+
+    public int getProcessedChunkCount() {
+        return processedChunkCount;
+    }
+
+    public void setProcessedChunkCount(int processedChunkCount) {
+        this.processedChunkCount = processedChunkCount;
+    }
+
+    public int getProcessedDeviceCount() {
+        return processedDeviceCount;
+    }
+
+    public void setProcessedDeviceCount(int processedDeviceCount) {
+        this.processedDeviceCount = processedDeviceCount;
+    }
+
+    public int getTriggeredDeviceCount() {
+        return triggeredDeviceCount;
+    }
+
+    public void setTriggeredDeviceCount(int triggeredDeviceCount) {
+        this.triggeredDeviceCount = triggeredDeviceCount;
+    }
+
+    public int getSkippedDeviceCount() {
+        return skippedDeviceCount;
+    }
+
+    public void setSkippedDeviceCount(int skippedDeviceCount) {
+        this.skippedDeviceCount = skippedDeviceCount;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
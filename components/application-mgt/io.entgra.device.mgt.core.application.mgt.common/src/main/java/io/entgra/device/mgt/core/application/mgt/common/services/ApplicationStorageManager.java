@@ -19,12 +19,15 @@
 package io.entgra.device.mgt.core.application.mgt.common.services;
 
 import io.entgra.device.mgt.core.application.mgt.common.ApplicationInstaller;
+import io.entgra.device.mgt.core.application.mgt.common.ArtifactDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.ByteRange;
 import io.entgra.device.mgt.core.application.mgt.common.dto.ApplicationReleaseDTO;
 import io.entgra.device.mgt.core.application.mgt.common.exception.ApplicationStorageManagementException;
 import io.entgra.device.mgt.core.application.mgt.common.exception.ResourceManagementException;
 import io.entgra.device.mgt.core.device.mgt.core.common.exception.StorageManagementException;
 
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 
 /**
@@ -113,6 +116,34 @@ public interface ApplicationStorageManager {
     InputStream getFileStream(String hashVal, String folderName, String fileName, int tenantId)
             throws ApplicationStorageManagementException;
 
+    /**
+     * Get the metadata of an application release artifact, which is required to serve the artifact with byte ranges
+     * and conditional requests.
+     *
+     * @param hashVal Hash value of the application release.
+     * @param folderName Folder name of the artifact.
+     * @param fileName File name of the artifact.
+     * @param tenantId Tenant Id
+     * @return {@link ArtifactDescriptor}, or null if the artifact doesn't exist
+     * @throws ApplicationStorageManagementException throws if an error occurs when accessing the file.
+     */
+    ArtifactDescriptor getArtifactDescriptor(String hashVal, String folderName, String fileName, int tenantId)
+            throws ApplicationStorageManagementException;
+
+    /**
+     * Transfer a range of an application release artifact to the given channel without copying the content through
+     * the heap.
+     *
+     * @param artifactDescriptor {@link ArtifactDescriptor} of the artifact.
+     * @param range Range of the artifact to transfer. Whole artifact is transferred if the range is null.
+     * @param target Channel to write the artifact content.
+     * @return Number of bytes transferred
+     * @throws ApplicationStorageManagementException throws if the artifact has been removed or an error occurs when
+     * transferring the artifact.
+     */
+    long transferArtifact(ArtifactDescriptor artifactDescriptor, ByteRange range, WritableByteChannel target)
+            throws ApplicationStorageManagementException;
+
     /**
      * Get the InputStream of the file which is located in filePath
      *
@@ -18,11 +18,14 @@
 
 package io.entgra.device.mgt.core.application.mgt.common.services;
 
+import io.entgra.device.mgt.core.application.mgt.common.ArtifactDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.ByteRange;
 import io.entgra.device.mgt.core.application.mgt.common.config.LifecycleState;
 import io.entgra.device.mgt.core.application.mgt.common.exception.ApplicationManagementException;
 import io.entgra.device.mgt.core.application.mgt.common.exception.LifecycleManagementException;
 
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 
 public interface AppmDataHandler {
@@ -41,6 +44,30 @@ public interface AppmDataHandler {
     InputStream getArtifactStream(int tenantId, String appHashValue, String folderName, String artifactName)
             throws ApplicationManagementException;
 
+    /**
+     * Get the metadata of the Artifact, i.e. length and entity tag, to serve the artifact with byte ranges and
+     * conditional requests.
+     * @param tenantId Tenant Id
+     * @param appHashValue Hash Value of the application
+     * @param folderName Folder Name
+     * @param artifactName Artifact Name
+     * @return {@link ArtifactDescriptor}
+     * @throws ApplicationManagementException if the artifact doesn't exist or error occurred while accessing it
+     */
+    ArtifactDescriptor getArtifactDescriptor(int tenantId, String appHashValue, String folderName,
+            String artifactName) throws ApplicationManagementException;
+
+    /**
+     * Transfer a range of the Artifact to the response channel
+     * @param artifactDescriptor {@link ArtifactDescriptor} retrieved for the request
+     * @param range Requested byte range, null to transfer the whole artifact
+     * @param target Channel of the response
+     * @return Number of bytes transferred
+     * @throws ApplicationManagementException if error occurred while transferring the artifact
+     */
+    long transferArtifact(ArtifactDescriptor artifactDescriptor, ByteRange range, WritableByteChannel target)
+            throws ApplicationManagementException;
+
     /**
      * Get agent apk
      *
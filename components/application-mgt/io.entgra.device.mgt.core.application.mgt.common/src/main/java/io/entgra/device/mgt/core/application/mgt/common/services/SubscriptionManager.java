@@ -24,6 +24,7 @@ import io.entgra.device.mgt.core.application.mgt.common.DeviceSubscriptionData;
 import io.entgra.device.mgt.core.application.mgt.common.ExecutionStatus;
 import io.entgra.device.mgt.core.application.mgt.common.SubscriptionEntity;
 import io.entgra.device.mgt.core.application.mgt.common.SubscriptionInfo;
+import io.entgra.device.mgt.core.application.mgt.common.SubscriptionProgress;
 import io.entgra.device.mgt.core.application.mgt.common.SubscriptionResponse;
 import io.entgra.device.mgt.core.application.mgt.common.SubscriptionStatistics;
 import io.entgra.device.mgt.core.application.mgt.common.SubscriptionType;
@@ -66,6 +67,14 @@ public interface SubscriptionManager {
                                                            String action, Properties properties)
             throws ApplicationManagementException;
 
+    /**
+     * Get the progress of the latest bulk subscription of an application release which is performed in this node.
+     * @param applicationUUID UUID of the application release
+     * @return {@link SubscriptionProgress} of the subscription or null if the application release is not subscribed
+     * in this node within the last hour
+     */
+    SubscriptionProgress getSubscriptionProgress(String applicationUUID);
+
     /**
      * Performs bulk subscription operation for a given application and a subscriber list.
      * @param applicationUUID UUID of the application to subscribe/unsubscribe
@@ -20,6 +20,8 @@ package io.entgra.device.mgt.core.application.mgt.core.impl;
 
 import com.dd.plist.NSDictionary;
 import io.entgra.device.mgt.core.application.mgt.common.ApplicationInstaller;
+import io.entgra.device.mgt.core.application.mgt.common.ArtifactDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.ByteRange;
 import io.entgra.device.mgt.core.application.mgt.common.DeviceTypes;
 import io.entgra.device.mgt.core.application.mgt.common.dto.ApplicationReleaseDTO;
 import io.entgra.device.mgt.core.application.mgt.common.exception.ApplicationStorageManagementException;
@@ -38,6 +40,10 @@ import org.apache.commons.logging.LogFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
@@ -50,6 +56,8 @@ public class ApplicationStorageManagerImpl implements ApplicationStorageManager
     private static final Log log = LogFactory.getLog(ApplicationStorageManagerImpl.class);
     private String storagePath;
     private int screenShotMaxCount;
+    private final ArtifactChannelCache artifactChannelCache =
+            new ArtifactChannelCache(Constants.ARTIFACT_CHANNEL_CACHE_SIZE);
 
     /**
      * Create a new ApplicationStorageManager Instance
@@ -263,6 +271,109 @@ public class ApplicationStorageManagerImpl implements ApplicationStorageManager
         }
     }
 
+    @Override
+    public ArtifactDescriptor getArtifactDescriptor(String hashVal, String folderName, String fileName, int tenantId)
+            throws ApplicationStorageManagementException {
+        Path filePath = Paths.get(storagePath + tenantId + File.separator + hashVal + File.separator + folderName
+                + File.separator + fileName).toAbsolutePath();
+        ArtifactChannelCache.Entry entry = acquireArtifactChannel(filePath);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            ArtifactDescriptor artifactDescriptor = new ArtifactDescriptor();
+            artifactDescriptor.setFileName(fileName);
+            artifactDescriptor.setAbsolutePath(filePath.toString());
+            artifactDescriptor.setLength(entry.getLength());
+            artifactDescriptor.setLastModified(entry.getLastModified());
+            // Artifacts of a release are stored under the release hash, hence the hash together with the file version
+            // identifies the content of an artifact.
+            artifactDescriptor.setETag("\"" + hashVal + "-" + Long.toHexString(entry.getLastModified()) + "-"
+                    + Long.toHexString(entry.getLength()) + "\"");
+            return artifactDescriptor;
+        } finally {
+            artifactChannelCache.release(entry);
+        }
+    }
+
+    @Override
+    public long transferArtifact(ArtifactDescriptor artifactDescriptor, ByteRange range, WritableByteChannel target)
+            throws ApplicationStorageManagementException {
+        ArtifactChannelCache.Entry entry = acquireArtifactChannel(artifactDescriptor);
+        if (range == null) {
+            range = ByteRange.full(entry.getLength());
+        }
+        long position = range.getStart();
+        long remaining = range.getLength();
+        boolean isReopened = false;
+        try {
+            while (remaining > 0) {
+                long transferred;
+                try {
+                    transferred = entry.getChannel().transferTo(position, remaining, target);
+                } catch (ClosedChannelException e) {
+                    // The shared channel is closed when a thread transferring from it is interrupted, hence the
+                    // transfer continues once from a reopened channel unless this thread is the interrupted one.
+                    if (isReopened || e instanceof ClosedByInterruptException
+                            || Thread.currentThread().isInterrupted()) {
+                        throw e;
+                    }
+                    artifactChannelCache.evict(entry);
+                    artifactChannelCache.release(entry);
+                    entry = null;
+                    entry = acquireArtifactChannel(artifactDescriptor);
+                    isReopened = true;
+                    continue;
+                }
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+            return position - range.getStart();
+        } catch (IOException e) {
+            String msg = "Error occurred when transferring the artifact in file path: "
+                    + artifactDescriptor.getAbsolutePath();
+            log.error(msg, e);
+            throw new ApplicationStorageManagementException(msg, e);
+        } finally {
+            if (entry != null) {
+                artifactChannelCache.release(entry);
+            }
+        }
+    }
+
+    /**
+     * Acquire the channel of an artifact, verifying that the artifact is unchanged since its descriptor was retrieved.
+     */
+    private ArtifactChannelCache.Entry acquireArtifactChannel(ArtifactDescriptor artifactDescriptor)
+            throws ApplicationStorageManagementException {
+        ArtifactChannelCache.Entry entry = acquireArtifactChannel(Paths.get(artifactDescriptor.getAbsolutePath()));
+        if (entry == null || entry.getLength() != artifactDescriptor.getLength()
+                || entry.getLastModified() != artifactDescriptor.getLastModified()) {
+            if (entry != null) {
+                artifactChannelCache.release(entry);
+            }
+            String msg = "Artifact " + artifactDescriptor.getAbsolutePath() + " has been removed or modified after "
+                    + "its metadata was retrieved.";
+            log.error(msg);
+            throw new ApplicationStorageManagementException(msg);
+        }
+        return entry;
+    }
+
+    private ArtifactChannelCache.Entry acquireArtifactChannel(Path filePath)
+            throws ApplicationStorageManagementException {
+        try {
+            return artifactChannelCache.acquire(filePath);
+        } catch (IOException e) {
+            String msg = "Error occurred when opening the artifact in file path: " + filePath;
+            log.error(msg, e);
+            throw new ApplicationStorageManagementException(msg, e);
+        }
+    }
+
     @Override
     public InputStream getFileStream(String deviceType, String tenantDomain) throws ApplicationStorageManagementException {
         String fileName = Constants.AGENT_FILE_NAMES.get(deviceType);
@@ -287,6 +398,7 @@ public class ApplicationStorageManagerImpl implements ApplicationStorageManager
      */
     private void deleteAppReleaseArtifact(String artifactPath) throws ApplicationStorageManagementException {
         File artifact = new File(artifactPath);
+        artifactChannelCache.invalidate(artifact.toPath().toAbsolutePath());
         if (artifact.exists()) {
             try {
                 StorageManagementUtil.delete(artifact);
@@ -316,6 +428,7 @@ public class ApplicationStorageManagerImpl implements ApplicationStorageManager
     public void deleteAppFolderOfTenant(int tenantId) throws ApplicationStorageManagementException{
         String folderPath = storagePath + File.separator + tenantId;
         File folder = new File(folderPath);
+        artifactChannelCache.invalidate(folder.toPath().toAbsolutePath());
         if (folder.exists()) {
             try {
                 StorageManagementUtil.delete(folder);
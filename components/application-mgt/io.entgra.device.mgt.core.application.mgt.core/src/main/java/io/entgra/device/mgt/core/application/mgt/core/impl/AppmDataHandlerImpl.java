@@ -18,6 +18,8 @@
 
 package io.entgra.device.mgt.core.application.mgt.core.impl;
 
+import io.entgra.device.mgt.core.application.mgt.common.ArtifactDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.ByteRange;
 import io.entgra.device.mgt.core.application.mgt.common.config.LifecycleState;
 import io.entgra.device.mgt.core.application.mgt.common.exception.ApplicationManagementException;
 import io.entgra.device.mgt.core.application.mgt.common.exception.ApplicationStorageManagementException;
@@ -36,6 +38,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 
 public class AppmDataHandlerImpl implements AppmDataHandler {
@@ -74,6 +77,40 @@ public class AppmDataHandlerImpl implements AppmDataHandler {
         }
     }
 
+    @Override
+    public ArtifactDescriptor getArtifactDescriptor(int tenantId, String appHashValue, String folderName,
+            String artifactName) throws ApplicationManagementException {
+        ApplicationStorageManager applicationStorageManager = APIUtil.getApplicationStorageManager();
+        validateArtifactDownloadRequest(tenantId, appHashValue, folderName, artifactName);
+        try {
+            ArtifactDescriptor artifactDescriptor = applicationStorageManager
+                    .getArtifactDescriptor(appHashValue, folderName, artifactName, tenantId);
+            if (artifactDescriptor == null) {
+                String msg = "Couldn't find the file in the file system. Tenant Id: " + tenantId + " App Has Value: "
+                        + appHashValue + " Folder Name: " + folderName + " Artifact name: " + artifactName;
+                log.error(msg);
+                throw new NotFoundException(msg);
+            }
+            return artifactDescriptor;
+        } catch (ApplicationStorageManagementException e) {
+            String msg = "Error occurred when getting metadata of the " + artifactName + " file.";
+            log.error(msg, e);
+            throw new ApplicationManagementException(msg, e);
+        }
+    }
+
+    @Override
+    public long transferArtifact(ArtifactDescriptor artifactDescriptor, ByteRange range, WritableByteChannel target)
+            throws ApplicationManagementException {
+        try {
+            return APIUtil.getApplicationStorageManager().transferArtifact(artifactDescriptor, range, target);
+        } catch (ApplicationStorageManagementException e) {
+            String msg = "Error occurred when transferring the " + artifactDescriptor.getFileName() + " file.";
+            log.error(msg, e);
+            throw new ApplicationManagementException(msg, e);
+        }
+    }
+
     /**
      * Validate the artifact downloading request
      * @param tenantId Tenat Id
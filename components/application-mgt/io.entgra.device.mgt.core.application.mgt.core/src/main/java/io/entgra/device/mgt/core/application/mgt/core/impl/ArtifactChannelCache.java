@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.core.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Least recently used set of open read channels of the artifacts being downloaded, so that concurrent downloads of
+ * the same artifact share a single channel. Transfers read through positional reads, hence a shared channel is safe
+ * to use from many threads. An entry is validated against the size and modification time of the file each time it
+ * is acquired, and a channel is closed only once it is evicted and no transfer holds it. Entries are acquired under
+ * the lock of their own key, hence opening or validating one artifact never blocks the downloads of the others.
+ * A channel closed underneath its entry, as by the interrupt of a thread transferring from it, is reopened on the next
+ * acquisition.
+ */
+class ArtifactChannelCache {
+    private static final Log log = LogFactory.getLog(ArtifactChannelCache.class);
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong accessCounter = new AtomicLong();
+
+    ArtifactChannelCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Acquires the channel of the artifact. Every acquired entry has to be released with {@link #release(Entry)}.
+     *
+     * @param path Path of the artifact
+     * @return Acquired entry, or null if the artifact doesn't exist
+     * @throws IOException if the artifact couldn't be opened
+     */
+    Entry acquire(Path path) throws IOException {
+        Entry acquired;
+        try {
+            acquired = entries.compute(path.toString(), (key, entry) -> {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    if (entry != null) {
+                        entry.evict();
+                    }
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                long lastModified = attributes.lastModifiedTime().toMillis();
+                if (entry != null && (!entry.channel.isOpen() || entry.length != attributes.size()
+                        || entry.lastModified != lastModified)) {
+                    entry.evict();
+                    entry = null;
+                }
+                if (entry == null) {
+                    try {
+                        entry = new Entry(key, FileChannel.open(path, StandardOpenOption.READ), attributes.size(),
+                                lastModified);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                entry.retain(accessCounter.incrementAndGet());
+                return entry;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (acquired != null) {
+            evictLeastRecentlyUsed();
+        }
+        return acquired;
+    }
+
+    void release(Entry entry) {
+        entry.release();
+    }
+
+    /**
+     * Evicts the given entry, if it is still cached, so that the next acquisition of its artifact opens a new channel.
+     * The entry itself still has to be released by its holder.
+     *
+     * @param entry Acquired entry whose channel has been closed
+     */
+    void evict(Entry entry) {
+        if (entries.remove(entry.key, entry)) {
+            entry.evict();
+        }
+    }
+
+    /**
+     * Evicts the channels of all the artifacts located under the given path.
+     *
+     * @param path Path of an artifact or of a directory of artifacts
+     */
+    void invalidate(Path path) {
+        String prefix = path.toString();
+        for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+            if ((cached.getKey().equals(prefix) || cached.getKey().startsWith(prefix + File.separator))
+                    && entries.remove(cached.getKey(), cached.getValue())) {
+                cached.getValue().evict();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently acquired entries until the cache is within its size. The cache holds only a few
+     * entries, hence scanning them is cheaper than keeping them ordered under a shared lock.
+     */
+    private void evictLeastRecentlyUsed() {
+        while (entries.size() > maxEntries) {
+            Map.Entry<String, Entry> eldest = null;
+            for (Map.Entry<String, Entry> cached : entries.entrySet()) {
+                if (eldest == null || cached.getValue().lastAccess < eldest.getValue().lastAccess) {
+                    eldest = cached;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (entries.remove(eldest.getKey(), eldest.getValue())) {
+                eldest.getValue().evict();
+            }
+        }
+    }
+
+    static final class Entry {
+        private final String key;
+        private final FileChannel channel;
+        private final long length;
+        private final long lastModified;
+        private volatile long lastAccess;
+        private int references;
+        private boolean evicted;
+
+        private Entry(String key, FileChannel channel, long length, long lastModified) {
+            this.key = key;
+            this.channel = channel;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        FileChannel getChannel() {
+            return channel;
+        }
+
+        long getLength() {
+            return length;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        private synchronized void retain(long access) {
+            references++;
+            lastAccess = access;
+        }
+
+        private synchronized void release() {
+            references--;
+            closeIfUnused();
+        }
+
+        private synchronized void evict() {
+            evicted = true;
+            closeIfUnused();
+        }
+
+        private void closeIfUnused() {
+            if (evicted && references == 0) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Error occurred while closing the channel of an evicted artifact.", e);
+                }
+            }
+        }
+    }
+}
@@ -21,24 +21,19 @@ package io.entgra.device.mgt.core.application.mgt.core.impl;
 
 import io.entgra.device.mgt.core.application.mgt.common.FileDescriptor;
 import io.entgra.device.mgt.core.application.mgt.common.FileMetaEntry;
-import io.entgra.device.mgt.core.application.mgt.common.TransferLink;
 import io.entgra.device.mgt.core.application.mgt.common.exception.FileDownloaderServiceException;
 import io.entgra.device.mgt.core.application.mgt.common.exception.FileTransferServiceException;
 import io.entgra.device.mgt.core.application.mgt.common.services.FileDownloaderService;
 import io.entgra.device.mgt.core.application.mgt.common.services.FileTransferService;
 import io.entgra.device.mgt.core.application.mgt.core.internal.DataHolder;
 import io.entgra.device.mgt.core.application.mgt.core.util.Constants;
+import io.entgra.device.mgt.core.application.mgt.core.util.FileTransferServiceHelperUtil;
 import okhttp3.OkHttpClient;
-import okhttp3.Request;
 import okhttp3.Response;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.io.File;
-import java.io.IOException;
 import java.net.URL;
-import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -80,58 +75,55 @@ public class FileDownloaderServiceProvider {
      * Class holing the implementation of the remote file downloading service
      */
     private static class RemoteFileDownloaderService implements FileDownloaderService {
+        private static final int SEGMENT_DOWNLOAD_PARALLELISM = 8;
         private static final OkHttpClient okhttpClient =
-                new OkHttpClient.Builder().connectTimeout(500, TimeUnit.MILLISECONDS).build();
+                new OkHttpClient.Builder().connectTimeout(15000, TimeUnit.MILLISECONDS)
+                        .readTimeout(60000, TimeUnit.MILLISECONDS).build();
+        private static final SegmentedFileDownloader segmentedFileDownloader = createSegmentedFileDownloader();
+
+        /**
+         * Create the downloader, removing the part files which the downloads of the previous run have left behind
+         * @return {@link SegmentedFileDownloader}
+         */
+        private static SegmentedFileDownloader createSegmentedFileDownloader() {
+            SegmentedFileDownloader downloader = new SegmentedFileDownloader(okhttpClient, fileTransferService,
+                    RemoteFileDownloaderService::getFileMetaEntry, SEGMENT_DOWNLOAD_PARALLELISM);
+            downloader.removeOrphanedPartFiles(FileTransferServiceHelperUtil.getArtifactRoot());
+            return downloader;
+        }
+
         @Override
         public FileDescriptor download(URL downloadUrl) throws FileDownloaderServiceException {
-            FileMetaEntry fileMetaEntry = getFileMetaEntry(downloadUrl);
-            try {
-                TransferLink transferLink = fileTransferService.generateUploadLink(fileMetaEntry);
-                FileDescriptor fileDescriptor = fileTransferService.resolve(new URL(transferLink.getDirectTransferLink()
-                        + "/" + fileMetaEntry.getFileName() + "." + fileMetaEntry.getExtension()));
-                FileUtils.copyURLToFile(downloadUrl, new File(fileDescriptor.getAbsolutePath()),
-                        15000, 3600000);
-                return fileDescriptor;
-            } catch (FileTransferServiceException | IOException e) {
-                String msg = "Error encountered while downloading file";
-                log.error(msg, e);
-                throw new FileDownloaderServiceException(msg, e);
-            }
+            return segmentedFileDownloader.download(downloadUrl);
         }
 
         /**
          * Generate the {@link FileMetaEntry} from the remote file
          * @param downloadUrl Remote file URL
+         * @param response HEAD response of the remote file
          * @return {@link FileMetaEntry}
          * @throws FileDownloaderServiceException Throws when error encountered while generating {@link FileMetaEntry}
          */
-        private FileMetaEntry getFileMetaEntry(URL downloadUrl) throws FileDownloaderServiceException {
-            Request request = new Request.Builder().url(downloadUrl).head().build();
-            try (Response response = okhttpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new FileDownloaderServiceException("Unexpected response code received for the remote url " + downloadUrl);
-                }
-                String contentDisposition = response.header("Content-Disposition");
-                String contentType = response.header("Content-Type");
-                String[] fileNameSegments = extractFileNameSegmentsFromUrl(downloadUrl);
+        private static FileMetaEntry getFileMetaEntry(URL downloadUrl, Response response)
+                throws FileDownloaderServiceException {
+            String contentDisposition = response.header("Content-Disposition");
+            String contentType = response.header("Content-Type");
+            String[] fileNameSegments = extractFileNameSegmentsFromUrl(downloadUrl);
 
-                // if the url parsing failed to resolve the file name segments
-                // falling to remote file name segment resolving
-                if (fileNameSegments == null) {
-                    fileNameSegments = getFileNameSegments(contentDisposition, contentType);
-                }
+            // if the url parsing failed to resolve the file name segments
+            // falling to remote file name segment resolving
+            if (fileNameSegments == null) {
+                fileNameSegments = getFileNameSegments(contentDisposition, contentType);
+            }
 
-                FileMetaEntry fileMetaEntry = new FileMetaEntry();
-                String contentLength = response.header("Content-Length");
-                if (contentLength != null) {
-                    fileMetaEntry.setSize(Long.parseLong(contentLength));
-                }
-                fileMetaEntry.setFileName(fileNameSegments[0]);
-                fileMetaEntry.setExtension(fileNameSegments[1]);
-                return fileMetaEntry;
-            } catch (IOException e) {
-                throw new FileDownloaderServiceException("IO error occurred while constructing file name for the remote url " + downloadUrl);
+            FileMetaEntry fileMetaEntry = new FileMetaEntry();
+            String contentLength = response.header("Content-Length");
+            if (contentLength != null) {
+                fileMetaEntry.setSize(Long.parseLong(contentLength));
             }
+            fileMetaEntry.setFileName(fileNameSegments[0]);
+            fileMetaEntry.setExtension(fileNameSegments[1]);
+            return fileMetaEntry;
         }
 
         /**
@@ -0,0 +1,536 @@
+/*
+ *  Copyright (c) 2018 - 2024, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package io.entgra.device.mgt.core.application.mgt.core.impl;
+
+import io.entgra.device.mgt.core.application.mgt.common.ChunkDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.FileDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.FileMetaEntry;
+import io.entgra.device.mgt.core.application.mgt.common.TransferLink;
+import io.entgra.device.mgt.core.application.mgt.common.exception.FileDownloaderServiceException;
+import io.entgra.device.mgt.core.application.mgt.common.exception.FileTransferServiceException;
+import io.entgra.device.mgt.core.application.mgt.common.services.FileTransferService;
+import io.entgra.device.mgt.core.device.mgt.common.exceptions.NotFoundException;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Downloads remote files into artifact holders of the {@link FileTransferService}. When the remote server accepts
+ * byte ranges, the file is fetched as parallel segments, each written to its own part file, and a failed segment is
+ * retried from where it stopped. A download which fails altogether is resumed from its part files by the next
+ * download of the same URL, provided that the remote file is unchanged. Part files are then appended to the artifact
+ * as chunks while computing the MD5 digest, which is verified against the Content-MD5 header of the remote file, or
+ * against its entity tag when the tag is an MD5 digest. Without either, the artifact is verified by its size only.
+ * Part files which can't be resumed are deleted once the download fails, and the part files left behind by a
+ * previous run are deleted through {@link #removeOrphanedPartFiles(Path)}. Concurrent downloads of the same URL
+ * share a single transfer.
+ */
+public class SegmentedFileDownloader {
+    private static final Log log = LogFactory.getLog(SegmentedFileDownloader.class);
+    private static final int MAX_SEGMENTS = 4;
+    private static final long MIN_SEGMENT_SIZE = 4L * 1024 * 1024;
+    private static final int MAX_SEGMENT_ATTEMPTS = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PART_FILE_SUFFIX = ".part";
+    private static final String BYTES_RANGE_UNIT = "bytes";
+    private static final String MD5_ALGORITHM = "MD5";
+    private static final Pattern PART_FILE_PATTERN = Pattern.compile(".+" + Pattern.quote(PART_FILE_SUFFIX) + "\\d+");
+    private static final Pattern MD5_HEX_PATTERN = Pattern.compile("[0-9a-fA-F]{32}");
+
+    private final OkHttpClient httpClient;
+    private final FileTransferService fileTransferService;
+    private final FileMetaEntryResolver fileMetaEntryResolver;
+    private final ExecutorService segmentExecutor;
+    private final Map<String, CompletableFuture<String>> inFlightDownloads = new ConcurrentHashMap<>();
+    private final Map<String, PartialDownload> partialDownloads = new ConcurrentHashMap<>();
+
+    /**
+     * @param httpClient            Client to access the remote files
+     * @param fileTransferService   {@link FileTransferService} which holds the downloaded files
+     * @param fileMetaEntryResolver Resolves the {@link FileMetaEntry} of a remote file from its HEAD response
+     * @param parallelism           Maximum number of segments downloaded at once, across all the downloads
+     */
+    public SegmentedFileDownloader(OkHttpClient httpClient, FileTransferService fileTransferService,
+                                   FileMetaEntryResolver fileMetaEntryResolver, int parallelism) {
+        this.httpClient = httpClient;
+        this.fileTransferService = fileTransferService;
+        this.fileMetaEntryResolver = fileMetaEntryResolver;
+        this.segmentExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "remote-file-segment-downloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Download the remote file, or wait for the download of the file if it is already in progress.
+     *
+     * @param downloadUrl Remote file URL
+     * @return {@link FileDescriptor} of the downloaded file
+     * @throws FileDownloaderServiceException Throws when error encountered while downloading the file
+     */
+    public FileDescriptor download(URL downloadUrl) throws FileDownloaderServiceException {
+        String key = downloadUrl.toString();
+        CompletableFuture<String> download = new CompletableFuture<>();
+        CompletableFuture<String> inFlightDownload = inFlightDownloads.putIfAbsent(key, download);
+        if (inFlightDownload == null) {
+            try {
+                download.complete(fetch(downloadUrl));
+            } catch (FileDownloaderServiceException | RuntimeException e) {
+                download.completeExceptionally(e);
+            } finally {
+                inFlightDownloads.remove(key, download);
+            }
+            inFlightDownload = download;
+        } else if (log.isDebugEnabled()) {
+            log.debug("Waiting for the in progress download of " + downloadUrl);
+        }
+
+        try {
+            return resolveFileDescriptor(inFlightDownload.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileDownloaderServiceException("Interrupted while downloading file pointing by " + downloadUrl, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FileDownloaderServiceException) {
+                throw (FileDownloaderServiceException) e.getCause();
+            }
+            throw new FileDownloaderServiceException("Error encountered while downloading file pointing by "
+                    + downloadUrl, e.getCause());
+        }
+    }
+
+    /**
+     * Fetch the remote file into an artifact holder, resuming a previously failed download of the file if possible.
+     *
+     * @param downloadUrl Remote file URL
+     * @return UUID of the artifact holder
+     * @throws FileDownloaderServiceException Throws when error encountered while downloading the file
+     */
+    private String fetch(URL downloadUrl) throws FileDownloaderServiceException {
+        String key = downloadUrl.toString();
+        RemoteFile remoteFile = inspect(downloadUrl);
+        String artifactHolder;
+        PartialDownload partialDownload = partialDownloads.get(key);
+        boolean isResuming = partialDownload != null && partialDownload.isResumableWith(remoteFile);
+        if (isResuming) {
+            artifactHolder = partialDownload.artifactHolder;
+            if (log.isDebugEnabled()) {
+                log.debug("Resuming the download of " + downloadUrl + " in artifact holder " + artifactHolder);
+            }
+        } else {
+            if (partialDownload != null) {
+                // The remote file has changed since the previous download, hence its part files are orphaned
+                partialDownloads.remove(key, partialDownload);
+                deletePartFiles(partialDownload.artifact);
+            }
+            artifactHolder = createArtifactHolder(remoteFile.fileMetaEntry);
+        }
+
+        FileDescriptor artifact = resolveFileDescriptor(artifactHolder);
+        IOUtils.closeQuietly(artifact.getFile());
+        Path artifactPath = Paths.get(artifact.getAbsolutePath());
+        if (!isResuming && remoteFile.isResumable()) {
+            partialDownloads.put(key, new PartialDownload(artifactHolder, artifactPath, remoteFile));
+        }
+        List<Segment> segments = getSegments(remoteFile, artifactPath);
+        List<Future<?>> segmentDownloads = new ArrayList<>();
+        for (Segment segment : segments) {
+            segmentDownloads.add(segmentExecutor.submit(() -> {
+                downloadSegment(downloadUrl, remoteFile, segment);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> segmentDownload : segmentDownloads) {
+                segmentDownload.get();
+            }
+        } catch (InterruptedException e) {
+            segmentDownloads.forEach(segmentDownload -> segmentDownload.cancel(true));
+            deleteUnresumablePartFiles(remoteFile, artifactPath);
+            Thread.currentThread().interrupt();
+            throw new FileDownloaderServiceException("Interrupted while downloading file pointing by " + downloadUrl, e);
+        } catch (ExecutionException e) {
+            segmentDownloads.forEach(segmentDownload -> segmentDownload.cancel(true));
+            deleteUnresumablePartFiles(remoteFile, artifactPath);
+            String msg = "Error encountered while downloading file pointing by " + downloadUrl;
+            log.error(msg, e.getCause());
+            throw new FileDownloaderServiceException(msg, e.getCause());
+        }
+
+        try {
+            assemble(artifact, segments, remoteFile);
+        } catch (FileDownloaderServiceException e) {
+            // Part files which don't assemble into a valid artifact can't be resumed either
+            partialDownloads.remove(key);
+            deletePartFiles(artifactPath);
+            throw e;
+        }
+        partialDownloads.remove(key);
+        return artifactHolder;
+    }
+
+    /**
+     * Delete the part files left behind by the downloads of a previous run, which can't be resumed since the partial
+     * downloads are tracked in memory. Part files of the partial downloads of this run are kept.
+     *
+     * @param artifactRoot Root directory of the artifact holders
+     */
+    public void removeOrphanedPartFiles(Path artifactRoot) {
+        if (!Files.isDirectory(artifactRoot)) {
+            return;
+        }
+        Set<Path> resumableArtifacts = new HashSet<>();
+        for (PartialDownload partialDownload : partialDownloads.values()) {
+            resumableArtifacts.add(partialDownload.artifact);
+        }
+        List<Path> partFiles;
+        try (Stream<Path> files = Files.walk(artifactRoot, 2)) {
+            partFiles = files.filter(file -> PART_FILE_PATTERN.matcher(file.getFileName().toString()).matches())
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Error encountered while looking up the orphaned part files in " + artifactRoot, e);
+            return;
+        }
+        int removedCount = 0;
+        for (Path partFile : partFiles) {
+            String partFileName = partFile.getFileName().toString();
+            Path artifact = partFile.resolveSibling(partFileName.substring(0,
+                    partFileName.lastIndexOf(PART_FILE_SUFFIX)));
+            if (!resumableArtifacts.contains(artifact) && deleteFile(partFile)) {
+                removedCount++;
+            }
+        }
+        if (removedCount > 0) {
+            log.info("Removed " + removedCount + " orphaned part files in " + artifactRoot);
+        }
+    }
+
+    private void deleteUnresumablePartFiles(RemoteFile remoteFile, Path artifact) {
+        if (!remoteFile.isResumable()) {
+            deletePartFiles(artifact);
+        }
+    }
+
+    /**
+     * Delete all the part files of an artifact.
+     *
+     * @param artifact Path of the artifact, which is the prefix of the part files
+     */
+    private void deletePartFiles(Path artifact) {
+        String partFilePrefix = artifact.getFileName() + PART_FILE_SUFFIX;
+        DirectoryStream.Filter<Path> partFileFilter = file -> file.getFileName().toString().startsWith(partFilePrefix)
+                && PART_FILE_PATTERN.matcher(file.getFileName().toString()).matches();
+        try (DirectoryStream<Path> partFiles = Files.newDirectoryStream(artifact.getParent(), partFileFilter)) {
+            for (Path partFile : partFiles) {
+                deleteFile(partFile);
+            }
+        } catch (IOException e) {
+            log.warn("Error encountered while deleting the part files of " + artifact, e);
+        }
+    }
+
+    private boolean deleteFile(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Error encountered while deleting " + file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Inspect the remote file through a HEAD request.
+     *
+     * @param downloadUrl Remote file URL
+     * @return {@link RemoteFile}
+     * @throws FileDownloaderServiceException Throws when error encountered while inspecting the remote file
+     */
+    private RemoteFile inspect(URL downloadUrl) throws FileDownloaderServiceException {
+        Request request = new Request.Builder().url(downloadUrl).head().build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new FileDownloaderServiceException("Unexpected response code received for the remote url "
+                        + downloadUrl);
+            }
+            RemoteFile remoteFile = new RemoteFile();
+            remoteFile.fileMetaEntry = fileMetaEntryResolver.resolve(downloadUrl, response);
+            remoteFile.rangesSupported = BYTES_RANGE_UNIT.equalsIgnoreCase(response.header("Accept-Ranges"))
+                    && remoteFile.fileMetaEntry.getSize() > 0;
+            String eTag = response.header("ETag");
+            // Weak entity tags can't be used to validate a range request
+            remoteFile.validator = eTag != null && !eTag.startsWith("W/") ? eTag : response.header("Last-Modified");
+            remoteFile.contentMd5 = response.header("Content-MD5");
+            if (eTag != null && !eTag.startsWith("W/")) {
+                String opaqueTag = eTag.replace("\"", "");
+                if (MD5_HEX_PATTERN.matcher(opaqueTag).matches()) {
+                    remoteFile.md5ETag = opaqueTag.toLowerCase();
+                }
+            }
+            return remoteFile;
+        } catch (IOException e) {
+            String msg = "IO error occurred while inspecting the remote url " + downloadUrl;
+            log.error(msg, e);
+            throw new FileDownloaderServiceException(msg, e);
+        }
+    }
+
+    private String createArtifactHolder(FileMetaEntry fileMetaEntry) throws FileDownloaderServiceException {
+        try {
+            TransferLink transferLink = fileTransferService.generateUploadLink(fileMetaEntry);
+            String[] linkSegments = transferLink.getRelativeTransferLink().split("/");
+            return linkSegments[linkSegments.length - 1];
+        } catch (FileTransferServiceException e) {
+            String msg = "Error encountered while creating artifact holder for " + fileMetaEntry.getFileName();
+            log.error(msg, e);
+            throw new FileDownloaderServiceException(msg, e);
+        }
+    }
+
+    private FileDescriptor resolveFileDescriptor(String artifactHolder) throws FileDownloaderServiceException {
+        try {
+            return fileTransferService.resolve(artifactHolder, null).getAssociateFileDescriptor();
+        } catch (FileTransferServiceException | NotFoundException e) {
+            String msg = "Error encountered while resolving the artifact in artifact holder " + artifactHolder;
+            log.error(msg, e);
+            throw new FileDownloaderServiceException(msg, e);
+        }
+    }
+
+    /**
+     * Split the remote file into segments of at least {@link #MIN_SEGMENT_SIZE} bytes. A file which can't be fetched
+     * with byte ranges is fetched as a single segment.
+     *
+     * @param remoteFile {@link RemoteFile}
+     * @param artifact   Path of the artifact, which is the prefix of the part files
+     * @return List of segments
+     */
+    private List<Segment> getSegments(RemoteFile remoteFile, Path artifact) {
+        List<Segment> segments = new ArrayList<>();
+        long size = remoteFile.fileMetaEntry.getSize();
+        if (!remoteFile.rangesSupported) {
+            segments.add(new Segment(artifact.resolveSibling(artifact.getFileName() + PART_FILE_SUFFIX + 0), 0,
+                    size > 0 ? size - 1 : -1));
+            return segments;
+        }
+        int segmentCount = (int) Math.max(1, Math.min(MAX_SEGMENTS, size / MIN_SEGMENT_SIZE));
+        long segmentSize = (size + segmentCount - 1) / segmentCount;
+        for (int segmentIdx = 0; segmentIdx < segmentCount; segmentIdx++) {
+            long start = segmentIdx * segmentSize;
+            segments.add(new Segment(artifact.resolveSibling(artifact.getFileName() + PART_FILE_SUFFIX + segmentIdx),
+                    start, Math.min(start + segmentSize, size) - 1));
+        }
+        return segments;
+    }
+
+    private void downloadSegment(URL downloadUrl, RemoteFile remoteFile, Segment segment) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transferSegment(downloadUrl, remoteFile, segment);
+                return;
+            } catch (IOException e) {
+                if (attempt >= MAX_SEGMENT_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                log.warn("Error encountered while downloading bytes " + segment.start + "-" + segment.end + " of "
+                        + downloadUrl + ", retrying. Attempt " + attempt + " of " + MAX_SEGMENT_ATTEMPTS, e);
+            }
+        }
+    }
+
+    /**
+     * Transfer a segment into its part file. When byte ranges are supported, the transfer continues from the bytes
+     * already written to the part file, otherwise the part file is rewritten.
+     */
+    private void transferSegment(URL downloadUrl, RemoteFile remoteFile, Segment segment) throws IOException {
+        long written = remoteFile.rangesSupported && Files.exists(segment.part) ? Files.size(segment.part) : 0;
+        if (segment.getLength() >= 0 && written >= segment.getLength()) {
+            return;
+        }
+        Request.Builder requestBuilder = new Request.Builder().url(downloadUrl).get();
+        if (remoteFile.rangesSupported) {
+            requestBuilder.header("Range", BYTES_RANGE_UNIT + "=" + (segment.start + written) + "-" + segment.end);
+            if (remoteFile.validator != null) {
+                requestBuilder.header("If-Range", remoteFile.validator);
+            }
+        }
+        try (Response response = httpClient.newCall(requestBuilder.build()).execute()) {
+            // A complete response to a ranged request means that the remote file has changed
+            if (remoteFile.rangesSupported ? response.code() != 206 : !response.isSuccessful()) {
+                throw new IOException("Unexpected response code " + response.code() + " received for the remote url "
+                        + downloadUrl);
+            }
+            try (InputStream body = response.body().byteStream();
+                 OutputStream part = Files.newOutputStream(segment.part, StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE, remoteFile.rangesSupported ? StandardOpenOption.APPEND
+                                 : StandardOpenOption.TRUNCATE_EXISTING)) {
+                IOUtils.copyLarge(body, part, new byte[BUFFER_SIZE]);
+            }
+        }
+        if (segment.getLength() >= 0 && Files.size(segment.part) != segment.getLength()) {
+            throw new IOException("Received " + Files.size(segment.part) + " bytes instead of "
+                    + segment.getLength() + " bytes for the segment " + segment.part.getFileName());
+        }
+    }
+
+    /**
+     * Append the part files to the artifact in order, then verify the size and the MD5 digest of the artifact. The
+     * digest is verified against the Content-MD5 header, or against the entity tag when the remote file has no
+     * Content-MD5 header and its entity tag is an MD5 digest.
+     */
+    private void assemble(FileDescriptor artifact, List<Segment> segments, RemoteFile remoteFile)
+            throws FileDownloaderServiceException {
+        Path artifactPath = Paths.get(artifact.getAbsolutePath());
+        try {
+            MessageDigest md5Digest = MessageDigest.getInstance(MD5_ALGORITHM);
+            // Part files are removed only after a complete assembly, hence an assembly can always start over
+            Files.write(artifactPath, new byte[0]);
+            for (Segment segment : segments) {
+                try (InputStream part = new DigestInputStream(Files.newInputStream(segment.part), md5Digest)) {
+                    ChunkDescriptor chunkDescriptor = new ChunkDescriptor();
+                    chunkDescriptor.setAssociateFileDescriptor(artifact);
+                    chunkDescriptor.setSize(Files.size(segment.part));
+                    chunkDescriptor.setChunk(part);
+                    fileTransferService.writeChunk(chunkDescriptor);
+                }
+            }
+            long size = remoteFile.fileMetaEntry.getSize();
+            if (size > 0 && Files.size(artifactPath) != size) {
+                throw new FileDownloaderServiceException("Downloaded " + Files.size(artifactPath) + " bytes instead of "
+                        + size + " bytes for " + artifact.getFullQualifiedName());
+            }
+            byte[] md5 = md5Digest.digest();
+            if (remoteFile.contentMd5 != null) {
+                if (!remoteFile.contentMd5.equals(Base64.encodeBase64String(md5))) {
+                    throw new FileDownloaderServiceException("MD5 digest of the downloaded "
+                            + artifact.getFullQualifiedName() + " doesn't match with the Content-MD5 of the remote file");
+                }
+            } else if (remoteFile.md5ETag != null) {
+                if (!remoteFile.md5ETag.equals(Hex.encodeHexString(md5))) {
+                    throw new FileDownloaderServiceException("MD5 digest of the downloaded "
+                            + artifact.getFullQualifiedName() + " doesn't match with the ETag of the remote file");
+                }
+            } else if (size <= 0) {
+                log.warn("Downloaded " + artifact.getFullQualifiedName() + " is not verified, since the remote file "
+                        + "has neither a Content-MD5, an MD5 ETag nor a Content-Length");
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Downloaded " + artifact.getFullQualifiedName() + " with MD5 digest " + Hex.encodeHexString(md5));
+            }
+            for (Segment segment : segments) {
+                Files.deleteIfExists(segment.part);
+            }
+        } catch (IOException | FileTransferServiceException | NoSuchAlgorithmException e) {
+            String msg = "Error encountered while assembling the downloaded " + artifact.getFullQualifiedName();
+            log.error(msg, e);
+            throw new FileDownloaderServiceException(msg, e);
+        }
+    }
+
+    /**
+     * Resolves the {@link FileMetaEntry} of a remote file from the response of the HEAD request.
+     */
+    public interface FileMetaEntryResolver {
+        FileMetaEntry resolve(URL downloadUrl, Response headResponse) throws FileDownloaderServiceException;
+    }
+
+    private static class RemoteFile {
+        private FileMetaEntry fileMetaEntry;
+        private boolean rangesSupported;
+        private String validator;
+        private String contentMd5;
+        private String md5ETag;
+
+        private boolean isResumable() {
+            return rangesSupported && validator != null;
+        }
+    }
+
+    private static class PartialDownload {
+        private final String artifactHolder;
+        private final Path artifact;
+        private final String validator;
+        private final long size;
+
+        private PartialDownload(String artifactHolder, Path artifact, RemoteFile remoteFile) {
+            this.artifactHolder = artifactHolder;
+            this.artifact = artifact;
+            this.validator = remoteFile.validator;
+            this.size = remoteFile.fileMetaEntry.getSize();
+        }
+
+        private boolean isResumableWith(RemoteFile remoteFile) {
+            return remoteFile.isResumable() && validator.equals(remoteFile.validator)
+                    && size == remoteFile.fileMetaEntry.getSize();
+        }
+    }
+
+    private static class Segment {
+        private final Path part;
+        private final long start;
+        private final long end;
+
+        private Segment(Path part, long start, long end) {
+            this.part = part;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return Length of the segment, or -1 if the size of the remote file is unknown
+         */
+        private long getLength() {
+            return end < 0 ? -1 : end - start + 1;
+        }
+    }
+}
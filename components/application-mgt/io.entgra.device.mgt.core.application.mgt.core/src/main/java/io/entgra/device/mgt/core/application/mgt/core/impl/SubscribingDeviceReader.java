@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.core.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.group.mgt.GroupManagementException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the devices of a subscription in chunks. The devices of subscribed groups are read from the database page
+ * by page after the last device read, hence a group subscription never holds all the devices of the groups in memory.
+ * A device which belongs to more than one of the groups is read only once. Devices resolved up front, i.e. the
+ * devices of users, roles or a device list, are split into chunks of the same size.
+ */
+public class SubscribingDeviceReader {
+
+    /**
+     * Reads a page of the devices of a group, ordered by the device id.
+     */
+    public interface GroupDevicePageReader {
+        List<Device> read(String groupName, int lastDeviceId, int limit) throws GroupManagementException;
+    }
+
+    private final int chunkSize;
+    private final List<Device> devices;
+    private final List<String> groupNames;
+    private final String deviceType;
+    private final GroupDevicePageReader pageReader;
+    private final Set<Integer> readDeviceIds = new HashSet<>();
+    private int deviceIdx;
+    private int groupIdx;
+    private int lastDeviceId;
+
+    private SubscribingDeviceReader(int chunkSize, List<Device> devices, List<String> groupNames, String deviceType,
+                                    GroupDevicePageReader pageReader) {
+        this.chunkSize = chunkSize;
+        this.devices = devices;
+        this.groupNames = groupNames;
+        this.deviceType = deviceType;
+        this.pageReader = pageReader;
+    }
+
+    /**
+     * @param devices   Devices of the subscription
+     * @param chunkSize Maximum number of devices of a chunk
+     * @return Reader of the given devices
+     */
+    public static SubscribingDeviceReader ofDevices(List<Device> devices, int chunkSize) {
+        return new SubscribingDeviceReader(chunkSize, devices, Collections.emptyList(), null, null);
+    }
+
+    /**
+     * @param groupNames Names of the subscribed groups
+     * @param deviceType Device type supported by the application, or null to read the devices of any type
+     * @param pageReader Reader of the pages of the devices of a group
+     * @param chunkSize  Maximum number of devices of a chunk
+     * @return Reader of the devices of the given groups
+     */
+    public static SubscribingDeviceReader ofGroups(List<String> groupNames, String deviceType,
+                                                   GroupDevicePageReader pageReader, int chunkSize) {
+        return new SubscribingDeviceReader(chunkSize, Collections.emptyList(), groupNames, deviceType, pageReader);
+    }
+
+    /**
+     * Read the next chunk of devices.
+     *
+     * @return Devices of the chunk, or an empty list once all the devices are read
+     * @throws GroupManagementException if a page of the devices of a group could not be read
+     */
+    public List<Device> readChunk() throws GroupManagementException {
+        if (deviceIdx < devices.size()) {
+            int from = deviceIdx;
+            deviceIdx = Math.min(from + chunkSize, devices.size());
+            return devices.subList(from, deviceIdx);
+        }
+        List<Device> chunk = new ArrayList<>();
+        while (chunk.size() < chunkSize && groupIdx < groupNames.size()) {
+            int limit = chunkSize - chunk.size();
+            List<Device> page = pageReader.read(groupNames.get(groupIdx), lastDeviceId, limit);
+            for (Device device : page) {
+                lastDeviceId = device.getId();
+                if ((deviceType == null || deviceType.equals(device.getType()))
+                        && readDeviceIds.add(device.getId())) {
+                    chunk.add(device);
+                }
+            }
+            if (page.size() < limit) {
+                groupIdx++;
+                lastDeviceId = 0;
+            }
+        }
+        return chunk;
+    }
+}
@@ -35,6 +35,7 @@ import io.entgra.device.mgt.core.application.mgt.common.ExecutionStatus;
 import io.entgra.device.mgt.core.application.mgt.common.SubAction;
 import io.entgra.device.mgt.core.application.mgt.common.SubscribingDeviceIdHolder;
 import io.entgra.device.mgt.core.application.mgt.common.SubscriptionType;
+import io.entgra.device.mgt.core.application.mgt.common.SubscriptionProgress;
 import io.entgra.device.mgt.core.application.mgt.common.dto.ApplicationReleaseDTO;
 import io.entgra.device.mgt.core.application.mgt.common.dto.ScheduledSubscriptionDTO;
 import io.entgra.device.mgt.core.application.mgt.common.dto.ApplicationDTO;
@@ -129,12 +130,14 @@ import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -144,6 +147,10 @@ import java.util.stream.Collectors;
 public class SubscriptionManagerImpl implements SubscriptionManager {
     AppInstallLogContext.Builder appInstallLogContextBuilder = new AppInstallLogContext.Builder();
     private static final EntgraLogger log = new EntgraAppInstallLoggerImpl(SubscriptionManagerImpl.class);
+    private static final List<String> SUBSCRIBABLE_DEVICE_STATUSES = Collections.unmodifiableList(Arrays.asList(
+            EnrolmentInfo.Status.ACTIVE.toString(), EnrolmentInfo.Status.INACTIVE.toString(),
+            EnrolmentInfo.Status.UNREACHABLE.toString()));
+    private static final Map<String, SubscriptionProgress> subscriptionProgresses = new ConcurrentHashMap<>();
     private SubscriptionDAO subscriptionDAO;
     private ApplicationDAO applicationDAO;
     private VppApplicationDAO vppApplicationDAO;
@@ -178,20 +185,38 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
         validateRequest(params, subType, action);
         //todo validate users, groups and roles
         ApplicationDTO applicationDTO = getApplicationDTO(applicationUUID);
+        boolean isGroupSubscription = SubscriptionType.GROUP.toString().equalsIgnoreCase(subType);
         ApplicationSubscriptionInfo applicationSubscriptionInfo = getAppSubscriptionInfo(applicationDTO, subType,
-                params);
-        performExternalStoreSubscription(applicationDTO, applicationSubscriptionInfo);
+                params, !isGroupSubscription);
+        SubscribingDeviceReader deviceReader;
+        if (isGroupSubscription) {
+            GroupManagementProviderService groupManagementProviderService = HelperUtil
+                    .getGroupManagementProviderService();
+            deviceReader = SubscribingDeviceReader.ofGroups(applicationSubscriptionInfo.getSubscribers(),
+                    applicationSubscriptionInfo.getAppSupportingDeviceTypeName(),
+                    (groupName, lastDeviceId, limit) -> groupManagementProviderService
+                            .getDevicesOfGroup(groupName, SUBSCRIBABLE_DEVICE_STATUSES, lastDeviceId, limit),
+                    Constants.SUBSCRIPTION_DEVICE_CHUNK_SIZE);
+        } else {
+            deviceReader = SubscribingDeviceReader.ofDevices(applicationSubscriptionInfo.getDevices(),
+                    Constants.SUBSCRIPTION_DEVICE_CHUNK_SIZE);
+        }
         ApplicationInstallResponse applicationInstallResponse = performActionOnDevices(
-                applicationSubscriptionInfo.getAppSupportingDeviceTypeName(), applicationSubscriptionInfo.getDevices(),
+                applicationSubscriptionInfo.getAppSupportingDeviceTypeName(), deviceReader, getVppAsset(applicationDTO),
                 applicationDTO, subType, applicationSubscriptionInfo.getSubscribers(), action, properties, isOperationReExecutingDisabled);
 
         applicationInstallResponse.setErrorDeviceIdentifiers(applicationSubscriptionInfo.getErrorDeviceIdentifiers());
         return applicationInstallResponse;
     }
 
-    private void performExternalStoreSubscription(ApplicationDTO applicationDTO,
-                                                  ApplicationSubscriptionInfo
-                                                          applicationSubscriptionInfo) throws ApplicationManagementException {
+    /**
+     * Get the VPP asset of an iOS application.
+     *
+     * @param applicationDTO Application data
+     * @return {@link VppAssetDTO} of the application, or null if the application is not a VPP asset
+     * @throws ApplicationManagementException if error occurred while getting the device type or the VPP asset
+     */
+    private VppAssetDTO getVppAsset(ApplicationDTO applicationDTO) throws ApplicationManagementException {
         try {
             // Only for iOS devices
             int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true);
@@ -201,22 +226,10 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
                         .getDeviceTypeId()).getName())) {
                     // TODO: replace getAssetByAppId with the correct one in DAO
                     // Check if the app trying to subscribe is a VPP asset.
-                    VppAssetDTO storedAsset = vppApplicationDAO.getAssetByAppId(applicationDTO.getId(), tenantId);
-                    if (storedAsset != null) { // This is a VPP asset
-                        List<VppUserDTO> users = new ArrayList<>();
-                        List<Device> devices = applicationSubscriptionInfo.getDevices();// get
-                        // subscribed device list, so that we can extract the users of those devices.
-                        for (Device device : devices) {
-                            VppUserDTO user = vppApplicationDAO.getUserByDMUsername(device.getEnrolmentInfo()
-                                    .getOwner(), PrivilegedCarbonContext.getThreadLocalCarbonContext()
-                                    .getTenantId(true));
-                            users.add(user);
-                        }
-                        VPPApplicationManager vppManager = APIUtil.getVPPManager();
-                        vppManager.addAssociation(storedAsset, users);
-                    }
+                    return vppApplicationDAO.getAssetByAppId(applicationDTO.getId(), tenantId);
                 }
             }
+            return null;
         } catch (BadRequestException e) {
             String msg = "Device Type not found";
             log.error(msg, e);
@@ -225,6 +238,33 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
             String msg = "Unexpected error while getting device type";
             log.error(msg, e);
             throw new ApplicationManagementException(msg, e);
+        } catch (ApplicationManagementDAOException e) {
+            String msg = "Error while getting the VPP asset";
+            log.error(msg, e);
+            throw new ApplicationManagementException(msg, e);
+        }
+    }
+
+    /**
+     * Associate the users of the subscribing devices with a VPP asset.
+     *
+     * @param storedAsset VPP asset of the application
+     * @param devices     Subscribing devices
+     * @throws ApplicationManagementException if error occurred while getting the users or associating them
+     */
+    private void performExternalStoreSubscription(VppAssetDTO storedAsset, List<Device> devices)
+            throws ApplicationManagementException {
+        try {
+            List<VppUserDTO> users = new ArrayList<>();
+            // Extract the users of the subscribed devices
+            for (Device device : devices) {
+                VppUserDTO user = vppApplicationDAO.getUserByDMUsername(device.getEnrolmentInfo()
+                        .getOwner(), PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                        .getTenantId(true));
+                users.add(user);
+            }
+            VPPApplicationManager vppManager = APIUtil.getVPPManager();
+            vppManager.addAssociation(storedAsset, users);
         } catch (ApplicationManagementDAOException e) {
             String msg = "Error while getting the device user";
             log.error(msg, e);
@@ -234,7 +274,6 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
             log.error(msg, e);
             throw new ApplicationManagementException(msg, e);
         }
-
     }
 
     @Override
@@ -413,7 +452,7 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
         List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
 
         ApplicationSubscriptionInfo applicationSubscriptionInfo = getAppSubscriptionInfo(applicationDTO, subType,
-                params);
+                params, true);
         applicationSubscriptionInfo.getDevices().forEach(device -> {
             DeviceIdentifier deviceIdentifier = new DeviceIdentifier();
             deviceIdentifier.setId(device.getDeviceIdentifier());
@@ -521,12 +560,14 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
      *                       to DEVICE or
      *                       {@link String} if {@param subType} is USER, ROLE or GROUP
      * @param subType        subscription type. E.g. <code>DEVICE, USER, ROLE, GROUP</code> {@see {
+     * @param loadGroupDevices false to skip loading the devices of GROUP subscribers, which are then read page by
+     *                         page through {@link SubscribingDeviceReader}
      * @param <T>            generic type of the method.
      * @return {@link ApplicationSubscriptionInfo}
      * @throws ApplicationManagementException if error occurred while getting Application subscription info
      */
     private <T> ApplicationSubscriptionInfo getAppSubscriptionInfo(ApplicationDTO applicationDTO, String subType,
-            List<T> params) throws ApplicationManagementException {
+            List<T> params, boolean loadGroupDevices) throws ApplicationManagementException {
 
         DeviceManagementProviderService deviceManagementProviderService = HelperUtil
                 .getDeviceManagementProviderService();
@@ -536,11 +577,6 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
         List<DeviceIdentifier> errorDeviceIdentifiers = new ArrayList<>();
         String deviceTypeName = null;
 
-        List<String> allowingDeviceStatuses = new ArrayList<>();
-        allowingDeviceStatuses.add(EnrolmentInfo.Status.ACTIVE.toString());
-        allowingDeviceStatuses.add(EnrolmentInfo.Status.INACTIVE.toString());
-        allowingDeviceStatuses.add(EnrolmentInfo.Status.UNREACHABLE.toString());
-
         try {
             if (!ApplicationType.WEB_CLIP.toString().equals(applicationDTO.getType())) {
                 deviceTypeName = APIUtil.getDeviceTypeData(applicationDTO.getDeviceTypeId()).getName();
@@ -573,7 +609,7 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
                         String username = (String) param;
                         subscribers.add(username);
                         devices.addAll(deviceManagementProviderService.getDevicesOfUser(username,
-                                allowingDeviceStatuses, false  ));
+                                SUBSCRIBABLE_DEVICE_STATUSES, false  ));
                     }
                 } else {
                     if (SubscriptionType.ROLE.toString().equalsIgnoreCase(subType)) {
@@ -581,15 +617,17 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
                             String roleName = (String) param;
                             subscribers.add(roleName);
                             devices.addAll(deviceManagementProviderService
-                                    .getAllDevicesOfRole(roleName, allowingDeviceStatuses, false));
+                                    .getAllDevicesOfRole(roleName, SUBSCRIBABLE_DEVICE_STATUSES, false));
                         }
                     } else {
                         if (SubscriptionType.GROUP.toString().equalsIgnoreCase(subType)) {
                             for (T param : params) {
                                 String groupName = (String) param;
                                 subscribers.add(groupName);
-                                devices.addAll(groupManagementProviderService.getAllDevicesOfGroup(groupName,
-                                        allowingDeviceStatuses, true));
+                                if (loadGroupDevices) {
+                                    devices.addAll(groupManagementProviderService.getAllDevicesOfGroup(groupName,
+                                            SUBSCRIBABLE_DEVICE_STATUSES, true));
+                                }
                             }
                         } else {
                             String msg =
@@ -708,29 +746,16 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
     }
 
     /**
-     * Validates if all devices in the subscription have pending operations for the application.
-     *
-     * @param devices List of {@link Device}
-     * @param subscribingDeviceIdHolder Subscribing device id holder.
-     * @throws BadRequestException if incompatible data is found with validate pending app operations request
-     */
-    private <T> void validatePendingAppSubscription(List<Device> devices, SubscribingDeviceIdHolder subscribingDeviceIdHolder) throws BadRequestException{
-        Set<DeviceIdentifier> deviceIdentifiers = devices.stream()
-            .map(device -> new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()))
-            .collect(Collectors.toSet());
-        Set<DeviceIdentifier> skippedDevices = subscribingDeviceIdHolder.getSkippedDevices().keySet();
-        if (skippedDevices.containsAll(deviceIdentifiers) && deviceIdentifiers.containsAll(skippedDevices)) {
-            String msg = "All devices in the subscription have pending operations for this application.";
-            log.error(msg);
-            throw new BadRequestException(msg);
-        }
-    }
-
-    /**
-     * This method perform given action (i.e APP INSTALL or APP UNINSTALL) on given set of devices.
+     * This method perform given action (i.e APP INSTALL or APP UNINSTALL) on the devices of the given reader. Devices
+     * are read in chunks of {@link Constants#SUBSCRIPTION_DEVICE_CHUNK_SIZE}, and each chunk is classified against
+     * the existing device subscriptions, gets its own operation and commits its subscription data separately. Since
+     * devices which already have a pending subscription are skipped, re-executing a partially processed request
+     * continues from the devices that were not processed. The progress is published after each chunk and can be
+     * retrieved through {@link #getSubscriptionProgress(String)}.
      *
      * @param deviceType     Application supported device type.
-     * @param devices        List of devices that action is triggered.
+     * @param deviceReader   Reader of the devices that action is triggered.
+     * @param vppAsset       VPP asset of the application, or null if the application is not a VPP asset
      * @param applicationDTO Application data
      * @param subType        Subscription type (i.e USER, ROLE, GROUP or DEVICE)
      * @param subscribers    Subscribers
@@ -738,109 +763,176 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
      * @param isOperationReExecutingDisabled To prevent adding the application subscribing operation to devices that are
      *                                      already subscribed application successfully.
      * @return {@link ApplicationInstallResponse}
-     * @throws ApplicationManagementException if error occurred when adding operation on device or updating subscription
-     *                                        data.
+     * @throws ApplicationManagementException if error occurred when reading devices, adding operation on device or
+     *                                        updating subscription data.
      */
-    private ApplicationInstallResponse performActionOnDevices(String deviceType, List<Device> devices,
-                                                              ApplicationDTO applicationDTO, String subType,
-                                                              List<String> subscribers, String action,
+    private ApplicationInstallResponse performActionOnDevices(String deviceType, SubscribingDeviceReader deviceReader,
+                                                              VppAssetDTO vppAsset, ApplicationDTO applicationDTO,
+                                                              String subType, List<String> subscribers, String action,
                                                               Properties properties,
                                                               boolean isOperationReExecutingDisabled)
             throws ApplicationManagementException {
+        if (!SubAction.INSTALL.toString().equalsIgnoreCase(action)
+                && !SubAction.UNINSTALL.toString().equalsIgnoreCase(action)) {
+            String msg = "Found invalid Action: " + action + ". Hence, terminating the application subscribing.";
+            log.error(msg);
+            throw new ApplicationManagementException(msg);
+        }
         String username = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
         String tenantId = String.valueOf(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
         String tenantDomain = String.valueOf(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain());
-        //Get app subscribing info of each device
-        SubscribingDeviceIdHolder subscribingDeviceIdHolder = getSubscribingDeviceIdHolder(devices,
-                applicationDTO.getApplicationReleaseDTOs().get(0).getId());
+        int applicationReleaseId = applicationDTO.getApplicationReleaseDTOs().get(0).getId();
+        String applicationUUID = applicationDTO.getApplicationReleaseDTOs().get(0).getUuid();
+        String progressKey = tenantId + ":" + applicationUUID;
+        long startedAt = System.currentTimeMillis();
 
         List<Activity> activityList = new ArrayList<>();
-        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
         List<DeviceIdentifier> ignoredDeviceIdentifiers = new ArrayList<>();
-        Map<String, List<DeviceIdentifier>> deviceIdentifierMap = new HashMap<>();
-
-        if (SubAction.INSTALL.toString().equalsIgnoreCase(action)) {
-            validatePendingAppSubscription(devices, subscribingDeviceIdHolder);
-            deviceIdentifiers.addAll(new ArrayList<>(subscribingDeviceIdHolder.getAppInstallableDevices().keySet()));
-            deviceIdentifiers.addAll(new ArrayList<>(subscribingDeviceIdHolder.getAppReInstallableDevices().keySet()));
-            if (!isOperationReExecutingDisabled) {
-                deviceIdentifiers.addAll(new ArrayList<>(subscribingDeviceIdHolder.getAppInstalledDevices().keySet()));
-            }
-        } else if (SubAction.UNINSTALL.toString().equalsIgnoreCase(action)) {
-            deviceIdentifiers.addAll(new ArrayList<>(subscribingDeviceIdHolder.getAppInstalledDevices().keySet()));
-            deviceIdentifiers
-                    .addAll(new ArrayList<>(subscribingDeviceIdHolder.getAppReUnInstallableDevices().keySet()));
-            ignoredDeviceIdentifiers
-                    .addAll(new ArrayList<>(subscribingDeviceIdHolder.getAppInstallableDevices().keySet()));
-        } else {
-            String msg = "Found invalid Action: " + action + ". Hence, terminating the application subscribing.";
-            log.error(msg);
-            throw new ApplicationManagementException(msg);
-        }
+        int skippedDeviceCount = 0;
+        int processedDeviceCount = 0;
+        int triggeredDeviceCount = 0;
+        int chunkCount = 0;
+        boolean isSubscribersUpdated = false;
+        publishSubscriptionProgress(progressKey, applicationUUID, action, subType, ExecutionStatus.PENDING,
+                chunkCount, processedDeviceCount, triggeredDeviceCount, skippedDeviceCount, startedAt);
 
-        if (deviceIdentifiers.isEmpty()) {
-            ApplicationInstallResponse applicationInstallResponse = new ApplicationInstallResponse();
-            applicationInstallResponse.setIgnoredDeviceIdentifiers(ignoredDeviceIdentifiers);
-            return applicationInstallResponse;
-        }
+        try {
+            List<Device> deviceChunk;
+            while (!(deviceChunk = readDeviceChunk(deviceReader)).isEmpty()) {
+                chunkCount++;
+                if (vppAsset != null) {
+                    performExternalStoreSubscription(vppAsset, deviceChunk);
+                }
+                //Get app subscribing info of each device of the chunk
+                SubscribingDeviceIdHolder subscribingDeviceIdHolder = getSubscribingDeviceIdHolder(deviceChunk,
+                        applicationReleaseId);
+                skippedDeviceCount += subscribingDeviceIdHolder.getSkippedDevices().size();
+                processedDeviceCount += deviceChunk.size();
 
-        //device type is getting null when we try to perform action on Web Clip.
-        if (deviceType == null) {
-            for (DeviceIdentifier identifier : deviceIdentifiers) {
-                List<DeviceIdentifier> identifiers;
-                if (!deviceIdentifierMap.containsKey(identifier.getType())) {
-                    identifiers = new ArrayList<>();
+                List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+                if (SubAction.INSTALL.toString().equalsIgnoreCase(action)) {
+                    deviceIdentifiers.addAll(subscribingDeviceIdHolder.getAppInstallableDevices().keySet());
+                    deviceIdentifiers.addAll(subscribingDeviceIdHolder.getAppReInstallableDevices().keySet());
+                    if (!isOperationReExecutingDisabled) {
+                        deviceIdentifiers.addAll(subscribingDeviceIdHolder.getAppInstalledDevices().keySet());
+                    }
                 } else {
-                    identifiers = deviceIdentifierMap.get(identifier.getType());
+                    deviceIdentifiers.addAll(subscribingDeviceIdHolder.getAppInstalledDevices().keySet());
+                    deviceIdentifiers.addAll(subscribingDeviceIdHolder.getAppReUnInstallableDevices().keySet());
+                    ignoredDeviceIdentifiers.addAll(subscribingDeviceIdHolder.getAppInstallableDevices().keySet());
                 }
-                identifiers.add(identifier);
-                deviceIdentifierMap.put(identifier.getType(), identifiers);
-            }
-            for (Map.Entry<String, List<DeviceIdentifier>> entry : deviceIdentifierMap.entrySet()) {
-                Activity activity = addAppOperationOnDevices(applicationDTO, new ArrayList<>(entry.getValue()),
-                        entry.getKey(), action, properties);
-                activityList.add(activity);
-                for (DeviceIdentifier identifier : deviceIdentifiers) {
-                    log.info(String.format("Web app %s triggered", action), appInstallLogContextBuilder
+                if (!deviceIdentifiers.isEmpty()) {
+                    List<Activity> chunkActivities = new ArrayList<>();
+                    //device type is getting null when we try to perform action on Web Clip.
+                    if (deviceType == null) {
+                        Map<String, List<DeviceIdentifier>> deviceIdentifierMap = deviceIdentifiers.stream()
+                                .collect(Collectors.groupingBy(DeviceIdentifier::getType));
+                        for (Map.Entry<String, List<DeviceIdentifier>> entry : deviceIdentifierMap.entrySet()) {
+                            chunkActivities.add(addAppOperationOnDevices(applicationDTO, entry.getValue(),
+                                    entry.getKey(), action, properties));
+                        }
+                    } else {
+                        chunkActivities.add(addAppOperationOnDevices(applicationDTO, deviceIdentifiers, deviceType,
+                                action, properties));
+                    }
+                    updateSubscriptions(applicationReleaseId, chunkActivities, subscribingDeviceIdHolder,
+                            subscribers, subType, action, !isSubscribersUpdated);
+                    isSubscribersUpdated = true;
+                    activityList.addAll(chunkActivities);
+                    triggeredDeviceCount += deviceIdentifiers.size();
+
+                    log.info(String.format("%s %s triggered on %d devices of chunk %d, %d devices processed",
+                            deviceType == null ? "Web app" : "App", action, deviceIdentifiers.size(), chunkCount,
+                            processedDeviceCount), appInstallLogContextBuilder
                             .setAppId(String.valueOf(applicationDTO.getId()))
                             .setAppName(applicationDTO.getName())
                             .setAppType(applicationDTO.getType())
                             .setSubType(subType)
                             .setTenantId(tenantId)
                             .setTenantDomain(tenantDomain)
-                            .setDevice(String.valueOf(identifier))
                             .setUserName(username)
                             .setAction(action)
                             .build());
                 }
+                publishSubscriptionProgress(progressKey, applicationUUID, action, subType, ExecutionStatus.PENDING,
+                        chunkCount, processedDeviceCount, triggeredDeviceCount, skippedDeviceCount, startedAt);
             }
-        } else {
-            Activity activity = addAppOperationOnDevices(applicationDTO, deviceIdentifiers, deviceType, action, properties);
-            activityList.add(activity);
-            for (DeviceIdentifier identifier : deviceIdentifiers) {
-                log.info(String.format("App %s triggered", action), appInstallLogContextBuilder
-                        .setAppId(String.valueOf(applicationDTO.getId()))
-                        .setAppName(applicationDTO.getName())
-                        .setAppType(applicationDTO.getType())
-                        .setSubType(subType)
-                        .setTenantId(tenantId)
-                        .setTenantDomain(tenantDomain)
-                        .setDevice(String.valueOf(identifier))
-                        .setUserName(username)
-                        .setAction(action)
-                        .build());
+
+            if (SubAction.INSTALL.toString().equalsIgnoreCase(action) && skippedDeviceCount == processedDeviceCount) {
+                String msg = "All devices in the subscription have pending operations for this application.";
+                log.error(msg);
+                throw new BadRequestException(msg);
             }
+        } catch (ApplicationManagementException | RuntimeException e) {
+            publishSubscriptionProgress(progressKey, applicationUUID, action, subType, ExecutionStatus.FAILED,
+                    chunkCount, processedDeviceCount, triggeredDeviceCount, skippedDeviceCount, startedAt);
+            throw e;
         }
+        publishSubscriptionProgress(progressKey, applicationUUID, action, subType, ExecutionStatus.EXECUTED,
+                chunkCount, processedDeviceCount, triggeredDeviceCount, skippedDeviceCount, startedAt);
 
         ApplicationInstallResponse applicationInstallResponse = new ApplicationInstallResponse();
         applicationInstallResponse.setActivities(activityList);
         applicationInstallResponse.setIgnoredDeviceIdentifiers(ignoredDeviceIdentifiers);
-
-        updateSubscriptions(applicationDTO.getApplicationReleaseDTOs().get(0).getId(), activityList,
-                subscribingDeviceIdHolder, subscribers, subType, action);
         return applicationInstallResponse;
     }
 
+    /**
+     * Read the next chunk of subscribing devices.
+     *
+     * @param deviceReader Reader of the subscribing devices
+     * @return Devices of the chunk, or an empty list once all the devices are read
+     * @throws ApplicationManagementException if error occurred while reading the devices of a group
+     */
+    private List<Device> readDeviceChunk(SubscribingDeviceReader deviceReader) throws ApplicationManagementException {
+        try {
+            return deviceReader.readChunk();
+        } catch (GroupManagementException e) {
+            String msg = "Error occurred while getting devices of given groups";
+            log.error(msg, e);
+            throw new ApplicationManagementException(msg, e);
+        }
+    }
+
+    /**
+     * Publish the progress of a bulk subscription. A new {@link SubscriptionProgress} is published each time, hence
+     * a published progress is never modified after it is visible to the readers. Once a subscription is finished, the
+     * progresses which are not updated within {@link Constants#SUBSCRIPTION_PROGRESS_RETENTION_MILLS} are evicted,
+     * so that the progresses of the application releases subscribed since the node is started are not kept forever.
+     */
+    private void publishSubscriptionProgress(String progressKey, String applicationUUID, String action,
+                                             String subType, ExecutionStatus status, int processedChunkCount,
+                                             int processedDeviceCount, int triggeredDeviceCount,
+                                             int skippedDeviceCount, long startedAt) {
+        SubscriptionProgress subscriptionProgress = new SubscriptionProgress();
+        subscriptionProgress.setApplicationUUID(applicationUUID);
+        subscriptionProgress.setAction(action);
+        subscriptionProgress.setSubType(subType);
+        subscriptionProgress.setStatus(status);
+        subscriptionProgress.setProcessedChunkCount(processedChunkCount);
+        subscriptionProgress.setProcessedDeviceCount(processedDeviceCount);
+        subscriptionProgress.setTriggeredDeviceCount(triggeredDeviceCount);
+        subscriptionProgress.setSkippedDeviceCount(skippedDeviceCount);
+        subscriptionProgress.setStartedAt(startedAt);
+        subscriptionProgress.setUpdatedAt(System.currentTimeMillis());
+        subscriptionProgresses.put(progressKey, subscriptionProgress);
+        if (status != ExecutionStatus.PENDING) {
+            long retainedFrom = subscriptionProgress.getUpdatedAt() - Constants.SUBSCRIPTION_PROGRESS_RETENTION_MILLS;
+            subscriptionProgresses.values().removeIf(progress -> progress.getUpdatedAt() < retainedFrom);
+        }
+    }
+
+    @Override
+    public SubscriptionProgress getSubscriptionProgress(String applicationUUID) {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        SubscriptionProgress subscriptionProgress = subscriptionProgresses.get(tenantId + ":" + applicationUUID);
+        if (subscriptionProgress == null || subscriptionProgress.getUpdatedAt()
+                < System.currentTimeMillis() - Constants.SUBSCRIPTION_PROGRESS_RETENTION_MILLS) {
+            return null;
+        }
+        return subscriptionProgress;
+    }
+
     /**
      * Filter given devices and davide given list of device into two sets, those are already application installed
      * devices and application installable devices.
@@ -973,16 +1065,20 @@ public class SubscriptionManagerImpl implements SubscriptionManager {
      *                                  {@link String}
      * @param subType                   Subscription type. i.e USER, GROUP, ROLE or DEVICE
      * @param action                    performing action. ie INSTALL or UNINSTALL>
+     * @param isBulkSubscribersUpdatable Whether to update the subscribers as well. Subscribers are updated only with
+     *                                   the first chunk of devices of a subscription.
      * @throws ApplicationManagementException if error occurred while getting or updating subscription data.
      */
     private void updateSubscriptions(int applicationReleaseId, List<Activity> activities,
-            SubscribingDeviceIdHolder subscribingDeviceIdHolder, List<String> params, String subType, String action)
-            throws ApplicationManagementException {
+            SubscribingDeviceIdHolder subscribingDeviceIdHolder, List<String> params, String subType, String action,
+            boolean isBulkSubscribersUpdatable) throws ApplicationManagementException {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true);
         String username = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
         try {
             ConnectionManagerUtil.beginDBTransaction();
-            updateBulkSubscribers(applicationReleaseId, params, subType, action, tenantId, username);
+            if (isBulkSubscribersUpdatable) {
+                updateBulkSubscribers(applicationReleaseId, params, subType, action, tenantId, username);
+            }
             for (Activity activity : activities) {
                 int operationId = Integer.parseInt(activity.getActivityId().split("ACTIVITY_")[1]);
                 List<Integer> subUpdatingDeviceIds = new ArrayList<>();
@@ -77,6 +77,9 @@ public class Constants {
     public static final String APPLE_STORE_URL = "https://itunes.apple.com/country/app/app-name/id";
     public static final String MICROSOFT_STORE_URL = "https://apps.microsoft.com/detail/";
     public static final String GOOGLE_PLAY_SYNCED_APP = "GooglePlaySyncedApp";
+    public static final int SUBSCRIPTION_DEVICE_CHUNK_SIZE = 1000;
+    public static final long SUBSCRIPTION_PROGRESS_RETENTION_MILLS = 60 * 60 * 1000L;
+    public static final int ARTIFACT_CHANNEL_CACHE_SIZE = 32;
 
     // Subscription task related constants
     public static final String SUBSCRIBERS = "SUBSCRIBERS";
@@ -27,6 +27,7 @@ import io.entgra.device.mgt.core.application.mgt.common.exception.ApplicationSto
 import io.entgra.device.mgt.core.application.mgt.core.exception.FileTransferServiceHelperUtilException;
 import io.entgra.device.mgt.core.application.mgt.core.internal.DataHolder;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.NotFoundException;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -34,6 +35,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -47,10 +50,19 @@ public class FileTransferServiceHelperUtil {
     private static final String ROOT = "iot-artifact-holder";
     private static final String SYSTEM_PROPERTY_TEMP_DIR = "java.io.tmpdir";
     private static final String META_ENTRY_FILE_NAME = ".meta.json";
+    private static final int CHUNK_BUFFER_SIZE = 64 * 1024;
     private static final Gson gson = new Gson();
+
+    /**
+     * @return Root directory of the artifact holders
+     */
+    public static Path getArtifactRoot() {
+        return Paths.get(System.getProperty(SYSTEM_PROPERTY_TEMP_DIR), ROOT);
+    }
+
     public static void createDefaultRootStructure() throws FileTransferServiceHelperUtilException {
         try {
-            Path root = Paths.get(System.getProperty(SYSTEM_PROPERTY_TEMP_DIR), ROOT);
+            Path root = getArtifactRoot();
             if (Files.notExists(root)) {
                 setMinimumPermissions(Files.createDirectory(root));
             }
@@ -151,11 +163,13 @@ public class FileTransferServiceHelperUtil {
             throw new FileTransferServiceHelperUtilException("Target file descriptor is missing for retrieved chunk");
         }
         Path artifact = Paths.get(fileDescriptor.getAbsolutePath());
-        try {
-            InputStream chuckStream = chunkDescriptor.getChunk();
-            byte []chunk = new byte[chuckStream.available()];
-            chuckStream.read(chunk);
-            Files.write(artifact, chunk, StandardOpenOption.CREATE, StandardOpenOption.SYNC, StandardOpenOption.APPEND);
+        // Chunk is streamed to the artifact since available() doesn't give the full length of a network or a large
+        // file stream, and the artifact is synced once the whole chunk is written.
+        try (FileChannel artifactChannel = FileChannel.open(artifact, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            IOUtils.copyLarge(chunkDescriptor.getChunk(), Channels.newOutputStream(artifactChannel),
+                    new byte[CHUNK_BUFFER_SIZE]);
+            artifactChannel.force(true);
         } catch (IOException e) {
             String msg = "Error encountered while writing to the " + artifact;
             log.error(msg, e);
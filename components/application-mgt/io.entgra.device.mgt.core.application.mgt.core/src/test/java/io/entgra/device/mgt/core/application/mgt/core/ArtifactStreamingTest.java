@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.core;
+
+import io.entgra.device.mgt.core.application.mgt.common.ArtifactDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.ByteRange;
+import io.entgra.device.mgt.core.application.mgt.common.exception.ApplicationStorageManagementException;
+import io.entgra.device.mgt.core.application.mgt.core.impl.ApplicationStorageManagerImpl;
+import io.entgra.device.mgt.core.device.mgt.core.common.util.StorageManagementUtil;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class ArtifactStreamingTest {
+    private static final String STORAGE_PATH = "src/test/resources/util/artifact-temp/";
+    private static final String APK_FILE = "src/test/resources/util/app-debug.apk";
+    private static final String APP_HASH_VALUE = "a1b2c3d4";
+    private static final String FOLDER_NAME = "installer";
+    private static final String FILE_NAME = "app-debug.apk";
+    private static final int TENANT_ID = -1234;
+
+    private ApplicationStorageManagerImpl applicationStorageManager;
+    private byte[] artifact;
+
+    @BeforeClass
+    public void init() throws IOException {
+        Path artifactPath = Paths.get(STORAGE_PATH + TENANT_ID, APP_HASH_VALUE, FOLDER_NAME, FILE_NAME);
+        Files.createDirectories(artifactPath.getParent());
+        Files.copy(Paths.get(APK_FILE), artifactPath);
+        artifact = Files.readAllBytes(artifactPath);
+        applicationStorageManager = new ApplicationStorageManagerImpl(STORAGE_PATH, "6");
+    }
+
+    @Test
+    public void testGetArtifactDescriptor() throws ApplicationStorageManagementException {
+        ArtifactDescriptor artifactDescriptor = getArtifactDescriptor();
+        Assert.assertNotNull(artifactDescriptor);
+        Assert.assertEquals(artifactDescriptor.getLength(), artifact.length);
+        Assert.assertTrue(artifactDescriptor.getETag().startsWith("\"" + APP_HASH_VALUE + "-"));
+        Assert.assertTrue(artifactDescriptor.isETagMatched("\"other\", " + artifactDescriptor.getETag()));
+        Assert.assertTrue(artifactDescriptor.isETagMatched("*"));
+        Assert.assertFalse(artifactDescriptor.isETagMatched("\"other\""));
+        Assert.assertNull(applicationStorageManager
+                .getArtifactDescriptor(APP_HASH_VALUE, FOLDER_NAME, "missing.apk", TENANT_ID));
+    }
+
+    @Test
+    public void testTransferWholeArtifact() throws ApplicationStorageManagementException {
+        Assert.assertEquals(transfer(null), artifact);
+    }
+
+    @Test
+    public void testTransferByteRanges() throws ApplicationStorageManagementException {
+        ByteRange range = ByteRange.parse("bytes=10-19", artifact.length);
+        Assert.assertTrue(range.isSatisfiable());
+        Assert.assertTrue(range.isPartial());
+        Assert.assertEquals(range.toContentRange(), "bytes 10-19/" + artifact.length);
+        Assert.assertEquals(transfer(range), Arrays.copyOfRange(artifact, 10, 20));
+
+        range = ByteRange.parse("bytes=-5", artifact.length);
+        Assert.assertEquals(transfer(range), Arrays.copyOfRange(artifact, artifact.length - 5, artifact.length));
+
+        range = ByteRange.parse("bytes=100-", artifact.length);
+        Assert.assertEquals(transfer(range), Arrays.copyOfRange(artifact, 100, artifact.length));
+
+        range = ByteRange.parse("bytes=0-" + (artifact.length + 100), artifact.length);
+        Assert.assertFalse(range.isPartial());
+        Assert.assertEquals(transfer(range), artifact);
+    }
+
+    @Test
+    public void testUnsupportedByteRanges() {
+        Assert.assertNull(ByteRange.parse(null, artifact.length));
+        Assert.assertNull(ByteRange.parse("items=0-10", artifact.length));
+        Assert.assertNull(ByteRange.parse("bytes=0-10,20-30", artifact.length));
+        Assert.assertNull(ByteRange.parse("bytes=20-10", artifact.length));
+        Assert.assertNull(ByteRange.parse("bytes=a-b", artifact.length));
+
+        ByteRange range = ByteRange.parse("bytes=" + artifact.length + "-", artifact.length);
+        Assert.assertFalse(range.isSatisfiable());
+        Assert.assertEquals(range.toContentRange(), "bytes */" + artifact.length);
+    }
+
+    @Test(expectedExceptions = ApplicationStorageManagementException.class)
+    public void testTransferModifiedArtifact() throws ApplicationStorageManagementException {
+        ArtifactDescriptor artifactDescriptor = getArtifactDescriptor();
+        artifactDescriptor.setLastModified(artifactDescriptor.getLastModified() - 1000);
+        applicationStorageManager.transferArtifact(artifactDescriptor, null,
+                Channels.newChannel(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testTransferAfterInterruptedTransfer() throws ApplicationStorageManagementException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        WritableByteChannel interruptingChannel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                byte[] bytes = new byte[src.remaining()];
+                src.get(bytes);
+                outputStream.write(bytes, 0, bytes.length);
+                Thread.currentThread().interrupt();
+                return bytes.length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try {
+            applicationStorageManager.transferArtifact(getArtifactDescriptor(), null, interruptingChannel);
+            Assert.fail("Interrupted transfer is expected to fail.");
+        } catch (ApplicationStorageManagementException e) {
+            // The interrupt closes the cached channel shared with the other transfers of the artifact
+        } finally {
+            Thread.interrupted();
+        }
+        Assert.assertEquals(transfer(null), artifact);
+    }
+
+    @AfterClass
+    public void cleanup() throws IOException {
+        StorageManagementUtil.delete(new File(STORAGE_PATH));
+    }
+
+    private ArtifactDescriptor getArtifactDescriptor() throws ApplicationStorageManagementException {
+        return applicationStorageManager.getArtifactDescriptor(APP_HASH_VALUE, FOLDER_NAME, FILE_NAME, TENANT_ID);
+    }
+
+    private byte[] transfer(ByteRange range) throws ApplicationStorageManagementException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        long transferred = applicationStorageManager.transferArtifact(getArtifactDescriptor(), range,
+                Channels.newChannel(outputStream));
+        Assert.assertEquals(transferred, outputStream.size());
+        return outputStream.toByteArray();
+    }
+}
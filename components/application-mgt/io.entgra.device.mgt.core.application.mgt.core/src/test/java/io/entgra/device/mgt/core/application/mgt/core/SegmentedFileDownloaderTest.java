@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.core;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.entgra.device.mgt.core.application.mgt.common.FileDescriptor;
+import io.entgra.device.mgt.core.application.mgt.common.FileMetaEntry;
+import io.entgra.device.mgt.core.application.mgt.common.exception.FileDownloaderServiceException;
+import io.entgra.device.mgt.core.application.mgt.common.exception.FileTransferServiceException;
+import io.entgra.device.mgt.core.application.mgt.core.impl.FileTransferServiceImpl;
+import io.entgra.device.mgt.core.application.mgt.core.impl.SegmentedFileDownloader;
+import io.entgra.device.mgt.core.application.mgt.core.util.FileTransferServiceHelperUtil;
+import okhttp3.OkHttpClient;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Tests {@link SegmentedFileDownloader} against a local HTTP server which stands in for a remote artifact source.
+ */
+public class SegmentedFileDownloaderTest {
+    private static final int ARTIFACT_SIZE = 9 * 1024 * 1024 + 123;
+    private static final String DEFAULT_ETAG = "\"artifact-v1\"";
+
+    private final byte[] artifact = new byte[ARTIFACT_SIZE];
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean failNextRange = new AtomicBoolean();
+    private volatile String contentMd5;
+    private volatile String eTag;
+    private HttpServer server;
+    private SegmentedFileDownloader segmentedFileDownloader;
+
+    @BeforeClass
+    public void init() throws IOException, FileTransferServiceException {
+        new Random(7).nextBytes(artifact);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ranged/", exchange -> serve(exchange, true));
+        server.createContext("/plain/", exchange -> serve(exchange, false));
+        server.start();
+        OkHttpClient httpClient = new OkHttpClient();
+        segmentedFileDownloader = new SegmentedFileDownloader(httpClient, FileTransferServiceImpl.getInstance(),
+                (downloadUrl, response) -> {
+                    FileMetaEntry fileMetaEntry = new FileMetaEntry();
+                    fileMetaEntry.setFileName("artifact");
+                    fileMetaEntry.setExtension("apk");
+                    fileMetaEntry.setSize(Long.parseLong(response.header("Content-Length")));
+                    return fileMetaEntry;
+                }, 4);
+    }
+
+    @BeforeMethod
+    public void reset() {
+        ranges.clear();
+        failNextRange.set(false);
+        contentMd5 = null;
+        eTag = DEFAULT_ETAG;
+    }
+
+    @Test
+    public void testSegmentedDownload() throws Exception {
+        FileDescriptor fileDescriptor = segmentedFileDownloader.download(getUrl("ranged"));
+        Assert.assertEquals(ranges.size(), 2, "Artifact is expected to be downloaded as two segments");
+        assertDownloaded(fileDescriptor);
+    }
+
+    @Test
+    public void testDownloadWithoutRanges() throws Exception {
+        FileDescriptor fileDescriptor = segmentedFileDownloader.download(getUrl("plain"));
+        Assert.assertTrue(ranges.isEmpty());
+        assertDownloaded(fileDescriptor);
+    }
+
+    @Test
+    public void testResumeInterruptedSegment() throws Exception {
+        failNextRange.set(true);
+        FileDescriptor fileDescriptor = segmentedFileDownloader.download(getUrl("ranged"));
+        Assert.assertEquals(ranges.size(), 3, "Interrupted segment is expected to be requested again");
+        long resumedFrom = ranges.stream().mapToLong(range -> Long.parseLong(range.substring(6, range.indexOf('-'))))
+                .filter(start -> start != 0 && start != (ARTIFACT_SIZE + 1) / 2).findFirst().orElse(-1);
+        Assert.assertTrue(resumedFrom > 0, "Interrupted segment is expected to be resumed from the received bytes");
+        assertDownloaded(fileDescriptor);
+    }
+
+    @Test
+    public void testVerifyContentMd5() throws Exception {
+        contentMd5 = Base64.encodeBase64String(DigestUtils.md5(artifact));
+        assertDownloaded(segmentedFileDownloader.download(getUrl("ranged")));
+    }
+
+    @Test
+    public void testContentMd5Mismatch() throws Exception {
+        contentMd5 = Base64.encodeBase64String(DigestUtils.md5("other".getBytes()));
+        assertDownloadFails(getUrl("plain"));
+    }
+
+    @Test
+    public void testVerifyMd5ETag() throws Exception {
+        eTag = "\"" + DigestUtils.md5Hex(artifact) + "\"";
+        assertDownloaded(segmentedFileDownloader.download(getUrl("ranged")));
+    }
+
+    @Test
+    public void testMd5ETagMismatch() throws Exception {
+        eTag = "\"" + DigestUtils.md5Hex("other".getBytes()) + "\"";
+        assertDownloadFails(getUrl("ranged"));
+    }
+
+    @Test
+    public void testRemoveOrphanedPartFiles() throws Exception {
+        Path artifactRoot = FileTransferServiceHelperUtil.getArtifactRoot();
+        Path artifactHolder = Files.createDirectories(artifactRoot.resolve(UUID.randomUUID().toString()));
+        Path artifactFile = Files.write(artifactHolder.resolve("artifact.apk"), new byte[0]);
+        Files.write(artifactHolder.resolve("artifact.apk.part0"), artifact);
+        Files.write(artifactHolder.resolve("artifact.apk.part1"), artifact);
+
+        segmentedFileDownloader.removeOrphanedPartFiles(artifactRoot);
+
+        Assert.assertEquals(countPartFiles(), 0, "Orphaned part files are expected to be removed");
+        Assert.assertTrue(Files.exists(artifactFile), "Artifact is not expected to be removed");
+    }
+
+    @AfterClass
+    public void cleanup() {
+        server.stop(0);
+    }
+
+    private URL getUrl(String context) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/" + context + "/artifact.apk");
+    }
+
+    private void assertDownloaded(FileDescriptor fileDescriptor) throws IOException {
+        fileDescriptor.getFile().close();
+        Assert.assertEquals(Files.readAllBytes(Paths.get(fileDescriptor.getAbsolutePath())), artifact);
+    }
+
+    private void assertDownloadFails(URL downloadUrl) throws IOException {
+        try {
+            segmentedFileDownloader.download(downloadUrl);
+            Assert.fail("Download of a corrupted artifact is expected to fail");
+        } catch (FileDownloaderServiceException e) {
+            Assert.assertEquals(countPartFiles(), 0, "Part files of a failed download are expected to be removed");
+        }
+    }
+
+    private long countPartFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(FileTransferServiceHelperUtil.getArtifactRoot(), 2)) {
+            return files.filter(file -> file.getFileName().toString().matches(".+\\.part\\d+")).count();
+        }
+    }
+
+    private void serve(HttpExchange exchange, boolean rangesSupported) throws IOException {
+        try {
+            if (rangesSupported) {
+                exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+                exchange.getResponseHeaders().set("ETag", eTag);
+            }
+            if (contentMd5 != null) {
+                exchange.getResponseHeaders().set("Content-MD5", contentMd5);
+            }
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(ARTIFACT_SIZE));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (!rangesSupported || range == null) {
+                exchange.sendResponseHeaders(200, ARTIFACT_SIZE);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(artifact);
+                }
+                return;
+            }
+            ranges.add(range);
+            int start = Integer.parseInt(range.substring(6, range.indexOf('-')));
+            int end = Integer.parseInt(range.substring(range.indexOf('-') + 1));
+            int length = end - start + 1;
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + ARTIFACT_SIZE);
+            exchange.sendResponseHeaders(206, length);
+            OutputStream body = exchange.getResponseBody();
+            if (failNextRange.compareAndSet(true, false)) {
+                // Drop the connection half way through the segment
+                body.write(artifact, start, length / 2);
+                body.flush();
+                return;
+            }
+            body.write(artifact, start, length);
+            body.close();
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.application.mgt.core;
+
+import io.entgra.device.mgt.core.application.mgt.core.impl.SubscribingDeviceReader;
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.group.mgt.GroupManagementException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the chunking of the subscribing devices by {@link SubscribingDeviceReader}.
+ */
+public class SubscribingDeviceReaderTest {
+
+    @Test
+    public void testReadDevicesInChunks() throws GroupManagementException {
+        List<Device> devices = createDevices("android", 1, 7);
+        SubscribingDeviceReader deviceReader = SubscribingDeviceReader.ofDevices(devices, 3);
+
+        Assert.assertEquals(getIds(deviceReader.readChunk()), Arrays.asList(1, 2, 3));
+        Assert.assertEquals(getIds(deviceReader.readChunk()), Arrays.asList(4, 5, 6));
+        Assert.assertEquals(getIds(deviceReader.readChunk()), Arrays.asList(7));
+        Assert.assertTrue(deviceReader.readChunk().isEmpty());
+    }
+
+    @Test
+    public void testReadGroupDevicesInPages() throws GroupManagementException {
+        Map<String, List<Device>> groupDevices = new HashMap<>();
+        groupDevices.put("group1", createDevices("android", 1, 5));
+        List<Device> group2Devices = new ArrayList<>(createDevices("android", 4, 6));
+        group2Devices.addAll(createDevices("ios", 7, 8));
+        group2Devices.addAll(createDevices("android", 9, 10));
+        groupDevices.put("group2", group2Devices);
+        List<String> readPages = new ArrayList<>();
+
+        SubscribingDeviceReader deviceReader = SubscribingDeviceReader.ofGroups(Arrays.asList("group1", "group2"),
+                "android", (groupName, lastDeviceId, limit) -> {
+                    readPages.add(groupName + ":" + lastDeviceId + ":" + limit);
+                    return readPage(groupDevices.get(groupName), lastDeviceId, limit);
+                }, 4);
+
+        List<Integer> readDeviceIds = new ArrayList<>();
+        List<Device> chunk;
+        while (!(chunk = deviceReader.readChunk()).isEmpty()) {
+            Assert.assertTrue(chunk.size() <= 4, "Chunk exceeds the chunk size.");
+            readDeviceIds.addAll(getIds(chunk));
+        }
+
+        Assert.assertEquals(readDeviceIds, Arrays.asList(1, 2, 3, 4, 5, 6, 9, 10),
+                "Devices of both the groups are not read once each or devices of other types are read.");
+        Assert.assertEquals(readPages.get(0), "group1:0:4");
+        Assert.assertEquals(readPages.get(1), "group1:4:4");
+        Assert.assertTrue(readPages.contains("group2:0:3"),
+                "Reading did not move to the next group after a partial page.");
+        Assert.assertTrue(deviceReader.readChunk().isEmpty());
+    }
+
+    @Test
+    public void testReadWithoutDeviceTypeFilter() throws GroupManagementException {
+        List<Device> groupDevices = new ArrayList<>(createDevices("android", 1, 2));
+        groupDevices.addAll(createDevices("ios", 3, 4));
+
+        SubscribingDeviceReader deviceReader = SubscribingDeviceReader.ofGroups(Arrays.asList("group1"), null,
+                (groupName, lastDeviceId, limit) -> readPage(groupDevices, lastDeviceId, limit), 10);
+
+        Assert.assertEquals(getIds(deviceReader.readChunk()), Arrays.asList(1, 2, 3, 4));
+        Assert.assertTrue(deviceReader.readChunk().isEmpty());
+    }
+
+    @Test
+    public void testReadEmptyGroups() throws GroupManagementException {
+        SubscribingDeviceReader deviceReader = SubscribingDeviceReader.ofGroups(Arrays.asList("group1", "group2"),
+                "android", (groupName, lastDeviceId, limit) -> new ArrayList<>(), 10);
+
+        Assert.assertTrue(deviceReader.readChunk().isEmpty());
+    }
+
+    private static List<Device> readPage(List<Device> devices, int lastDeviceId, int limit) {
+        List<Device> page = new ArrayList<>();
+        for (Device device : devices) {
+            if (device.getId() > lastDeviceId && page.size() < limit) {
+                page.add(device);
+            }
+        }
+        return page;
+    }
+
+    private static List<Device> createDevices(String deviceType, int fromId, int toId) {
+        List<Device> devices = new ArrayList<>();
+        for (int id = fromId; id <= toId; id++) {
+            Device device = new Device();
+            device.setId(id);
+            device.setType(deviceType);
+            device.setDeviceIdentifier(deviceType + "-" + id);
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    private static List<Integer> getIds(List<Device> devices) {
+        List<Integer> ids = new ArrayList<>();
+        for (Device device : devices) {
+            ids.add(device.getId());
+        }
+        return ids;
+    }
+}
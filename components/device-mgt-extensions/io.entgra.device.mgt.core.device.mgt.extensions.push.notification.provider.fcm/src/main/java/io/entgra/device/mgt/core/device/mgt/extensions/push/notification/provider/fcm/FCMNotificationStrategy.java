@@ -17,8 +17,10 @@
  */
 package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm;
 
-import com.google.gson.JsonObject;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.DeviceManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationContext;
@@ -26,15 +28,15 @@ import io.entgra.device.mgt.core.device.mgt.common.push.notification.Notificatio
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationConfig;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm.internal.FCMDataHolder;
+import io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm.util.FCMSender;
 import io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm.util.FCMUtil;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 
-import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class FCMNotificationStrategy implements NotificationStrategy {
 
@@ -44,8 +46,23 @@ public class FCMNotificationStrategy implements NotificationStrategy {
     private static final String FCM_API_KEY = "fcmAPIKey";
     private static final int TIME_TO_LIVE = 2419199; // 1 second less than 28 days
     private static final int HTTP_STATUS_CODE_OK = 200;
-    private final PushNotificationConfig config;
     private static final String FCM_ENDPOINT_KEY = "FCM_SERVER_ENDPOINT";
+    private static final int TOKEN_CACHE_MAX_SIZE = 100000;
+    private static final long TOKEN_CACHE_EXPIRY_HOURS = 1;
+    private static final long NO_TOKEN_CACHE_EXPIRY_SECONDS = 30;
+    /* Strategies are recreated when the platform configurations are reloaded, hence the tokens are kept across them.
+     * A stale token is dropped once the FCM server rejects it. */
+    private static final Cache<String, String> fcmTokens = CacheBuilder.newBuilder()
+            .maximumSize(TOKEN_CACHE_MAX_SIZE)
+            .expireAfterWrite(TOKEN_CACHE_EXPIRY_HOURS, TimeUnit.HOURS)
+            .build();
+    /* Devices without a usable token are kept only briefly, since a token registered through another node of the
+     * cluster does not invalidate them on this node. */
+    private static final Cache<String, Boolean> devicesWithoutToken = CacheBuilder.newBuilder()
+            .maximumSize(TOKEN_CACHE_MAX_SIZE)
+            .expireAfterWrite(NO_TOKEN_CACHE_EXPIRY_SECONDS, TimeUnit.SECONDS)
+            .build();
+    private final PushNotificationConfig config;
 
     public FCMNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
@@ -58,80 +75,110 @@ public class FCMNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
+        // the sender logs the wake up calls which could not be sent
+        send(ctx);
+    }
+
+    @Override
+    public CompletableFuture<Void> executeAsync(NotificationContext ctx) {
+        try {
+            CompletableFuture<Boolean> isSent = send(ctx);
+            if (isSent == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return isSent.thenCompose(sent -> {
+                CompletableFuture<Void> result = new CompletableFuture<>();
+                if (sent) {
+                    result.complete(null);
+                } else {
+                    result.completeExceptionally(new PushNotificationExecutionFailedException(
+                            "Unable to send FCM wake up call to device " + ctx.getDeviceId().getId()));
+                }
+                return result;
+            });
+        } catch (PushNotificationExecutionFailedException e) {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+    }
+
+    /**
+     * Send a wake up call to the device of the notification
+     * @param ctx Notification context
+     * @return Result of the wake up call, or null if no call is sent as the device has no FCM token or FCM is not
+     * the notifier type
+     * @throws PushNotificationExecutionFailedException If the sender is not configured or the device could not be
+     * retrieved
+     */
+    private CompletableFuture<Boolean> send(NotificationContext ctx) throws PushNotificationExecutionFailedException {
         try {
             if (NOTIFIER_TYPE_FCM.equals(config.getType())) {
-                Device device = FCMDataHolder.getInstance().getDeviceManagementProviderService()
-                        .getDeviceWithTypeProperties(ctx.getDeviceId());
-                if(device.getEnrolmentInfo() != null
-                        && device.getEnrolmentInfo().getStatus() != EnrolmentInfo.Status.REMOVED
-                        && device.getProperties() != null && getFCMToken(device.getProperties()) != null) {
-                    FCMUtil.getInstance().getDefaultApplication().refreshIfExpired();
-                    sendWakeUpCall(FCMUtil.getInstance().getDefaultApplication().getAccessToken().getTokenValue(),
-                            getFCMToken(device.getProperties()));
+                FCMSender sender = FCMUtil.getInstance().getSender();
+                if (sender == null) {
+                    String msg = "Encountered configuration issue. " + FCM_ENDPOINT_KEY + " is not defined";
+                    log.error(msg);
+                    throw new PushNotificationExecutionFailedException(msg);
+                }
+                String tokenKey = getTokenKey(ctx.getDeviceId());
+                String fcmToken = fcmTokens.getIfPresent(tokenKey);
+                if (fcmToken == null) {
+                    if (devicesWithoutToken.getIfPresent(tokenKey) != null) {
+                        return null;
+                    }
+                    fcmToken = getFCMToken(ctx.getDeviceId());
+                    if (fcmToken == null) {
+                        devicesWithoutToken.put(tokenKey, Boolean.TRUE);
+                        return null;
+                    }
+                    fcmTokens.put(tokenKey, fcmToken);
                 }
+                return sender.send(fcmToken, () -> fcmTokens.invalidate(tokenKey));
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug("Not using FCM notifier as notifier type is set to " + config.getType() +
                             " in Platform Configurations.");
                 }
+                return null;
             }
         } catch (DeviceManagementException e) {
             throw new PushNotificationExecutionFailedException("Error occurred while retrieving device information", e);
-        } catch (IOException e) {
-            throw new PushNotificationExecutionFailedException("Error occurred while sending push notification", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PushNotificationExecutionFailedException("Interrupted while sending push notification", e);
         }
     }
 
+    @Override
+    public void invalidate(DeviceIdentifier deviceIdentifier) {
+        String tokenKey = getTokenKey(deviceIdentifier);
+        fcmTokens.invalidate(tokenKey);
+        devicesWithoutToken.invalidate(tokenKey);
+    }
 
     /**
-     * Send FCM message to the FCM server to initiate the push notification
-     * @param accessToken Access token to authenticate with the FCM server
-     * @param registrationId Registration ID of the device
-     * @throws IOException If an error occurs while sending the request
-     * @throws PushNotificationExecutionFailedException If an error occurs while sending the push notification
+     * Retrieve the FCM token of the device
+     * @param deviceIdentifier Identifier of the device
+     * @return FCM token, or null if the device is removed or not registered with FCM
+     * @throws DeviceManagementException If an error occurs while retrieving the device
      */
-    private void sendWakeUpCall(String accessToken, String registrationId) throws IOException,
-            PushNotificationExecutionFailedException {
-        String fcmServerEndpoint = FCMUtil.getInstance().getContextMetadataProperties()
-                .getProperty(FCM_ENDPOINT_KEY);
-        if(fcmServerEndpoint == null) {
-            String msg = "Encountered configuration issue. " + FCM_ENDPOINT_KEY + " is not defined";
-            log.error(msg);
-            throw new PushNotificationExecutionFailedException(msg);
-        }
-
-        RequestBody fcmRequest = getFCMRequest(registrationId);
-        Request request = new Request.Builder()
-                .url(fcmServerEndpoint)
-                .post(fcmRequest)
-                .addHeader("Authorization", "Bearer " + accessToken)
-                .build();
-        try (Response response = FCMUtil.getInstance().getHttpClient().newCall(request).execute()) {
-            if (log.isDebugEnabled()) {
-                log.debug("FCM message sent to the FCM server. Response code: " + response.code()
-                        + " Response message : " + response.message());
-            }
-            if(!response.isSuccessful()) {
-                String msg = "Response Status: " + response.code() + ", Response Message: " + response.message();
-                log.error(msg);
-                throw new IOException(msg);
+    private static String getFCMToken(DeviceIdentifier deviceIdentifier) throws DeviceManagementException {
+        Device device = FCMDataHolder.getInstance().getDeviceManagementProviderService()
+                .getDeviceWithTypeProperties(deviceIdentifier);
+        if (device != null && device.getEnrolmentInfo() != null
+                && device.getEnrolmentInfo().getStatus() != EnrolmentInfo.Status.REMOVED
+                && device.getProperties() != null) {
+            String fcmToken = getFCMToken(device.getProperties());
+            if (fcmToken != null && !fcmToken.isEmpty()) {
+                return fcmToken;
             }
         }
+        return null;
     }
 
-    /**
-     * Get the FCM request as a JSON string
-     * @param registrationId Registration ID of the device
-     * @return FCM request as a JSON string
-     */
-    private static RequestBody getFCMRequest(String registrationId) {
-        JsonObject messageObject = new JsonObject();
-        messageObject.addProperty("token", registrationId);
-
-        JsonObject fcmRequest = new JsonObject();
-        fcmRequest.add("message", messageObject);
-
-        return RequestBody.create(fcmRequest.toString(), okhttp3.MediaType.parse("application/json"));
+    private static String getTokenKey(DeviceIdentifier deviceIdentifier) {
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + "|"
+                + deviceIdentifier.getType() + "|" + deviceIdentifier.getId();
     }
 
     @Override
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2018 - 2024, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm.util;
+
+import com.google.gson.JsonObject;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends FCM wake up calls asynchronously. The number of requests in flight is bounded, hence callers block once the
+ * FCM server falls behind. Wake up calls to a device within the coalescing window of a previous call are merged in to
+ * a single call sent at the end of the window, so that a device is woken up after every operation added to it without
+ * being woken up once per operation. Requests throttled by the FCM server are retried with back off and sending is
+ * paused for all the devices until the back off elapses.
+ */
+public class FCMSender {
+
+    private static final Log log = LogFactory.getLog(FCMSender.class);
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+    private static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_STATUS_SERVICE_UNAVAILABLE = 503;
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final int MAX_RETRIES = 5;
+    private static final long INITIAL_BACK_OFF_MILLS = 1000;
+    private static final long MAX_BACK_OFF_MILLS = 60000;
+    private static final long PERMIT_RETRY_DELAY_MILLS = 50;
+
+    private final OkHttpClient client;
+    private final String endpoint;
+    private final Callable<String> accessTokenProvider;
+    private final int maxInFlightRequests;
+    private final long coalesceWindowMills;
+    private final Semaphore inFlightPermits;
+    private final ScheduledExecutorService scheduler;
+    /* Registration tokens having an open coalescing window */
+    private final ConcurrentMap<String, CoalescingWindow> coalescingWindows = new ConcurrentHashMap<>();
+    private final AtomicLong pausedUntil = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+
+    /**
+     * @param client              HTTP client to send the requests, its dispatcher must allow maxInFlightRequests
+     * @param endpoint            FCM send endpoint
+     * @param accessTokenProvider Provides a valid OAuth access token to authenticate with the FCM server
+     * @param maxInFlightRequests Maximum number of requests sent but not yet completed
+     * @param coalesceWindowMills Period in which wake up calls to the same device are merged, 0 to disable
+     */
+    public FCMSender(OkHttpClient client, String endpoint, Callable<String> accessTokenProvider,
+                     int maxInFlightRequests, long coalesceWindowMills) {
+        this.client = client;
+        this.endpoint = endpoint;
+        this.accessTokenProvider = accessTokenProvider;
+        this.maxInFlightRequests = Math.max(1, maxInFlightRequests);
+        this.coalesceWindowMills = coalesceWindowMills;
+        this.inFlightPermits = new Semaphore(this.maxInFlightRequests);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fcm-sender-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Send a wake up call to the device of the given registration token. Blocks while the maximum number of requests
+     * are in flight.
+     *
+     * @param registrationToken FCM registration token of the device
+     * @param onUnregistered    Invoked when the FCM server reports that the token is no longer valid
+     * @return Completed with true once the wake up call is sent, or with false if it could not be sent. A call merged
+     * in to an open coalescing window completes with the trailing call of the window.
+     * @throws InterruptedException if interrupted while waiting for a request to complete
+     */
+    public CompletableFuture<Boolean> send(String registrationToken, Runnable onUnregistered)
+            throws InterruptedException {
+        if (coalesceWindowMills > 0) {
+            CompletableFuture<Boolean> trailingResult = joinCoalescingWindow(registrationToken);
+            if (trailingResult != null) {
+                coalescedCount.incrementAndGet();
+                return trailingResult;
+            }
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        inFlightPermits.acquire();
+        dispatch(registrationToken, onUnregistered, 0, result);
+        if (coalesceWindowMills > 0) {
+            scheduleWindowClose(registrationToken, onUnregistered);
+        }
+        return result;
+    }
+
+    /**
+     * Wait until all the requests in flight are completed, including the ones waiting to be retried.
+     *
+     * @return true if all the requests are completed before the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        if (inFlightPermits.tryAcquire(maxInFlightRequests, timeout, unit)) {
+            inFlightPermits.release(maxInFlightRequests);
+            return true;
+        }
+        return false;
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    /**
+     * @return null if a new window is opened, otherwise the result of the trailing call of the window already open
+     */
+    private CompletableFuture<Boolean> joinCoalescingWindow(String registrationToken) {
+        CoalescingWindow[] openWindow = new CoalescingWindow[1];
+        coalescingWindows.compute(registrationToken, (token, window) -> {
+            if (window == null) {
+                return new CoalescingWindow();
+            }
+            if (window.trailingResult == null) {
+                window.trailingResult = new CompletableFuture<>();
+            }
+            openWindow[0] = window;
+            return window;
+        });
+        return openWindow[0] == null ? null : openWindow[0].trailingResult;
+    }
+
+    private void scheduleWindowClose(String registrationToken, Runnable onUnregistered) {
+        scheduler.schedule(() -> {
+            // Keep the window open for one more period if wake up calls were requested after it opened
+            CoalescingWindow[] closedWindow = new CoalescingWindow[1];
+            coalescingWindows.computeIfPresent(registrationToken, (token, window) -> {
+                if (window.trailingResult == null) {
+                    return null;
+                }
+                closedWindow[0] = window;
+                return new CoalescingWindow();
+            });
+            if (closedWindow[0] != null) {
+                dispatchWhenPermitted(registrationToken, onUnregistered, closedWindow[0].trailingResult);
+                scheduleWindowClose(registrationToken, onUnregistered);
+            }
+        }, coalesceWindowMills, TimeUnit.MILLISECONDS);
+    }
+
+    private void dispatchWhenPermitted(String registrationToken, Runnable onUnregistered,
+                                       CompletableFuture<Boolean> result) {
+        if (inFlightPermits.tryAcquire()) {
+            dispatch(registrationToken, onUnregistered, 0, result);
+        } else {
+            scheduler.schedule(() -> dispatchWhenPermitted(registrationToken, onUnregistered, result),
+                    PERMIT_RETRY_DELAY_MILLS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send the request of the given attempt. The caller must hold an in flight permit, which is released once the
+     * request completes without a retry.
+     */
+    private void dispatch(String registrationToken, Runnable onUnregistered, int attempt,
+                          CompletableFuture<Boolean> result) {
+        long pause = pausedUntil.get() - System.currentTimeMillis();
+        if (pause > 0) {
+            scheduler.schedule(() -> dispatch(registrationToken, onUnregistered, attempt, result), pause,
+                    TimeUnit.MILLISECONDS);
+            return;
+        }
+        Request request;
+        try {
+            request = new Request.Builder()
+                    .url(endpoint)
+                    .post(getFCMRequest(registrationToken))
+                    .addHeader("Authorization", "Bearer " + accessTokenProvider.call())
+                    .build();
+        } catch (Exception e) {
+            log.error("Error occurred while building the FCM request", e);
+            complete(false, result);
+            return;
+        }
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.warn("Unable to send FCM message, Attempt: " + (attempt + 1) + ", Error: " + e.getMessage());
+                retry(registrationToken, onUnregistered, attempt, 0, false, result);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response fcmResponse = response) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("FCM message sent to the FCM server. Response code: " + fcmResponse.code()
+                                + " Response message : " + fcmResponse.message());
+                    }
+                    if (fcmResponse.isSuccessful()) {
+                        complete(true, result);
+                    } else if (fcmResponse.code() == HTTP_STATUS_TOO_MANY_REQUESTS
+                            || fcmResponse.code() == HTTP_STATUS_SERVICE_UNAVAILABLE) {
+                        retry(registrationToken, onUnregistered, attempt,
+                                getRetryAfterMills(fcmResponse.header(RETRY_AFTER_HEADER)), true, result);
+                    } else {
+                        if (fcmResponse.code() == HTTP_STATUS_NOT_FOUND && onUnregistered != null) {
+                            onUnregistered.run();
+                        }
+                        log.error("Response Status: " + fcmResponse.code() + ", Response Message: " +
+                                fcmResponse.message());
+                        complete(false, result);
+                    }
+                }
+            }
+        });
+    }
+
+    private void retry(String registrationToken, Runnable onUnregistered, int attempt, long retryAfterMills,
+                       boolean isThrottled, CompletableFuture<Boolean> result) {
+        if (attempt >= MAX_RETRIES) {
+            log.error("Giving up sending FCM message after " + (attempt + 1) + " attempts");
+            complete(false, result);
+            return;
+        }
+        retriedCount.incrementAndGet();
+        long backOff = retryAfterMills > 0 ? retryAfterMills :
+                Math.min(MAX_BACK_OFF_MILLS, INITIAL_BACK_OFF_MILLS << attempt);
+        if (isThrottled) {
+            // The FCM server throttles the project as a whole, hence hold back all the devices
+            long resumeTime = System.currentTimeMillis() + backOff;
+            pausedUntil.accumulateAndGet(resumeTime, Math::max);
+        }
+        scheduler.schedule(() -> dispatch(registrationToken, onUnregistered, attempt + 1, result), backOff,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void complete(boolean isSent, CompletableFuture<Boolean> result) {
+        if (isSent) {
+            sentCount.incrementAndGet();
+        } else {
+            failedCount.incrementAndGet();
+        }
+        inFlightPermits.release();
+        result.complete(isSent);
+    }
+
+    private static long getRetryAfterMills(String retryAfter) {
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignore) {
+                // Retry-After can be a HTTP date as well, in which case exponential back off is used
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get the FCM request as a JSON string
+     * @param registrationId Registration ID of the device
+     * @return FCM request as a JSON string
+     */
+    private static RequestBody getFCMRequest(String registrationId) {
+        JsonObject messageObject = new JsonObject();
+        messageObject.addProperty("token", registrationId);
+
+        JsonObject fcmRequest = new JsonObject();
+        fcmRequest.add("message", messageObject);
+
+        return RequestBody.create(fcmRequest.toString(), JSON);
+    }
+
+    private static class CoalescingWindow {
+        /* Result of the wake up to be sent when the window closes, null if no wake up is requested in the window */
+        private CompletableFuture<Boolean> trailingResult;
+    }
+}
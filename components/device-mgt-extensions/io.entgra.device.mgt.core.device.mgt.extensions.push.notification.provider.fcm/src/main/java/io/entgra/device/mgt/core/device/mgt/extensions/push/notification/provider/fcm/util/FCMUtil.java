@@ -17,12 +17,14 @@
  */
 package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm.util;
 
+import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
 import io.entgra.device.mgt.core.device.mgt.core.config.push.notification.ContextMetadata;
 import io.entgra.device.mgt.core.device.mgt.core.config.push.notification.PushNotificationConfiguration;
 import io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm.FCMNotificationStrategy;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -45,22 +47,71 @@ public class FCMUtil {
     private static final String FCM_SERVICE_ACCOUNT_PATH = CarbonUtils.getCarbonHome() + File.separator +
             "repository" + File.separator + "resources" + File.separator + "service-account.json";
     private static final String[] FCM_SCOPES = { "https://www.googleapis.com/auth/firebase.messaging" };
+    private static final String FCM_ENDPOINT_KEY = "FCM_SERVER_ENDPOINT";
+    private static final String FCM_MAX_IN_FLIGHT_REQUESTS_KEY = "FCM_MAX_IN_FLIGHT_REQUESTS";
+    private static final String FCM_WAKE_UP_COALESCE_WINDOW_KEY = "FCM_WAKE_UP_COALESCE_WINDOW_MILLS";
+    private static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 200;
+    private static final long DEFAULT_WAKE_UP_COALESCE_WINDOW_MILLS = 2000;
+    private static final long ACCESS_TOKEN_REFRESH_MARGIN_MILLS = TimeUnit.MINUTES.toMillis(5);
     private Properties contextMetadataProperties;
     private static ConnectionPool connectionPool;
     private static OkHttpClient client;
+    private FCMSender sender;
 
     private FCMUtil() {
         initContextConfigs();
         initDefaultOAuthApplication();
         initPooledConnection();
+        initSender();
     }
 
     /**
-     * Initialize the connection pool for the OkHttpClient instance.
+     * Initialize the connection pool for the OkHttpClient instance. The dispatcher allows as many concurrent
+     * requests as the sender keeps in flight, since all of them are sent to the same FCM host.
      */
     private void initPooledConnection() {
+        int maxInFlightRequests = getMaxInFlightRequests();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxInFlightRequests);
+        dispatcher.setMaxRequestsPerHost(maxInFlightRequests);
         connectionPool = new ConnectionPool(25, 1, TimeUnit.MINUTES);
-        client = new OkHttpClient.Builder().connectionPool(connectionPool).build();
+        client = new OkHttpClient.Builder().connectionPool(connectionPool).dispatcher(dispatcher).build();
+    }
+
+    /**
+     * Initialize the sender which dispatches the wakeup calls to the FCM server. Sender is not initialized if the
+     * FCM server endpoint is not configured.
+     */
+    private void initSender() {
+        String endpoint = contextMetadataProperties.getProperty(FCM_ENDPOINT_KEY);
+        if (endpoint == null) {
+            log.warn("FCM server endpoint is not configured, hence FCM wakeup calls will not be sent");
+            return;
+        }
+        long coalesceWindow = DEFAULT_WAKE_UP_COALESCE_WINDOW_MILLS;
+        String configuredWindow = contextMetadataProperties.getProperty(FCM_WAKE_UP_COALESCE_WINDOW_KEY);
+        if (configuredWindow != null) {
+            try {
+                coalesceWindow = Long.parseLong(configuredWindow.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid " + FCM_WAKE_UP_COALESCE_WINDOW_KEY + " '" + configuredWindow
+                        + "', hence using the default " + DEFAULT_WAKE_UP_COALESCE_WINDOW_MILLS);
+            }
+        }
+        sender = new FCMSender(client, endpoint, this::getAccessToken, getMaxInFlightRequests(), coalesceWindow);
+    }
+
+    private int getMaxInFlightRequests() {
+        String maxInFlightRequests = contextMetadataProperties.getProperty(FCM_MAX_IN_FLIGHT_REQUESTS_KEY);
+        if (maxInFlightRequests != null) {
+            try {
+                return Integer.parseInt(maxInFlightRequests.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid " + FCM_MAX_IN_FLIGHT_REQUESTS_KEY + " '" + maxInFlightRequests
+                        + "', hence using the default " + DEFAULT_MAX_IN_FLIGHT_REQUESTS);
+            }
+        }
+        return DEFAULT_MAX_IN_FLIGHT_REQUESTS;
     }
 
     /**
@@ -127,4 +178,30 @@ public class FCMUtil {
     public Properties getContextMetadataProperties() {
         return contextMetadataProperties;
     }
+
+    /**
+     * Get the sender to dispatch the wakeup calls
+     * @return FCMSender instance or null if the FCM server endpoint is not configured
+     */
+    public FCMSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Get the OAuth access token to authenticate with the FCM server. The token is refreshed only when it is about
+     * to expire, hence the credentials are not locked for each wakeup call.
+     * @return access token value
+     * @throws IOException if the token refresh fails
+     */
+    public String getAccessToken() throws IOException {
+        AccessToken accessToken = defaultApplication.getAccessToken();
+        if (accessToken == null || accessToken.getExpirationTime() == null || accessToken.getExpirationTime()
+                .getTime() - System.currentTimeMillis() < ACCESS_TOKEN_REFRESH_MARGIN_MILLS) {
+            synchronized (this) {
+                defaultApplication.refreshIfExpired();
+                accessToken = defaultApplication.getAccessToken();
+            }
+        }
+        return accessToken.getTokenValue();
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018 - 2024, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.fcm.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the FCM sender against a mock FCM endpoint. Number of devices woken up in the throughput test can be set by
+ * the system property fcm.sender.benchmark.devices, e.g. -Dfcm.sender.benchmark.devices=100000
+ */
+public class FCMSenderTest {
+
+    private static final Log log = LogFactory.getLog(FCMSenderTest.class);
+    private static final String BENCHMARK_DEVICES_PROPERTY = "fcm.sender.benchmark.devices";
+    private static final int DEFAULT_BENCHMARK_DEVICES = 10000;
+    private static final int MAX_IN_FLIGHT_REQUESTS = 200;
+    private static final String THROTTLED_TOKEN_PREFIX = "throttled-";
+    private static final String UNREGISTERED_TOKEN_PREFIX = "unregistered-";
+    private final ConcurrentMap<String, AtomicInteger> receivedRequests = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private OkHttpClient client;
+    private String endpoint;
+
+    @BeforeClass
+    public void init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        server.createContext("/send", this::handle);
+        serverExecutor = Executors.newFixedThreadPool(50);
+        server.setExecutor(serverExecutor);
+        server.start();
+        endpoint = "http://localhost:" + server.getAddress().getPort() + "/send";
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_IN_FLIGHT_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_IN_FLIGHT_REQUESTS);
+        client = new OkHttpClient.Builder().dispatcher(dispatcher).build();
+    }
+
+    @AfterClass
+    public void destroy() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    @BeforeMethod
+    public void clearReceivedRequests() {
+        receivedRequests.clear();
+    }
+
+    @Test(description = "Wake up distinct devices and verify each of them receives exactly one wake up call")
+    public void sendToDistinctDevicesTest() throws InterruptedException {
+        int deviceCount = Integer.getInteger(BENCHMARK_DEVICES_PROPERTY, DEFAULT_BENCHMARK_DEVICES);
+        FCMSender sender = new FCMSender(client, endpoint, () -> "test-access-token", MAX_IN_FLIGHT_REQUESTS, 2000);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < deviceCount; i++) {
+            sender.send("device-" + i, null);
+        }
+        Assert.assertTrue(sender.awaitCompletion(2, TimeUnit.MINUTES), "Wake up calls are not completed in time");
+        long elapsedMills = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        log.info("Sent " + deviceCount + " FCM wake up calls in " + elapsedMills + " ms ("
+                + (deviceCount * 1000L / Math.max(1, elapsedMills)) + " per second)");
+        Assert.assertEquals(sender.getSentCount(), deviceCount);
+        Assert.assertEquals(sender.getFailedCount(), 0);
+        Assert.assertEquals(receivedRequests.size(), deviceCount);
+        for (AtomicInteger count : receivedRequests.values()) {
+            Assert.assertEquals(count.get(), 1);
+        }
+    }
+
+    @Test(description = "Wake up a device repeatedly and verify the calls are merged in to a leading and a trailing call")
+    public void coalesceRepeatedWakeUpsTest() throws Exception {
+        long coalesceWindow = 500;
+        FCMSender sender = new FCMSender(client, endpoint, () -> "test-access-token", MAX_IN_FLIGHT_REQUESTS,
+                coalesceWindow);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(sender.send("repeated-device", null));
+        }
+        for (CompletableFuture<Boolean> result : results) {
+            Assert.assertTrue(result.get(30, TimeUnit.SECONDS), "Merged wake up call is not reported as sent");
+        }
+        Assert.assertTrue(sender.awaitCompletion(30, TimeUnit.SECONDS), "Wake up calls are not completed in time");
+        Assert.assertEquals(sender.getCoalescedCount(), 9);
+        Assert.assertEquals(sender.getSentCount(), 2);
+        Assert.assertEquals(receivedRequests.get("repeated-device").get(), 2);
+    }
+
+    @Test(description = "Verify a throttled wake up call is retried after the Retry-After period")
+    public void retryThrottledWakeUpTest() throws InterruptedException {
+        FCMSender sender = new FCMSender(client, endpoint, () -> "test-access-token", MAX_IN_FLIGHT_REQUESTS, 0);
+        sender.send(THROTTLED_TOKEN_PREFIX + "device", null);
+        Assert.assertTrue(sender.awaitCompletion(30, TimeUnit.SECONDS), "Wake up call is not completed in time");
+        Assert.assertEquals(sender.getRetriedCount(), 1);
+        Assert.assertEquals(sender.getSentCount(), 1);
+        Assert.assertEquals(receivedRequests.get(THROTTLED_TOKEN_PREFIX + "device").get(), 2);
+    }
+
+    @Test(description = "Verify the unregistered callback is invoked when the FCM server rejects the token")
+    public void unregisteredTokenTest() throws Exception {
+        FCMSender sender = new FCMSender(client, endpoint, () -> "test-access-token", MAX_IN_FLIGHT_REQUESTS, 0);
+        AtomicBoolean isUnregistered = new AtomicBoolean();
+        CompletableFuture<Boolean> result = sender.send(UNREGISTERED_TOKEN_PREFIX + "device",
+                () -> isUnregistered.set(true));
+        Assert.assertFalse(result.get(30, TimeUnit.SECONDS), "Rejected wake up call is reported as sent");
+        Assert.assertTrue(sender.awaitCompletion(30, TimeUnit.SECONDS), "Wake up call is not completed in time");
+        Assert.assertTrue(isUnregistered.get());
+        Assert.assertEquals(sender.getFailedCount(), 1);
+        Assert.assertEquals(sender.getRetriedCount(), 0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String token;
+        try (InputStream body = exchange.getRequestBody()) {
+            JsonObject request = new Gson().fromJson(new InputStreamReader(body, StandardCharsets.UTF_8),
+                    JsonObject.class);
+            token = request.getAsJsonObject("message").get("token").getAsString();
+        }
+        int count = receivedRequests.computeIfAbsent(token, key -> new AtomicInteger()).incrementAndGet();
+        int status = 200;
+        if (token.startsWith(THROTTLED_TOKEN_PREFIX) && count == 1) {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            status = 429;
+        } else if (token.startsWith(UNREGISTERED_TOKEN_PREFIX)) {
+            status = 404;
+        }
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+}
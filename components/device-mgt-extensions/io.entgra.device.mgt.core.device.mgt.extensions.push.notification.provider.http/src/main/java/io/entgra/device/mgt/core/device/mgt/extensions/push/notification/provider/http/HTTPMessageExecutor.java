@@ -38,6 +38,7 @@ public class HTTPMessageExecutor implements Runnable {
     private String payload;
     private HostConfiguration hostConfiguration;
     private HttpClient httpClient;
+    private int responseStatus;
     private static final String APPLIATION_JSON = "application/json";
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final Log log = LogFactory.getLog(HTTPMessageExecutor.class);
@@ -52,6 +53,15 @@ public class HTTPMessageExecutor implements Runnable {
         this.httpClient = httpClient;
     }
 
+    public HTTPMessageExecutor(String payload, String authorizationHeader, String url,
+                               HostConfiguration hostConfiguration, HttpClient httpClient) {
+        this.url = url;
+        this.authorizationHeader = authorizationHeader;
+        this.payload = payload;
+        this.hostConfiguration = hostConfiguration;
+        this.httpClient = httpClient;
+    }
+
     public String getUrl() {
         return url;
     }
@@ -84,6 +94,14 @@ public class HTTPMessageExecutor implements Runnable {
         this.httpClient = httpClient;
     }
 
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    public boolean isSuccessful() {
+        return responseStatus >= 200 && responseStatus < 300;
+    }
+
     @Override
     public void run() {
         EntityEnclosingMethod method = null;
@@ -91,11 +109,14 @@ public class HTTPMessageExecutor implements Runnable {
         try {
             method = new PostMethod(this.getUrl());
             method.setRequestEntity(new StringRequestEntity(this.getPayload(), APPLIATION_JSON, "UTF-8"));
-            if (authorizationHeader != null && authorizationHeader.isEmpty()) {
+            if (authorizationHeader != null && !authorizationHeader.isEmpty()) {
                 method.setRequestHeader(AUTHORIZATION_HEADER, authorizationHeader);
             }
 
-            this.getHttpClient().executeMethod(hostConfiguration, method);
+            responseStatus = this.getHttpClient().executeMethod(hostConfiguration, method);
+            if (!isSuccessful()) {
+                log.error("Push Notification message rejected by " + url + " with status " + responseStatus);
+            }
 
         } catch (UnknownHostException e) {
             log.error("Push Notification message dropped " + url, e);
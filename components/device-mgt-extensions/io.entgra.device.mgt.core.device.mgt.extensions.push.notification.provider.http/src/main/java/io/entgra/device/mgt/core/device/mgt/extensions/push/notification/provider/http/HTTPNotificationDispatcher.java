@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.http;
+
+import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+import org.apache.commons.httpclient.HostConfiguration;
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers push notification messages to an external HTTP endpoint. Messages are queued and sent by a pool of
+ * workers over pooled keep-alive connections. When the batch size is more than one, the messages queued together are
+ * sent as a JSON array in a single request. Each queued message carries a future which completes once the message is
+ * delivered, or exceptionally once it is rejected by the endpoint or dropped at shutdown, hence callers can retry the
+ * messages which are not delivered.
+ * Strategies are recreated whenever the platform configurations are reloaded, hence a dispatcher is shared by all the
+ * strategies of the same endpoint. When a strategy brings changed settings for the endpoint, a new dispatcher takes
+ * over and the superseded one is stopped after sending the messages already queued.
+ */
+public class HTTPNotificationDispatcher {
+
+    private static final Log log = LogFactory.getLog(HTTPNotificationDispatcher.class);
+    private static final Map<String, HTTPNotificationDispatcher> dispatchers = new ConcurrentHashMap<>();
+    private static final long IDLE_CONNECTION_TIMEOUT_MILLS = 60000;
+    private static final long IDLE_CONNECTION_CHECK_INTERVAL_MILLS = 30000;
+    private static final int METRICS_LOG_INTERVAL = 1000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final Settings settings;
+    private final BlockingQueue<PendingMessage> queue;
+    private final ExecutorService workers;
+    private final HttpClient httpClient;
+    private final HostConfiguration hostConfiguration;
+    private final MultiThreadedHttpConnectionManager connectionManager;
+    private final IdleConnectionTimeoutThread idleConnectionTimeoutThread;
+    private volatile boolean isRunning = true;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong totalLatencyMills = new AtomicLong();
+    private final AtomicLong maxLatencyMills = new AtomicLong();
+
+    private HTTPNotificationDispatcher(Settings settings, HostConfiguration hostConfiguration) {
+        this.settings = settings;
+        this.hostConfiguration = hostConfiguration;
+        this.queue = new ArrayBlockingQueue<>(settings.queueCapacity);
+
+        connectionManager = new MultiThreadedHttpConnectionManager();
+        HttpConnectionManagerParams params = connectionManager.getParams();
+        params.setDefaultMaxConnectionsPerHost(settings.maxConnectionsPerHost);
+        params.setMaxTotalConnections(settings.maxConnectionsPerHost);
+        params.setConnectionTimeout(settings.connectionTimeoutMills);
+        params.setSoTimeout(settings.socketTimeoutMills);
+        params.setStaleCheckingEnabled(true);
+        httpClient = new HttpClient(connectionManager);
+
+        idleConnectionTimeoutThread = new IdleConnectionTimeoutThread();
+        idleConnectionTimeoutThread.setName("http-push-idle-connection-" + settings.url);
+        idleConnectionTimeoutThread.setConnectionTimeout(IDLE_CONNECTION_TIMEOUT_MILLS);
+        idleConnectionTimeoutThread.setTimeoutInterval(IDLE_CONNECTION_CHECK_INTERVAL_MILLS);
+        idleConnectionTimeoutThread.addConnectionManager(connectionManager);
+        idleConnectionTimeoutThread.start();
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(settings.workers, runnable -> {
+            Thread thread = new Thread(runnable, "http-push-worker-" + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < settings.workers; i++) {
+            workers.execute(this::dispatch);
+        }
+    }
+
+    /**
+     * Get the dispatcher of the endpoint of the given settings, creating one if there is no dispatcher yet. If the
+     * dispatcher of the endpoint has different settings, it is replaced and stopped.
+     *
+     * @param settings          Endpoint and pool settings
+     * @param hostConfiguration Host configuration of the endpoint
+     * @return {@link HTTPNotificationDispatcher} shared by the strategies of the endpoint
+     */
+    public static HTTPNotificationDispatcher getInstance(Settings settings, HostConfiguration hostConfiguration) {
+        List<HTTPNotificationDispatcher> superseded = new ArrayList<>(1);
+        HTTPNotificationDispatcher dispatcher = dispatchers.compute(settings.url, (url, existing) -> {
+            if (existing != null && existing.settings.equals(settings)) {
+                return existing;
+            }
+            if (existing != null) {
+                superseded.add(existing);
+            }
+            return new HTTPNotificationDispatcher(settings, hostConfiguration);
+        });
+        for (HTTPNotificationDispatcher supersededDispatcher : superseded) {
+            log.info("Settings of the push notification endpoint " + settings.url + " are changed, hence "
+                    + "stopping the dispatcher of the previous settings");
+            supersededDispatcher.shutdown();
+        }
+        return dispatcher;
+    }
+
+    /**
+     * Get the current dispatcher of an endpoint.
+     *
+     * @param url URL of the endpoint
+     * @return {@link HTTPNotificationDispatcher} of the endpoint or null if there is no dispatcher
+     */
+    public static HTTPNotificationDispatcher getInstance(String url) {
+        return dispatchers.get(url);
+    }
+
+    /**
+     * Stop all the dispatchers, sending the messages already queued within the shutdown timeout.
+     */
+    public static void shutdownAll() {
+        for (String url : new ArrayList<>(dispatchers.keySet())) {
+            HTTPNotificationDispatcher dispatcher = dispatchers.remove(url);
+            if (dispatcher != null) {
+                dispatcher.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Queue a message to be sent to the endpoint.
+     *
+     * @param payload JSON payload of the message
+     * @return Future completed once the message is delivered, or exceptionally with a
+     * {@link PushNotificationExecutionFailedException} if it is not delivered. Null if the queue is full or the
+     * dispatcher is stopped, hence the message is not queued
+     */
+    public CompletableFuture<Void> submit(String payload) {
+        if (!isRunning) {
+            return null;
+        }
+        PendingMessage message = new PendingMessage(payload);
+        if (!queue.offer(message)) {
+            droppedCount.incrementAndGet();
+            return null;
+        }
+        return message.delivery;
+    }
+
+    private void dispatch() {
+        List<PendingMessage> batch = new ArrayList<>(settings.batchSize);
+        while (isRunning || !queue.isEmpty()) {
+            try {
+                PendingMessage message = queue.poll(1, TimeUnit.SECONDS);
+                if (message == null) {
+                    continue;
+                }
+                batch.add(message);
+                if (settings.batchSize > 1) {
+                    fillBatch(batch);
+                }
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error occurred while dispatching push notification messages to "
+                        + settings.url, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<PendingMessage> batch) throws InterruptedException {
+        queue.drainTo(batch, settings.batchSize - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.batchWindowMills);
+        while (batch.size() < settings.batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingMessage message = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (message == null) {
+                break;
+            }
+            batch.add(message);
+            queue.drainTo(batch, settings.batchSize - batch.size());
+        }
+    }
+
+    private void send(List<PendingMessage> batch) {
+        String payload;
+        if (settings.batchSize > 1) {
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(batch.get(i).payload);
+            }
+            payload = builder.append(']').toString();
+        } else {
+            payload = batch.get(0).payload;
+        }
+        HTTPMessageExecutor executor = new HTTPMessageExecutor(payload, settings.authorizationHeader, settings.url,
+                hostConfiguration, httpClient);
+        boolean isSent = false;
+        PushNotificationExecutionFailedException failure = null;
+        try {
+            executor.run();
+            isSent = executor.isSuccessful();
+            if (!isSent) {
+                failure = new PushNotificationExecutionFailedException("Push notification message is rejected by "
+                        + settings.url + " with status " + executor.getResponseStatus());
+            }
+        } catch (RuntimeException e) {
+            // Error is already logged by the executor
+            failure = new PushNotificationExecutionFailedException("Failed to send push notification message to "
+                    + settings.url, e);
+        }
+        long now = System.currentTimeMillis();
+        for (PendingMessage message : batch) {
+            long latency = now - message.queuedTime;
+            totalLatencyMills.addAndGet(latency);
+            maxLatencyMills.accumulateAndGet(latency, Math::max);
+            if (isSent) {
+                message.delivery.complete(null);
+            } else {
+                message.delivery.completeExceptionally(failure);
+            }
+        }
+        long completed;
+        if (isSent) {
+            completed = sentCount.addAndGet(batch.size());
+        } else {
+            completed = failedCount.addAndGet(batch.size());
+        }
+        requestCount.incrementAndGet();
+        if (log.isDebugEnabled() && completed / METRICS_LOG_INTERVAL
+                != (completed - batch.size()) / METRICS_LOG_INTERVAL) {
+            log.debug("HTTP push notification metrics of " + settings.url + " - queue depth: " + getQueueDepth()
+                    + ", sent: " + getSentCount() + ", failed: " + getFailedCount() + ", dropped: "
+                    + getDroppedCount() + ", requests: " + requestCount.get() + ", average latency: "
+                    + getAverageLatencyMills() + " ms, max latency: " + maxLatencyMills.get() + " ms");
+        }
+    }
+
+    private void shutdown() {
+        isRunning = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Dropping " + queue.size() + " push notification messages to " + settings.url
+                        + " as the dispatcher is shutting down");
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        PendingMessage message;
+        while ((message = queue.poll()) != null) {
+            droppedCount.incrementAndGet();
+            message.delivery.completeExceptionally(new PushNotificationExecutionFailedException(
+                    "Push notification message to " + settings.url + " is dropped as the dispatcher is stopped"));
+        }
+        idleConnectionTimeoutThread.shutdown();
+        connectionManager.shutdown();
+    }
+
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getAverageLatencyMills() {
+        long completed = sentCount.get() + failedCount.get();
+        return completed == 0 ? 0 : totalLatencyMills.get() / completed;
+    }
+
+    public long getMaxLatencyMills() {
+        return maxLatencyMills.get();
+    }
+
+    private static class PendingMessage {
+        private final String payload;
+        private final long queuedTime = System.currentTimeMillis();
+        private final CompletableFuture<Void> delivery = new CompletableFuture<>();
+
+        private PendingMessage(String payload) {
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * Endpoint and pool settings of a dispatcher. A dispatcher is replaced when the settings of its endpoint change.
+     */
+    public static class Settings {
+        private final String url;
+        private final String authorizationHeader;
+        private final int workers;
+        private final int maxConnectionsPerHost;
+        private final int queueCapacity;
+        private final int batchSize;
+        private final long batchWindowMills;
+        private final int connectionTimeoutMills;
+        private final int socketTimeoutMills;
+
+        public Settings(String url, String authorizationHeader, int workers, int maxConnectionsPerHost,
+                        int queueCapacity, int batchSize, long batchWindowMills, int connectionTimeoutMills,
+                        int socketTimeoutMills) {
+            this.url = url;
+            this.authorizationHeader = authorizationHeader;
+            this.workers = Math.max(1, workers);
+            this.maxConnectionsPerHost = Math.max(this.workers, maxConnectionsPerHost);
+            this.queueCapacity = Math.max(1, queueCapacity);
+            this.batchSize = Math.max(1, batchSize);
+            this.batchWindowMills = Math.max(0, batchWindowMills);
+            this.connectionTimeoutMills = connectionTimeoutMills;
+            this.socketTimeoutMills = socketTimeoutMills;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Settings settings = (Settings) o;
+            return workers == settings.workers && maxConnectionsPerHost == settings.maxConnectionsPerHost
+                    && queueCapacity == settings.queueCapacity && batchSize == settings.batchSize
+                    && batchWindowMills == settings.batchWindowMills
+                    && connectionTimeoutMills == settings.connectionTimeoutMills
+                    && socketTimeoutMills == settings.socketTimeoutMills && url.equals(settings.url)
+                    && Objects.equals(authorizationHeader, settings.authorizationHeader);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, authorizationHeader, workers, maxConnectionsPerHost, queueCapacity, batchSize,
+                    batchWindowMills, connectionTimeoutMills, socketTimeoutMills);
+        }
+    }
+}
@@ -17,57 +17,95 @@
  */
 package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.http;
 
+import com.google.gson.Gson;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.InvalidConfigurationException;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationContext;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationStrategy;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationConfig;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import org.apache.commons.httpclient.HostConfiguration;
-import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.RejectedExecutionException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Pushes the notification context to an external HTTP endpoint. Apart from 'url' and 'authorization', the push
+ * notification config accepts the optional properties 'workers', 'maxConnectionsPerHost', 'queueCapacity',
+ * 'batchSize', 'batchWindowMills', 'connectionTimeoutMills' and 'socketTimeoutMills'. A batch size more than one
+ * sends the queued notifications as a JSON array, hence it must only be set for endpoints which accept arrays.
+ * {@link #execute(NotificationContext)} fails only when the notification can't be queued, while
+ * {@link #executeAsync(NotificationContext)} completes once the endpoint has accepted the notification, hence the
+ * caller can retry the notifications which are not delivered.
+ */
 public class HTTPNotificationStrategy implements NotificationStrategy {
 
     private static final Log log = LogFactory.getLog(HTTPNotificationStrategy.class);
     private final PushNotificationConfig config;
     private static final String URL_PROPERTY = "url";
     private static final String AUTHORIZATION_HEADER_PROPERTY = "authorization";
+    private static final String WORKERS_PROPERTY = "workers";
+    private static final String MAX_CONNECTIONS_PER_HOST_PROPERTY = "maxConnectionsPerHost";
+    private static final String QUEUE_CAPACITY_PROPERTY = "queueCapacity";
+    private static final String BATCH_SIZE_PROPERTY = "batchSize";
+    private static final String BATCH_WINDOW_PROPERTY = "batchWindowMills";
+    private static final String CONNECTION_TIMEOUT_PROPERTY = "connectionTimeoutMills";
+    private static final String SOCKET_TIMEOUT_PROPERTY = "socketTimeoutMills";
+    private static final int DEFAULT_WORKERS = 10;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 1;
+    private static final int DEFAULT_BATCH_WINDOW_MILLS = 50;
+    private static final int DEFAULT_CONNECTION_TIMEOUT_MILLS = 10000;
+    private static final int DEFAULT_SOCKET_TIMEOUT_MILLS = 30000;
+    private static final Gson gson = new Gson();
     private String endpoint;
-    private static ExecutorService executorService;
-    private HttpClient httpClient = null;
-    private HostConfiguration hostConfiguration;
-    private String authorizationHeaderValue;
-    private String uri;
+    private volatile HTTPNotificationDispatcher dispatcher;
 
     public HTTPNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
         if (this.config == null) {
             throw new InvalidConfigurationException("Properties Cannot be found");
         }
-        endpoint = config.getProperties().get(URL_PROPERTY);
+        Map<String, String> properties = config.getProperties();
+        endpoint = properties.get(URL_PROPERTY);
         if (endpoint == null || endpoint.isEmpty()) {
             throw new InvalidConfigurationException("Property - 'url' cannot be found");
         }
         try {
-            this.uri = endpoint;
             URL url = new URL(endpoint);
-            hostConfiguration = new HostConfiguration();
+            HostConfiguration hostConfiguration = new HostConfiguration();
             hostConfiguration.setHost(url.getHost(), url.getPort(), url.getProtocol());
-            this.authorizationHeaderValue = config.getProperties().get(AUTHORIZATION_HEADER_PROPERTY);
-            executorService = Executors.newFixedThreadPool(1);
-            httpClient = new HttpClient();
+            HTTPNotificationDispatcher.Settings settings = new HTTPNotificationDispatcher.Settings(endpoint,
+                    properties.get(AUTHORIZATION_HEADER_PROPERTY),
+                    getIntProperty(properties, WORKERS_PROPERTY, DEFAULT_WORKERS),
+                    getIntProperty(properties, MAX_CONNECTIONS_PER_HOST_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_HOST),
+                    getIntProperty(properties, QUEUE_CAPACITY_PROPERTY, DEFAULT_QUEUE_CAPACITY),
+                    getIntProperty(properties, BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE),
+                    getIntProperty(properties, BATCH_WINDOW_PROPERTY, DEFAULT_BATCH_WINDOW_MILLS),
+                    getIntProperty(properties, CONNECTION_TIMEOUT_PROPERTY, DEFAULT_CONNECTION_TIMEOUT_MILLS),
+                    getIntProperty(properties, SOCKET_TIMEOUT_PROPERTY, DEFAULT_SOCKET_TIMEOUT_MILLS));
+            dispatcher = HTTPNotificationDispatcher.getInstance(settings, hostConfiguration);
         } catch (MalformedURLException e) {
             throw new InvalidConfigurationException("Property - 'url' is malformed.", e);
         }
     }
 
+    private static int getIntProperty(Map<String, String> properties, String name, int defaultValue) {
+        String value = properties.get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidConfigurationException("Property - '" + name + "' must be an integer.", e);
+        }
+    }
+
     @Override
     public void init() {
 
@@ -75,12 +113,43 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
+        submit(ctx);
+    }
+
+    @Override
+    public CompletableFuture<Void> executeAsync(NotificationContext ctx) {
         try {
-            executorService.submit(new HTTPMessageExecutor(ctx, authorizationHeaderValue, uri, hostConfiguration
-                    , httpClient));
-        } catch (RejectedExecutionException e) {
-            log.error("Failed to publish to external endpoint url: " + endpoint, e);
+            return submit(ctx);
+        } catch (PushNotificationExecutionFailedException e) {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+    }
+
+    private CompletableFuture<Void> submit(NotificationContext ctx) throws PushNotificationExecutionFailedException {
+        HTTPNotificationDispatcher currentDispatcher = dispatcher;
+        if (!currentDispatcher.isRunning()) {
+            // Dispatcher is replaced by a strategy created with changed settings of the endpoint
+            HTTPNotificationDispatcher replacement = HTTPNotificationDispatcher.getInstance(endpoint);
+            if (replacement != null) {
+                currentDispatcher = replacement;
+                dispatcher = replacement;
+            }
+        }
+        CompletableFuture<Void> delivery = currentDispatcher.submit(gson.toJson(ctx));
+        if (delivery == null) {
+            String msg;
+            if (currentDispatcher.isRunning()) {
+                msg = "Failed to publish to external endpoint url: " + endpoint + ", as the queue is full with "
+                        + currentDispatcher.getQueueDepth() + " messages";
+            } else {
+                msg = "Failed to publish to external endpoint url: " + endpoint + ", as the dispatcher is stopped";
+            }
+            log.error(msg);
+            throw new PushNotificationExecutionFailedException(msg);
         }
+        return delivery;
     }
 
     @Override
@@ -90,7 +159,8 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void undeploy() {
-        executorService.shutdown();
+        // Dispatcher is shared with the other strategies of the same endpoint, hence it is stopped with the bundle or
+        // when a strategy changes the settings of the endpoint
     }
 
     @Override
@@ -17,11 +17,13 @@
  */
 package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.http.internal;
 
+import io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.http.HTTPNotificationDispatcher;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 @Component(
         name = "io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.http.internal.HTTPPushNotificationServiceComponent",
         immediate = true)
@@ -47,4 +49,10 @@ public class HTTPPushNotificationServiceComponent {
         }
     }
 
+    @SuppressWarnings("unused")
+    @Deactivate
+    protected void deactivate(ComponentContext componentContext) {
+        HTTPNotificationDispatcher.shutdownAll();
+    }
+
 }
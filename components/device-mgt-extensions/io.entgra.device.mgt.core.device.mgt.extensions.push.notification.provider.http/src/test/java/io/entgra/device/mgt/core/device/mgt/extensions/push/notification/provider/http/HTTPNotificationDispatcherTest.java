@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.extensions.push.notification.provider.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
+import org.apache.commons.httpclient.HostConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class HTTPNotificationDispatcherTest {
+
+    private static final long DELIVERY_TIMEOUT_MILLS = 10000;
+    private final BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+    private HttpServer server;
+    private HostConfiguration hostConfiguration;
+
+    @BeforeClass
+    public void init() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                ByteArrayOutputStream payload = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    payload.write(buffer, 0, read);
+                }
+                requests.add(exchange.getRequestURI().getPath() + " "
+                        + new String(payload.toByteArray(), StandardCharsets.UTF_8));
+            }
+            exchange.sendResponseHeaders(exchange.getRequestURI().getPath().startsWith("/fail") ? 500 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        hostConfiguration = new HostConfiguration();
+        hostConfiguration.setHost("localhost", server.getAddress().getPort(), "http");
+    }
+
+    @AfterClass
+    public void cleanup() {
+        HTTPNotificationDispatcher.shutdownAll();
+        server.stop(0);
+    }
+
+    @Test(description = "Delivers each message in its own request when batching is disabled")
+    public void testDeliverSingleMessages() throws InterruptedException {
+        requests.clear();
+        HTTPNotificationDispatcher dispatcher = HTTPNotificationDispatcher.getInstance(
+                createSettings("/single", 1), hostConfiguration);
+        Assert.assertNotNull(dispatcher.submit("{\"id\":1}"));
+        Assert.assertNotNull(dispatcher.submit("{\"id\":2}"));
+
+        Assert.assertEquals(requests.poll(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS), "/single {\"id\":1}");
+        Assert.assertEquals(requests.poll(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS), "/single {\"id\":2}");
+        waitForSentCount(dispatcher, 2);
+        Assert.assertEquals(dispatcher.getFailedCount(), 0);
+    }
+
+    @Test(description = "Delivers the messages queued within the batch window as a JSON array in one request")
+    public void testDeliverBatchedMessages() throws InterruptedException {
+        requests.clear();
+        HTTPNotificationDispatcher dispatcher = HTTPNotificationDispatcher.getInstance(
+                createSettings("/batch", 3), hostConfiguration);
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertNotNull(dispatcher.submit("{\"id\":" + i + "}"));
+        }
+
+        Assert.assertEquals(requests.poll(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS),
+                "/batch [{\"id\":1},{\"id\":2},{\"id\":3}]");
+        waitForSentCount(dispatcher, 3);
+        Assert.assertNull(requests.poll(200, TimeUnit.MILLISECONDS), "Batched messages are sent more than once.");
+    }
+
+    @Test(description = "Stops the dispatcher of an endpoint once the settings of the endpoint change")
+    public void testShutdownSupersededDispatcher() throws InterruptedException {
+        requests.clear();
+        HTTPNotificationDispatcher dispatcher = HTTPNotificationDispatcher.getInstance(createSettings("/reload", 1),
+                hostConfiguration);
+        Assert.assertSame(HTTPNotificationDispatcher.getInstance(createSettings("/reload", 1), hostConfiguration),
+                dispatcher, "Dispatcher is replaced although the settings are unchanged.");
+        Assert.assertNotNull(dispatcher.submit("{\"id\":1}"));
+
+        HTTPNotificationDispatcher replacement = HTTPNotificationDispatcher.getInstance(
+                createSettings("/reload", 2), hostConfiguration);
+        Assert.assertNotSame(replacement, dispatcher, "Dispatcher is not replaced when the settings change.");
+        Assert.assertFalse(dispatcher.isRunning(), "Superseded dispatcher is still running.");
+        Assert.assertNull(dispatcher.submit("{\"id\":2}"), "Superseded dispatcher accepts messages.");
+        Assert.assertEquals(dispatcher.getSentCount(), 1, "Queued message of the superseded dispatcher is lost.");
+        Assert.assertSame(HTTPNotificationDispatcher.getInstance(getUrl("/reload")), replacement);
+
+        Assert.assertNotNull(replacement.submit("{\"id\":3}"));
+        Assert.assertEquals(requests.poll(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS), "/reload {\"id\":1}");
+        Assert.assertEquals(requests.poll(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS), "/reload [{\"id\":3}]");
+    }
+
+    @Test(description = "Completes the delivery of a message only once the endpoint accepts it")
+    public void testCompleteDelivery() throws Exception {
+        requests.clear();
+        HTTPNotificationDispatcher dispatcher = HTTPNotificationDispatcher.getInstance(
+                createSettings("/delivery", 1), hostConfiguration);
+        CompletableFuture<Void> delivery = dispatcher.submit("{\"id\":1}");
+        Assert.assertNotNull(delivery);
+
+        delivery.get(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(requests.poll(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS), "/delivery {\"id\":1}");
+    }
+
+    @Test(description = "Fails the delivery of the messages rejected by the endpoint, hence they can be retried")
+    public void testFailRejectedDelivery() throws InterruptedException, TimeoutException {
+        requests.clear();
+        HTTPNotificationDispatcher dispatcher = HTTPNotificationDispatcher.getInstance(
+                createSettings("/fail", 2), hostConfiguration);
+        CompletableFuture<Void> firstDelivery = dispatcher.submit("{\"id\":1}");
+        CompletableFuture<Void> secondDelivery = dispatcher.submit("{\"id\":2}");
+
+        for (CompletableFuture<Void> delivery : Arrays.asList(firstDelivery, secondDelivery)) {
+            try {
+                delivery.get(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS);
+                Assert.fail("Delivery of a message rejected by the endpoint is completed.");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof PushNotificationExecutionFailedException);
+            }
+        }
+        Assert.assertEquals(dispatcher.getSentCount(), 0);
+        Assert.assertEquals(dispatcher.getFailedCount(), 2);
+    }
+
+    private HTTPNotificationDispatcher.Settings createSettings(String path, int batchSize) {
+        return new HTTPNotificationDispatcher.Settings(getUrl(path), null, 1, 1, 100, batchSize, 1000, 5000, 5000);
+    }
+
+    private String getUrl(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private void waitForSentCount(HTTPNotificationDispatcher dispatcher, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLS;
+        while (dispatcher.getSentCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(dispatcher.getSentCount(), count, "Messages are not delivered to the endpoint.");
+    }
+}
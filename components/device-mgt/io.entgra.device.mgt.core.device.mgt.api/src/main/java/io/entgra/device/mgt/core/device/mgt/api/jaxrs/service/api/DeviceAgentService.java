@@ -480,7 +480,11 @@ public interface DeviceAgentService {
             "windows.", required = true)
                                      @PathParam("type") String type,
                                      @ApiParam(name = "id", value = "The device ID.", required = true)
-                                     @PathParam("id") String deviceId);
+                                     @PathParam("id") String deviceId,
+                                     @ApiParam(name = "waitTime", value = "Maximum time in milliseconds to wait " +
+                                             "for an operation to be added if the device has no pending operation. " +
+                                             "The wait is capped at 60 seconds.", defaultValue = "0")
+                                     @QueryParam("waitTime") @DefaultValue("0") long waitTime);
 
     @PUT
     @Path("/operations/{type}/{id}")
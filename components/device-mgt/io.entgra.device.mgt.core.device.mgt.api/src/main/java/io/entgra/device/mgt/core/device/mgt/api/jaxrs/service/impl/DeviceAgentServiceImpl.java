@@ -456,7 +456,8 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
 
     @GET
     @Path("/next-pending/operation/{type}/{id}")
-    public Response getNextPendingOperation(@PathParam("type") String type, @PathParam("id") String deviceId) {
+    public Response getNextPendingOperation(@PathParam("type") String type, @PathParam("id") String deviceId,
+                                            @QueryParam("waitTime") @DefaultValue("0") long waitTime) {
         try {
             if (!DeviceMgtAPIUtils.getDeviceManagementService().getAvailableDeviceTypes().contains(type)) {
                 String errorMessage = "Device type is invalid";
@@ -469,8 +470,15 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
                 log.error(msg);
                 return Response.status(Response.Status.BAD_REQUEST).entity(msg).build();
             }
-            Operation operation = DeviceMgtAPIUtils.getDeviceManagementService().getNextPendingOperation(
-                    deviceIdentifier);
+            Operation operation;
+            if (waitTime > 0) {
+                // setting notNowOperationFrequency to -1 to avoid picking not now operations
+                operation = DeviceMgtAPIUtils.getDeviceManagementService().getNextPendingOperation(
+                        deviceIdentifier, -1, waitTime);
+            } else {
+                operation = DeviceMgtAPIUtils.getDeviceManagementService().getNextPendingOperation(
+                        deviceIdentifier);
+            }
             return Response.status(Response.Status.OK).entity(operation).build();
         } catch (OperationManagementException e) {
             String errorMessage = "Issue in retrieving operation management service instance";
@@ -23,6 +23,7 @@ public class DynamicTaskContext {
     private int serverHashIndex;
     private int activeServerCount;
     private boolean partitioningEnabled = false;
+    private TaskPartition taskPartition;
 
     public int getServerHashIndex() {
         return serverHashIndex;
@@ -47,4 +48,15 @@ public class DynamicTaskContext {
     public void setPartitioningEnabled(boolean partitioningEnabled) {
         this.partitioningEnabled = partitioningEnabled;
     }
+
+    /**
+     * @return partition of the devices allocated to the current server, or null if the partition is not known
+     */
+    public TaskPartition getTaskPartition() {
+        return taskPartition;
+    }
+
+    public void setTaskPartition(TaskPartition taskPartition) {
+        this.taskPartition = taskPartition;
+    }
 }
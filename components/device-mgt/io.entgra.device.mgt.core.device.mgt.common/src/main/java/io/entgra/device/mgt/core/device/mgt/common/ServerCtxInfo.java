@@ -18,15 +18,25 @@
 
 package io.entgra.device.mgt.core.device.mgt.common;
 
+import java.util.List;
+
 public class ServerCtxInfo {
     private int activeServerCount;
     private int localServerHashIdx;
+    private List<String> activeServers;
+    private String localServer;
 
     public ServerCtxInfo(int activeServerCount, int localServerHashIdx){
         this.activeServerCount = activeServerCount;
         this.localServerHashIdx = localServerHashIdx;
     }
 
+    public ServerCtxInfo(List<String> activeServers, String localServer, int localServerHashIdx) {
+        this(activeServers.size(), localServerHashIdx);
+        this.activeServers = activeServers;
+        this.localServer = localServer;
+    }
+
     public int getActiveServerCount() {
         return activeServerCount;
     }
@@ -42,4 +52,26 @@ public class ServerCtxInfo {
     public void setLocalServerHashIdx(int localServerHashIdx) {
         this.localServerHashIdx = localServerHashIdx;
     }
+
+    /**
+     * @return identifiers of the active servers if known, null otherwise
+     */
+    public List<String> getActiveServers() {
+        return activeServers;
+    }
+
+    public String getLocalServer() {
+        return localServer;
+    }
+
+    /**
+     * @return partition of the devices allocated to the local server, computed by the server identifiers if known or
+     * by the hash indexes otherwise
+     */
+    public TaskPartition getTaskPartition() {
+        if (activeServers != null && localServer != null) {
+            return TaskPartition.of(activeServers, localServer);
+        }
+        return TaskPartition.of(activeServerCount, localServerHashIdx);
+    }
 }
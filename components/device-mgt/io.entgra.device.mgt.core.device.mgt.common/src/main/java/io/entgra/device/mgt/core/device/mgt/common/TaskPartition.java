@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.common;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Slice of the devices allocated to a server when the tasks are partitioned among the active servers. Each device is
+ * placed in one of {@value #BUCKET_COUNT} buckets by its id, and the buckets are distributed among the
+ * servers by consistent hashing, where each server owns the buckets right before each of its
+ * {@value #VIRTUAL_NODE_COUNT} virtual nodes on a ring. Hence, only about 1/N of the buckets change the owner when a
+ * server joins or leaves the cluster, and the buckets of a server are a few ranges which can be looked up by an index
+ * range scan.
+ */
+public class TaskPartition {
+
+    public static final int BUCKET_COUNT = 1024;
+    private static final int VIRTUAL_NODE_COUNT = 32;
+
+    private final List<BucketRange> bucketRanges;
+
+    private TaskPartition(List<BucketRange> bucketRanges) {
+        this.bucketRanges = Collections.unmodifiableList(bucketRanges);
+    }
+
+    /**
+     * Compute the partition of a server.
+     *
+     * @param activeServers identifiers of all the active servers, which has to be the same on every server
+     * @param localServer   identifier of the server of which the partition is computed
+     * @return the partition of the given server, which is empty if the server is not among the active servers
+     */
+    public static TaskPartition of(List<String> activeServers, String localServer) {
+        List<VirtualNode> ring = new ArrayList<>(activeServers.size() * VIRTUAL_NODE_COUNT);
+        for (String server : activeServers) {
+            for (int i = 0; i < VIRTUAL_NODE_COUNT; i++) {
+                ring.add(new VirtualNode(Math.floorMod(hash(server + "#" + i), BUCKET_COUNT), server));
+            }
+        }
+        Collections.sort(ring);
+        List<BucketRange> ranges = new ArrayList<>();
+        int previousPosition = ring.isEmpty() ? 0 : ring.get(ring.size() - 1).position - BUCKET_COUNT;
+        for (VirtualNode node : ring) {
+            // A virtual node owns the buckets after the previous virtual node up to its own position
+            int from = previousPosition + 1;
+            int to = node.position;
+            previousPosition = node.position;
+            if (from > to || !node.server.equals(localServer)) {
+                continue;
+            }
+            if (from < 0) {
+                addRange(ranges, from + BUCKET_COUNT, BUCKET_COUNT - 1);
+                from = 0;
+            }
+            addRange(ranges, from, to);
+        }
+        Collections.sort(ranges);
+        List<BucketRange> merged = new ArrayList<>(ranges.size());
+        for (BucketRange range : ranges) {
+            BucketRange last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last.to + 1 == range.from) {
+                merged.set(merged.size() - 1, new BucketRange(last.from, range.to));
+            } else {
+                merged.add(range);
+            }
+        }
+        return new TaskPartition(merged);
+    }
+
+    /**
+     * Compute the partition of a server when only the number of active servers and the hash index of the server is
+     * known. The servers are identified by their hash indexes, hence the buckets are not moved minimally when the
+     * indexes of the servers change.
+     *
+     * @param activeServerCount number of active servers
+     * @param serverHashIndex   hash index of the server
+     * @return the partition of the given server
+     */
+    public static TaskPartition of(int activeServerCount, int serverHashIndex) {
+        List<String> activeServers = new ArrayList<>(activeServerCount);
+        for (int i = 0; i < activeServerCount; i++) {
+            activeServers.add(String.valueOf(i));
+        }
+        return of(activeServers, String.valueOf(serverHashIndex));
+    }
+
+    /**
+     * @param deviceId id of the device
+     * @return the bucket of the device, which is persisted along with the device. It is MOD(ID, BUCKET_COUNT), so
+     * that the buckets of the devices enrolled before the buckets were introduced can be computed by the database.
+     */
+    public static int getBucket(int deviceId) {
+        return Math.floorMod(deviceId, BUCKET_COUNT);
+    }
+
+    /**
+     * @return ranges of the buckets owned by the server in the ascending order
+     */
+    public List<BucketRange> getBucketRanges() {
+        return bucketRanges;
+    }
+
+    /**
+     * @return true if the server owns all the buckets, i.e. the devices need not be filtered
+     */
+    public boolean isComplete() {
+        return bucketRanges.size() == 1 && bucketRanges.get(0).from == 0
+                && bucketRanges.get(0).to == BUCKET_COUNT - 1;
+    }
+
+    public boolean contains(int bucket) {
+        for (BucketRange range : bucketRanges) {
+            if (bucket >= range.from && bucket <= range.to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return bucketRanges.equals(((TaskPartition) o).bucketRanges);
+    }
+
+    @Override
+    public int hashCode() {
+        return bucketRanges.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return bucketRanges.toString();
+    }
+
+    private static void addRange(List<BucketRange> ranges, int from, int to) {
+        ranges.add(new BucketRange(from, to));
+    }
+
+    /**
+     * String hash code, which is specified by the language hence stable across servers, spread with the finalizer of
+     * MurmurHash3 as the hash codes of similar strings are close to each other.
+     */
+    private static int hash(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Inclusive range of buckets.
+     */
+    public static class BucketRange implements Comparable<BucketRange> {
+
+        private final int from;
+        private final int to;
+
+        public BucketRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        @Override
+        public int compareTo(BucketRange o) {
+            return Integer.compare(from, o.from);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BucketRange that = (BucketRange) o;
+            return from == that.from && to == that.to;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * from + to;
+        }
+
+        @Override
+        public String toString() {
+            return from + "-" + to;
+        }
+    }
+
+    private static class VirtualNode implements Comparable<VirtualNode> {
+
+        private final int position;
+        private final String server;
+
+        private VirtualNode(int position, String server) {
+            this.position = position;
+            this.server = server;
+        }
+
+        @Override
+        public int compareTo(VirtualNode o) {
+            int result = Integer.compare(position, o.position);
+            return result != 0 ? result : server.compareTo(o.server);
+        }
+    }
+}
@@ -94,12 +94,39 @@ public interface OperationManager {
     Operation getNextPendingOperation(DeviceIdentifier deviceId, long notNowOperationFrequency)
             throws OperationManagementException;
 
+    /**
+     * Method to retrieve the next pending operation of a device, waiting for an operation to be added if the device
+     * has none.
+     *
+     * @param deviceId                 DeviceIdentifier of the device
+     * @param notNowOperationFrequency Time in milliseconds a NOTNOW operation is deferred, -1 to skip NOTNOW operations
+     * @param waitTimeMills            Maximum time in milliseconds to wait for an operation, 0 to return immediately
+     * @return Next pending operation or null if no operation is added within the wait time
+     * @throws OperationManagementException If some unusual behaviour is observed while fetching the operation.
+     */
+    default Operation getNextPendingOperation(DeviceIdentifier deviceId, long notNowOperationFrequency,
+                                              long waitTimeMills) throws OperationManagementException {
+        return getNextPendingOperation(deviceId, notNowOperationFrequency);
+    }
+
     Operation getNextPendingOperation(DeviceIdentifier deviceId) throws OperationManagementException;
 
     void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException;
 
     void updateOperation(int enrolmentId, Operation operation, DeviceIdentifier deviceId) throws OperationManagementException;
 
+    /**
+     * Updates the status of the pending operations of the given codes for a set of enrolments at once.
+     *
+     * @param enrolmentIds   Ids of the enrolments
+     * @param operationCodes Codes of the operations to update
+     * @param status         Status to set
+     * @return Number of updated operations
+     * @throws OperationManagementException if the update fails
+     */
+    int updatePendingOperationsStatus(List<Integer> enrolmentIds, List<String> operationCodes,
+                                      Operation.Status status) throws OperationManagementException;
+
     Operation getOperationByDeviceAndOperationId(DeviceIdentifier deviceId, int operationId)
             throws OperationManagementException;
 
@@ -30,4 +30,16 @@ public interface PermissionManagerService {
 
     List<Permission> getPermission(String context) throws PermissionManagementException;
 
+    /**
+     * Find the permission of the resource which serves the given request. A resource with a literal path segment
+     * is preferred over a templated resource at the same position.
+     *
+     * @param context    Context of the webapp which registered the permissions.
+     * @param url        Request URL including the context.
+     * @param httpMethod HTTP method of the request.
+     * @return Permission of the matching resource or null if no resource matches the request.
+     * @throws PermissionManagementException If the permission could not be retrieved.
+     */
+    Permission getPermission(String context, String url, String httpMethod) throws PermissionManagementException;
+
 }
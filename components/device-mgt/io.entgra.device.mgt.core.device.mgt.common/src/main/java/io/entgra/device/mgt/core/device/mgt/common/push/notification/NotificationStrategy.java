@@ -17,12 +17,34 @@
  */
 package io.entgra.device.mgt.core.device.mgt.common.push.notification;
 
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+
+import java.util.concurrent.CompletableFuture;
+
 public interface NotificationStrategy {
 
     void init();
 
     void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException;
 
+    /**
+     * Sends the notification without waiting for it to be delivered, when the strategy delivers notifications
+     * asynchronously. Callers use the result to reschedule a notification which could not be delivered.
+     * @param ctx Notification context
+     * @return Completed once the notification is delivered, or exceptionally with a
+     * {@link PushNotificationExecutionFailedException} if it could not be delivered
+     */
+    default CompletableFuture<Void> executeAsync(NotificationContext ctx) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            execute(ctx);
+            result.complete(null);
+        } catch (PushNotificationExecutionFailedException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
     NotificationContext buildContext();
 
     /**
@@ -36,4 +58,12 @@ public interface NotificationStrategy {
      */
     PushNotificationConfig getConfig();
 
+    /**
+     * This will be executed when the enrolment or the properties of a device are changed, hence the strategy must
+     * discard any device data it has cached, such as push registration tokens.
+     * @param deviceIdentifier Identifier of the changed device
+     */
+    default void invalidate(DeviceIdentifier deviceIdentifier) {
+    }
+
 }
@@ -26,8 +26,15 @@ import org.apache.commons.logging.LogFactory;
 
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ArchivalServiceImpl implements ArchivalService {
     private static final Log log = LogFactory.getLog(ArchivalServiceImpl.class);
@@ -43,158 +50,71 @@ public class ArchivalServiceImpl implements ArchivalService {
             DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getArchivalConfiguration()
                     .getArchivalTaskConfiguration().getArchivalLockInterval();
 
+    private static final int MAX_FAIL_ATTEMPTS = 3;
+
+    /**
+     * Operation tables refer to each other, so they are archived one after the other by the same worker, while the
+     * notifications are archived by another worker at the same time.
+     */
+    private static final List<List<ArchivalTable>> ARCHIVAL_WORKERS = Arrays.asList(
+            Arrays.asList(ArchivalTable.OPERATION_RESPONSE_LARGE, ArchivalTable.OPERATION_RESPONSE,
+                    ArchivalTable.ENROLMENT_OP_MAPPING, ArchivalTable.OPERATION),
+            Collections.singletonList(ArchivalTable.NOTIFICATION));
+
     public ArchivalServiceImpl() {
-        this.archivalDAO = ArchivalSourceDAOFactory.getDataPurgingDAO();
-        this.dataDeletionDAO = ArchivalDestinationDAOFactory.getDataDeletionDAO();
+        this(ArchivalSourceDAOFactory.getDataPurgingDAO(), ArchivalDestinationDAOFactory.getDataDeletionDAO());
+    }
+
+    ArchivalServiceImpl(ArchivalDAO archivalDAO, DataDeletionDAO dataDeletionDAO) {
+        this.archivalDAO = archivalDAO;
+        this.dataDeletionDAO = dataDeletionDAO;
     }
 
     @Override
     public void archiveTransactionalRecords() throws ArchivalException {
+        Timestamp currentTime = new Timestamp(new Date().getTime());
+        ExecutorService executor = Executors.newFixedThreadPool(ARCHIVAL_WORKERS.size());
         try {
-            beginTransactions();
-            Timestamp currentTime = new Timestamp(new Date().getTime());
-
-            //Purge the largest table, DM_DEVICE_OPERATION_RESPONSE
-            if (log.isDebugEnabled()) {
-                log.debug("## Archiving operation responses");
+            List<Future<Void>> futures = new ArrayList<>();
+            for (List<ArchivalTable> tables : ARCHIVAL_WORKERS) {
+                futures.add(executor.submit(() -> {
+                    this.archiveTables(tables, currentTime);
+                    return null;
+                }));
             }
-
-            int failAttempts;
-
-            List<Integer> nonRemovableMappings = archivalDAO.getNonRemovableOperationMappingIDs(currentTime);
-            int totalLargeOpResCount = archivalDAO.getLargeOperationResponseCount(currentTime, nonRemovableMappings);
-
-            if (totalLargeOpResCount > 0) {
-                int iterationCount = totalLargeOpResCount / EXECUTION_BATCH_SIZE;
-                int residualRecSize = 0;
-                if ((totalLargeOpResCount % EXECUTION_BATCH_SIZE) != 0) {
-                    residualRecSize = totalLargeOpResCount % EXECUTION_BATCH_SIZE;
-                    iterationCount++;
-                }
-                failAttempts = 0;
-                for (int iter = 0; iter < iterationCount; iter++) {
-                    try {
-                        if (iter == (iterationCount - 1)) {
-                            archivalDAO.transferLargeOperationResponses(residualRecSize, currentTime, nonRemovableMappings);
-                            archivalDAO.removeLargeOperationResponses(residualRecSize, currentTime, nonRemovableMappings);
-                        } else {
-                            archivalDAO.transferLargeOperationResponses(EXECUTION_BATCH_SIZE, currentTime, nonRemovableMappings);
-                            archivalDAO.removeLargeOperationResponses(EXECUTION_BATCH_SIZE, currentTime, nonRemovableMappings);
-                        }
-                        commitTransactions();
-                        failAttempts = 0;
-                    } catch (ArchivalDAOException e) {
-                        rollbackTransactions();
-                        if (++failAttempts > 3) {
-                            String msg = "Error occurred while trying to archive Large Operation Responses. Abort archiving.";
-                            log.error(msg, e);
-                            throw new ArchivalException(msg, e);
-                        }
-                        String msg = "Error occurred while trying to archive Large Operation Responses. " +
-                                "Failed attempts: " + failAttempts + " Error: " + e.getMessage();
-                        log.warn(msg);
-                        iter--;
-                    }
-                    Thread.sleep(ARCHIVAL_LOCK_INTERVAL);
-                }
+            for (Future<Void> future : futures) {
+                future.get();
             }
-
-            int totalOpResCount = archivalDAO.getOperationResponseCount(currentTime, nonRemovableMappings);
-
-            if (totalOpResCount > 0) {
-                int iterationCount = totalOpResCount / EXECUTION_BATCH_SIZE;
-                int residualRecSize = 0;
-                if ((totalOpResCount % EXECUTION_BATCH_SIZE) != 0) {
-                    residualRecSize = totalOpResCount % EXECUTION_BATCH_SIZE;
-                    iterationCount++;
-                }
-                failAttempts = 0;
-                for (int iter = 0; iter < iterationCount; iter++) {
-                    try {
-                        if (iter == (iterationCount - 1)) {
-                            archivalDAO.transferOperationResponses(residualRecSize, currentTime, nonRemovableMappings);
-                            archivalDAO.removeOperationResponses(residualRecSize, currentTime, nonRemovableMappings);
-                        } else {
-                            archivalDAO.transferOperationResponses(EXECUTION_BATCH_SIZE, currentTime, nonRemovableMappings);
-                            archivalDAO.removeOperationResponses(EXECUTION_BATCH_SIZE, currentTime, nonRemovableMappings);
-                        }
-                        commitTransactions();
-                        failAttempts = 0;
-                    } catch (ArchivalDAOException e) {
-                        rollbackTransactions();
-                        if (++failAttempts > 3) {
-                            String msg = "Error occurred while trying to archive Operation Responses. Abort archiving.";
-                            log.error(msg, e);
-                            throw new ArchivalException(msg, e);
-                        }
-                        String msg = "Error occurred while trying to archive Operation Responses. " +
-                                "Failed attempts: " + failAttempts + " Error: " + e.getMessage();
-                        log.warn(msg);
-                        iter--;
-                    }
-                    Thread.sleep(ARCHIVAL_LOCK_INTERVAL);
-                }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ArchivalException) {
+                throw (ArchivalException) e.getCause();
             }
+            String msg = "Error occurred while trying to archive data to the archival tables";
+            log.error(msg, e.getCause());
+            throw new ArchivalException(msg, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            String msg = "Error while waiting for the archival workers to complete.";
+            log.error(msg, e);
+            throw new ArchivalException(msg, e);
+        } finally {
+            // Stops the other worker if one of the workers has failed
+            executor.shutdownNow();
+        }
+    }
 
-            //Purge the notifications table, DM_NOTIFICATION
-            if (log.isDebugEnabled()) {
-                log.debug("## Archiving notifications");
-            }
-            archivalDAO.moveNotifications(currentTime);
-            commitTransactions();
-            //Purge the enrolment mappings table, DM_ENROLMENT_OP_MAPPING
-            if (log.isDebugEnabled()) {
-                log.debug("## Archiving enrolment mappings");
-            }
-            int opMappingCount = archivalDAO.getOpMappingsCount(currentTime);
-            if (opMappingCount > 0) {
-                int iterationCount = opMappingCount / EXECUTION_BATCH_SIZE;
-                int residualRecSize = 0;
-                if ((opMappingCount % EXECUTION_BATCH_SIZE) != 0) {
-                    residualRecSize = opMappingCount % EXECUTION_BATCH_SIZE;
-                    iterationCount++;
-                }
-                failAttempts = 0;
-                for (int iter = 0; iter < iterationCount; iter++) {
-                    try {
-                        if (iter == (iterationCount - 1)) {
-                            archivalDAO.transferEnrollmentOpMappings(residualRecSize, currentTime);
-                            archivalDAO.removeEnrollmentOPMappings(residualRecSize, currentTime);
-                        } else {
-                            archivalDAO.transferEnrollmentOpMappings(EXECUTION_BATCH_SIZE, currentTime);
-                            archivalDAO.removeEnrollmentOPMappings(EXECUTION_BATCH_SIZE, currentTime);
-                        }
-                        commitTransactions();
-                        failAttempts = 0;
-                    } catch (ArchivalDAOException e) {
-                        rollbackTransactions();
-                        if (++failAttempts > 3) {
-                            String msg = "Error occurred while trying to archive Operation Enrollment Mappings. Abort archiving.";
-                            log.error(msg, e);
-                            throw new ArchivalException(msg, e);
-                        }
-                        String msg = "Error occurred while trying to archive Operation Enrollment Mappings. " +
-                                "Failed attempts: " + failAttempts + " Error: " + e.getMessage();
-                        log.warn(msg);
-                        iter--;
+    private void archiveTables(List<ArchivalTable> tables, Timestamp currentTime) throws ArchivalException {
+        try {
+            beginTransactions();
+            for (ArchivalTable table : tables) {
+                if (!archivalDAO.isArchivable(table)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("## Skipping " + table.getTableName() + ", which is not in the source database");
                     }
-                    Thread.sleep(ARCHIVAL_LOCK_INTERVAL);
+                    continue;
                 }
+                this.archiveTable(table, currentTime);
             }
-
-            //Finally, purge the operations table, DM_OPERATION
-            if (log.isDebugEnabled()) {
-                log.debug("## Archiving operations");
-            }
-
-            archivalDAO.transferOperations();
-            archivalDAO.removeOperations();
-            commitTransactions();
-        } catch (ArchivalDAOException e) {
-            rollbackTransactions();
-            String msg = "Error occurred while trying to archive data to the six tables";
-            log.error(msg, e);
-            throw new ArchivalException(msg, e);
         } catch (InterruptedException e) {
             rollbackTransactions();
             String msg = "Error while halting archival thread to free up table locks.";
@@ -206,6 +126,58 @@ public class ArchivalServiceImpl implements ArchivalService {
         }
     }
 
+    /**
+     * Walks the table in batches of primary key ranges and commits each batch. Batches of a rerun start from the
+     * records left in the table, so an interrupted archival continues where it stopped. A failed batch is retried
+     * with half the size, and the size grows back to the configured batch size with each successful batch.
+     */
+    private void archiveTable(ArchivalTable table, Timestamp currentTime)
+            throws ArchivalException, InterruptedException {
+        if (log.isDebugEnabled()) {
+            log.debug("## Archiving " + table.getTableName());
+        }
+        int batchSize = EXECUTION_BATCH_SIZE;
+        int afterId = 0;
+        int failAttempts = 0;
+        int archivedCount = 0;
+        while (true) {
+            long startTime = System.currentTimeMillis();
+            List<Integer> ids;
+            try {
+                ids = archivalDAO.transferRecords(table, afterId, batchSize, currentTime);
+                archivalDAO.removeRecords(table, ids);
+                commitTransactions();
+            } catch (ArchivalDAOException e) {
+                rollbackTransactions();
+                if (++failAttempts > MAX_FAIL_ATTEMPTS) {
+                    String msg = "Error occurred while trying to archive " + table.getTableName() +
+                            ". Abort archiving.";
+                    log.error(msg, e);
+                    throw new ArchivalException(msg, e);
+                }
+                batchSize = Math.max(1, batchSize / 2);
+                String msg = "Error occurred while trying to archive " + table.getTableName() +
+                        ". Failed attempts: " + failAttempts + ", retrying with batch size " + batchSize +
+                        ". Error: " + e.getMessage();
+                log.warn(msg);
+                Thread.sleep(ARCHIVAL_LOCK_INTERVAL);
+                continue;
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+            failAttempts = 0;
+            archivedCount += ids.size();
+            afterId = ids.get(ids.size() - 1);
+            batchSize = (int) Math.min(EXECUTION_BATCH_SIZE, batchSize * 2L);
+            // Pauses as long as the batch held the table locks, up to the configured lock interval
+            Thread.sleep(Math.min(ARCHIVAL_LOCK_INTERVAL, System.currentTimeMillis() - startTime));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(archivedCount + " records of " + table.getTableName() + " archived");
+        }
+    }
+
     private void beginTransactions() throws ArchivalException {
         try {
             ArchivalSourceDAOFactory.beginTransaction();
@@ -217,8 +189,10 @@ public class ArchivalServiceImpl implements ArchivalService {
     }
 
     private void commitTransactions() {
-        ArchivalSourceDAOFactory.commitTransaction();
+        // Archived copies are committed first, so that a failure in between does not lose records. The next run
+        // transfers those records again and replaces their copies.
         ArchivalDestinationDAOFactory.commitTransaction();
+        ArchivalSourceDAOFactory.commitTransaction();
     }
 
     private void rollbackTransactions() {
@@ -26,30 +26,33 @@ import java.util.List;
  */
 public interface ArchivalDAO {
 
-    List<Integer> getNonRemovableOperationMappingIDs(Timestamp time) throws ArchivalDAOException;
-
-    int getLargeOperationResponseCount(Timestamp time, List<Integer> nonRemovableMappings) throws ArchivalDAOException;
-
-    int getOpMappingsCount(Timestamp time) throws ArchivalDAOException;
-
-    int getOperationResponseCount(Timestamp time, List<Integer> nonRemovableMappings) throws ArchivalDAOException;
-
-    void transferOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings) throws ArchivalDAOException;
-
-    void transferLargeOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings) throws ArchivalDAOException;
-
-    void removeLargeOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings) throws ArchivalDAOException;
-
-    void removeOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings) throws ArchivalDAOException;
-
-    void moveNotifications(Timestamp time) throws ArchivalDAOException;
-
-    void transferEnrollmentOpMappings(int batchSize, Timestamp time) throws ArchivalDAOException;
-
-    void removeEnrollmentOPMappings(int batchSize, Timestamp time) throws ArchivalDAOException;
-
-    void transferOperations() throws ArchivalDAOException;
-
-    void removeOperations() throws ArchivalDAOException;
+    /**
+     * Copies the next batch of archivable records of the table to the archival database, walking the table in the
+     * ascending order of the primary key.
+     *
+     * @param table table to archive
+     * @param afterId primary key to start after, 0 for the first batch
+     * @param batchSize maximum number of records to copy
+     * @param time time the retention period is counted back from
+     * @return primary keys of the copied records in ascending order, or an empty list if there is nothing left
+     * @throws ArchivalDAOException if the records could not be copied
+     */
+    List<Integer> transferRecords(ArchivalTable table, int afterId, int batchSize, Timestamp time)
+            throws ArchivalDAOException;
+
+    /**
+     * Removes the copied records from the transactional table.
+     *
+     * @param table table to remove the records from
+     * @param ids primary keys of the records
+     * @throws ArchivalDAOException if the records could not be removed
+     */
+    void removeRecords(ArchivalTable table, List<Integer> ids) throws ArchivalDAOException;
+
+    /**
+     * @param table transactional table
+     * @return true if the schema of the source database has the table, false if it has to be skipped
+     */
+    boolean isArchivable(ArchivalTable table);
 
 }
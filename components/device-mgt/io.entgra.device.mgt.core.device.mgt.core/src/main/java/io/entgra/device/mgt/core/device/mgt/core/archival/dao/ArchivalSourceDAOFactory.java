@@ -18,9 +18,13 @@
 
 package io.entgra.device.mgt.core.device.mgt.core.archival.dao;
 
+import io.entgra.device.mgt.core.device.mgt.common.DeviceManagementConstants;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.IllegalTransactionStateException;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
+import io.entgra.device.mgt.core.device.mgt.common.exceptions.UnsupportedDatabaseEngineException;
 import io.entgra.device.mgt.core.device.mgt.core.archival.dao.impl.ArchivalDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.impl.OracleArchivalDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.impl.SQLServerArchivalDAOImpl;
 import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
 import io.entgra.device.mgt.core.device.mgt.core.config.archival.ArchivalTaskConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.datasource.DataSourceConfig;
@@ -47,7 +51,22 @@ public class ArchivalSourceDAOFactory {
                 .getDeviceManagementConfig()
                 .getArchivalConfiguration()
                 .getArchivalTaskConfiguration();
-        return new ArchivalDAOImpl(configuration.getRetentionPeriod(), configuration.getBatchSize());
+        if (databaseEngine != null) {
+            switch (databaseEngine) {
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_ORACLE:
+                    return new OracleArchivalDAOImpl(configuration.getRetentionPeriod(), configuration.getBatchSize());
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_MSSQL:
+                    return new SQLServerArchivalDAOImpl(configuration.getRetentionPeriod(),
+                            configuration.getBatchSize());
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_POSTGRESQL:
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_H2:
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_MYSQL:
+                    return new ArchivalDAOImpl(configuration.getRetentionPeriod(), configuration.getBatchSize());
+                default:
+                    throw new UnsupportedDatabaseEngineException("Unsupported database engine : " + databaseEngine);
+            }
+        }
+        throw new IllegalStateException("Database engine has not initialized properly.");
     }
 
     public static void init(DataSource dtSource) {
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.archival.dao;
+
+/**
+ * Transactional tables whose records are moved to the archival database. Records of a table can only be removed
+ * after the records of the tables referring to it, so the operation tables have to be archived in this order.
+ */
+public enum ArchivalTable {
+
+    OPERATION_RESPONSE_LARGE("DM_DEVICE_OPERATION_RESPONSE_LARGE", "DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH", "ID",
+            "ID", "OPERATION_RESPONSE"),
+    OPERATION_RESPONSE("DM_DEVICE_OPERATION_RESPONSE", "DM_DEVICE_OPERATION_RESPONSE_ARCH", "ID",
+            "ID", "ENROLMENT_ID", "OPERATION_ID", "OPERATION_RESPONSE", "RECEIVED_TIMESTAMP", "IS_LARGE_RESPONSE"),
+    ENROLMENT_OP_MAPPING("DM_ENROLMENT_OP_MAPPING", "DM_ENROLMENT_OP_MAPPING_ARCH", "ID",
+            "ID", "ENROLMENT_ID", "OPERATION_ID", "STATUS", "CREATED_TIMESTAMP", "UPDATED_TIMESTAMP"),
+    OPERATION("DM_OPERATION", "DM_OPERATION_ARCH", "ID",
+            "ID", "TYPE", "CREATED_TIMESTAMP", "RECEIVED_TIMESTAMP", "OPERATION_CODE", "INITIATED_BY",
+            "OPERATION_DETAILS", "OPERATION_PROPERTIES", "ENABLED"),
+    NOTIFICATION("DM_NOTIFICATION", "DM_NOTIFICATION_ARCH", "NOTIFICATION_ID",
+            "NOTIFICATION_ID", "DEVICE_ID", "OPERATION_ID", "TENANT_ID", "STATUS", "DESCRIPTION");
+
+    private final String tableName;
+    private final String archivalTableName;
+    private final String idColumn;
+    private final String[] columns;
+
+    ArchivalTable(String tableName, String archivalTableName, String idColumn, String... columns) {
+        this.tableName = tableName;
+        this.archivalTableName = archivalTableName;
+        this.idColumn = idColumn;
+        this.columns = columns;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getArchivalTableName() {
+        return archivalTableName;
+    }
+
+    public String getIdColumn() {
+        return idColumn;
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+}
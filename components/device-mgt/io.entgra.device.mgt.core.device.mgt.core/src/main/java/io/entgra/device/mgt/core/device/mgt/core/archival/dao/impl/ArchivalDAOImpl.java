@@ -19,28 +19,28 @@
 package io.entgra.device.mgt.core.device.mgt.core.archival.dao.impl;
 
 import io.entgra.device.mgt.core.device.mgt.core.archival.dao.*;
-import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archives the transactional tables in batches of primary key ranges. Records are read through the source connection
+ * and written through the archival connection, so the archival database does not have to be on the same server.
+ * Archived copies of a batch replace earlier copies of the same records, so a batch can be transferred again after
+ * its removal from the transactional table has failed. This implementation is used for MySQL, H2 and PostgreSQL,
+ * which limit the batches with LIMIT.
+ */
 public class ArchivalDAOImpl implements ArchivalDAO {
 
     private static final Log log = LogFactory.getLog(ArchivalDAOImpl.class);
 
     private final int retentionPeriod;
 
-    private static final String SOURCE_DB =
-            DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getArchivalConfiguration()
-                    .getArchivalTaskConfiguration().getDbConfig().getSourceDB();
-
-    private static final String DESTINATION_DB =
-            DeviceConfigurationManager.getInstance().getDeviceManagementConfig().getArchivalConfiguration()
-                    .getArchivalTaskConfiguration().getDbConfig().getDestinationDB();
-
     public ArchivalDAOImpl(int retentionPeriod, int batchSize) {
         this.retentionPeriod = retentionPeriod;
         if (log.isDebugEnabled()) {
@@ -48,544 +48,175 @@ public class ArchivalDAOImpl implements ArchivalDAO {
         }
     }
 
-    public List<Integer> getNonRemovableOperationMappingIDs(Timestamp time) throws ArchivalDAOException {
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        List<Integer> removableOperationMappingIds = new ArrayList<>();
-        try {
-            Connection conn = ArchivalSourceDAOFactory.getConnection();
-            String sql = "SELECT ID FROM DM_ENROLMENT_OP_MAPPING " +
-                    "WHERE UPDATED_TIMESTAMP < UNIX_TIMESTAMP(DATE_SUB(?, INTERVAL ? DAY)) " +
-                    "AND (STATUS != 'COMPLETED' AND STATUS != 'ERROR')";
-
-            stmt = conn.prepareStatement(sql);
-            stmt.setTimestamp(1, time);
-            stmt.setInt(2, this.retentionPeriod);
-
-            long startTime = System.currentTimeMillis();
-            rs = stmt.executeQuery();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-            while (rs.next()) {
-                removableOperationMappingIds.add(rs.getInt("ID"));
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for getting Non Removable Operation Mapping IDs: " + difference);
-                log.debug("Total Non Removable Operation Mapping IDs: " + removableOperationMappingIds.size());
-            }
-
-        } catch (SQLException e) {
-            String msg = "Error occurred while getting Non Removable Operation Mapping IDs. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(stmt, rs);
-        }
-        return removableOperationMappingIds;
-    }
-
-    public int getLargeOperationResponseCount(Timestamp time, List<Integer> nonRemovableMappings)
-            throws ArchivalDAOException {
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        int count = 0;
-
-        try {
-            Connection conn = ArchivalSourceDAOFactory.getConnection();
-            StringBuilder sql = new StringBuilder("SELECT COUNT(*) AS COUNT FROM DM_DEVICE_OPERATION_RESPONSE_LARGE " +
-                    "WHERE RECEIVED_TIMESTAMP < (DATE_SUB( ? , INTERVAL ? DAY))");
-            if (nonRemovableMappings.size() > 0) {
-                sql.append(" AND EN_OP_MAP_ID NOT IN (");
-                for (int i = 0; i < nonRemovableMappings.size(); i++) {
-                    sql.append(nonRemovableMappings.get(i));
-                    if (i != nonRemovableMappings.size() - 1) {
-                        sql.append(",");
-                    }
-                }
-                sql.append(")");
-            }
-
-            stmt = conn.prepareStatement(sql.toString());
-            stmt.setTimestamp(1, time);
-            stmt.setInt(2, this.retentionPeriod);
-
-            long startTime = System.currentTimeMillis();
-            rs = stmt.executeQuery();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            while (rs.next()) {
-                count = rs.getInt("COUNT");
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for getting Large Operation Response Count : " + difference);
-                log.debug("Total Large Operation Responses for Archival : " + count);
-            }
-
-        } catch (SQLException e) {
-            String msg = "Error occurred while archiving the large operation responses. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(stmt, rs);
-        }
-        return count;
-    }
-
-    public int getOpMappingsCount(Timestamp time) throws ArchivalDAOException {
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        int count = 0;
-
-        try {
-            Connection conn = ArchivalSourceDAOFactory.getConnection();
-            String sql = "SELECT COUNT(ID) AS COUNT FROM DM_ENROLMENT_OP_MAPPING " +
-                    "WHERE UPDATED_TIMESTAMP < UNIX_TIMESTAMP(DATE_SUB( ? , INTERVAL ? DAY))" +
-                    "AND (STATUS = 'COMPLETED' OR STATUS = 'ERROR')";
-
-            stmt = conn.prepareStatement(sql);
-            stmt.setTimestamp(1, time);
-            stmt.setInt(2, this.retentionPeriod);
-
-            long startTime = System.currentTimeMillis();
-            rs = stmt.executeQuery();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            while (rs.next()) {
-                count = rs.getInt("COUNT");
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for getting Op Mappings Count : " + difference);
-                log.debug("Total Enrollment Operation Mappings for Archival : " + count);
-            }
-
-        } catch (SQLException e) {
-            String msg = "Error occurred while getting Op Mappings Count. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(stmt, rs);
-        }
-        return count;
-    }
-
     @Override
-    public int getOperationResponseCount(Timestamp time, List<Integer> nonRemovableMappings)
+    public List<Integer> transferRecords(ArchivalTable table, int afterId, int batchSize, Timestamp time)
             throws ArchivalDAOException {
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        int count = 0;
-
+        String[] columns = this.getColumns(table);
+        String columnList = String.join(", ", columns);
+        String sql = this.getBatchQuery("SELECT " + columnList + " FROM " + table.getTableName() + " T " +
+                "WHERE T." + table.getIdColumn() + " > ? AND " + this.getArchivalCondition(table),
+                "T." + table.getIdColumn());
+        // Copies left behind by a batch whose source delete failed are replaced, so a record is archived only once
+        String purgeSql = "DELETE FROM " + table.getArchivalTableName() + " WHERE " + table.getIdColumn() + " = ?";
+        String insertSql = "INSERT INTO " + table.getArchivalTableName() + " (" + columnList + ", ARCHIVED_AT) " +
+                "VALUES (" + String.join(", ", Collections.nCopies(columns.length + 1, "?")) + ")";
+        Timestamp archivedAt = new Timestamp(System.currentTimeMillis());
+        List<Integer> ids = new ArrayList<>();
         try {
             Connection conn = ArchivalSourceDAOFactory.getConnection();
-
-            StringBuilder sql = new StringBuilder("SELECT COUNT(*) AS COUNT FROM DM_DEVICE_OPERATION_RESPONSE " +
-                    "WHERE RECEIVED_TIMESTAMP < (DATE_SUB( ? , INTERVAL ? DAY))");
-            if (nonRemovableMappings.size() > 0) {
-                sql.append(" AND EN_OP_MAP_ID NOT IN (");
-                for (int i = 0; i < nonRemovableMappings.size(); i++) {
-                    sql.append(nonRemovableMappings.get(i));
-                    if (i != nonRemovableMappings.size() - 1) {
-                        sql.append(",");
-                    }
-                }
-                sql.append(")");
-            }
-
-            stmt = conn.prepareStatement(sql.toString());
-            stmt.setTimestamp(1, time);
-            stmt.setInt(2, this.retentionPeriod);
-
+            Connection archivalConn = ArchivalDestinationDAOFactory.getConnection();
             long startTime = System.currentTimeMillis();
-            rs = stmt.executeQuery();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            while (rs.next()) {
-                count = rs.getInt("COUNT");
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for getting Operation Response Count : " + difference);
-                log.debug("Total Operation Responses for Archival : " + count);
-            }
-
-        } catch (SQLException e) {
-            String msg = "Error occurred while archiving the operation response count. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(stmt, rs);
-        }
-        return count;
-    }
-
-    @Override
-    public void transferOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings)
-            throws ArchivalDAOException {
-        PreparedStatement ps = null;
-
-        try {
-            Connection conn = ArchivalDestinationDAOFactory.getConnection();
-
-            StringBuilder sql = new StringBuilder("INSERT INTO " + DESTINATION_DB + ".DM_DEVICE_OPERATION_RESPONSE_ARCH " +
-                    "SELECT OPR.ID, OPR.ENROLMENT_ID, OPR.OPERATION_ID, OPR.OPERATION_RESPONSE, OPR.RECEIVED_TIMESTAMP, NOW(), OPR.IS_LARGE_RESPONSE " +
-                    "FROM " + SOURCE_DB + ".DM_DEVICE_OPERATION_RESPONSE OPR " +
-                    "WHERE OPR.RECEIVED_TIMESTAMP < ( DATE_SUB( ? , INTERVAL ? DAY))");
-            if (nonRemovableMappings.size() > 0) {
-                sql.append(" AND EN_OP_MAP_ID NOT IN (");
-                for (int i = 0; i < nonRemovableMappings.size(); i++) {
-                    sql.append(nonRemovableMappings.get(i));
-                    if (i != nonRemovableMappings.size() - 1) {
-                        sql.append(",");
-                    }
-                }
-                sql.append(")");
-            }
-            sql.append(" ORDER BY OPR.RECEIVED_TIMESTAMP LIMIT ?");
-
-            long startTime = System.currentTimeMillis();
-
-            ps = conn.prepareStatement(sql.toString());
-            ps.setTimestamp(1, time);
-            ps.setInt(2, this.retentionPeriod);
-            ps.setInt(3, batchSize);
-
-            int affected = ps.executeUpdate();
-
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Transferring Operation Responses : " + difference);
-                log.debug("Transfer of " + affected + " Operation Responses Completed");
-            }
-        } catch (SQLException e) {
-            String msg = "Error occurred while archiving the operation responses. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(ps);
-        }
-    }
-
-    @Override
-    public void transferLargeOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings)
-            throws ArchivalDAOException {
-
-        PreparedStatement ps = null;
-
-        try {
-            Connection conn = ArchivalDestinationDAOFactory.getConnection();
-
-            StringBuilder sql = new StringBuilder("INSERT INTO " + DESTINATION_DB + ".DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH " +
-                    "SELECT OPR.ID, OPR.OPERATION_RESPONSE, NOW() " +
-                    "FROM " + SOURCE_DB + ".DM_DEVICE_OPERATION_RESPONSE_LARGE OPR " +
-                    "WHERE OPR.RECEIVED_TIMESTAMP < ( DATE_SUB( ? , INTERVAL ? DAY))");
-            if (nonRemovableMappings.size() > 0) {
-                sql.append(" AND EN_OP_MAP_ID NOT IN (");
-                for (int i = 0; i < nonRemovableMappings.size(); i++) {
-                    sql.append(nonRemovableMappings.get(i));
-                    if (i != nonRemovableMappings.size() - 1) {
-                        sql.append(",");
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 PreparedStatement purgeStmt = archivalConn.prepareStatement(purgeSql);
+                 PreparedStatement insertStmt = archivalConn.prepareStatement(insertSql)) {
+                stmt.setInt(1, afterId);
+                int index = this.setArchivalConditionParameters(stmt, 2, table, time);
+                stmt.setInt(index, batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns.length; i++) {
+                            this.copyColumn(rs, insertStmt, i, metaData.getColumnType(i));
+                        }
+                        insertStmt.setTimestamp(columns.length + 1, archivedAt);
+                        insertStmt.addBatch();
+                        int id = rs.getInt(table.getIdColumn());
+                        purgeStmt.setInt(1, id);
+                        purgeStmt.addBatch();
+                        ids.add(id);
                     }
                 }
-                sql.append(")");
-            }
-            sql.append(" ORDER BY OPR.RECEIVED_TIMESTAMP LIMIT ?");
-            long startTime = System.currentTimeMillis();
-
-            ps = conn.prepareStatement(sql.toString());
-            ps.setTimestamp(1, time);
-            ps.setInt(2, this.retentionPeriod);
-            ps.setInt(3, batchSize);
-
-            int affected = ps.executeUpdate();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Transferring Large Operation Responses : " + difference);
-                log.debug("Transfer of " + affected + " Large Operation Responses Completed");
-            }
-        } catch (SQLException e) {
-            String msg = "Error occurred while archiving large operation responses. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(ps);
-        }
-    }
-
-    @Override
-    public void removeLargeOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings)
-            throws ArchivalDAOException {
-        PreparedStatement ps = null;
-
-        Connection conn;
-        try {
-            conn = ArchivalSourceDAOFactory.getConnection();
-
-            StringBuilder sql = new StringBuilder("DELETE FROM DM_DEVICE_OPERATION_RESPONSE_LARGE " +
-                    "WHERE RECEIVED_TIMESTAMP < ( DATE_SUB( ? , INTERVAL ? DAY))");
-            if (nonRemovableMappings.size() > 0) {
-                sql.append(" AND EN_OP_MAP_ID NOT IN (");
-                for (int i = 0; i < nonRemovableMappings.size(); i++) {
-                    sql.append(nonRemovableMappings.get(i));
-                    if (i != nonRemovableMappings.size() - 1) {
-                        sql.append(",");
-                    }
+                if (!ids.isEmpty()) {
+                    purgeStmt.executeBatch();
+                    insertStmt.executeBatch();
                 }
-                sql.append(")");
             }
-            sql.append(" ORDER BY RECEIVED_TIMESTAMP LIMIT ?");
-            long startTime = System.currentTimeMillis();
-
-            ps = conn.prepareStatement(sql.toString());
-            ps.setTimestamp(1, time);
-            ps.setInt(2, this.retentionPeriod);
-            ps.setInt(3, batchSize);
-
-            int affected = ps.executeUpdate();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
+            long difference = System.currentTimeMillis() - startTime;
 
             if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Removing Large Operation Responses : " + difference);
-                log.debug(affected + " Rows deleted from DM_DEVICE_OPERATION_RESPONSE_LARGE");
+                log.debug("Time Elapsed for Transferring " + table.getTableName() + " : " + difference);
+                log.debug("Transfer of " + ids.size() + " " + table.getTableName() + " records Completed");
             }
         } catch (SQLException e) {
-            String msg = "Error occurred while removing the operation responses. " + e.getMessage();
+            String msg = "Error occurred while archiving " + table.getTableName() + " records. " + e.getMessage();
             throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(ps);
         }
+        return ids;
     }
 
     @Override
-    public void removeOperationResponses(int batchSize, Timestamp time, List<Integer> nonRemovableMappings)
-            throws ArchivalDAOException {
-        PreparedStatement ps = null;
-
-        Connection conn;
-        try {
-            conn = ArchivalSourceDAOFactory.getConnection();
-
-            StringBuilder sql = new StringBuilder("DELETE FROM DM_DEVICE_OPERATION_RESPONSE " +
-                    "WHERE RECEIVED_TIMESTAMP < ( DATE_SUB( ? , INTERVAL ? DAY))");
-            if (nonRemovableMappings.size() > 0) {
-                sql.append(" AND EN_OP_MAP_ID NOT IN (");
-                for (int i = 0; i < nonRemovableMappings.size(); i++) {
-                    sql.append(nonRemovableMappings.get(i));
-                    if (i != nonRemovableMappings.size() - 1) {
-                        sql.append(",");
-                    }
-                }
-                sql.append(")");
-            }
-            sql.append(" ORDER BY RECEIVED_TIMESTAMP LIMIT ?");
-            long startTime = System.currentTimeMillis();
-
-            ps = conn.prepareStatement(sql.toString());
-            ps.setTimestamp(1, time);
-            ps.setInt(2, this.retentionPeriod);
-            ps.setInt(3, batchSize);
-
-            int affected = ps.executeUpdate();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Removing Operation Responses : " + difference);
-                log.debug(affected + " Rows deleted from DM_DEVICE_OPERATION_RESPONSE");
-            }
-        } catch (SQLException e) {
-            String msg = "Error occurred while removing operation responses. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(ps);
+    public void removeRecords(ArchivalTable table, List<Integer> ids) throws ArchivalDAOException {
+        if (ids.isEmpty()) {
+            return;
         }
-    }
-
-    @Override
-    public void moveNotifications(Timestamp time) throws ArchivalDAOException {
-        PreparedStatement ps1 = null;
-        PreparedStatement ps2 = null;
-
+        String sql = "DELETE FROM " + table.getTableName() + " WHERE " + table.getIdColumn() + " = ?";
         try {
             Connection conn = ArchivalSourceDAOFactory.getConnection();
-            Connection conn2 = ArchivalDestinationDAOFactory.getConnection();
-
-            String sql = "INSERT INTO " + DESTINATION_DB + ".DM_NOTIFICATION_ARCH " +
-                    "SELECT NOTIFICATION_ID, DEVICE_ID, OPERATION_ID, TENANT_ID, STATUS, DESCRIPTION, NOW() " +
-                    "FROM " + SOURCE_DB + ".DM_NOTIFICATION " +
-                    "WHERE LAST_UPDATED_TIMESTAMP < ( DATE_SUB( ? , INTERVAL ? DAY) )";
-
-            ps1 = conn2.prepareStatement(sql);
-            ps1.setTimestamp(1, time);
-            ps1.setInt(2, this.retentionPeriod);
-
             long startTime = System.currentTimeMillis();
-            int affected = ps1.executeUpdate();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Transfer of operations : " + difference);
-                log.debug(affected + " [NOTIFICATIONS] Records copied to the archival table. Starting deletion");
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Integer id : ids) {
+                    stmt.setInt(1, id);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
             }
-
-            sql = "DELETE FROM DM_NOTIFICATION WHERE LAST_UPDATED_TIMESTAMP < ( DATE_SUB( ? , INTERVAL ? DAY) )";
-
-            ps2 = conn.prepareStatement(sql);
-            ps2.setTimestamp(1, time);
-            ps2.setInt(2, this.retentionPeriod);
-
-            startTime = System.currentTimeMillis();
-            affected = ps2.executeUpdate();
-            endTime = System.currentTimeMillis();
-            difference = endTime - startTime;
+            long difference = System.currentTimeMillis() - startTime;
 
             if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for deleting operations : " + difference);
-                log.debug(affected + " Rows deleted");
+                log.debug("Time Elapsed for Removing " + table.getTableName() + " : " + difference);
+                log.debug(ids.size() + " Rows deleted from " + table.getTableName());
             }
         } catch (SQLException e) {
-            String msg = "Error occurred while deleting operations. " + e.getMessage();
+            String msg = "Error occurred while removing " + table.getTableName() + " records. " + e.getMessage();
             throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(ps1);
-            ArchivalDAOUtil.cleanupResources(ps2);
         }
     }
 
     @Override
-    public void transferEnrollmentOpMappings(int batchSize, Timestamp time) throws ArchivalDAOException {
-
-        PreparedStatement ps = null;
-
-        try {
-            Connection conn = ArchivalDestinationDAOFactory.getConnection();
-
-            String sql = "INSERT INTO " + DESTINATION_DB + ".DM_ENROLMENT_OP_MAPPING_ARCH " +
-                    "SELECT OPR.ID, OPR.ENROLMENT_ID, OPR.OPERATION_ID, OPR.STATUS, OPR.CREATED_TIMESTAMP, OPR.UPDATED_TIMESTAMP, NOW() " +
-                    "FROM " + SOURCE_DB + ".DM_ENROLMENT_OP_MAPPING OPR " +
-                    "WHERE OPR.UPDATED_TIMESTAMP < UNIX_TIMESTAMP( DATE_SUB( ? , INTERVAL ? DAY)) " +
-                    "AND (STATUS = 'COMPLETED' OR STATUS = 'ERROR') " +
-                    "ORDER BY OPR.UPDATED_TIMESTAMP LIMIT ?";
-
-            ps = conn.prepareStatement(sql);
-            ps.setTimestamp(1, time);
-            ps.setInt(2, this.retentionPeriod);
-            ps.setInt(3, batchSize);
-
-            long startTime = System.currentTimeMillis();
-            int affected = ps.executeUpdate();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Transferring Enrollment Operation Mappings : " + difference);
-                log.debug("Transfer of " + affected + " Enrollment Operation Mappings Completed");
-            }
-        } catch (SQLException e) {
-            String msg = "Error occurred while archiving Enrollment Operation Mappings. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(ps);
-        }
+    public boolean isArchivable(ArchivalTable table) {
+        return true;
     }
 
-    @Override
-    public void removeEnrollmentOPMappings(int batchSize, Timestamp time) throws ArchivalDAOException {
-        PreparedStatement ps = null;
-        Connection conn;
-
-        try {
-            conn = ArchivalSourceDAOFactory.getConnection();
-
-            String sql = "DELETE FROM DM_ENROLMENT_OP_MAPPING " +
-                    "WHERE UPDATED_TIMESTAMP < UNIX_TIMESTAMP( DATE_SUB( ? , INTERVAL ? DAY)) " +
-                    "AND (STATUS = 'COMPLETED' OR STATUS = 'ERROR') " +
-                    "ORDER BY UPDATED_TIMESTAMP LIMIT ?";
-
-            ps = conn.prepareStatement(sql);
-            ps.setTimestamp(1, time);
-            ps.setInt(2, this.retentionPeriod);
-            ps.setInt(3, batchSize);
+    /**
+     * @param table table to archive
+     * @return columns of the table in the schema of the source database
+     */
+    protected String[] getColumns(ArchivalTable table) {
+        return table.getColumns();
+    }
 
-            long startTime = System.currentTimeMillis();
-            int affected = ps.executeUpdate();
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
+    /**
+     * @param query query to select the records of a batch
+     * @param idColumn primary key column to order the records by
+     * @return query which returns the first records of the batch up to the limit given as the last parameter
+     */
+    protected String getBatchQuery(String query, String idColumn) {
+        return query + " ORDER BY " + idColumn + " LIMIT ?";
+    }
 
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Removing Enrollment Operation Mappings : " + difference);
-                log.debug(affected + " Rows deleted from DM_ENROLMENT_OP_MAPPING");
-            }
-        } catch (SQLException e) {
-            String msg = "Error occurred while removing Enrollment Operation Mappings. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(ps);
+    /**
+     * Records of operations which are still pending after the retention period are kept along with their responses.
+     */
+    private String getArchivalCondition(ArchivalTable table) {
+        switch (table) {
+            case OPERATION_RESPONSE_LARGE:
+            case OPERATION_RESPONSE:
+                return "T.RECEIVED_TIMESTAMP < ? AND NOT EXISTS (SELECT 1 FROM DM_ENROLMENT_OP_MAPPING M " +
+                        "WHERE M.ID = T.EN_OP_MAP_ID AND M.UPDATED_TIMESTAMP < ? " +
+                        "AND M.STATUS NOT IN ('COMPLETED', 'ERROR'))";
+            case ENROLMENT_OP_MAPPING:
+                return "T.UPDATED_TIMESTAMP < ? AND T.STATUS IN ('COMPLETED', 'ERROR')";
+            case OPERATION:
+                return "NOT EXISTS (SELECT 1 FROM DM_ENROLMENT_OP_MAPPING M WHERE M.OPERATION_ID = T.ID)";
+            case NOTIFICATION:
+                return "T.LAST_UPDATED_TIMESTAMP < ?";
+            default:
+                throw new IllegalArgumentException("Unknown archival table " + table);
         }
     }
 
-    @Override
-    public void transferOperations() throws ArchivalDAOException {
-        Statement stmt = null;
-        try {
-            Connection conn = ArchivalDestinationDAOFactory.getConnection();
-            stmt = conn.createStatement();
-
-            String sql = "INSERT INTO " + DESTINATION_DB + ".DM_OPERATION_ARCH " +
-                    "SELECT OPR.ID, OPR.TYPE, OPR.CREATED_TIMESTAMP, OPR.RECEIVED_TIMESTAMP, " +
-                    "OPR.OPERATION_CODE, OPR.INITIATED_BY, OPR.OPERATION_DETAILS, OPR.OPERATION_PROPERTIES, " +
-                    "OPR.ENABLED, NOW() " +
-                    "FROM " + SOURCE_DB + ".DM_OPERATION OPR " +
-                    "WHERE OPR.ID NOT IN (SELECT DISTINCT OPERATION_ID FROM " + SOURCE_DB + ".DM_ENROLMENT_OP_MAPPING)";
-
-            long startTime = System.currentTimeMillis();
-            int affected = stmt.executeUpdate(sql);
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Transferring Operations : " + difference);
-                log.debug("Transfer of " + affected + " Operations Completed");
-            }
-        } catch (SQLException e) {
-            String msg = "Error occurred while archiving Operations. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(stmt);
+    private int setArchivalConditionParameters(PreparedStatement stmt, int index, ArchivalTable table,
+                                               Timestamp time) throws SQLException {
+        Timestamp retainedFrom = new Timestamp(time.getTime() - TimeUnit.DAYS.toMillis(this.retentionPeriod));
+        // Operation mapping timestamps are kept in seconds
+        long retainedFromSeconds = TimeUnit.MILLISECONDS.toSeconds(retainedFrom.getTime());
+        switch (table) {
+            case OPERATION_RESPONSE_LARGE:
+            case OPERATION_RESPONSE:
+                stmt.setTimestamp(index++, retainedFrom);
+                stmt.setLong(index++, retainedFromSeconds);
+                break;
+            case ENROLMENT_OP_MAPPING:
+                stmt.setLong(index++, retainedFromSeconds);
+                break;
+            case NOTIFICATION:
+                stmt.setTimestamp(index++, retainedFrom);
+                break;
+            default:
+                break;
         }
+        return index;
     }
 
-    @Override
-    public void removeOperations() throws ArchivalDAOException {
-        Statement stmt = null;
-        Connection conn;
-
-        try {
-            conn = ArchivalSourceDAOFactory.getConnection();
-            stmt = conn.createStatement();
-
-            String sql = "DELETE FROM DM_OPERATION " +
-                    "WHERE ID NOT IN (SELECT DISTINCT OPERATION_ID FROM DM_ENROLMENT_OP_MAPPING)";
-
-            long startTime = System.currentTimeMillis();
-            int affected = stmt.executeUpdate(sql);
-            long endTime = System.currentTimeMillis();
-            long difference = endTime - startTime;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Time Elapsed for Removing Operations : " + difference);
-                log.debug(affected + " Rows deleted from DM_OPERATION");
-            }
-        } catch (SQLException e) {
-            String msg = "Error occurred while removing Operations. " + e.getMessage();
-            throw new ArchivalDAOException(msg, e);
-        } finally {
-            ArchivalDAOUtil.cleanupResources(stmt);
+    private void copyColumn(ResultSet rs, PreparedStatement stmt, int index, int columnType) throws SQLException {
+        switch (columnType) {
+            case Types.BLOB:
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+                stmt.setBytes(index, rs.getBytes(index));
+                break;
+            case Types.TIMESTAMP:
+                stmt.setTimestamp(index, rs.getTimestamp(index));
+                break;
+            default:
+                Object value = rs.getObject(index);
+                if (value == null) {
+                    stmt.setNull(index, columnType);
+                } else {
+                    stmt.setObject(index, value);
+                }
+                break;
         }
     }
 }
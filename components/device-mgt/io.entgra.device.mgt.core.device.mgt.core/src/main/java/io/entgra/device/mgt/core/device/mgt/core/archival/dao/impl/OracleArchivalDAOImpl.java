@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.archival.dao.impl;
+
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.ArchivalTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Archival DAO implementation for Oracle, which limits the batches with FETCH FIRST. The Oracle schema keeps the
+ * operation responses in DM_DEVICE_OPERATION_RESPONSE only, so there are no large operation responses to archive.
+ */
+public class OracleArchivalDAOImpl extends ArchivalDAOImpl {
+
+    private static final String IS_LARGE_RESPONSE_COLUMN = "IS_LARGE_RESPONSE";
+
+    public OracleArchivalDAOImpl(int retentionPeriod, int batchSize) {
+        super(retentionPeriod, batchSize);
+    }
+
+    @Override
+    public boolean isArchivable(ArchivalTable table) {
+        return table != ArchivalTable.OPERATION_RESPONSE_LARGE;
+    }
+
+    @Override
+    protected String[] getColumns(ArchivalTable table) {
+        if (table != ArchivalTable.OPERATION_RESPONSE) {
+            return table.getColumns();
+        }
+        List<String> columns = new ArrayList<>(Arrays.asList(table.getColumns()));
+        columns.remove(IS_LARGE_RESPONSE_COLUMN);
+        return columns.toArray(new String[0]);
+    }
+
+    @Override
+    protected String getBatchQuery(String query, String idColumn) {
+        return query + " ORDER BY " + idColumn + " FETCH FIRST ? ROWS ONLY";
+    }
+}
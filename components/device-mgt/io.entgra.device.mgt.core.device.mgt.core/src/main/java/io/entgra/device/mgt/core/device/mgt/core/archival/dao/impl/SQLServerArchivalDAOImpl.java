@@ -16,30 +16,19 @@
  * under the License.
  */
 
-package io.entgra.device.mgt.core.webapp.authenticator.framework.authorizer;
+package io.entgra.device.mgt.core.device.mgt.core.archival.dao.impl;
 
-public class MatchingResource {
-    private String urlPattern;
-    private String permission;
-
-    public MatchingResource(String urlPattern, String permission) {
-        this.urlPattern = urlPattern;
-        this.permission = permission;
-    }
-
-    public String getUrlPattern() {
-        return urlPattern;
-    }
-
-    public void setUrlPattern(String urlPattern) {
-        this.urlPattern = urlPattern;
-    }
+/**
+ * Archival DAO implementation for Microsoft SQL Server, which limits the batches with OFFSET and FETCH.
+ */
+public class SQLServerArchivalDAOImpl extends ArchivalDAOImpl {
 
-    public String getPermission() {
-        return permission;
+    public SQLServerArchivalDAOImpl(int retentionPeriod, int batchSize) {
+        super(retentionPeriod, batchSize);
     }
 
-    public void setPermission(String permission) {
-        this.permission = permission;
+    @Override
+    protected String getBatchQuery(String query, String idColumn) {
+        return query + " ORDER BY " + idColumn + " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
     }
 }
@@ -29,6 +29,15 @@ public class DeviceCacheKey {
     private String deviceType;
     private int tenantId;
 
+    public DeviceCacheKey() {
+    }
+
+    public DeviceCacheKey(String deviceId, String deviceType, int tenantId) {
+        this.deviceId = deviceId;
+        this.deviceType = deviceType;
+        this.tenantId = tenantId;
+    }
+
     public String getDeviceId() {
         return deviceId;
     }
@@ -55,7 +64,7 @@ public class DeviceCacheKey {
 
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        return Objects.hash(tenantId, deviceType, deviceId);
     }
 
     @Override
@@ -65,8 +74,13 @@ public class DeviceCacheKey {
 
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (obj instanceof DeviceCacheKey) {
-            return (this.hashCode() == obj.hashCode());
+            DeviceCacheKey cacheKey = (DeviceCacheKey) obj;
+            return tenantId == cacheKey.tenantId && Objects.equals(deviceType, cacheKey.deviceType)
+                    && Objects.equals(deviceId, cacheKey.deviceId);
         }
         return false;
     }
@@ -21,7 +21,9 @@ package io.entgra.device.mgt.core.device.mgt.core.cache;
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This defines the contract to be implemented by DeviceCacheManager which holds the necessary functionalities to
@@ -70,4 +72,38 @@ public interface DeviceCacheManager {
      *
      */
     Device getDeviceFromCache(DeviceIdentifier deviceIdentifier, int tenantId);
+
+    /**
+     * Fetches the device objects of the given identifiers from device-cache.
+     * @param deviceIdentifiers - DeviceIdentifiers of the devices to be fetched.
+     * @param tenantId - Owning tenant of the devices.
+     * @return Map of the cached devices against their identifiers, devices not in the cache are omitted.
+     *
+     */
+    Map<DeviceIdentifier, Device> getDevicesFromCache(Collection<DeviceIdentifier> deviceIdentifiers, int tenantId);
+
+    /**
+     * Adds the given device objects to the device-cache.
+     * @param devices - Device objects to be added against their identifiers.
+     * @param tenantId - Owning tenant of the devices.
+     *
+     */
+    void addDevicesToCache(Map<DeviceIdentifier, Device> devices, int tenantId);
+
+    /**
+     * Remembers for a short period that there is no device for the given identifier.
+     * @param deviceIdentifier - DeviceIdentifier which has no device.
+     * @param tenantId - Owning tenant of the identifier.
+     *
+     */
+    void addNonExistentDeviceToCache(DeviceIdentifier deviceIdentifier, int tenantId);
+
+    /**
+     * Checks whether the given identifier is recently found to have no device.
+     * @param deviceIdentifier - DeviceIdentifier to be checked.
+     * @param tenantId - Owning tenant of the identifier.
+     * @return true if there is no device for the identifier.
+     *
+     */
+    boolean isNonExistentDevice(DeviceIdentifier deviceIdentifier, int tenantId);
 }
@@ -18,25 +18,56 @@
 
 package io.entgra.device.mgt.core.device.mgt.core.cache.impl;
 
+import com.google.common.cache.CacheBuilder;
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.core.cache.DeviceCacheKey;
 import io.entgra.device.mgt.core.device.mgt.core.cache.DeviceCacheManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.cache.DeviceCacheConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.util.DeviceManagerUtil;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import javax.cache.Cache;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Implementation of DeviceCacheManager.
+ * Implementation of DeviceCacheManager. Devices are kept in a size bounded local near cache in front of the
+ * clustered device cache, so that frequently accessed devices are served without a round trip to the cluster. Near
+ * cache entries are dropped when the clustered entries are updated, removed or expired, and are kept at most for the
+ * near cache expiry time in case an invalidation is missed. Identifiers having no device are remembered for a short
+ * period as well, so that unknown devices polling the server repeatedly do not hit the database each time.
  */
 public class DeviceCacheManagerImpl implements DeviceCacheManager {
 
     private static final Log log = LogFactory.getLog(DeviceCacheManagerImpl.class);
 
     private static DeviceCacheManagerImpl deviceCacheManager;
+    private static volatile com.google.common.cache.Cache<DeviceCacheKey, Device> nearCache;
+    private static volatile com.google.common.cache.Cache<DeviceCacheKey, Boolean> negativeCache;
+    private static final Set<Cache<DeviceCacheKey, Device>> listenedCaches =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private static final AtomicLong nearCacheHits = new AtomicLong();
+    private static final AtomicLong clusterCacheHits = new AtomicLong();
+    private static final AtomicLong cacheMisses = new AtomicLong();
+    private static final AtomicLong negativeCacheHits = new AtomicLong();
+    private static final AtomicLong loadCount = new AtomicLong();
+    private static final AtomicLong totalLoadTimeNanos = new AtomicLong();
 
     private DeviceCacheManagerImpl() {
     }
@@ -54,66 +85,293 @@ public class DeviceCacheManagerImpl implements DeviceCacheManager {
 
     @Override
     public void addDeviceToCache(DeviceIdentifier deviceIdentifier, Device device, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = getDeviceCache();
         if (lCache != null) {
             DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
-            if (lCache.containsKey(cacheKey)) {
-                this.updateDeviceInCache(deviceIdentifier, device, tenantId);
-            } else {
-                lCache.put(cacheKey, device);
+            lCache.put(cacheKey, device);
+            putToNearCache(cacheKey, device);
+        }
+    }
+
+    @Override
+    public void addDevicesToCache(Map<DeviceIdentifier, Device> devices, int tenantId) {
+        Cache<DeviceCacheKey, Device> lCache = getDeviceCache();
+        if (lCache != null && !devices.isEmpty()) {
+            Map<DeviceCacheKey, Device> cacheEntries = new HashMap<>();
+            for (Map.Entry<DeviceIdentifier, Device> device : devices.entrySet()) {
+                cacheEntries.put(getCacheKey(device.getKey(), tenantId), device.getValue());
+            }
+            lCache.putAll(cacheEntries);
+            for (Map.Entry<DeviceCacheKey, Device> cacheEntry : cacheEntries.entrySet()) {
+                putToNearCache(cacheEntry.getKey(), cacheEntry.getValue());
             }
         }
     }
 
     @Override
     public void removeDeviceFromCache(DeviceIdentifier deviceIdentifier, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = getDeviceCache();
         if (lCache != null) {
             DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
-            if (lCache.containsKey(cacheKey)) {
-                lCache.remove(cacheKey);
-            }
+            lCache.remove(cacheKey);
+            invalidateLocal(cacheKey);
         }
     }
 
     @Override
     public void removeDevicesFromCache(List<DeviceCacheKey> deviceList) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = getDeviceCache();
         if (lCache != null) {
             for (DeviceCacheKey cacheKey : deviceList) {
-                if (lCache.containsKey(cacheKey)) {
-                    lCache.remove(cacheKey);
-                }
+                lCache.remove(cacheKey);
+                invalidateLocal(cacheKey);
             }
         }
     }
 
     @Override
     public void updateDeviceInCache(DeviceIdentifier deviceIdentifier, Device device, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = getDeviceCache();
         if (lCache != null) {
             DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
-            if (lCache.containsKey(cacheKey)) {
-                lCache.replace(cacheKey, device);
+            if (lCache.replace(cacheKey, device)) {
+                putToNearCache(cacheKey, device);
+            } else {
+                invalidateLocal(cacheKey);
             }
         }
     }
 
     @Override
     public Device getDeviceFromCache(DeviceIdentifier deviceIdentifier, int tenantId) {
-        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        Cache<DeviceCacheKey, Device> lCache = getDeviceCache();
         if (lCache != null) {
-            return lCache.get(getCacheKey(deviceIdentifier, tenantId));
+            DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
+            com.google.common.cache.Cache<DeviceCacheKey, Device> localCache = getNearCache();
+            Device device = localCache == null ? null : localCache.getIfPresent(cacheKey);
+            if (device != null) {
+                nearCacheHits.incrementAndGet();
+                return device;
+            }
+            device = lCache.get(cacheKey);
+            if (device != null) {
+                clusterCacheHits.incrementAndGet();
+                putToNearCache(cacheKey, device);
+            } else {
+                cacheMisses.incrementAndGet();
+            }
+            return device;
         }
         return null;
     }
 
+    @Override
+    public Map<DeviceIdentifier, Device> getDevicesFromCache(Collection<DeviceIdentifier> deviceIdentifiers,
+                                                             int tenantId) {
+        Map<DeviceIdentifier, Device> devices = new HashMap<>();
+        Cache<DeviceCacheKey, Device> lCache = getDeviceCache();
+        if (lCache == null || deviceIdentifiers.isEmpty()) {
+            return devices;
+        }
+        com.google.common.cache.Cache<DeviceCacheKey, Device> localCache = getNearCache();
+        Map<DeviceCacheKey, DeviceIdentifier> remainingKeys = new HashMap<>();
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            DeviceCacheKey cacheKey = getCacheKey(deviceIdentifier, tenantId);
+            Device device = localCache == null ? null : localCache.getIfPresent(cacheKey);
+            if (device != null) {
+                devices.put(deviceIdentifier, device);
+            } else {
+                remainingKeys.put(cacheKey, deviceIdentifier);
+            }
+        }
+        nearCacheHits.addAndGet(devices.size());
+        if (!remainingKeys.isEmpty()) {
+            Map<DeviceCacheKey, Device> cachedDevices = lCache.getAll(new HashSet<>(remainingKeys.keySet()));
+            if (cachedDevices != null) {
+                for (Map.Entry<DeviceCacheKey, Device> cachedDevice : cachedDevices.entrySet()) {
+                    if (cachedDevice.getValue() != null) {
+                        devices.put(remainingKeys.get(cachedDevice.getKey()), cachedDevice.getValue());
+                        putToNearCache(cachedDevice.getKey(), cachedDevice.getValue());
+                        clusterCacheHits.incrementAndGet();
+                    }
+                }
+            }
+            cacheMisses.addAndGet(deviceIdentifiers.size() - devices.size());
+        }
+        return devices;
+    }
+
+    @Override
+    public void addNonExistentDeviceToCache(DeviceIdentifier deviceIdentifier, int tenantId) {
+        com.google.common.cache.Cache<DeviceCacheKey, Boolean> localNegativeCache = getNegativeCache();
+        if (localNegativeCache != null && getDeviceCache() != null) {
+            localNegativeCache.put(getCacheKey(deviceIdentifier, tenantId), Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public boolean isNonExistentDevice(DeviceIdentifier deviceIdentifier, int tenantId) {
+        com.google.common.cache.Cache<DeviceCacheKey, Boolean> localNegativeCache = getNegativeCache();
+        if (localNegativeCache != null
+                && localNegativeCache.getIfPresent(getCacheKey(deviceIdentifier, tenantId)) != null) {
+            negativeCacheHits.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the time taken to load a device from the database upon a cache miss.
+     * @param loadTimeNanos - Load time in nanoseconds.
+     */
+    public void recordLoadTime(long loadTimeNanos) {
+        loadCount.incrementAndGet();
+        totalLoadTimeNanos.addAndGet(loadTimeNanos);
+    }
+
+    public long getNearCacheHitCount() {
+        return nearCacheHits.get();
+    }
+
+    public long getClusterCacheHitCount() {
+        return clusterCacheHits.get();
+    }
+
+    public long getMissCount() {
+        return cacheMisses.get();
+    }
+
+    public long getNegativeCacheHitCount() {
+        return negativeCacheHits.get();
+    }
+
+    public double getHitRatio() {
+        long hits = nearCacheHits.get() + clusterCacheHits.get();
+        long requests = hits + cacheMisses.get();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    public double getAverageLoadTimeMills() {
+        long loads = loadCount.get();
+        return loads == 0 ? 0 : (double) totalLoadTimeNanos.get() / loads / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getNearCacheEvictionCount() {
+        com.google.common.cache.Cache<DeviceCacheKey, Device> localCache = nearCache;
+        return localCache == null ? 0 : localCache.stats().evictionCount();
+    }
+
+    private Cache<DeviceCacheKey, Device> getDeviceCache() {
+        Cache<DeviceCacheKey, Device> lCache = DeviceManagerUtil.getDeviceCache();
+        if (lCache != null && getNearCache() != null && !listenedCaches.contains(lCache)) {
+            registerInvalidationListener(lCache);
+        }
+        return lCache;
+    }
+
+    private static void registerInvalidationListener(Cache<DeviceCacheKey, Device> lCache) {
+        synchronized (listenedCaches) {
+            if (listenedCaches.add(lCache)) {
+                try {
+                    lCache.registerCacheEntryListener(new NearCacheInvalidationListener());
+                } catch (RuntimeException e) {
+                    log.warn("Unable to listen to device cache changes, hence near cache entries are only " +
+                            "invalidated upon expiry", e);
+                }
+            }
+        }
+    }
+
+    private static void putToNearCache(DeviceCacheKey cacheKey, Device device) {
+        com.google.common.cache.Cache<DeviceCacheKey, Device> localCache = getNearCache();
+        if (localCache != null && device != null) {
+            localCache.put(cacheKey, device);
+        }
+        com.google.common.cache.Cache<DeviceCacheKey, Boolean> localNegativeCache = getNegativeCache();
+        if (localNegativeCache != null) {
+            localNegativeCache.invalidate(cacheKey);
+        }
+    }
+
+    private static void invalidateLocal(DeviceCacheKey cacheKey) {
+        com.google.common.cache.Cache<DeviceCacheKey, Device> localCache = getNearCache();
+        if (localCache != null) {
+            localCache.invalidate(cacheKey);
+        }
+        com.google.common.cache.Cache<DeviceCacheKey, Boolean> localNegativeCache = getNegativeCache();
+        if (localNegativeCache != null) {
+            localNegativeCache.invalidate(cacheKey);
+        }
+    }
+
+    private static com.google.common.cache.Cache<DeviceCacheKey, Device> getNearCache() {
+        if (nearCache == null) {
+            initLocalCaches();
+        }
+        return nearCache;
+    }
+
+    private static com.google.common.cache.Cache<DeviceCacheKey, Boolean> getNegativeCache() {
+        if (nearCache == null) {
+            initLocalCaches();
+        }
+        return negativeCache;
+    }
+
+    /**
+     * Local caches are built lazily since the device management configuration is not available when this class
+     * is loaded. Caches with a non positive expiry time are disabled.
+     */
+    private static synchronized void initLocalCaches() {
+        if (nearCache != null) {
+            return;
+        }
+        DeviceCacheConfiguration config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getDeviceCacheConfiguration();
+        if (config.getNegativeCacheExpiryTime() > 0) {
+            negativeCache = CacheBuilder.newBuilder()
+                    .maximumSize(Math.max(1, config.getNearCacheCapacity()))
+                    .expireAfterWrite(config.getNegativeCacheExpiryTime(), TimeUnit.SECONDS)
+                    .build();
+        }
+        if (config.getNearCacheExpiryTime() > 0 && config.getNearCacheCapacity() > 0) {
+            nearCache = CacheBuilder.newBuilder()
+                    .maximumSize(config.getNearCacheCapacity())
+                    .expireAfterWrite(config.getNearCacheExpiryTime(), TimeUnit.SECONDS)
+                    .recordStats()
+                    .build();
+        } else {
+            // Placeholder which never holds entries, to mark the local caches as initialized
+            nearCache = CacheBuilder.newBuilder().maximumSize(0).build();
+        }
+    }
 
     private DeviceCacheKey getCacheKey(DeviceIdentifier deviceIdentifier, int tenantId) {
-        DeviceCacheKey deviceCacheKey = new DeviceCacheKey();
-        deviceCacheKey.setDeviceId(deviceIdentifier.getId());
-        deviceCacheKey.setDeviceType(deviceIdentifier.getType());
-        deviceCacheKey.setTenantId(tenantId);
-        return deviceCacheKey;
+        return new DeviceCacheKey(deviceIdentifier.getId(), deviceIdentifier.getType(), tenantId);
+    }
+
+    /**
+     * Drops the near cache entries of the devices changed in the clustered device cache.
+     */
+    private static class NearCacheInvalidationListener implements CacheEntryUpdatedListener<DeviceCacheKey, Device>,
+            CacheEntryRemovedListener<DeviceCacheKey, Device>, CacheEntryExpiredListener<DeviceCacheKey, Device> {
+
+        @Override
+        public void entryUpdated(CacheEntryEvent<? extends DeviceCacheKey, ? extends Device> event)
+                throws CacheEntryListenerException {
+            invalidateLocal(event.getKey());
+        }
+
+        @Override
+        public void entryRemoved(CacheEntryEvent<? extends DeviceCacheKey, ? extends Device> event)
+                throws CacheEntryListenerException {
+            invalidateLocal(event.getKey());
+        }
+
+        @Override
+        public void entryExpired(CacheEntryEvent<? extends DeviceCacheKey, ? extends Device> event)
+                throws CacheEntryListenerException {
+            invalidateLocal(event.getKey());
+        }
     }
-}
\ No newline at end of file
+}
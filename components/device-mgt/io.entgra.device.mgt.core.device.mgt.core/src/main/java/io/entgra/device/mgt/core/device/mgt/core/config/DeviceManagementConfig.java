@@ -24,9 +24,11 @@ import io.entgra.device.mgt.core.device.mgt.core.config.archival.ArchivalConfigu
 import io.entgra.device.mgt.core.device.mgt.core.config.cache.BillingCacheConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.cache.CertificateCacheConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.cache.DeviceCacheConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.config.cache.DeviceInfoCacheConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.cache.GeoFenceCacheConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.enrollment.guide.EnrollmentGuideConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.geo.location.GeoLocationConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.config.geo.location.LocationIngestionConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.identity.IdentityConfigurations;
 import io.entgra.device.mgt.core.device.mgt.core.config.keymanager.KeyManagerConfigurations;
 import io.entgra.device.mgt.core.device.mgt.core.config.metadata.mgt.MetaDataConfiguration;
@@ -37,6 +39,9 @@ import io.entgra.device.mgt.core.device.mgt.core.config.pull.notification.PullNo
 import io.entgra.device.mgt.core.device.mgt.core.config.push.notification.PushNotificationConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.remote.session.RemoteSessionConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.status.task.DeviceStatusTaskConfig;
+import io.entgra.device.mgt.core.device.mgt.core.config.operation.ingestion.OperationStatusIngestionConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.config.operation.mapping.OperationMappingConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.config.operation.task.TaskOperationFanOutConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.task.TaskConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.event.config.EventOperationTaskConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.config.permission.DefaultPermissions;
@@ -63,6 +68,7 @@ public final class DeviceManagementConfig {
     private DeviceCacheConfiguration deviceCacheConfiguration;
     private GeoFenceCacheConfiguration geoFenceCacheConfiguration;
     private BillingCacheConfiguration billingCacheConfiguration;
+    private DeviceInfoCacheConfiguration deviceInfoCacheConfiguration;
     private EventOperationTaskConfiguration eventOperationTaskConfiguration;
     private CertificateCacheConfiguration certificateCacheConfiguration;
     private OperationAnalyticsConfiguration operationAnalyticsConfiguration;
@@ -75,6 +81,10 @@ public final class DeviceManagementConfig {
     private OperationTimeoutConfiguration operationTimeoutConfiguration;
     private MetaDataConfiguration metaDataConfiguration;
     private EnrollmentGuideConfiguration enrollmentGuideConfiguration;
+    private TaskOperationFanOutConfiguration taskOperationFanOutConfiguration;
+    private OperationMappingConfiguration operationMappingConfiguration;
+    private OperationStatusIngestionConfiguration operationStatusIngestionConfiguration;
+    private LocationIngestionConfiguration locationIngestionConfiguration;
 
     private DefaultPermissions defaultPermissions;
 
@@ -187,6 +197,15 @@ public final class DeviceManagementConfig {
         this.billingCacheConfiguration = billingCacheConfiguration;
     }
 
+    @XmlElement(name = "DeviceInfoCacheConfiguration")
+    public DeviceInfoCacheConfiguration getDeviceInfoCacheConfiguration() {
+        return deviceInfoCacheConfiguration;
+    }
+
+    public void setDeviceInfoCacheConfiguration(DeviceInfoCacheConfiguration deviceInfoCacheConfiguration) {
+        this.deviceInfoCacheConfiguration = deviceInfoCacheConfiguration;
+    }
+
     @XmlElement(name = "EventOperationTaskConfiguration", required = true)
     public EventOperationTaskConfiguration getEventOperationTaskConfiguration() {
         return eventOperationTaskConfiguration;
@@ -291,6 +310,44 @@ public final class DeviceManagementConfig {
         this.enrollmentGuideConfiguration = enrollmentGuideConfiguration;
     }
 
+    @XmlElement(name = "TaskOperationFanOutConfiguration")
+    public TaskOperationFanOutConfiguration getTaskOperationFanOutConfiguration() {
+        return taskOperationFanOutConfiguration;
+    }
+
+    public void setTaskOperationFanOutConfiguration(
+            TaskOperationFanOutConfiguration taskOperationFanOutConfiguration) {
+        this.taskOperationFanOutConfiguration = taskOperationFanOutConfiguration;
+    }
+
+    @XmlElement(name = "OperationMappingConfiguration")
+    public OperationMappingConfiguration getOperationMappingConfiguration() {
+        return operationMappingConfiguration;
+    }
+
+    public void setOperationMappingConfiguration(OperationMappingConfiguration operationMappingConfiguration) {
+        this.operationMappingConfiguration = operationMappingConfiguration;
+    }
+
+    @XmlElement(name = "OperationStatusIngestionConfiguration")
+    public OperationStatusIngestionConfiguration getOperationStatusIngestionConfiguration() {
+        return operationStatusIngestionConfiguration;
+    }
+
+    public void setOperationStatusIngestionConfiguration(
+            OperationStatusIngestionConfiguration operationStatusIngestionConfiguration) {
+        this.operationStatusIngestionConfiguration = operationStatusIngestionConfiguration;
+    }
+
+    @XmlElement(name = "LocationIngestionConfiguration")
+    public LocationIngestionConfiguration getLocationIngestionConfiguration() {
+        return locationIngestionConfiguration;
+    }
+
+    public void setLocationIngestionConfiguration(LocationIngestionConfiguration locationIngestionConfiguration) {
+        this.locationIngestionConfiguration = locationIngestionConfiguration;
+    }
+
     @XmlElement(name = "DefaultPermissions", required = true)
     public DefaultPermissions getDefaultPermissions() {
         return defaultPermissions;
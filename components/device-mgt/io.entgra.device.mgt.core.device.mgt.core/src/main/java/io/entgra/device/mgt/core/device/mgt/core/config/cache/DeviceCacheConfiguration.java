@@ -27,6 +27,9 @@ public class DeviceCacheConfiguration {
     private boolean isEnabled;
     private int expiryTime;
     private long capacity;
+    private int nearCacheCapacity = 10000;
+    private int nearCacheExpiryTime = 30;
+    private int negativeCacheExpiryTime = 10;
 
     @XmlElement(name = "Enable", required = true)
     public boolean isEnabled() {
@@ -54,4 +57,31 @@ public class DeviceCacheConfiguration {
     public void setCapacity(long capacity) {
         this.capacity = capacity;
     }
+
+    @XmlElement(name = "NearCacheCapacity")
+    public int getNearCacheCapacity() {
+        return nearCacheCapacity;
+    }
+
+    public void setNearCacheCapacity(int nearCacheCapacity) {
+        this.nearCacheCapacity = nearCacheCapacity;
+    }
+
+    @XmlElement(name = "NearCacheExpiryTime")
+    public int getNearCacheExpiryTime() {
+        return nearCacheExpiryTime;
+    }
+
+    public void setNearCacheExpiryTime(int nearCacheExpiryTime) {
+        this.nearCacheExpiryTime = nearCacheExpiryTime;
+    }
+
+    @XmlElement(name = "NegativeCacheExpiryTime")
+    public int getNegativeCacheExpiryTime() {
+        return negativeCacheExpiryTime;
+    }
+
+    public void setNegativeCacheExpiryTime(int negativeCacheExpiryTime) {
+        this.negativeCacheExpiryTime = negativeCacheExpiryTime;
+    }
 }
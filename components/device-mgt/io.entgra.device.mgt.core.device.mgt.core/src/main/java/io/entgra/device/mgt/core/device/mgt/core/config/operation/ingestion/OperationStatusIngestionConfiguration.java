@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.config.operation.ingestion;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Configurations of the write-behind ingestion of operation statuses and responses reported by devices.
+ */
+@XmlRootElement(name = "OperationStatusIngestionConfiguration")
+public class OperationStatusIngestionConfiguration {
+
+    /**
+     * Device is acknowledged once its update is queued. Updates which are still queued are lost if the node crashes,
+     * and the operation stays pending until the update is flushed, hence it may be delivered again to the device.
+     */
+    public static final String DURABILITY_QUEUED = "QUEUED";
+    /**
+     * Device is acknowledged once the batch carrying its update is committed.
+     */
+    public static final String DURABILITY_COMMITTED = "COMMITTED";
+
+    private boolean enabled = false;
+    private int queueCapacity = 10000;
+    private int batchSize = 500;
+    private int flushIntervalMills = 1000;
+    private int maxFlushRetries = 3;
+    private String durability = DURABILITY_COMMITTED;
+
+    @XmlElement(name = "Enabled", required = true)
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @XmlElement(name = "QueueCapacity")
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    @XmlElement(name = "BatchSize")
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @XmlElement(name = "FlushIntervalMills")
+    public int getFlushIntervalMills() {
+        return flushIntervalMills;
+    }
+
+    public void setFlushIntervalMills(int flushIntervalMills) {
+        this.flushIntervalMills = flushIntervalMills;
+    }
+
+    @XmlElement(name = "MaxFlushRetries")
+    public int getMaxFlushRetries() {
+        return maxFlushRetries;
+    }
+
+    public void setMaxFlushRetries(int maxFlushRetries) {
+        this.maxFlushRetries = maxFlushRetries;
+    }
+
+    @XmlElement(name = "Durability")
+    public String getDurability() {
+        return durability;
+    }
+
+    public void setDurability(String durability) {
+        this.durability = durability;
+    }
+
+    public boolean isCommittedDurability() {
+        return DURABILITY_COMMITTED.equalsIgnoreCase(durability);
+    }
+}
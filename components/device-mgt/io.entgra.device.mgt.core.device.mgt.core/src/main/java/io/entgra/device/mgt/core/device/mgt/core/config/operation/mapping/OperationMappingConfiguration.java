@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.config.operation.mapping;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Configurations of the bulk insert of operation to enrolment mappings.
+ */
+@XmlRootElement(name = "OperationMappingConfiguration")
+public class OperationMappingConfiguration {
+
+    private int chunkSize = 500;
+    private int maxChunkRetries = 3;
+    private int chunkRetryIntervalMills = 200;
+
+    @XmlElement(name = "ChunkSize", required = true)
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    @XmlElement(name = "MaxChunkRetries")
+    public int getMaxChunkRetries() {
+        return maxChunkRetries;
+    }
+
+    public void setMaxChunkRetries(int maxChunkRetries) {
+        this.maxChunkRetries = maxChunkRetries;
+    }
+
+    @XmlElement(name = "ChunkRetryIntervalMills")
+    public int getChunkRetryIntervalMills() {
+        return chunkRetryIntervalMills;
+    }
+
+    public void setChunkRetryIntervalMills(int chunkRetryIntervalMills) {
+        this.chunkRetryIntervalMills = chunkRetryIntervalMills;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.config.operation.task;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Configurations of the pipeline which fans task operations out to all the devices of a device type.
+ */
+@XmlRootElement(name = "TaskOperationFanOutConfiguration")
+public class TaskOperationFanOutConfiguration {
+
+    private int batchSize = 2000;
+    private int minBatchSize = 200;
+    private int concurrency = 2;
+    private int targetBatchLatencyMills = 2000;
+    private int maxBatchDelayMills = 2000;
+    private boolean checkpointEnabled = true;
+
+    @XmlElement(name = "BatchSize", required = true)
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @XmlElement(name = "MinBatchSize")
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public void setMinBatchSize(int minBatchSize) {
+        this.minBatchSize = minBatchSize;
+    }
+
+    @XmlElement(name = "Concurrency", required = true)
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    @XmlElement(name = "TargetBatchLatencyMills")
+    public int getTargetBatchLatencyMills() {
+        return targetBatchLatencyMills;
+    }
+
+    public void setTargetBatchLatencyMills(int targetBatchLatencyMills) {
+        this.targetBatchLatencyMills = targetBatchLatencyMills;
+    }
+
+    @XmlElement(name = "MaxBatchDelayMills")
+    public int getMaxBatchDelayMills() {
+        return maxBatchDelayMills;
+    }
+
+    public void setMaxBatchDelayMills(int maxBatchDelayMills) {
+        this.maxBatchDelayMills = maxBatchDelayMills;
+    }
+
+    @XmlElement(name = "CheckpointEnabled")
+    public boolean isCheckpointEnabled() {
+        return checkpointEnabled;
+    }
+
+    public void setCheckpointEnabled(boolean checkpointEnabled) {
+        this.checkpointEnabled = checkpointEnabled;
+    }
+}
@@ -32,6 +32,8 @@ public class PushNotificationConfiguration {
     private int schedulerBatchDelayMills;
     private int schedulerTaskInitialDelay;
     private boolean schedulerTaskEnabled;
+    private int schedulerDispatchPoolSize = 10;
+    private int schedulerProviderConcurrency = 5;
     private List<String> pushNotificationProviders;
     private List<ContextMetadata> contextMetadata;
 
@@ -71,6 +73,24 @@ public class PushNotificationConfiguration {
         this.schedulerTaskEnabled = schedulerTaskEnabled;
     }
 
+    @XmlElement(name = "SchedulerDispatchPoolSize")
+    public int getSchedulerDispatchPoolSize() {
+        return schedulerDispatchPoolSize;
+    }
+
+    public void setSchedulerDispatchPoolSize(int schedulerDispatchPoolSize) {
+        this.schedulerDispatchPoolSize = schedulerDispatchPoolSize;
+    }
+
+    @XmlElement(name = "SchedulerProviderConcurrency")
+    public int getSchedulerProviderConcurrency() {
+        return schedulerProviderConcurrency;
+    }
+
+    public void setSchedulerProviderConcurrency(int schedulerProviderConcurrency) {
+        this.schedulerProviderConcurrency = schedulerProviderConcurrency;
+    }
+
     @XmlElementWrapper(name = "PushNotificationProviders", required = true)
     @XmlElement(name = "Provider", required = true)
     public List<String> getPushNotificationProviders() {
@@ -24,6 +24,7 @@ import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo.Status;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.configuration.mgt.DevicePropertyInfo;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceData;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceLocationHistorySnapshot;
@@ -348,15 +349,32 @@ public interface DeviceDAO {
 
     /**
      * This method is used to retrieve the devices of a given tenant as a paginated result, along the lines of
-     * activeServerCount and serverIndex
+     * the task partition of the current server
      *
      * @param request
      * @param tenantId
-     * @param activeServerCount
-     * @param serverIndex
+     * @param partition partition of the current server, or null if the task is not partitioned
      * @return
      */
-    List<Device> getAllocatedDevices(PaginationRequest request, int tenantId, int activeServerCount, int serverIndex) throws DeviceManagementDAOException;
+    List<Device> getAllocatedDevices(PaginationRequest request, int tenantId, TaskPartition partition) throws DeviceManagementDAOException;
+
+    /**
+     * This method is used to walk the devices of a given type in ascending enrolment id order. Unlike offset based
+     * pagination, each batch starts right after the last enrolment of the previous batch, hence the cost of a batch
+     * does not grow with the position in the result set and a walk can be resumed from a known enrolment id.
+     *
+     * @param deviceType        device type of the devices
+     * @param statusList        enrolment statuses to be included
+     * @param lastEnrolmentId   enrolment id of the last device of the previous batch, 0 to start from the beginning
+     * @param limit             maximum number of devices to be returned
+     * @param tenantId          tenant id
+     * @param partition         partition of the current server, or null if the task is not partitioned
+     * @return devices enrolled after the given enrolment id, ordered by the enrolment id
+     * @throws DeviceManagementDAOException if an error occurs while retrieving the devices
+     */
+    List<Device> getDevicesAfterEnrolment(String deviceType, List<String> statusList, int lastEnrolmentId, int limit,
+                                          int tenantId, TaskPartition partition)
+            throws DeviceManagementDAOException;
 
     /**
      * This method is used to search for devices within a specific group.
@@ -391,14 +409,15 @@ public interface DeviceDAO {
     /**
      * This method is used to retrieve the list of devices attributed to a specific node
      * when using dynamic partitioning to allocate tasks given the tenant and device type
-     * along with activeServerCount and serverIndex
+     * along with the task partition of the node
      *
      * @param type device type.
      * @param tenantId tenant id.
+     * @param partition partition of the current server.
      * @return returns list of devices of provided type.
      * @throws DeviceManagementDAOException
      */
-    List<Device> getAllocatedDevices(String type, int tenantId, int activeServerCount, int serverIndex) throws DeviceManagementDAOException;
+    List<Device> getAllocatedDevices(String type, int tenantId, TaskPartition partition) throws DeviceManagementDAOException;
 
     List<Device> getDevices(long timestamp, int tenantId) throws DeviceManagementDAOException;
 
@@ -742,16 +761,22 @@ public interface DeviceDAO {
             throws DeviceManagementDAOException;
 
     /**
-     * Get All devices for monitoring
+     * Get the devices of which the latest active or unreachable enrolment has to transit to another status, since
+     * the devices have not been seen from the given time. Only the devices last seen within the given time window
+     * are looked up, hence a run only touches the devices which crossed an idle threshold since the previous run.
      * @param deviceTypeId device type identifier
      * @param deviceTypeName name of the type. (android, ios ...)
-     * @param activeServerCount Number of available servers
-     * @param serverHashIndex server index number
-     * @return device object
-     * @throws DeviceManagementDAOException
-     */
-    List<DeviceMonitoringData> getAllDevicesForMonitoring(int deviceTypeId, String deviceTypeName,
-                                                          int activeServerCount, int serverHashIndex)
+     * @param statuses current statuses of the enrolments to be transited
+     * @param lastSeenBefore devices last seen at or before this time are looked up
+     * @param lastSeenAfter devices last seen after this time are looked up, or null to look up from the beginning
+     * @param partition partition of the current server, or null if the task is not partitioned
+     * @return devices along with the enrolments to be transited
+     * @throws DeviceManagementDAOException if the devices cannot be retrieved
+     */
+    List<DeviceMonitoringData> getDevicesForStatusTransition(int deviceTypeId, String deviceTypeName,
+                                                             List<EnrolmentInfo.Status> statuses,
+                                                             Timestamp lastSeenBefore, Timestamp lastSeenAfter,
+                                                             TaskPartition partition)
             throws DeviceManagementDAOException;
 
     /**
@@ -36,6 +36,18 @@ public interface EnrollmentDAO {
 
     boolean updateEnrollmentStatus(List<EnrolmentInfo> enrolmentInfos) throws DeviceManagementDAOException;
 
+    /**
+     * Updates the status of the given enrolments of a tenant, with one statement per chunk of enrolments.
+     *
+     * @param enrolmentIds ids of the enrolments
+     * @param status status to be set
+     * @param tenantId tenant of the enrolments
+     * @return number of enrolments updated
+     * @throws DeviceManagementDAOException if an error occurs when updating the enrolments
+     */
+    int updateEnrollmentStatus(List<Integer> enrolmentIds, Status status, int tenantId)
+            throws DeviceManagementDAOException;
+
     int removeEnrollment(int deviceId, String currentOwner, int tenantId) throws DeviceManagementDAOException;
 
     @Deprecated
@@ -96,6 +108,19 @@ public interface EnrollmentDAO {
      */
     boolean addDeviceStatus(int enrolmentId, EnrolmentInfo.Status status) throws DeviceManagementDAOException;
 
+    /***
+     *This method is used to add the device status of the given enrolments of a tenant, with one statement per chunk
+     * of enrolments.
+     *
+     * @param enrolmentIds ids of the enrolments
+     * @param status going to add
+     * @param tenantId tenant of the enrolments
+     * @return number of device status records added
+     * @throws DeviceManagementDAOException if an error occurs when adding the device status.
+     */
+    int addDeviceStatus(List<Integer> enrolmentIds, EnrolmentInfo.Status status, int tenantId)
+            throws DeviceManagementDAOException;
+
     /**
      * Retrieves owners and the list of device IDs related to an owner.
      *
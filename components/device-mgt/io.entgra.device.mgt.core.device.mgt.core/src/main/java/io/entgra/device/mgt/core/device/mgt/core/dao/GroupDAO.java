@@ -360,6 +360,22 @@ public interface GroupDAO {
     List<Device> getAllDevicesOfGroup(String groupName, List<String> deviceStatuses, int tenantId)
             throws GroupManagementDAOException;
 
+    /**
+     * Get a page of the devices that are in one of the given device statuses and belong to the given group, ordered
+     * by the device id. Each page is read after the last device of the previous page, hence the devices of a large
+     * group can be processed without loading all of them at once.
+     *
+     * @param groupName      Group name
+     * @param deviceStatuses Device Statuses
+     * @param lastDeviceId   Id of the last device of the previous page, or 0 to get the first page
+     * @param limit          Maximum number of devices of the page
+     * @param tenantId       Tenant Id
+     * @return List of devices
+     * @throws GroupManagementDAOException if error occurred while retrieving the page of devices
+     */
+    List<Device> getDevicesOfGroup(String groupName, List<String> deviceStatuses, int lastDeviceId, int limit,
+                                   int tenantId) throws GroupManagementDAOException;
+
     List<Device> getAllDevicesOfGroup(String groupName, int tenantId) throws GroupManagementDAOException;
 
     /**
@@ -23,6 +23,7 @@ import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo.Status;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.configuration.mgt.DevicePropertyInfo;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceData;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceLocationHistorySnapshot;
@@ -90,6 +91,15 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
             if (rs.next()) {
                 deviceId = rs.getInt(1);
             }
+            if (deviceId != -1) {
+                // the bucket is derived from the generated id, hence it is set once the id is known
+                try (PreparedStatement bucketStmt = conn.prepareStatement(
+                        "UPDATE DM_DEVICE SET PARTITION_BUCKET = ? WHERE ID = ?")) {
+                    bucketStmt.setInt(1, TaskPartition.getBucket(deviceId));
+                    bucketStmt.setInt(2, deviceId);
+                    bucketStmt.executeUpdate();
+                }
+            }
             return deviceId;
         } catch (SQLException e) {
             throw new DeviceManagementDAOException("Error occurred while enrolling device '" + device.getName() +
@@ -815,8 +825,8 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
 
 
     @Override
-    public List<Device> getAllocatedDevices(String type, int tenantId, int activeServerCount,
-                                            int serverIndex) throws DeviceManagementDAOException {
+    public List<Device> getAllocatedDevices(String type, int tenantId, TaskPartition partition)
+            throws DeviceManagementDAOException {
         List<Device> devices;
         try {
             Connection conn = this.getConnection();
@@ -839,19 +849,23 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
                     "            d.NAME," +
                     "            d.LAST_UPDATED_TIMESTAMP" +
                     "    FROM DM_DEVICE d" +
-                    "    WHERE d.TENANT_ID = ?) d1 " +
+                    "    WHERE d.TENANT_ID = ?" +
+                    (DeviceManagementDAOUtil.isPartitioned(partition) ?
+                            DeviceManagementDAOUtil.getPartitionCondition("d.PARTITION_BUCKET", partition) : "") +
+                    ") d1 " +
                     "WHERE d1.ID = e.DEVICE_ID" +
                     "        AND e.DEVICE_TYPE = ?" +
-                    "        AND e.TENANT_ID = ?" +
-                    "        AND MOD(d1.ID, ?) = ? " +
+                    "        AND e.TENANT_ID = ? " +
                     "ORDER BY e.DATE_OF_LAST_UPDATE DESC";
 
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, tenantId);
-                stmt.setString(2, type);
-                stmt.setInt(3, tenantId);
-                stmt.setInt(4, activeServerCount);
-                stmt.setInt(5, serverIndex);
+                int paramIdx = 1;
+                stmt.setInt(paramIdx++, tenantId);
+                if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                    paramIdx = DeviceManagementDAOUtil.setPartitionParameters(stmt, paramIdx, partition);
+                }
+                stmt.setString(paramIdx++, type);
+                stmt.setInt(paramIdx, tenantId);
                 devices = new ArrayList<>();
 
                 try (ResultSet rs = stmt.executeQuery()) {
@@ -860,15 +874,15 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
                         devices.add(device);
                     }
                 } catch (Exception e) {
-                    String msg = "Error encountered while populating allocated active devices for server with index : " + serverIndex +
-                            " active-server-count " + activeServerCount + " device-type " + type + " tenant-id " + tenantId;
+                    String msg = "Error encountered while populating allocated active devices for partition : " +
+                            partition + " device-type " + type + " tenant-id " + tenantId;
                     log.error(msg, e);
                     throw new DeviceManagementDAOException(msg, e);
                 }
             }
         } catch (SQLException e) {
-            String msg = "Error encountered while retrieving allocated devices for server with index : " + serverIndex +
-                    " active-server-count " + activeServerCount + " device-type " + type + " tenant-id " + tenantId;
+            String msg = "Error encountered while retrieving allocated devices for partition : " + partition +
+                    " device-type " + type + " tenant-id " + tenantId;
             log.error(msg, e);
             throw new DeviceManagementDAOException(msg, e);
         }
@@ -3004,41 +3018,56 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
     }
 
     @Override
-    public List<DeviceMonitoringData> getAllDevicesForMonitoring(
-            int deviceTypeId, String deviceTypeName, int activeServerCount, int serverHashIndex)
+    public List<DeviceMonitoringData> getDevicesForStatusTransition(
+            int deviceTypeId, String deviceTypeName, List<EnrolmentInfo.Status> statuses, Timestamp lastSeenBefore,
+            Timestamp lastSeenAfter, TaskPartition partition)
             throws DeviceManagementDAOException {
         List<DeviceMonitoringData> devices = new ArrayList<>();
-
+        if (statuses.isEmpty()) {
+            return devices;
+        }
+        StringJoiner statusJoiner = new StringJoiner(", ", "(", ")");
+        statuses.forEach(ignored -> statusJoiner.add("?"));
         String sql = "SELECT D.ID AS DEVICE_ID," +
                 " D.NAME AS DEVICE_NAME, " +
                 " D.DESCRIPTION AS DESCRIPTION," +
                 " D.DEVICE_IDENTIFICATION, " +
                 " D.LAST_UPDATED_TIMESTAMP, " +
                 " D.TENANT_ID, " +
-                " E.ENROLMENT_ID, " +
+                " EN.ID AS ENROLMENT_ID, " +
                 " EN.OWNER, " +
                 " EN.OWNERSHIP, " +
                 " EN.IS_TRANSFERRED, " +
                 " EN.DATE_OF_ENROLMENT, " +
                 " EN.DATE_OF_LAST_UPDATE, " +
                 " EN.STATUS " +
-                "FROM DM_DEVICE D, DM_ENROLMENT EN," +
-                " (SELECT DEVICE_ID, MAX(ID) AS ENROLMENT_ID" +
-                " FROM DM_ENROLMENT" +
-                " WHERE STATUS IN ('ACTIVE', 'UNREACHABLE') " +
-                " GROUP BY DEVICE_ID) E" +
-                " WHERE D.ID = E.DEVICE_ID AND E.ENROLMENT_ID = EN.ID AND D.DEVICE_TYPE_ID = ?";
-        if (activeServerCount > 0) {
-            sql += " AND MOD(D.ID, ?) = ?";
+                "FROM DM_DEVICE D" +
+                " INNER JOIN DM_ENROLMENT EN ON EN.DEVICE_ID = D.ID" +
+                " WHERE D.DEVICE_TYPE_ID = ? AND D.LAST_UPDATED_TIMESTAMP <= ?";
+        if (lastSeenAfter != null) {
+            sql += " AND D.LAST_UPDATED_TIMESTAMP > ?";
+        }
+        sql += " AND EN.STATUS IN " + statusJoiner +
+                " AND EN.ID = (SELECT MAX(E.ID) FROM DM_ENROLMENT E" +
+                " WHERE E.DEVICE_ID = D.ID AND E.STATUS IN ('ACTIVE', 'UNREACHABLE'))";
+        if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+            sql += DeviceManagementDAOUtil.getPartitionCondition("D.PARTITION_BUCKET", partition);
         }
 
         try {
             Connection conn = this.getConnection();
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, deviceTypeId);
-                if (activeServerCount > 0) {
-                    stmt.setInt(2, activeServerCount);
-                    stmt.setInt(3, serverHashIndex);
+                int index = 1;
+                stmt.setInt(index++, deviceTypeId);
+                stmt.setTimestamp(index++, lastSeenBefore);
+                if (lastSeenAfter != null) {
+                    stmt.setTimestamp(index++, lastSeenAfter);
+                }
+                for (EnrolmentInfo.Status status : statuses) {
+                    stmt.setString(index++, status.toString());
+                }
+                if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                    DeviceManagementDAOUtil.setPartitionParameters(stmt, index, partition);
                 }
 
                 try (ResultSet rs = stmt.executeQuery()) {
@@ -3049,7 +3078,8 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
                 }
             }
         } catch (SQLException e) {
-            String msg = "Error occurred while retrieving devices";
+            String msg = "Error occurred while retrieving devices of type " + deviceTypeName + " last seen before " +
+                    lastSeenBefore;
             log.error(msg, e);
             throw new DeviceManagementDAOException(msg, e);
         }
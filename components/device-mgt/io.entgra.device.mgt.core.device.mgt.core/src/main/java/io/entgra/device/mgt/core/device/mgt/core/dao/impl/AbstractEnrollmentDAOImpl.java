@@ -38,11 +38,13 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 public abstract class AbstractEnrollmentDAOImpl implements EnrollmentDAO {
     private static final Log log = LogFactory.getLog(AbstractEnrollmentDAOImpl.class);
+    private static final int ENROLMENT_CHUNK_SIZE = 500;
 
     @Override
     public EnrolmentInfo addEnrollment(int deviceId, DeviceIdentifier deviceIdentifier, EnrolmentInfo enrolmentInfo,
@@ -144,6 +146,34 @@ public abstract class AbstractEnrollmentDAOImpl implements EnrollmentDAO {
         return status;
     }
 
+    @Override
+    public int updateEnrollmentStatus(List<Integer> enrolmentIds, EnrolmentInfo.Status status, int tenantId)
+            throws DeviceManagementDAOException {
+        int updatedCount = 0;
+        try {
+            Connection conn = this.getConnection();
+            for (int start = 0; start < enrolmentIds.size(); start += ENROLMENT_CHUNK_SIZE) {
+                List<Integer> chunk = enrolmentIds.subList(start,
+                        Math.min(enrolmentIds.size(), start + ENROLMENT_CHUNK_SIZE));
+                String sql = "UPDATE DM_ENROLMENT SET STATUS = ? WHERE TENANT_ID = ? AND ID IN (" +
+                        String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    stmt.setString(index++, status.toString());
+                    stmt.setInt(index++, tenantId);
+                    for (Integer enrolmentId : chunk) {
+                        stmt.setInt(index++, enrolmentId);
+                    }
+                    updatedCount += stmt.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while updating enrolment status of " +
+                    enrolmentIds.size() + " enrolments to " + status, e);
+        }
+        return updatedCount;
+    }
+
     @Override
     public int removeEnrollment(int deviceId, String currentOwner,
                                 int tenantId) throws DeviceManagementDAOException {
@@ -261,6 +291,42 @@ public abstract class AbstractEnrollmentDAOImpl implements EnrollmentDAO {
         return addDeviceStatus(config.getId(), config.getStatus());
     }
 
+    @Override
+    public int addDeviceStatus(List<Integer> enrolmentIds, EnrolmentInfo.Status status, int tenantId)
+            throws DeviceManagementDAOException {
+        String changedBy = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
+        if (changedBy == null) {
+            changedBy = DeviceManagementConstants.MaintenanceProperties.MAINTENANCE_USER;
+        }
+        Timestamp updateTime = new Timestamp(new Date().getTime());
+        int addedCount = 0;
+        try {
+            Connection conn = this.getConnection();
+            for (int start = 0; start < enrolmentIds.size(); start += ENROLMENT_CHUNK_SIZE) {
+                List<Integer> chunk = enrolmentIds.subList(start,
+                        Math.min(enrolmentIds.size(), start + ENROLMENT_CHUNK_SIZE));
+                String sql = "INSERT INTO DM_DEVICE_STATUS (ENROLMENT_ID, DEVICE_ID, STATUS, UPDATE_TIME, " +
+                        "CHANGED_BY) SELECT ID, DEVICE_ID, ?, ?, ? FROM DM_ENROLMENT WHERE TENANT_ID = ? AND ID IN (" +
+                        String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = 1;
+                    stmt.setString(index++, status.toString());
+                    stmt.setTimestamp(index++, updateTime);
+                    stmt.setString(index++, changedBy);
+                    stmt.setInt(index++, tenantId);
+                    for (Integer enrolmentId : chunk) {
+                        stmt.setInt(index++, enrolmentId);
+                    }
+                    addedCount += stmt.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while adding device status " + status + " of " +
+                    enrolmentIds.size() + " enrolments", e);
+        }
+        return addedCount;
+    }
+
     public boolean addDeviceStatus(String currentOwner, EnrolmentInfo.Status status, int tenantId)
             throws DeviceManagementDAOException {
         Connection conn;
@@ -1335,6 +1335,71 @@ public abstract class AbstractGroupDAOImpl implements GroupDAO {
         return devices;
     }
 
+    @Override
+    public List<Device> getDevicesOfGroup(String groupName, List<String> deviceStatuses, int lastDeviceId, int limit,
+                                          int tenantId) throws GroupManagementDAOException {
+        List<Device> devices = new ArrayList<>();
+        if (deviceStatuses.isEmpty()) {
+            return devices;
+        }
+        StringJoiner joiner = new StringJoiner(",", "SELECT "
+                + "d.ID AS DEVICE_ID, "
+                + "d.DESCRIPTION, "
+                + "d.NAME AS DEVICE_NAME, "
+                + "e.DEVICE_TYPE, "
+                + "d.DEVICE_IDENTIFICATION, "
+                + "d.LAST_UPDATED_TIMESTAMP, "
+                + "e.OWNER, "
+                + "e.OWNERSHIP, "
+                + "e.STATUS, "
+                + "e.IS_TRANSFERRED, "
+                + "e.DATE_OF_LAST_UPDATE, "
+                + "e.DATE_OF_ENROLMENT, "
+                + "e.ID AS ENROLMENT_ID "
+                + "FROM DM_GROUP g "
+                + "INNER JOIN DM_DEVICE_GROUP_MAP dgm ON dgm.GROUP_ID = g.ID "
+                + "INNER JOIN DM_DEVICE d ON d.ID = dgm.DEVICE_ID "
+                + "INNER JOIN DM_ENROLMENT e ON e.DEVICE_ID = d.ID "
+                + "WHERE g.GROUP_NAME = ? AND g.TENANT_ID = ? AND d.TENANT_ID = ? AND e.TENANT_ID = ? "
+                + "AND d.ID > ? AND e.STATUS IN (", ") ORDER BY d.ID");
+        deviceStatuses.stream().map(ignored -> "?").forEach(joiner::add);
+        String query = joiner.toString() + getRowLimitPart();
+        try {
+            Connection conn = GroupManagementDAOFactory.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                int index = 1;
+                stmt.setString(index++, groupName);
+                stmt.setInt(index++, tenantId);
+                stmt.setInt(index++, tenantId);
+                stmt.setInt(index++, tenantId);
+                stmt.setInt(index++, lastDeviceId);
+                for (String deviceStatus : deviceStatuses) {
+                    stmt.setString(index++, deviceStatus);
+                }
+                stmt.setInt(index, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        devices.add(DeviceManagementDAOUtil.loadDevice(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Error occurred while fetching a page of the devices belongs to '" + groupName + "' after "
+                    + "the device " + lastDeviceId;
+            log.error(msg, e);
+            throw new GroupManagementDAOException(msg, e);
+        }
+        return devices;
+    }
+
+    /**
+     * Row limit of a query ordered by its ORDER BY clause, in the syntax of the database. The limit is taken as the
+     * last parameter of the query.
+     */
+    protected String getRowLimitPart() {
+        return " LIMIT ?";
+    }
+
 
     @Override
     public List<Device> getAllDevicesOfGroup(String groupName, int tenantId) throws GroupManagementDAOException {
@@ -23,6 +23,7 @@ import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceManagementConstants;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceInfo;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
 import io.entgra.device.mgt.core.device.mgt.core.dao.impl.AbstractDeviceDAOImpl;
@@ -536,7 +537,7 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
 
     @Override
     public List<Device> getAllocatedDevices(PaginationRequest request, int tenantId,
-                                            int activeServerCount, int serverIndex)
+                                            TaskPartition partition)
             throws DeviceManagementDAOException {
         List<Device> devices;
         String deviceType = request.getDeviceType();
@@ -553,7 +554,6 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
         boolean isStatusProvided = false;
         Date since = request.getSince();
         boolean isSinceProvided = false;
-        boolean isPartitionedTask = false;
 
         try {
             Connection conn = getConnection();
@@ -572,6 +572,7 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
                          "e.ID AS ENROLMENT_ID " +
                          "FROM DM_ENROLMENT e, " +
                          "(SELECT d.ID, " +
+                         "d.PARTITION_BUCKET, " +
                          "d.DESCRIPTION, " +
                          "d.NAME, " +
                          "d.DEVICE_IDENTIFICATION, " +
@@ -615,9 +616,8 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
                 sql += buildStatusQuery(statusList);
                 isStatusProvided = true;
             }
-            if (activeServerCount > 0){
-                sql = sql + " AND MOD(d1.ID, ?) = ?";
-                isPartitionedTask = true;
+            if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                sql = sql + DeviceManagementDAOUtil.getPartitionCondition("d1.PARTITION_BUCKET", partition);
             }
             sql = sql + " LIMIT ? OFFSET ?";
 
@@ -647,9 +647,8 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
                         stmt.setString(paramIdx++, status);
                     }
                 }
-                if (isPartitionedTask) {
-                    stmt.setInt(paramIdx++, activeServerCount);
-                    stmt.setInt(paramIdx++, serverIndex);
+                if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                    paramIdx = DeviceManagementDAOUtil.setPartitionParameters(stmt, paramIdx, partition);
                 }
                 stmt.setInt(paramIdx++, request.getRowCount());
                 stmt.setInt(paramIdx, request.getStartIndex());
@@ -2006,4 +2005,67 @@ public class GenericDeviceDAOImpl extends AbstractDeviceDAOImpl {
             throw new DeviceManagementDAOException(msg, e);
         }
     }
+
+    @Override
+    public List<Device> getDevicesAfterEnrolment(String deviceType, List<String> statusList, int lastEnrolmentId,
+                                                 int limit, int tenantId, TaskPartition partition)
+            throws DeviceManagementDAOException {
+        boolean isStatusProvided = false;
+        try {
+            Connection conn = getConnection();
+            String sql = "SELECT d.ID AS DEVICE_ID, " +
+                         "d.DESCRIPTION, " +
+                         "d.NAME AS DEVICE_NAME, " +
+                         "e.DEVICE_TYPE, " +
+                         "d.DEVICE_IDENTIFICATION, " +
+                         "d.LAST_UPDATED_TIMESTAMP, " +
+                         "e.OWNER, " +
+                         "e.OWNERSHIP, " +
+                         "e.STATUS, " +
+                         "e.IS_TRANSFERRED, " +
+                         "e.DATE_OF_LAST_UPDATE, " +
+                         "e.DATE_OF_ENROLMENT, " +
+                         "e.ID AS ENROLMENT_ID " +
+                         "FROM DM_ENROLMENT e " +
+                         "INNER JOIN DM_DEVICE d ON d.ID = e.DEVICE_ID " +
+                         "WHERE e.TENANT_ID = ? AND e.DEVICE_TYPE = ? AND e.ID > ?";
+            if (statusList != null && !statusList.isEmpty()) {
+                sql += buildStatusQuery(statusList);
+                isStatusProvided = true;
+            }
+            if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                sql = sql + DeviceManagementDAOUtil.getPartitionCondition("d.PARTITION_BUCKET", partition);
+            }
+            sql = sql + " ORDER BY e.ID LIMIT ?";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int paramIdx = 1;
+                stmt.setInt(paramIdx++, tenantId);
+                stmt.setString(paramIdx++, deviceType);
+                stmt.setInt(paramIdx++, lastEnrolmentId);
+                if (isStatusProvided) {
+                    for (String status : statusList) {
+                        stmt.setString(paramIdx++, status);
+                    }
+                }
+                if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                    paramIdx = DeviceManagementDAOUtil.setPartitionParameters(stmt, paramIdx, partition);
+                }
+                stmt.setInt(paramIdx, limit);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Device> devices = new ArrayList<>();
+                    while (rs.next()) {
+                        devices.add(DeviceManagementDAOUtil.loadDevice(rs));
+                    }
+                    return devices;
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Error occurred while retrieving devices of type '" + deviceType + "' enrolled after " +
+                         "enrolment id " + lastEnrolmentId + " of tenant " + tenantId;
+            log.error(msg, e);
+            throw new DeviceManagementDAOException(msg, e);
+        }
+    }
 }
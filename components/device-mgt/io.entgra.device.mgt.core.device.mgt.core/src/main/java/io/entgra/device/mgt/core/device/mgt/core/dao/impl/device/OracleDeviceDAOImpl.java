@@ -21,7 +21,9 @@ package io.entgra.device.mgt.core.device.mgt.core.dao.impl.device;
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
+import io.entgra.device.mgt.core.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -162,4 +164,67 @@ public class OracleDeviceDAOImpl extends SQLServerDeviceDAOImpl {
             throw new DeviceManagementDAOException(msg, e);
         }
     }
+
+    @Override
+    public List<Device> getDevicesAfterEnrolment(String deviceType, List<String> statusList, int lastEnrolmentId,
+                                                 int limit, int tenantId, TaskPartition partition)
+            throws DeviceManagementDAOException {
+        boolean isStatusProvided = false;
+        try {
+            Connection conn = getConnection();
+            String sql = "SELECT d.ID AS DEVICE_ID, " +
+                         "d.DESCRIPTION, " +
+                         "d.NAME AS DEVICE_NAME, " +
+                         "e.DEVICE_TYPE, " +
+                         "d.DEVICE_IDENTIFICATION, " +
+                         "d.LAST_UPDATED_TIMESTAMP, " +
+                         "e.OWNER, " +
+                         "e.OWNERSHIP, " +
+                         "e.STATUS, " +
+                         "e.IS_TRANSFERRED, " +
+                         "e.DATE_OF_LAST_UPDATE, " +
+                         "e.DATE_OF_ENROLMENT, " +
+                         "e.ID AS ENROLMENT_ID " +
+                         "FROM DM_ENROLMENT e " +
+                         "INNER JOIN DM_DEVICE d ON d.ID = e.DEVICE_ID " +
+                         "WHERE e.TENANT_ID = ? AND e.DEVICE_TYPE = ? AND e.ID > ?";
+            if (statusList != null && !statusList.isEmpty()) {
+                sql += buildStatusQuery(statusList);
+                isStatusProvided = true;
+            }
+            if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                sql = sql + DeviceManagementDAOUtil.getPartitionCondition("d.PARTITION_BUCKET", partition);
+            }
+            sql = sql + " ORDER BY e.ID FETCH FIRST ? ROWS ONLY";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int paramIdx = 1;
+                stmt.setInt(paramIdx++, tenantId);
+                stmt.setString(paramIdx++, deviceType);
+                stmt.setInt(paramIdx++, lastEnrolmentId);
+                if (isStatusProvided) {
+                    for (String status : statusList) {
+                        stmt.setString(paramIdx++, status);
+                    }
+                }
+                if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                    paramIdx = DeviceManagementDAOUtil.setPartitionParameters(stmt, paramIdx, partition);
+                }
+                stmt.setInt(paramIdx, limit);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    List<Device> devices = new ArrayList<>();
+                    while (rs.next()) {
+                        devices.add(DeviceManagementDAOUtil.loadDevice(rs));
+                    }
+                    return devices;
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Error occurred while retrieving devices of type '" + deviceType + "' enrolled after " +
+                         "enrolment id " + lastEnrolmentId + " of tenant " + tenantId;
+            log.error(msg, e);
+            throw new DeviceManagementDAOException(msg, e);
+        }
+    }
 }
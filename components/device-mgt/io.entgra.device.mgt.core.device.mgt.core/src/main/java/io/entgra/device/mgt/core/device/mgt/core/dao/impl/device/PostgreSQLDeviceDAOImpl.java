@@ -21,6 +21,7 @@ package io.entgra.device.mgt.core.device.mgt.core.dao.impl.device;
 import io.entgra.device.mgt.core.device.mgt.common.Count;
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceInfo;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
@@ -333,7 +334,7 @@ public class PostgreSQLDeviceDAOImpl extends GenericDeviceDAOImpl {
 
     @Override
     public List<Device> getAllocatedDevices(PaginationRequest request, int tenantId,
-                                            int activeServerCount, int serverIndex)
+                                            TaskPartition partition)
             throws DeviceManagementDAOException {
         Connection conn;
         List<Device> devices = null;
@@ -351,7 +352,6 @@ public class PostgreSQLDeviceDAOImpl extends GenericDeviceDAOImpl {
         boolean isStatusProvided = false;
         Date since = request.getSince();
         boolean isSinceProvided = false;
-        boolean isPartitionedTask = false;
 
         try {
             conn = getConnection();
@@ -369,6 +369,7 @@ public class PostgreSQLDeviceDAOImpl extends GenericDeviceDAOImpl {
                          "e.ID AS ENROLMENT_ID " +
                          "FROM DM_ENROLMENT e, " +
                          "(SELECT d.ID, " +
+                         "d.PARTITION_BUCKET, " +
                          "d.DESCRIPTION, " +
                          "d.NAME, " +
                          "d.DEVICE_IDENTIFICATION, " +
@@ -405,9 +406,8 @@ public class PostgreSQLDeviceDAOImpl extends GenericDeviceDAOImpl {
                 sql += buildStatusQuery(statusList);
                 isStatusProvided = true;
             }
-            if (activeServerCount > 0){
-                sql = sql + " AND MOD(d1.ID, ?) = ?";
-                isPartitionedTask = true;
+            if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                sql = sql + DeviceManagementDAOUtil.getPartitionCondition("d1.PARTITION_BUCKET", partition);
             }
             sql = sql + " LIMIT ? OFFSET ?";
 
@@ -434,9 +434,8 @@ public class PostgreSQLDeviceDAOImpl extends GenericDeviceDAOImpl {
                         stmt.setString(paramIdx++, status);
                     }
                 }
-                if (isPartitionedTask) {
-                    stmt.setInt(paramIdx++, activeServerCount);
-                    stmt.setInt(paramIdx++, serverIndex);
+                if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                    paramIdx = DeviceManagementDAOUtil.setPartitionParameters(stmt, paramIdx, partition);
                 }
                 stmt.setInt(paramIdx++, request.getRowCount());
                 stmt.setInt(paramIdx, request.getStartIndex());
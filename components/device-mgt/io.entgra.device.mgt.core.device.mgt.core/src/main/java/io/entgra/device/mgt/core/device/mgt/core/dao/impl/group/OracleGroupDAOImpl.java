@@ -226,4 +226,9 @@ public class OracleGroupDAOImpl extends AbstractGroupDAOImpl {
         }
         return devices;
     }
+
+    @Override
+    protected String getRowLimitPart() {
+        return " FETCH FIRST ? ROWS ONLY";
+    }
 }
@@ -226,4 +226,9 @@ public class SQLServerGroupDAOImpl extends AbstractGroupDAOImpl {
         }
         return devices;
     }
+
+    @Override
+    protected String getRowLimitPart() {
+        return " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+    }
 }
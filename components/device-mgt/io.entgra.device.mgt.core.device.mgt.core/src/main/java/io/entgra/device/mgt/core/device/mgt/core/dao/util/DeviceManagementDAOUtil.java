@@ -20,6 +20,7 @@ package io.entgra.device.mgt.core.device.mgt.core.dao.util;
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceInfo;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceLocationHistorySnapshot;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceMonitoringData;
@@ -49,6 +50,7 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.StringJoiner;
 
 public final class DeviceManagementDAOUtil {
 
@@ -374,4 +376,51 @@ public final class DeviceManagementDAOUtil {
                 .toLocalDateTime();
         return Timestamp.valueOf(l).getTime() / 1000;
     }
+
+    /**
+     * Checks whether the devices have to be filtered by a task partition.
+     *
+     * @param partition partition of the current server, or null if the task is not partitioned
+     * @return true if the partition does not own all the devices
+     */
+    public static boolean isPartitioned(TaskPartition partition) {
+        return partition != null && !partition.isComplete();
+    }
+
+    /**
+     * Build the condition to filter the devices of a task partition, as ranges of the persisted bucket of the devices
+     * which can be looked up by an index range scan.
+     *
+     * @param bucketColumn bucket column of the device table along with the alias
+     * @param partition    partition of the current server
+     * @return condition to be appended to the where clause
+     */
+    public static String getPartitionCondition(String bucketColumn, TaskPartition partition) {
+        if (partition.getBucketRanges().isEmpty()) {
+            return " AND 1 = 0";
+        }
+        StringJoiner joiner = new StringJoiner(" OR ", " AND (", ")");
+        for (int i = 0; i < partition.getBucketRanges().size(); i++) {
+            joiner.add(bucketColumn + " BETWEEN ? AND ?");
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Set the parameters of the condition built by {@link #getPartitionCondition(String, TaskPartition)}.
+     *
+     * @param stmt      statement to set the parameters
+     * @param paramIdx  index of the first parameter of the condition
+     * @param partition partition of the current server
+     * @return index of the parameter next to the condition
+     * @throws SQLException if the parameters cannot be set
+     */
+    public static int setPartitionParameters(PreparedStatement stmt, int paramIdx, TaskPartition partition)
+            throws SQLException {
+        for (TaskPartition.BucketRange range : partition.getBucketRanges()) {
+            stmt.setInt(paramIdx++, range.getFrom());
+            stmt.setInt(paramIdx++, range.getTo());
+        }
+        return paramIdx;
+    }
 }
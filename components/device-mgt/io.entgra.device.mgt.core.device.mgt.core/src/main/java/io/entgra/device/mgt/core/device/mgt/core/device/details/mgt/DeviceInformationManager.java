@@ -80,6 +80,13 @@ public interface DeviceInformationManager {
 
     void deleteDeviceLocation(Device device) throws DeviceDetailsMgtException;
 
+    /**
+     * This method will make the next device information report of the enrolment to be persisted even if it carries
+     * the same information as the last report, and has to be called once the device information is removed.
+     * @param enrolmentId - Id of the enrolment of which the device information is removed.
+     */
+    void invalidateDeviceInfo(int enrolmentId);
+
     void addDeviceLocations(Device device, List<DeviceLocation> deviceLocations) throws
             DeviceDetailsMgtException;
 
@@ -22,6 +22,7 @@ package io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.dao;
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceInfo;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceLocation;
+import io.entgra.device.mgt.core.device.mgt.core.dto.DeviceLocationUpdate;
 
 import java.util.List;
 import java.util.Map;
@@ -136,6 +137,21 @@ public interface DeviceDetailsDAO {
     void addDeviceLocationsInfo(Device device, List<DeviceLocation> deviceLocation, int tenantId)
             throws DeviceDetailsMgtDAOException;
 
+    /**
+     * Add the location history of several devices to the database as a single batch
+     * @param locationUpdates Locations reported by the devices
+     * @throws DeviceDetailsMgtDAOException
+     */
+    void addDeviceLocationsInfo(List<DeviceLocationUpdate> locationUpdates) throws DeviceDetailsMgtDAOException;
+
+    /**
+     * This method will add or update the current locations of several enrolments. Existing locations are looked up
+     * with a single query, then updated and added as batches.
+     * @param locationUpdates - Latest locations, at most one per enrolment.
+     * @throws DeviceDetailsMgtDAOException
+     */
+    void saveDeviceLocations(List<DeviceLocationUpdate> locationUpdates) throws DeviceDetailsMgtDAOException;
+
     void updateDeviceInformation(int deviceId, int enrollmentId, DeviceInfo newDeviceInfo) throws DeviceDetailsMgtDAOException;
 
     void updateDeviceLocation(DeviceLocation deviceLocation, int enrollmentId) throws DeviceDetailsMgtDAOException;
@@ -26,6 +26,7 @@ import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.dao.DeviceDetailsDAO;
 import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.dao.DeviceDetailsMgtDAOException;
+import io.entgra.device.mgt.core.device.mgt.core.dto.DeviceLocationUpdate;
 import io.entgra.device.mgt.core.device.mgt.core.geo.geoHash.GeoHashGenerator;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -35,13 +36,18 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DeviceDetailsDAOImpl implements DeviceDetailsDAO {
 
     private static final Log log = LogFactory.getLog(DeviceDetailsDAOImpl.class);
+    private static final int MAX_LOCATION_LOOKUP_SIZE = 1000;
 
     @Override
     public void addDeviceInformation(int deviceId, int enrolmentId, DeviceInfo deviceInfo)
@@ -501,6 +507,169 @@ public class DeviceDetailsDAOImpl implements DeviceDetailsDAO {
         }
     }
 
+    @Override
+    public void addDeviceLocationsInfo(List<DeviceLocationUpdate> locationUpdates)
+            throws DeviceDetailsMgtDAOException {
+        String sql = "INSERT INTO " +
+                "DM_DEVICE_HISTORY_LAST_SEVEN_DAYS " +
+                "(DEVICE_ID, DEVICE_ID_NAME, TENANT_ID, DEVICE_TYPE_NAME, LATITUDE, LONGITUDE, SPEED, HEADING, " +
+                "TIMESTAMP, GEO_HASH, DEVICE_OWNER, DEVICE_ALTITUDE, DISTANCE) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try {
+            Connection conn = this.getConnection();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (DeviceLocationUpdate locationUpdate : locationUpdates) {
+                    Device device = locationUpdate.getDevice();
+                    DeviceLocation location = locationUpdate.getLocation();
+                    stmt.setInt(1, device.getId());
+                    stmt.setString(2, device.getDeviceIdentifier());
+                    stmt.setInt(3, locationUpdate.getTenantId());
+                    stmt.setString(4, device.getType());
+                    stmt.setDouble(5, location.getLatitude());
+                    stmt.setDouble(6, location.getLongitude());
+                    stmt.setFloat(7, location.getSpeed());
+                    stmt.setFloat(8, location.getBearing());
+                    if (location.getUpdatedTime() == null) {
+                        stmt.setLong(9, System.currentTimeMillis());
+                    } else {
+                        stmt.setLong(9, location.getUpdatedTime().getTime());
+                    }
+                    stmt.setString(10, GeoHashGenerator.encodeGeohash(location));
+                    stmt.setString(11, device.getEnrolmentInfo().getOwner());
+                    stmt.setDouble(12, location.getAltitude());
+                    stmt.setDouble(13, location.getDistance());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            String msg = "Error occurred while adding a batch of " + locationUpdates.size() +
+                    " device locations to the location history.";
+            log.error(msg, e);
+            throw new DeviceDetailsMgtDAOException(msg, e);
+        }
+    }
+
+    @Override
+    public void saveDeviceLocations(List<DeviceLocationUpdate> locationUpdates)
+            throws DeviceDetailsMgtDAOException {
+        if (locationUpdates.isEmpty()) {
+            return;
+        }
+        try {
+            Connection conn = this.getConnection();
+            Set<Integer> locatedEnrolmentIds = this.getLocatedEnrolmentIds(conn, locationUpdates);
+            List<DeviceLocationUpdate> updatableLocations = new ArrayList<>();
+            List<DeviceLocationUpdate> insertableLocations = new ArrayList<>();
+            for (DeviceLocationUpdate locationUpdate : locationUpdates) {
+                this.removeUnusualZip(locationUpdate.getLocation(), locationUpdate.getEnrolmentId());
+                if (locatedEnrolmentIds.contains(locationUpdate.getEnrolmentId())) {
+                    updatableLocations.add(locationUpdate);
+                } else {
+                    insertableLocations.add(locationUpdate);
+                }
+            }
+            if (!updatableLocations.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement("UPDATE DM_DEVICE_LOCATION SET LATITUDE = ?, " +
+                        "LONGITUDE = ?, STREET1 = ?, STREET2 = ?, CITY = ?, ZIP = ?, STATE = ?, COUNTRY = ?, " +
+                        "GEO_HASH = ?, UPDATE_TIMESTAMP = ?, ALTITUDE = ?, SPEED = ?, BEARING = ?, DISTANCE = ? " +
+                        "WHERE DEVICE_ID = ? AND ENROLMENT_ID = ?")) {
+                    for (DeviceLocationUpdate locationUpdate : updatableLocations) {
+                        DeviceLocation location = locationUpdate.getLocation();
+                        stmt.setDouble(1, location.getLatitude());
+                        stmt.setDouble(2, location.getLongitude());
+                        stmt.setString(3, location.getStreet1());
+                        stmt.setString(4, location.getStreet2());
+                        stmt.setString(5, location.getCity());
+                        stmt.setString(6, location.getZip());
+                        stmt.setString(7, location.getState());
+                        stmt.setString(8, location.getCountry());
+                        stmt.setString(9, GeoHashGenerator.encodeGeohash(location));
+                        stmt.setLong(10, this.getLocationTimestamp(location));
+                        stmt.setDouble(11, location.getAltitude());
+                        stmt.setFloat(12, location.getSpeed());
+                        stmt.setFloat(13, location.getBearing());
+                        stmt.setDouble(14, location.getDistance());
+                        stmt.setInt(15, locationUpdate.getDevice().getId());
+                        stmt.setInt(16, locationUpdate.getEnrolmentId());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+            if (!insertableLocations.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO DM_DEVICE_LOCATION (DEVICE_ID, " +
+                        "LATITUDE, LONGITUDE, STREET1, STREET2, CITY, ZIP, STATE, COUNTRY, GEO_HASH, " +
+                        "UPDATE_TIMESTAMP, ENROLMENT_ID, ALTITUDE, SPEED, BEARING, DISTANCE) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                    for (DeviceLocationUpdate locationUpdate : insertableLocations) {
+                        DeviceLocation location = locationUpdate.getLocation();
+                        stmt.setInt(1, locationUpdate.getDevice().getId());
+                        stmt.setDouble(2, location.getLatitude());
+                        stmt.setDouble(3, location.getLongitude());
+                        stmt.setString(4, location.getStreet1());
+                        stmt.setString(5, location.getStreet2());
+                        stmt.setString(6, location.getCity());
+                        stmt.setString(7, location.getZip());
+                        stmt.setString(8, location.getState());
+                        stmt.setString(9, location.getCountry());
+                        stmt.setString(10, GeoHashGenerator.encodeGeohash(location));
+                        stmt.setLong(11, this.getLocationTimestamp(location));
+                        stmt.setInt(12, locationUpdate.getEnrolmentId());
+                        stmt.setDouble(13, location.getAltitude());
+                        stmt.setFloat(14, location.getSpeed());
+                        stmt.setFloat(15, location.getBearing());
+                        stmt.setDouble(16, location.getDistance());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "Error occurred while saving a batch of " + locationUpdates.size() + " device locations.";
+            log.error(msg, e);
+            throw new DeviceDetailsMgtDAOException(msg, e);
+        }
+    }
+
+    private Set<Integer> getLocatedEnrolmentIds(Connection conn, List<DeviceLocationUpdate> locationUpdates)
+            throws SQLException {
+        Set<Integer> locatedEnrolmentIds = new HashSet<>();
+        for (int from = 0; from < locationUpdates.size(); from += MAX_LOCATION_LOOKUP_SIZE) {
+            List<DeviceLocationUpdate> chunk = locationUpdates.subList(from,
+                    Math.min(from + MAX_LOCATION_LOOKUP_SIZE, locationUpdates.size()));
+            String sql = "SELECT ENROLMENT_ID FROM DM_DEVICE_LOCATION WHERE ENROLMENT_ID IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (DeviceLocationUpdate locationUpdate : chunk) {
+                    stmt.setInt(index++, locationUpdate.getEnrolmentId());
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        locatedEnrolmentIds.add(rs.getInt("ENROLMENT_ID"));
+                    }
+                }
+            }
+        }
+        return locatedEnrolmentIds;
+    }
+
+    private long getLocationTimestamp(DeviceLocation location) {
+        if (location.getUpdatedTime() == null) {
+            return DeviceManagementDAOUtil.getCurrentUTCTime() * 1000L;
+        }
+        return DeviceManagementDAOUtil.convertLocalTimeIntoUTC(location.getUpdatedTime()) * 1000L;
+    }
+
+    private void removeUnusualZip(DeviceLocation location, int enrollmentId) {
+        if (StringUtils.isNotBlank(location.getZip()) && location.getZip().length() > 10) {
+            log.error("Saving unusually long zip " + location.getZip() + ", deviceId:" + location.getDeviceId() +
+                    ", enrollmentId:" + enrollmentId);
+            location.setZip(null);
+        }
+    }
+
     @Override
     public void updateDeviceInformation(int deviceId, int enrollmentId, DeviceInfo newDeviceInfo) throws DeviceDetailsMgtDAOException {
         Connection conn;
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceInfo;
+import io.entgra.device.mgt.core.device.mgt.core.config.cache.DeviceInfoCacheConfiguration;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects whether a device information report carries anything other than the report last persisted for the same
+ * enrolment. Reports are reduced to a compact 64-bit content hash per group, one for the details kept in
+ * DM_DEVICE_DETAIL and one for the properties kept in DM_DEVICE_INFO, and the hashes of the last persisted report of
+ * each enrolment are kept in a local cache. Hashes are taken from reports as received, before they are merged with
+ * the previously persisted information, hence the same report always results in the same hashes.
+ */
+final class DeviceInfoChangeDetector {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Cache<Integer, ReportDigest> lastDigests;
+
+    /**
+     * @param config Configuration of the cache, change detection is disabled if null or not enabled
+     */
+    DeviceInfoChangeDetector(DeviceInfoCacheConfiguration config) {
+        if (config != null && config.isEnabled() && config.getExpiryTime() > 0 && config.getCapacity() > 0) {
+            this.lastDigests = CacheBuilder.newBuilder()
+                    .maximumSize(config.getCapacity())
+                    .expireAfterWrite(config.getExpiryTime(), TimeUnit.SECONDS)
+                    .build();
+        } else {
+            this.lastDigests = null;
+        }
+    }
+
+    /**
+     * @return Hashes of the given report, which has to be taken before the report is merged with the persisted one
+     */
+    ReportDigest digest(DeviceInfo deviceInfo) {
+        // Only the details which are persisted are hashed, e.g. the mobile signal strength is not
+        long detailsHash = FNV_OFFSET_BASIS;
+        detailsHash = hash(detailsHash, deviceInfo.getDeviceModel());
+        detailsHash = hash(detailsHash, deviceInfo.getVendor());
+        detailsHash = hash(detailsHash, deviceInfo.getOsVersion());
+        detailsHash = hash(detailsHash, deviceInfo.getOsBuildDate());
+        detailsHash = hash(detailsHash, deviceInfo.getBatteryLevel());
+        detailsHash = hash(detailsHash, deviceInfo.getInternalTotalMemory());
+        detailsHash = hash(detailsHash, deviceInfo.getInternalAvailableMemory());
+        detailsHash = hash(detailsHash, deviceInfo.getExternalTotalMemory());
+        detailsHash = hash(detailsHash, deviceInfo.getExternalAvailableMemory());
+        detailsHash = hash(detailsHash, deviceInfo.getConnectionType());
+        detailsHash = hash(detailsHash, deviceInfo.getSsid());
+        detailsHash = hash(detailsHash, deviceInfo.getCpuUsage());
+        detailsHash = hash(detailsHash, deviceInfo.getTotalRAMMemory());
+        detailsHash = hash(detailsHash, deviceInfo.getAvailableRAMMemory());
+        detailsHash = hash(detailsHash, String.valueOf(deviceInfo.isPluggedIn()));
+
+        long propertiesHash = FNV_OFFSET_BASIS;
+        Map<String, String> properties = deviceInfo.getDeviceDetailsMap();
+        if (properties != null) {
+            // Sorted, since the hash must not depend on the order in which the properties are reported
+            for (Map.Entry<String, String> property : new TreeMap<>(properties).entrySet()) {
+                propertiesHash = hash(propertiesHash, property.getKey());
+                propertiesHash = hash(propertiesHash, property.getValue());
+            }
+        }
+        return new ReportDigest(detailsHash, propertiesHash);
+    }
+
+    /**
+     * @return Hashes of the report last persisted for the enrolment, or null if not known
+     */
+    ReportDigest getLastDigest(int enrolmentId) {
+        return lastDigests == null ? null : lastDigests.getIfPresent(enrolmentId);
+    }
+
+    /**
+     * Records the hashes of a report once it is persisted for the enrolment.
+     */
+    void record(int enrolmentId, ReportDigest digest) {
+        if (lastDigests != null) {
+            lastDigests.put(enrolmentId, digest);
+        }
+    }
+
+    void invalidate(int enrolmentId) {
+        if (lastDigests != null) {
+            lastDigests.invalidate(enrolmentId);
+        }
+    }
+
+    private static long hash(long hash, Double value) {
+        return hash(hash, value == null ? null : value.toString());
+    }
+
+    /**
+     * FNV-1a over the length and the characters of the value, so that adjacent values cannot run into each other.
+     */
+    private static long hash(long hash, String value) {
+        hash = (hash ^ (value == null ? -1 : value.length())) * FNV_PRIME;
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    static final class ReportDigest {
+        private final long detailsHash;
+        private final long propertiesHash;
+
+        ReportDigest(long detailsHash, long propertiesHash) {
+            this.detailsHash = detailsHash;
+            this.propertiesHash = propertiesHash;
+        }
+
+        /**
+         * @return true if the details differ from the given last persisted report, or if it is not known
+         */
+        boolean isDetailsChanged(ReportDigest lastDigest) {
+            return lastDigest == null || lastDigest.detailsHash != detailsHash;
+        }
+
+        /**
+         * @return true if the properties differ from the given last persisted report, or if it is not known
+         */
+        boolean isPropertiesChanged(ReportDigest lastDigest) {
+            return lastDigest == null || lastDigest.propertiesHash != propertiesHash;
+        }
+    }
+}
@@ -35,6 +35,9 @@ import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagem
 import io.entgra.device.mgt.core.device.mgt.common.group.mgt.DeviceGroup;
 import io.entgra.device.mgt.core.device.mgt.common.group.mgt.GroupManagementException;
 import io.entgra.device.mgt.core.device.mgt.core.DeviceManagementConstants;
+import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.DeviceManagementConfig;
+import io.entgra.device.mgt.core.device.mgt.core.config.cache.DeviceInfoCacheConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceDAO;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
@@ -62,13 +65,25 @@ public class DeviceInformationManagerImpl implements DeviceInformationManager {
 
     private final DeviceDetailsDAO deviceDetailsDAO;
     private final DeviceDAO deviceDAO;
+    private final DeviceInfoChangeDetector changeDetector;
     private static final Log log = LogFactory.getLog(DeviceInformationManagerImpl.class);
     private static final String LOCATION_EVENT_STREAM_DEFINITION = "org.wso2.iot.LocationStream";
     private static final String DEVICE_INFO_EVENT_STREAM_DEFINITION = "org.wso2.iot.DeviceInfoStream";
 
     public DeviceInformationManagerImpl() {
+        this(getDeviceInfoCacheConfiguration());
+    }
+
+    DeviceInformationManagerImpl(DeviceInfoCacheConfiguration deviceInfoCacheConfiguration) {
         this.deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
         this.deviceDetailsDAO = DeviceManagementDAOFactory.getDeviceDetailsDAO();
+        this.changeDetector = new DeviceInfoChangeDetector(deviceInfoCacheConfiguration);
+    }
+
+    private static DeviceInfoCacheConfiguration getDeviceInfoCacheConfiguration() {
+        DeviceManagementConfig deviceManagementConfig = DeviceConfigurationManager.getInstance()
+                .getDeviceManagementConfig();
+        return deviceManagementConfig == null ? null : deviceManagementConfig.getDeviceInfoCacheConfiguration();
     }
 
     @Override
@@ -92,22 +107,40 @@ public class DeviceInformationManagerImpl implements DeviceInformationManager {
             //Asynchronous call to publish the device information to the reporting service. Hence, response is ignored.
             publishEvents(device, deviceDetailsWrapper, DeviceManagementConstants.Report.DEVICE_INFO_PARAM);
 
-            DeviceManagementDAOFactory.beginTransaction();
-            DeviceInfo newDeviceInfo;
-            DeviceInfo previousDeviceInfo = deviceDetailsDAO.getDeviceInformation(device.getId(),
-                    device.getEnrolmentInfo().getId());
-            Map<String, String> previousDeviceProperties = deviceDetailsDAO.getDeviceProperties(device.getId(),
+            // Hashes are taken before the report is merged with the previous device information
+            DeviceInfoChangeDetector.ReportDigest digest = changeDetector.digest(deviceInfo);
+            DeviceInfoChangeDetector.ReportDigest lastDigest = changeDetector.getLastDigest(
                     device.getEnrolmentInfo().getId());
-            if (previousDeviceInfo != null) {
-                previousDeviceInfo.setDeviceDetailsMap(new HashMap<>());
-                newDeviceInfo = processDeviceInfo(previousDeviceInfo, deviceInfo);
-                deviceDetailsDAO.updateDeviceInformation(device.getId(), device.getEnrolmentInfo().getId(),
-                        newDeviceInfo);
-            } else {
-                deviceDetailsDAO.addDeviceInformation(device.getId(), device.getEnrolmentInfo().getId(), deviceInfo);
-                newDeviceInfo = deviceInfo;
+            boolean isPropertiesChanged = digest.isPropertiesChanged(lastDigest);
+            // Properties are derived from the merged details, hence the details are processed along with them
+            boolean isDetailsChanged = isPropertiesChanged || digest.isDetailsChanged(lastDigest);
+
+            DeviceManagementDAOFactory.beginTransaction();
+            DeviceInfo newDeviceInfo = deviceInfo;
+            if (isDetailsChanged) {
+                DeviceInfo previousDeviceInfo = deviceDetailsDAO.getDeviceInformation(device.getId(),
+                        device.getEnrolmentInfo().getId());
+                if (previousDeviceInfo != null) {
+                    previousDeviceInfo.setDeviceDetailsMap(new HashMap<>());
+                    newDeviceInfo = processDeviceInfo(previousDeviceInfo, deviceInfo);
+                    deviceDetailsDAO.updateDeviceInformation(device.getId(), device.getEnrolmentInfo().getId(),
+                            newDeviceInfo);
+                } else {
+                    deviceDetailsDAO.addDeviceInformation(device.getId(), device.getEnrolmentInfo().getId(),
+                            deviceInfo);
+                }
+            } else if (log.isDebugEnabled()) {
+                log.debug("Device information reported by device " + device.getDeviceIdentifier() + " of type " +
+                        device.getType() + " is not changed since the last report, hence it is not persisted.");
             }
-            if (previousDeviceProperties.isEmpty()) {
+            Map<String, String> previousDeviceProperties = isPropertiesChanged ?
+                    deviceDetailsDAO.getDeviceProperties(device.getId(), device.getEnrolmentInfo().getId()) : null;
+            if (previousDeviceProperties == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Device properties reported by device " + device.getDeviceIdentifier() + " of type " +
+                            device.getType() + " are not changed since the last report.");
+                }
+            } else if (previousDeviceProperties.isEmpty()) {
                 deviceDetailsDAO.addDeviceProperties(newDeviceInfo.getDeviceDetailsMap(), device.getId(),
                         device.getEnrolmentInfo().getId());
             } else {
@@ -149,6 +182,7 @@ public class DeviceInformationManagerImpl implements DeviceInformationManager {
                         CarbonContext.getThreadLocalCarbonContext().getTenantId());
             }
             DeviceManagementDAOFactory.commitTransaction();
+            changeDetector.record(device.getEnrolmentInfo().getId(), digest);
 
             //TODO :: This has to be fixed by adding the enrollment ID.
             if (DeviceManagerUtil.isPublishDeviceInfoResponseEnabled()) {
@@ -403,6 +437,25 @@ public class DeviceInformationManagerImpl implements DeviceInformationManager {
 
     @Override
     public void addDeviceLocation(Device device, DeviceLocation deviceLocation) throws DeviceDetailsMgtException {
+        // Locations which are not sent to the tracker are left to the coalescing ingestion when it is enabled
+        if (!HttpReportingUtil.isLocationPublishing() || !HttpReportingUtil.isTrackerEnabled()) {
+            DeviceLocationIngestor ingestor = DeviceLocationIngestor.getInstance();
+            if (ingestor != null) {
+                deviceLocation.setDeviceId(device.getId());
+                try {
+                    if (ingestor.submit(device, deviceLocation,
+                            CarbonContext.getThreadLocalCarbonContext().getTenantId())) {
+                        return;
+                    }
+                } catch (TransactionManagementException e) {
+                    throw new DeviceDetailsMgtException("Transactional error occurred while adding the device " +
+                            "location information.", e);
+                } catch (DeviceDetailsMgtDAOException e) {
+                    throw new DeviceDetailsMgtException("Error occurred while adding the device location " +
+                            "information.", e);
+                }
+            }
+        }
         try {
             deviceLocation.setDeviceId(device.getId());
             DeviceManagementDAOFactory.beginTransaction();
@@ -489,6 +542,11 @@ public class DeviceInformationManagerImpl implements DeviceInformationManager {
         }
     }
 
+    @Override
+    public void invalidateDeviceInfo(int enrolmentId) {
+        changeDetector.invalidate(enrolmentId);
+    }
+
     @Override
     public void addDeviceLocations(Device device, List<DeviceLocation> deviceLocations) throws DeviceDetailsMgtException {
         try {
@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceLocation;
+import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
+import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.geo.location.LocationIngestionConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.dao.DeviceDetailsDAO;
+import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.dao.DeviceDetailsMgtDAOException;
+import io.entgra.device.mgt.core.device.mgt.core.dto.DeviceLocationUpdate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescing ingestion of the locations reported by devices. Every reported location is queued for the location
+ * history while only the latest location of each enrolment is kept as its current location. A single flusher thread
+ * writes the queue in batches once the batch size is reached or the flush interval is elapsed, each batch in one
+ * transaction with the history appended and the current locations saved as batched statements. While the ingestor
+ * runs, the current locations are written only by the flusher, so that concurrent writers never insert the current
+ * location of an enrolment twice.
+ */
+public final class DeviceLocationIngestor {
+
+    private static final Log log = LogFactory.getLog(DeviceLocationIngestor.class);
+    private static final int METRICS_LOG_INTERVAL = 100;
+    private static final long RETRY_INTERVAL_MILLS = 200;
+    private static final long SHUTDOWN_TIMEOUT_MILLS = 10000;
+    private static volatile DeviceLocationIngestor instance;
+    // Set once the configuration is read, so that the disabled ingestion is not resolved again on every location
+    private static volatile boolean resolved;
+
+    private final DeviceDetailsDAO deviceDetailsDAO;
+    private final BlockingQueue<LocationFix> queue;
+    private final Map<Integer, LocationFix> latestLocations = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalMills;
+    private final int maxFlushRetries;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushTimeMills = new AtomicLong();
+    private final AtomicLong maxFlushTimeMills = new AtomicLong();
+    private final AtomicLong totalIngestLagMills = new AtomicLong();
+    private final AtomicLong maxIngestLagMills = new AtomicLong();
+
+    DeviceLocationIngestor(LocationIngestionConfiguration config, DeviceDetailsDAO deviceDetailsDAO) {
+        this.deviceDetailsDAO = deviceDetailsDAO;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.flushIntervalMills = Math.max(0, config.getFlushIntervalMills());
+        this.maxFlushRetries = Math.max(0, config.getMaxFlushRetries());
+        this.flusher = new Thread(this::flushQueue, "device-location-ingestor");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * @return Ingestor of the node, or null if the coalescing location ingestion is not enabled
+     */
+    static DeviceLocationIngestor getInstance() {
+        if (!resolved) {
+            synchronized (DeviceLocationIngestor.class) {
+                if (!resolved) {
+                    LocationIngestionConfiguration config = DeviceConfigurationManager.getInstance()
+                            .getDeviceManagementConfig().getLocationIngestionConfiguration();
+                    if (config != null && config.isEnabled()) {
+                        instance = new DeviceLocationIngestor(config,
+                                DeviceManagementDAOFactory.getDeviceDetailsDAO());
+                    }
+                    resolved = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Flushes the queued locations and stops the ingestor of the node.
+     */
+    public static void shutdown() {
+        synchronized (DeviceLocationIngestor.class) {
+            if (instance != null) {
+                instance.stop();
+                instance = null;
+            }
+            resolved = false;
+        }
+    }
+
+    /**
+     * Queues a location reported by a device. The location replaces the pending current location of the enrolment
+     * unless the pending one is more recent. When the queue is full, the current location is still left to the
+     * flusher and only the history of the location is appended by the calling thread.
+     *
+     * @param device   Device which reported the location
+     * @param location Reported location
+     * @param tenantId Tenant of the device
+     * @return true if the location is taken, false if the ingestor is stopped and the caller has to save it on its own
+     * @throws DeviceDetailsMgtDAOException   if the history of a location which is not queued cannot be appended
+     * @throws TransactionManagementException if the transaction to append the history cannot be started
+     */
+    boolean submit(Device device, DeviceLocation location, int tenantId)
+            throws DeviceDetailsMgtDAOException, TransactionManagementException {
+        LocationFix fix = new LocationFix(new DeviceLocationUpdate(device, location, tenantId));
+        if (!running) {
+            // The caller saves the current location on its own, hence the last flush has to finish before that
+            awaitFlusher();
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+        // The latest location is recorded before queuing, so that a flush which takes the queued location finds it
+        latestLocations.merge(fix.getEnrolmentId(), fix, (pending, reported) -> {
+            coalescedCount.incrementAndGet();
+            return pending.isMoreRecentThan(reported) ? pending : reported;
+        });
+        if (!queue.offer(fix)) {
+            rejectedCount.incrementAndGet();
+            writeHistory(fix);
+        }
+        return true;
+    }
+
+    void stop() {
+        running = false;
+        awaitFlusher();
+        if (!queue.isEmpty()) {
+            log.warn(queue.size() + " device locations are not flushed before the shutdown");
+        }
+    }
+
+    private void awaitFlusher() {
+        try {
+            flusher.join(flushIntervalMills + SHUTDOWN_TIMEOUT_MILLS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushQueue() {
+        while (running || !queue.isEmpty() || !latestLocations.isEmpty()) {
+            try {
+                List<LocationFix> batch = new ArrayList<>(batchSize);
+                LocationFix first = queue.poll(flushIntervalMills > 0 ? flushIntervalMills : 1000,
+                        TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long flushAt = System.currentTimeMillis() + flushIntervalMills;
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = flushAt - System.currentTimeMillis();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        LocationFix next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                List<LocationFix> currentLocations = takeLatestLocations();
+                if (!batch.isEmpty() || !currentLocations.isEmpty()) {
+                    flush(batch, currentLocations);
+                }
+            } catch (InterruptedException e) {
+                log.warn("Device location ingestor is interrupted");
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error occurred while flushing device locations", e);
+            }
+        }
+    }
+
+    /**
+     * Takes the pending current locations of all the enrolments. A location reported while taking is left for the
+     * next flush.
+     */
+    private List<LocationFix> takeLatestLocations() {
+        List<LocationFix> currentLocations = new ArrayList<>();
+        Iterator<Map.Entry<Integer, LocationFix>> iterator = latestLocations.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, LocationFix> entry = iterator.next();
+            if (latestLocations.remove(entry.getKey(), entry.getValue())) {
+                currentLocations.add(entry.getValue());
+            }
+        }
+        return currentLocations;
+    }
+
+    private void flush(List<LocationFix> batch, List<LocationFix> currentLocations) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                write(batch, currentLocations);
+                flushedCount.addAndGet(batch.size());
+                break;
+            } catch (DeviceDetailsMgtDAOException | TransactionManagementException e) {
+                if (attempt >= maxFlushRetries) {
+                    failedCount.addAndGet(batch.size());
+                    log.error("Unable to flush a batch of " + batch.size() + " device locations and " +
+                            currentLocations.size() + " current locations, hence they are dropped", e);
+                    break;
+                }
+                log.warn("Unable to flush a batch of " + batch.size() + " device locations, Attempt: " +
+                        (attempt + 1) + ", Error: " + e.getMessage());
+                Thread.sleep(RETRY_INTERVAL_MILLS * (attempt + 1));
+            }
+        }
+        long flushedTime = System.currentTimeMillis();
+        for (LocationFix fix : batch) {
+            long ingestLagMills = flushedTime - fix.receivedTime;
+            totalIngestLagMills.addAndGet(ingestLagMills);
+            maxIngestLagMills.accumulateAndGet(ingestLagMills, Math::max);
+        }
+        recordFlush(batch.size(), currentLocations.size(), flushedTime - startTime);
+    }
+
+    private void write(List<LocationFix> batch, List<LocationFix> currentLocations)
+            throws DeviceDetailsMgtDAOException, TransactionManagementException {
+        List<DeviceLocationUpdate> history = new ArrayList<>(batch.size());
+        for (LocationFix fix : batch) {
+            history.add(fix.locationUpdate);
+        }
+        List<DeviceLocationUpdate> latest = new ArrayList<>(currentLocations.size());
+        for (LocationFix fix : currentLocations) {
+            latest.add(fix.locationUpdate);
+        }
+        DeviceManagementDAOFactory.beginTransaction();
+        try {
+            deviceDetailsDAO.saveDeviceLocations(latest);
+            if (!history.isEmpty()) {
+                deviceDetailsDAO.addDeviceLocationsInfo(history);
+            }
+            DeviceManagementDAOFactory.commitTransaction();
+        } catch (DeviceDetailsMgtDAOException e) {
+            DeviceManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    /**
+     * Appends the history of a location which does not fit in the queue. The history has no unique key, so this
+     * does not conflict with the batches written by the flusher.
+     */
+    private void writeHistory(LocationFix fix) throws DeviceDetailsMgtDAOException, TransactionManagementException {
+        DeviceManagementDAOFactory.beginTransaction();
+        try {
+            deviceDetailsDAO.addDeviceLocationsInfo(Collections.singletonList(fix.locationUpdate));
+            DeviceManagementDAOFactory.commitTransaction();
+        } catch (DeviceDetailsMgtDAOException e) {
+            DeviceManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private void recordFlush(int size, int currentLocationCount, long flushTimeMills) {
+        long flushes = flushCount.incrementAndGet();
+        totalFlushTimeMills.addAndGet(flushTimeMills);
+        maxFlushTimeMills.accumulateAndGet(flushTimeMills, Math::max);
+        if (log.isDebugEnabled() && flushes % METRICS_LOG_INTERVAL == 0) {
+            log.debug("Device location ingestion metrics - queue depth: " + getQueueDepth() + ", last batch: " +
+                    size + ", last current locations: " + currentLocationCount + ", flushed: " +
+                    getFlushedCount() + ", coalesced: " + getCoalescedCount() + ", failed: " + getFailedCount() +
+                    ", rejected: " + getRejectedCount() + ", average ingest lag: " + getAverageIngestLagMills() +
+                    "ms, max ingest lag: " + getMaxIngestLagMills() + "ms, average flush time: " +
+                    getAverageFlushTimeMills() + "ms, max flush time: " + getMaxFlushTimeMills() + "ms");
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getPendingLocationCount() {
+        return latestLocations.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getAverageIngestLagMills() {
+        long ingested = flushedCount.get() + failedCount.get();
+        return ingested == 0 ? 0 : totalIngestLagMills.get() / ingested;
+    }
+
+    public long getMaxIngestLagMills() {
+        return maxIngestLagMills.get();
+    }
+
+    public long getAverageFlushTimeMills() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushTimeMills.get() / flushes;
+    }
+
+    public long getMaxFlushTimeMills() {
+        return maxFlushTimeMills.get();
+    }
+
+    private static class LocationFix {
+        private final DeviceLocationUpdate locationUpdate;
+        private final long receivedTime = System.currentTimeMillis();
+
+        private LocationFix(DeviceLocationUpdate locationUpdate) {
+            this.locationUpdate = locationUpdate;
+        }
+
+        private int getEnrolmentId() {
+            return locationUpdate.getEnrolmentId();
+        }
+
+        private boolean isMoreRecentThan(LocationFix fix) {
+            DeviceLocation location = locationUpdate.getLocation();
+            DeviceLocation other = fix.locationUpdate.getLocation();
+            return location.getUpdatedTime() != null && other.getUpdatedTime() != null
+                    && location.getUpdatedTime().after(other.getUpdatedTime());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt;
+
+import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
+
+/**
+ * Active enrolment of a device which checked in, along with the operation to be sent to it next.
+ */
+public class DeviceCheckIn {
+
+    private int enrolmentId;
+    private EnrolmentInfo.Status enrolmentStatus;
+    private Operation nextOperation;
+
+    public int getEnrolmentId() {
+        return enrolmentId;
+    }
+
+    public void setEnrolmentId(int enrolmentId) {
+        this.enrolmentId = enrolmentId;
+    }
+
+    public EnrolmentInfo.Status getEnrolmentStatus() {
+        return enrolmentStatus;
+    }
+
+    public void setEnrolmentStatus(EnrolmentInfo.Status enrolmentStatus) {
+        this.enrolmentStatus = enrolmentStatus;
+    }
+
+    public Operation getNextOperation() {
+        return nextOperation;
+    }
+
+    public void setNextOperation(Operation nextOperation) {
+        this.nextOperation = nextOperation;
+    }
+}
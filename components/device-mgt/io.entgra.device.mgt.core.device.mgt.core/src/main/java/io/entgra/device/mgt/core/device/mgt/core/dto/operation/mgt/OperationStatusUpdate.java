@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt;
+
+/**
+ * Status of an operation reported by the device of an enrolment, to be updated along with other such updates.
+ */
+public class OperationStatusUpdate {
+
+    private final int enrolmentId;
+    private final int operationId;
+    private final Operation.Status status;
+
+    public OperationStatusUpdate(int enrolmentId, int operationId, Operation.Status status) {
+        this.enrolmentId = enrolmentId;
+        this.operationId = operationId;
+        this.status = status;
+    }
+
+    public int getEnrolmentId() {
+        return enrolmentId;
+    }
+
+    public int getOperationId() {
+        return operationId;
+    }
+
+    public Operation.Status getStatus() {
+        return status;
+    }
+}
@@ -65,6 +65,7 @@ import io.entgra.device.mgt.core.device.mgt.core.dao.GroupManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.dao.TrackerManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.DeviceInformationManager;
 import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.impl.DeviceInformationManagerImpl;
+import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.impl.DeviceLocationIngestor;
 import io.entgra.device.mgt.core.device.mgt.core.event.config.EventConfigurationProviderServiceImpl;
 import io.entgra.device.mgt.core.device.mgt.core.geo.service.GeoLocationProviderServiceImpl;
 import io.entgra.device.mgt.core.device.mgt.core.metadata.mgt.MetadataManagementServiceImpl;
@@ -73,6 +74,7 @@ import io.entgra.device.mgt.core.device.mgt.core.metadata.mgt.dao.MetadataManage
 import io.entgra.device.mgt.core.device.mgt.core.notification.mgt.NotificationManagementServiceImpl;
 import io.entgra.device.mgt.core.device.mgt.core.notification.mgt.dao.NotificationManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.OperationManagerImpl;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.OperationStatusIngestor;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.otp.mgt.dao.OTPManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.otp.mgt.service.OTPManagementServiceImpl;
@@ -241,7 +243,8 @@ public class DeviceManagementServiceComponent {
     @SuppressWarnings("unused")
     @Deactivate
     protected void deactivate(ComponentContext componentContext) {
-        //do nothing
+        OperationStatusIngestor.shutdown();
+        DeviceLocationIngestor.shutdown();
     }
 
     private void initOperationsManager() throws OperationManagementException {
@@ -18,6 +18,9 @@
 
 package io.entgra.device.mgt.core.device.mgt.core.operation.mgt;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.gson.Gson;
 import io.entgra.device.mgt.core.device.mgt.core.permission.mgt.PermissionManagerServiceImpl;
 import io.entgra.device.mgt.core.device.mgt.extensions.logger.spi.EntgraLogger;
@@ -37,6 +40,8 @@ import io.entgra.device.mgt.core.device.mgt.common.OperationMonitoringTaskConfig
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationResult;
 import io.entgra.device.mgt.core.device.mgt.common.authorization.DeviceAccessAuthorizationException;
+import io.entgra.device.mgt.core.device.mgt.common.authorization.DeviceAccessAuthorizationService;
+import io.entgra.device.mgt.core.device.mgt.common.authorization.DeviceAuthorizationResult;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.DeviceManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.InvalidDeviceException;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
@@ -50,7 +55,6 @@ import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.OperationManage
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationContext;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationStrategy;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationConfig;
-import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationProvider;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.*;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.*;
@@ -62,6 +66,7 @@ import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceDAO;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.dao.EnrollmentDAO;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.DeviceCheckIn;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.OperationResponseMeta;
 import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationDAO;
@@ -83,18 +88,15 @@ import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import java.sql.SQLException;
-import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class implements all the functionality exposed as part of the OperationManager. Any transaction initiated
@@ -108,6 +110,7 @@ public class OperationManagerImpl implements OperationManager {
     private static final int CACHE_VALIDITY_PERIOD = 5 * 60 * 1000;
     private static final String NOTIFIER_TYPE_LOCAL = "LOCAL";
     private static final String SYSTEM = "system";
+    private static final long MAX_PENDING_OPERATION_WAIT_TIME = 60 * 1000;
     public static final int maxOperationCacheSize = 100;
 
     private final OperationDAO commandOperationDAO;
@@ -122,7 +125,10 @@ public class OperationManagerImpl implements OperationManager {
     private DeviceManagementService deviceManagementService;
     private final Map<Integer, NotificationStrategy> notificationStrategies;
     private final Map<Integer, Long> lastUpdatedTimeStamps;
-    private final ConcurrentMap<Integer, String> operationsInitBy;
+    /* Initiator of monitoring operations keyed by operation id, looked up for every operation response */
+    private final Cache<Integer, String> operationsInitBy;
+    /* Operation monitoring configuration keyed by tenant id and device type */
+    private final Cache<String, OperationMonitoringTaskConfig> monitoringConfigs;
 
     private final ThreadPoolExecutor notificationExecutor;
 
@@ -137,7 +143,15 @@ public class OperationManagerImpl implements OperationManager {
         enrollmentDAO = DeviceManagementDAOFactory.getEnrollmentDAO();
         notificationStrategies = new HashMap<>();
         lastUpdatedTimeStamps = new HashMap<>();
-        operationsInitBy = new ConcurrentHashMap<>();
+        operationsInitBy = CacheBuilder.newBuilder()
+                .maximumSize(maxOperationCacheSize)
+                .recordStats()
+                .build();
+        monitoringConfigs = CacheBuilder.newBuilder()
+                .maximumSize(maxOperationCacheSize)
+                .expireAfterWrite(CACHE_VALIDITY_PERIOD, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
         notificationExecutor = (ThreadPoolExecutor) Executors.newFixedThreadPool(10);
     }
 
@@ -189,7 +203,8 @@ public class OperationManagerImpl implements OperationManager {
 
         String tenantId = String.valueOf(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
         String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-        DeviceIDHolder deviceValidationResult = DeviceManagerUtil.validateDeviceIdentifiers(deviceIds);
+        Map<DeviceIdentifier, Device> devices = this.getDevices(deviceIds);
+        DeviceIDHolder deviceValidationResult = DeviceManagerUtil.validateDeviceIdentifiers(deviceIds, devices);
         List<DeviceIdentifier> validDeviceIds = deviceValidationResult.getValidDeviceIDList();
         if (!validDeviceIds.isEmpty()) {
             DeviceIDHolder deviceAuthorizationResult = this.authorizeDevices(operation, validDeviceIds);
@@ -222,7 +237,7 @@ public class OperationManagerImpl implements OperationManager {
             Map<Integer, Device> enrolments = new HashMap<>();
             Device device;
             for (DeviceIdentifier deviceId : authorizedDeviceIds) {
-                device = getDevice(deviceId);
+                device = devices.get(deviceId);
                 enrolments.put(device.getEnrolmentInfo().getId(), device);
             }
 
@@ -267,7 +282,7 @@ public class OperationManagerImpl implements OperationManager {
                             this.getActivityStatus(deviceValidationResult, deviceAuthorizationResult));
                 }
                 for (DeviceIdentifier deviceId : authorizedDeviceIds) {
-                    device = getDevice(deviceId);
+                    device = devices.get(deviceId);
                     log.info("Operation added", deviceConnectivityLogContextBuilder.setDeviceId(String.valueOf(device.getId())).setDeviceType(deviceType).setActionTag("ADD_OPERATION").setTenantDomain(tenantDomain).setTenantId(tenantId).setUserName(initiatedBy).setOperationCode(operationCode).build());
                 }
                 return activity;
@@ -288,6 +303,28 @@ public class OperationManagerImpl implements OperationManager {
         }
     }
 
+    @Override
+    public int updatePendingOperationsStatus(List<Integer> enrolmentIds, List<String> operationCodes,
+                                             Operation.Status status) throws OperationManagementException {
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            int updatedCount = operationDAO.updateEnrollmentOperationsStatus(enrolmentIds, operationCodes,
+                    io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING,
+                    io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Status
+                            .valueOf(status.toString()));
+            OperationManagementDAOFactory.commitTransaction();
+            return updatedCount;
+        } catch (OperationManagementDAOException e) {
+            OperationManagementDAOFactory.rollbackTransaction();
+            throw new OperationManagementException("Error occurred while updating the status of pending " +
+                    operationCodes + " operations", e);
+        } catch (TransactionManagementException e) {
+            throw new OperationManagementException("Error occurred while initiating the transaction", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public void addTaskOperation(List<Device> devices, Operation operation) throws OperationManagementException {
         try {
@@ -330,85 +367,10 @@ public class OperationManagerImpl implements OperationManager {
 
     @Override
     public void addTaskOperation(String deviceType, Operation operation, DynamicTaskContext dynamicTaskContext) throws OperationManagementException {
-        List<String> validStatuses = Arrays.asList(EnrolmentInfo.Status.ACTIVE.toString(),
-                EnrolmentInfo.Status.INACTIVE.toString(),
-                EnrolmentInfo.Status.UNREACHABLE.toString());
-        int batchSize = 2000;
-        try {
-            int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-            PaginationRequest paginationRequest;
-            boolean hasRecords;
-            int start = 0;
-            OperationManagementDAOFactory.beginTransaction();
-            DeviceManagementDAOFactory.beginTransaction();
-            do {
-                paginationRequest = new PaginationRequest(start, batchSize);
-                paginationRequest.setStatusList(validStatuses);
-                paginationRequest.setDeviceType(deviceType);
-                List<Device> devices;
-
-                if(dynamicTaskContext != null && dynamicTaskContext.isPartitioningEnabled()) {
-                    devices = deviceDAO.getAllocatedDevices(paginationRequest, tenantId,
-                                                                         dynamicTaskContext.getActiveServerCount(),
-                                                            dynamicTaskContext.getServerHashIndex());
-                } else {
-                    devices = deviceDAO.getDevices(paginationRequest, tenantId);
-                }
-
-                if (devices.size() == batchSize) {
-                    hasRecords = true;
-                    start += batchSize;
-                } else if (devices.size() == 0) {
-                    break;
-                } else {
-                    hasRecords = false;
-                }
-                operation.setInitiatedBy(SYSTEM);
-                io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation operationDto =
-                        OperationDAOUtil.convertOperation(operation);
-                String operationCode = operationDto.getCode();
-                Map<Integer, Device> enrolments = new HashMap<>();
-                for (Device device : devices) {
-                    enrolments.put(device.getEnrolmentInfo().getId(), device);
-                    if(log.isDebugEnabled()){
-                        log.info("Adding operation for device Id : " + device.getDeviceIdentifier());
-                    }
-                }
-                if (operationDto.getControl() ==
-                        io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Control.NO_REPEAT) {
-                    Map<Integer, Integer> pendingOperationIDs = operationDAO
-                            .getExistingNotExecutedOperationIDs(enrolments.keySet().toArray(new Integer[0]), operationCode);
-                    Device device;
-                    for (Integer enrolmentId : pendingOperationIDs.keySet()) {
-                        operation.setId(pendingOperationIDs.get(enrolmentId));
-                        device = enrolments.get(enrolmentId);
-                        this.sendNotification(operation, device);
-                        //No need to keep this enrollment as it has a pending operation
-                        enrolments.remove(enrolmentId);
-                    }
-                    if (enrolments.size() == 0) {
-                        //No operations to be add. All are repeated.
-                        break;
-                    }
-                }
-                persistsOperation(operation, operationDto, enrolments);
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException ignore) {
-                    break;
-                }
-            } while (hasRecords);
-        } catch (DeviceManagementDAOException e) {
-            throw new OperationManagementException("Error occurred while getting devices to add operations", e);
-        } catch (OperationManagementDAOException e) {
-            OperationManagementDAOFactory.rollbackTransaction();
-            throw new OperationManagementException("Error occurred while adding operation", e);
-        } catch (TransactionManagementException e) {
-            throw new OperationManagementException("Error occurred while initiating the transaction", e);
-        } finally {
-            DeviceManagementDAOFactory.closeConnection();
-            OperationManagementDAOFactory.closeConnection();
-        }
+        operation.setInitiatedBy(SYSTEM);
+        new TaskOperationFanOut(this, deviceType, operation, dynamicTaskContext,
+                DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                        .getTaskOperationFanOutConfiguration()).execute();
     }
 
     private void persistsOperation(Operation operation,
@@ -431,29 +393,19 @@ public class OperationManagerImpl implements OperationManager {
                 notificationStrategy != null) {
             isScheduled = notificationStrategy.getConfig() != null && notificationStrategy.getConfig().isScheduled();
         }
-        int failAttempts = 0;
-        while (true) {
-            try {
-                operationMappingDAO.addOperationMapping(operationDto,
-                        new ArrayList<>(enrolments.values()), isScheduled, tenantId);
-                OperationManagementDAOFactory.commitTransaction();
-                break;
-            } catch (OperationManagementDAOException e) {
-                OperationManagementDAOFactory.rollbackTransaction();
-                if (++failAttempts > 3) {
-                    String msg = "Error occurred while updating operation mapping. Operation ID: " +
-                            operationId;
-                    log.error(msg, e);
-                    throw new OperationManagementException(msg, e);
-                }
-                log.warn("Unable to update operation status. Operation ID: " + operationId +
-                        ", Attempt: " + failAttempts + ", Error: " + e.getMessage());
-                try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException ignore) {
-                    break;
-                }
-            }
+        try {
+            // Mappings are inserted in chunks and a failed chunk is retried by the DAO on its own
+            operationMappingDAO.addOperationMapping(operationDto,
+                    new ArrayList<>(enrolments.values()), isScheduled, tenantId);
+            OperationManagementDAOFactory.commitTransaction();
+        } catch (OperationManagementDAOException e) {
+            OperationManagementDAOFactory.rollbackTransaction();
+            String msg = "Error occurred while updating operation mapping. Operation ID: " + operationId;
+            log.error(msg, e);
+            throw new OperationManagementException(msg, e);
+        }
+        for (Integer enrolmentId : enrolments.keySet()) {
+            PendingOperationSignal.signal(enrolmentId);
         }
         if (!isScheduled && notificationStrategy != null) {
             for (Device device : enrolments.values()) {
@@ -480,47 +432,16 @@ public class OperationManagerImpl implements OperationManager {
                 }
                 DeviceIdentifier deviceIdentifier = new DeviceIdentifier(device.getDeviceIdentifier(), device.getType());
                 try {
-                    notificationStrategy.execute(new NotificationContext(deviceIdentifier, operation));
-                } catch (PushNotificationExecutionFailedException e) {
-                    log.error("Error occurred while sending push notifications to " + device.getType() +
-                            " device carrying id '" + device.getDeviceIdentifier() + "'", e);
-                    /*
-                     * Reschedule if push notification failed. Doing db transactions in atomic way to prevent
-                     * deadlocks.
-                     */
-                    int failAttempts = 0;
-                    while (true) {
-                        try {
-                            OperationManagementDAOFactory.beginTransaction();
-                            operationMappingDAO.updateOperationMapping(operation.getId(), device.getEnrolmentInfo().getId(),
-                                    io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.PushNotificationStatus.SCHEDULED);
-                            OperationManagementDAOFactory.commitTransaction();
-                            break;
-                        } catch (OperationManagementDAOException ex) {
-                            OperationManagementDAOFactory.rollbackTransaction();
-                            if (++failAttempts > 3) {
-                                String msg = "Error occurred while setting push notification status to SCHEDULED. Operation ID: " +
-                                        operation.getId() + ", Enrollment ID: " + device.getEnrolmentInfo().getId() +
-                                        ", Device ID:" + device.getDeviceIdentifier();
-                                log.error(msg, e);
-                                break;
-                            }
-                            log.warn("Unable to set push notification status to SCHEDULED. Operation ID: " +
-                                    operation.getId() + ", Enrollment ID: " + device.getEnrolmentInfo().getId() +
-                                    ", Device ID:" + device.getDeviceIdentifier() + ", Attempt: " + failAttempts +
-                                    ", Error: " + e.getMessage());
-                            try {
-                                Thread.sleep(2000);
-                            } catch (InterruptedException ignore) {
-                                break;
-                            }
-                        } catch (TransactionManagementException ex) {
-                            log.error("Error occurred while initiating the transaction", ex);
-                            break;
-                        } finally {
-                            OperationManagementDAOFactory.closeConnection();
-                        }
-                    }
+                    // Reschedule if push notification could not be delivered
+                    notificationStrategy.executeAsync(new NotificationContext(deviceIdentifier, operation))
+                            .whenCompleteAsync((result, e) -> {
+                                if (e != null) {
+                                    log.error("Error occurred while sending push notifications to " +
+                                            device.getType() + " device carrying id '" +
+                                            device.getDeviceIdentifier() + "'", e);
+                                    this.reschedulePushNotification(operation, device);
+                                }
+                            }, notificationExecutor);
                 } catch (Exception e) {
                     log.error("Error occurred while sending notifications to " + device.getType() +
                             " device carrying id '" + device.getDeviceIdentifier() + "'", e);
@@ -530,6 +451,46 @@ public class OperationManagerImpl implements OperationManager {
         }
     }
 
+    /**
+     * Set the push notification status of the operation mapping of the device to SCHEDULED, hence the push
+     * notification scheduler retries it. Doing db transactions in atomic way to prevent deadlocks.
+     */
+    private void reschedulePushNotification(Operation operation, Device device) {
+        int failAttempts = 0;
+        while (true) {
+            try {
+                OperationManagementDAOFactory.beginTransaction();
+                operationMappingDAO.updateOperationMapping(operation.getId(), device.getEnrolmentInfo().getId(),
+                        io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.PushNotificationStatus.SCHEDULED);
+                OperationManagementDAOFactory.commitTransaction();
+                break;
+            } catch (OperationManagementDAOException ex) {
+                OperationManagementDAOFactory.rollbackTransaction();
+                if (++failAttempts > 3) {
+                    String msg = "Error occurred while setting push notification status to SCHEDULED. Operation ID: " +
+                            operation.getId() + ", Enrollment ID: " + device.getEnrolmentInfo().getId() +
+                            ", Device ID:" + device.getDeviceIdentifier();
+                    log.error(msg, ex);
+                    break;
+                }
+                log.warn("Unable to set push notification status to SCHEDULED. Operation ID: " +
+                        operation.getId() + ", Enrollment ID: " + device.getEnrolmentInfo().getId() +
+                        ", Device ID:" + device.getDeviceIdentifier() + ", Attempt: " + failAttempts +
+                        ", Error: " + ex.getMessage());
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException ignore) {
+                    break;
+                }
+            } catch (TransactionManagementException ex) {
+                log.error("Error occurred while initiating the transaction", ex);
+                break;
+            } finally {
+                OperationManagementDAOFactory.closeConnection();
+            }
+        }
+    }
+
     private List<ActivityStatus> getActivityStatus(DeviceIDHolder deviceIdValidationResult,
                                                    DeviceIDHolder deviceAuthResult) {
         List<ActivityStatus> activityStatuses = new ArrayList<>();
@@ -569,17 +530,24 @@ public class OperationManagerImpl implements OperationManager {
             if (operation != null && isAuthenticationSkippedOperation(operation)) {
                 authorizedDeviceList = deviceIds;
             } else {
-                boolean isAuthorized;
-                authorizedDeviceList = new ArrayList<>();
                 String requiredPermission = PermissionManagerServiceImpl.getInstance().getRequiredPermission();
                 String[] requiredPermissions = new String[] {requiredPermission};
-                for (DeviceIdentifier devId : deviceIds) {
-                    isAuthorized = DeviceManagementDataHolder.getInstance().getDeviceAccessAuthorizationService().
-                            isUserAuthorized(devId, requiredPermissions);
-                    if (isAuthorized) {
-                        authorizedDeviceList.add(devId);
-                    } else {
-                        unAuthorizedDeviceList.add(devId);
+                DeviceAccessAuthorizationService deviceAccessAuthorizationService =
+                        DeviceManagementDataHolder.getInstance().getDeviceAccessAuthorizationService();
+                DeviceAuthorizationResult authorizationResult =
+                        deviceAccessAuthorizationService.isUserAuthorized(deviceIds, requiredPermissions);
+                if (authorizationResult != null) {
+                    authorizedDeviceList = authorizationResult.getAuthorizedDevices();
+                    unAuthorizedDeviceList = authorizationResult.getUnauthorizedDevices();
+                } else {
+                    // No user is bound to the context, hence authorization depends only on the device type
+                    authorizedDeviceList = new ArrayList<>();
+                    for (DeviceIdentifier devId : deviceIds) {
+                        if (deviceAccessAuthorizationService.isUserAuthorized(devId, requiredPermissions)) {
+                            authorizedDeviceList.add(devId);
+                        } else {
+                            unAuthorizedDeviceList.add(devId);
+                        }
                     }
                 }
             }
@@ -592,6 +560,23 @@ public class OperationManagerImpl implements OperationManager {
         return deviceIDHolder;
     }
 
+    private Map<DeviceIdentifier, Device> getDevices(List<DeviceIdentifier> deviceIds)
+            throws OperationManagementException {
+        List<DeviceIdentifier> identifiedDeviceIds = new ArrayList<>();
+        for (DeviceIdentifier deviceId : deviceIds) {
+            if (StringUtils.isNotEmpty(deviceId.getId())) {
+                identifiedDeviceIds.add(deviceId);
+            }
+        }
+        try {
+            return DeviceManagementDataHolder.getInstance().getDeviceManagementProvider()
+                    .getDevices(identifiedDeviceIds);
+        } catch (DeviceManagementException e) {
+            throw new OperationManagementException(
+                    "Error occurred while retrieving device info.", e);
+        }
+    }
+
     private Device getDevice(DeviceIdentifier deviceId) throws OperationManagementException {
         try {
             return DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().getDevice(deviceId, false);
@@ -802,80 +787,72 @@ public class OperationManagerImpl implements OperationManager {
     @Override
     public Operation getNextPendingOperation(DeviceIdentifier deviceId, long notNowOperationFrequency)
             throws OperationManagementException {
+        return this.getNextPendingOperation(deviceId, notNowOperationFrequency, 0);
+    }
+
+    @Override
+    public Operation getNextPendingOperation(DeviceIdentifier deviceId, long notNowOperationFrequency,
+                                             long waitTimeMills) throws OperationManagementException {
         if (log.isDebugEnabled()) {
             log.debug("device identifier id:[" + deviceId.getId() + "] type:[" + deviceId.getType() + "]");
         }
-        Operation operation = null;
-
         if (!isActionAuthorized(deviceId)) {
             throw new OperationManagementException("User '" + getUser() + "' is not authorized to access the '" +
                     deviceId.getType() + "' device, which carries the identifier '" +
                     deviceId.getId() + "'");
         }
 
-        EnrolmentInfo enrolmentInfo = this.getActiveEnrolmentInfo(deviceId);
-        if (enrolmentInfo == null) {
-            throw new OperationManagementException("Device not found for given device " +
-                    "Identifier:" + deviceId.getId() + " and given type" +
-                    deviceId.getType());
+        DeviceCheckIn deviceCheckIn = this.checkIn(deviceId, notNowOperationFrequency);
+        if (deviceCheckIn.getNextOperation() == null && waitTimeMills > 0) {
+            // Waiter is registered before looking up again, hence an operation added in between is not missed
+            PendingOperationSignal.Registration registration =
+                    PendingOperationSignal.tryRegister(deviceCheckIn.getEnrolmentId());
+            if (registration == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Maximum number of devices are already waiting for operations, hence device " +
+                            deviceId.getId() + " of type " + deviceId.getType() + " is not kept waiting");
+                }
+            } else {
+                try {
+                    deviceCheckIn = this.checkIn(deviceId, notNowOperationFrequency);
+                    if (deviceCheckIn.getNextOperation() == null &&
+                            registration.await(Math.min(waitTimeMills, MAX_PENDING_OPERATION_WAIT_TIME))) {
+                        deviceCheckIn = this.checkIn(deviceId, notNowOperationFrequency);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Interrupted while waiting for operations of device " + deviceId.getId() +
+                            " of type " + deviceId.getType());
+                } finally {
+                    registration.close();
+                }
+            }
         }
-        int enrolmentId = enrolmentInfo.getId();
-        //Changing the enrollment status & attempt count if the device is marked as inactive or unreachable
-        switch (enrolmentInfo.getStatus()) {
-            case INACTIVE:
-            case UNREACHABLE:
-                this.setEnrolmentStatus(enrolmentId, EnrolmentInfo.Status.ACTIVE);
-                int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-                DeviceCacheManagerImpl.getInstance().removeDeviceFromCache(deviceId, tenantId);
-                break;
+        if (deviceCheckIn.getNextOperation() == null) {
+            return null;
         }
+        return OperationDAOUtil.convertOperation(deviceCheckIn.getNextOperation());
+    }
 
+    /**
+     * Resolves the active enrolment and the next operation of a device in a single lookup. NOTNOW operations which
+     * are deferred at least for the given frequency take precedence over the PENDING operations. The enrolment is
+     * marked as active if the device was marked as inactive or unreachable.
+     *
+     * @param deviceId                 Identifier of the device
+     * @param notNowOperationFrequency Time in milliseconds a NOTNOW operation is deferred, -1 to skip NOTNOW operations
+     * @return Enrolment and the next operation of the device
+     * @throws OperationManagementException if the device is not found or the lookup fails
+     */
+    private DeviceCheckIn checkIn(DeviceIdentifier deviceId, long notNowOperationFrequency)
+            throws OperationManagementException {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        long notNowDeferredTil = notNowOperationFrequency > 0 ?
+                (System.currentTimeMillis() - notNowOperationFrequency) / 1000 : -1;
+        DeviceCheckIn deviceCheckIn;
         try {
             OperationManagementDAOFactory.openConnection();
-            io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation dtoOperation = null;
-
-            // check whether notnow is set
-            if (notNowOperationFrequency > 0) {
-                // retrieve Notnow operations
-                dtoOperation = operationDAO.getNextOperation(enrolmentInfo.getId(),
-                        io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Status.NOTNOW);
-            }
-
-            if (dtoOperation != null) {
-                long currentTime = Calendar.getInstance().getTime().getTime();
-                long updatedTime = Timestamp.valueOf(dtoOperation.getReceivedTimeStamp()).getTime();
-
-                // check if notnow frequency is met and set next pending operation if not, otherwise let notnow
-                // operation to proceed
-                if ((currentTime - updatedTime) < notNowOperationFrequency) {
-                    dtoOperation = operationDAO.getNextOperation(enrolmentInfo.getId(),
-                            io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING);
-                }
-            } else {
-                dtoOperation = operationDAO.getNextOperation(enrolmentInfo.getId(),
-                        io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Status.PENDING);
-            }
-
-            if (dtoOperation != null) {
-//                if (io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Type.COMMAND.equals(dtoOperation.getType()
-//                )) {
-//                    io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.CommandOperation commandOperation;
-//                    commandOperation =
-//                            (io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.CommandOperation) commandOperationDAO.
-//                                    getOperation(dtoOperation.getId());
-//                    dtoOperation.setEnabled(commandOperation.isEnabled());
-//                } else if (io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Type.CONFIG.equals(dtoOperation.
-//                        getType())) {
-//                    dtoOperation = configOperationDAO.getOperation(dtoOperation.getId());
-//                } else if (io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Type.PROFILE.equals(dtoOperation.
-//                        getType())) {
-//                    dtoOperation = profileOperationDAO.getOperation(dtoOperation.getId());
-//                } else if (io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Type.POLICY.equals(dtoOperation.
-//                        getType())) {
-//                    dtoOperation = policyOperationDAO.getOperation(dtoOperation.getId());
-//                }
-                operation = OperationDAOUtil.convertOperation(dtoOperation);
-            }
+            deviceCheckIn = operationDAO.getNextOperation(deviceId, tenantId, notNowDeferredTil);
         } catch (OperationManagementDAOException e) {
             throw new OperationManagementException("Error occurred while retrieving next pending operation", e);
         } catch (SQLException e) {
@@ -884,7 +861,21 @@ public class OperationManagerImpl implements OperationManager {
         } finally {
             OperationManagementDAOFactory.closeConnection();
         }
-        return operation;
+        if (deviceCheckIn == null) {
+            throw new OperationManagementException("Device not found for given device " +
+                    "Identifier:" + deviceId.getId() + " and given type" +
+                    deviceId.getType());
+        }
+        //Changing the enrollment status & attempt count if the device is marked as inactive or unreachable
+        switch (deviceCheckIn.getEnrolmentStatus()) {
+            case INACTIVE:
+            case UNREACHABLE:
+                this.setEnrolmentStatus(deviceCheckIn.getEnrolmentId(), EnrolmentInfo.Status.ACTIVE);
+                DeviceCacheManagerImpl.getInstance().removeDeviceFromCache(deviceId, tenantId);
+                deviceCheckIn.setEnrolmentStatus(EnrolmentInfo.Status.ACTIVE);
+                break;
+        }
+        return deviceCheckIn;
     }
 
     @Override
@@ -907,6 +898,30 @@ public class OperationManagerImpl implements OperationManager {
             throws OperationManagementException {
         int operationId = operation.getId();
         boolean isOperationUpdated = false;
+        // Revoking a policy may remove the device, hence it is not left to the write-behind ingestion
+        OperationStatusIngestor ingestor = OperationStatusIngestor.getInstance();
+        if (ingestor != null && operation.getStatus() != null) {
+            if (!"POLICY_REVOKE".equals(operation.getCode())) {
+                boolean persistResponse = operation.getOperationResponse() != null;
+                if (persistResponse && !isResponsePersisted(deviceId, operation)) {
+                    try {
+                        OperationManagementDAOFactory.openConnection();
+                        this.setInitiatedBy(operation);
+                    } catch (SQLException e) {
+                        throw new OperationManagementException(
+                                "Error occurred while opening a connection to the data source", e);
+                    } finally {
+                        OperationManagementDAOFactory.closeConnection();
+                    }
+                    persistResponse = !SYSTEM.equals(operation.getInitiatedBy());
+                }
+                if (ingestor.submit(enrolmentId, operation, deviceId.getId(), persistResponse)) {
+                    return;
+                }
+            }
+            // queued updates of the operation are written first, otherwise they would overwrite this status
+            ingestor.awaitPending(enrolmentId, operationId);
+        }
         try {
             OperationManagementDAOFactory.beginTransaction();
             if (operation.getStatus() != null) {
@@ -948,39 +963,11 @@ public class OperationManagerImpl implements OperationManager {
             if (!isOperationUpdated) {
                 log.warn("Operation " + operationId + "'s status is not updated");
             }
-            if (isOperationUpdated && operation.getOperationResponse() != null) {
-                OperationMonitoringTaskConfig operationMonitoringTaskConfig = DeviceManagementDataHolder
-                        .getInstance().getDeviceManagementProvider().getDeviceMonitoringConfig(deviceId.getType());
-                List<MonitoringOperation> monitoringOperations = operationMonitoringTaskConfig.getMonitoringOperation();
-                MonitoringOperation currentMonitoringOperation = null;
-                for (MonitoringOperation monitoringOperation : monitoringOperations) {
-                    if (monitoringOperation.getTaskName().equals(operation.getCode())) {
-                        currentMonitoringOperation = monitoringOperation;
-                        break;
-                    }
-                }
-                if (currentMonitoringOperation != null && !currentMonitoringOperation.hasResponsePersistence()) {
-                    String initiatedBy = operationsInitBy.get(operationId);
-                    if (initiatedBy == null) {
-                        try {
-                            io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation operationDto =
-                                    operationDAO.getOperation(operationId);
-                            operation.setInitiatedBy(operationDto.getInitiatedBy());
-                            if (operationsInitBy.size() > maxOperationCacheSize) {
-                                Integer obsoleteOperationId = (Integer) operationsInitBy.keySet().toArray()[0];
-                                operationsInitBy.remove(obsoleteOperationId);
-                            }
-                            operationsInitBy.put(operationId, operation.getInitiatedBy());
-                        } catch (OperationManagementDAOException e) {
-                            log.warn("Unable to get operationDTO for Operation ID: " + operationId +
-                                    ", Error: " + e.getErrorMessage());
-                        }
-                    } else {
-                        operation.setInitiatedBy(initiatedBy);
-                    }
-                    if (SYSTEM.equals(operation.getInitiatedBy())) {
-                        return;
-                    }
+            if (isOperationUpdated && operation.getOperationResponse() != null &&
+                    !isResponsePersisted(deviceId, operation)) {
+                this.setInitiatedBy(operation);
+                if (SYSTEM.equals(operation.getInitiatedBy())) {
+                    return;
                 }
             }
             OperationResponseMeta responseMeta = null;
@@ -1052,6 +1039,45 @@ public class OperationManagerImpl implements OperationManager {
         }
     }
 
+    /**
+     * @return false if the operation is a monitoring operation of which the responses are not persisted when the
+     * operation is initiated by the system
+     */
+    private boolean isResponsePersisted(DeviceIdentifier deviceId, Operation operation) {
+        OperationMonitoringTaskConfig operationMonitoringTaskConfig =
+                this.getDeviceMonitoringConfig(deviceId.getType());
+        List<MonitoringOperation> monitoringOperations = operationMonitoringTaskConfig.getMonitoringOperation();
+        MonitoringOperation currentMonitoringOperation = null;
+        for (MonitoringOperation monitoringOperation : monitoringOperations) {
+            if (monitoringOperation.getTaskName().equals(operation.getCode())) {
+                currentMonitoringOperation = monitoringOperation;
+                break;
+            }
+        }
+        return currentMonitoringOperation == null || currentMonitoringOperation.hasResponsePersistence();
+    }
+
+    private void setInitiatedBy(Operation operation) {
+        int operationId = operation.getId();
+        String initiatedBy = operationsInitBy.getIfPresent(operationId);
+        if (initiatedBy == null) {
+            try {
+                io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation operationDto =
+                        operationDAO.getOperation(operationId);
+                operation.setInitiatedBy(operationDto.getInitiatedBy());
+                if (operation.getInitiatedBy() != null) {
+                    operationsInitBy.put(operationId, operation.getInitiatedBy());
+                }
+                logCacheStats("operation initiator", operationsInitBy);
+            } catch (OperationManagementDAOException e) {
+                log.warn("Unable to get operationDTO for Operation ID: " + operationId +
+                        ", Error: " + e.getErrorMessage());
+            }
+        } else {
+            operation.setInitiatedBy(initiatedBy);
+        }
+    }
+
     @Override
     public Operation getOperationByDeviceAndOperationId(DeviceIdentifier deviceId, int operationId)
             throws OperationManagementException {
@@ -1602,6 +1628,30 @@ public class OperationManagerImpl implements OperationManager {
         return user.equalsIgnoreCase(owner);
     }
 
+    private OperationMonitoringTaskConfig getDeviceMonitoringConfig(String deviceType) {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        String key = tenantId + "|" + deviceType;
+        OperationMonitoringTaskConfig operationMonitoringTaskConfig = monitoringConfigs.getIfPresent(key);
+        if (operationMonitoringTaskConfig == null) {
+            operationMonitoringTaskConfig = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider()
+                    .getDeviceMonitoringConfig(deviceType);
+            if (operationMonitoringTaskConfig != null) {
+                monitoringConfigs.put(key, operationMonitoringTaskConfig);
+            }
+            logCacheStats("operation monitoring config", monitoringConfigs);
+        }
+        return operationMonitoringTaskConfig;
+    }
+
+    private void logCacheStats(String cacheName, Cache<?, ?> cache) {
+        if (log.isDebugEnabled()) {
+            CacheStats stats = cache.stats();
+            log.debug("Stats of " + cacheName + " cache, size: " + cache.size() + ", hits: " + stats.hitCount() +
+                    ", misses: " + stats.missCount() + ", hit rate: " + stats.hitRate() + ", evictions: " +
+                    stats.evictionCount());
+        }
+    }
+
     private List<? extends Operation> getOperations(DeviceIdentifier deviceId, Operation.Status status, int enrolmentId)
             throws OperationManagementException {
         List<Operation> operations = new ArrayList<>();
@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt;
+
+import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
+import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.OperationManagementException;
+import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.operation.ingestion.OperationStatusIngestionConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.OperationResponseMeta;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.OperationStatusUpdate;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationDAO;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationManagementDAOException;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind ingestion of the operation statuses and responses reported by devices. Updates are queued and a single
+ * flusher thread writes them in batches, each batch in one transaction with the statuses updated as one batched
+ * statement, hence updates of the same operation are applied in the order they are received. A batch which keeps
+ * failing is written one update at a time so that a failing update does not fail the others. The latest queued update
+ * of each operation of an enrolment is tracked until it is written, so that an update written by the caller itself
+ * can wait for it instead of being overwritten by it.
+ */
+public final class OperationStatusIngestor {
+
+    private static final Log log = LogFactory.getLog(OperationStatusIngestor.class);
+    private static final int METRICS_LOG_INTERVAL = 100;
+    private static final long RETRY_INTERVAL_MILLS = 200;
+    private static final long SHUTDOWN_TIMEOUT_MILLS = 10000;
+    private static volatile OperationStatusIngestor instance;
+    // Set once the configuration is read, so that the disabled ingestion is not resolved again on every update
+    private static volatile boolean resolved;
+
+    private final OperationDAO operationDAO;
+    private final BlockingQueue<StatusUpdate> queue;
+    private final int batchSize;
+    private final long flushIntervalMills;
+    private final int maxFlushRetries;
+    private final boolean committedDurability;
+    private final Thread flusher;
+    private final ConcurrentMap<Long, StatusUpdate> pendingUpdates = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushTimeMills = new AtomicLong();
+    private final AtomicLong maxFlushTimeMills = new AtomicLong();
+
+    OperationStatusIngestor(OperationStatusIngestionConfiguration config, OperationDAO operationDAO) {
+        this.operationDAO = operationDAO;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.flushIntervalMills = Math.max(0, config.getFlushIntervalMills());
+        this.maxFlushRetries = Math.max(0, config.getMaxFlushRetries());
+        this.committedDurability = config.isCommittedDurability();
+        this.flusher = new Thread(this::flushQueue, "operation-status-ingestor");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * @return Ingestor of the node, or null if the write-behind ingestion is not enabled
+     */
+    static OperationStatusIngestor getInstance() {
+        if (!resolved) {
+            synchronized (OperationStatusIngestor.class) {
+                if (!resolved) {
+                    OperationStatusIngestionConfiguration config = DeviceConfigurationManager.getInstance()
+                            .getDeviceManagementConfig().getOperationStatusIngestionConfiguration();
+                    if (config != null && config.isEnabled()) {
+                        instance = new OperationStatusIngestor(config,
+                                OperationManagementDAOFactory.getOperationDAO());
+                    }
+                    resolved = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Flushes the queued updates and stops the ingestor of the node.
+     */
+    public static void shutdown() {
+        synchronized (OperationStatusIngestor.class) {
+            if (instance != null) {
+                instance.stop();
+                instance = null;
+            }
+            resolved = false;
+        }
+    }
+
+    /**
+     * Queues the status and the response of an operation reported by a device. With the COMMITTED durability the
+     * caller is blocked until the batch carrying the update is committed.
+     *
+     * @param enrolmentId     Enrolment id of the device
+     * @param operation       Operation carrying the reported status and response
+     * @param deviceId        Identifier of the device
+     * @param persistResponse Whether the response of the operation has to be persisted
+     * @return true if the update is taken, false if the queue is full and the caller has to update on its own
+     * @throws OperationManagementException if the update could not be committed with the COMMITTED durability
+     */
+    boolean submit(int enrolmentId, Operation operation, String deviceId, boolean persistResponse)
+            throws OperationManagementException {
+        StatusUpdate statusUpdate = new StatusUpdate(enrolmentId, operation, deviceId, persistResponse);
+        long key = getKey(enrolmentId, operation.getId());
+        StatusUpdate previous = pendingUpdates.put(key, statusUpdate);
+        if (!running || !queue.offer(statusUpdate)) {
+            if (previous != null && pendingUpdates.replace(key, statusUpdate, previous)
+                    && previous.result.isDone()) {
+                pendingUpdates.remove(key, previous);
+            } else {
+                pendingUpdates.remove(key, statusUpdate);
+            }
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+        statusUpdate.result.whenComplete((isUpdated, e) -> pendingUpdates.remove(key, statusUpdate));
+        if (committedDurability) {
+            try {
+                statusUpdate.result.get();
+            } catch (ExecutionException e) {
+                String msg = "Error occurred while updating operation status. Operation ID: " + operation.getId() +
+                        ", Enrollment ID: " + enrolmentId + ", Device ID:" + deviceId;
+                throw new OperationManagementException(msg, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationManagementException("Interrupted while waiting for the status of operation " +
+                        operation.getId() + " to be committed", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the queued updates of an operation of an enrolment are written. An update which is not taken by the
+     * ingestor has to wait for them before it is written, otherwise a queued update could overwrite a newer status.
+     *
+     * @param enrolmentId Enrolment id of the device
+     * @param operationId Id of the operation
+     * @throws OperationManagementException if interrupted while waiting
+     */
+    void awaitPending(int enrolmentId, int operationId) throws OperationManagementException {
+        StatusUpdate statusUpdate = pendingUpdates.get(getKey(enrolmentId, operationId));
+        if (statusUpdate == null) {
+            return;
+        }
+        try {
+            statusUpdate.result.get();
+        } catch (ExecutionException e) {
+            // failure of the queued update is already logged by the flusher and the newer status is written anyway
+            if (log.isDebugEnabled()) {
+                log.debug("Queued status update of operation " + operationId + " of enrolment " + enrolmentId +
+                        " is failed", e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationManagementException("Interrupted while waiting for the queued status of operation " +
+                    operationId + " to be written", e);
+        }
+    }
+
+    private static long getKey(int enrolmentId, int operationId) {
+        return ((long) enrolmentId << 32) | (operationId & 0xffffffffL);
+    }
+
+    void stop() {
+        running = false;
+        try {
+            flusher.join(flushIntervalMills + SHUTDOWN_TIMEOUT_MILLS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn(queue.size() + " operation status updates are not flushed before the shutdown");
+            List<StatusUpdate> remaining = new ArrayList<>(queue.size());
+            queue.drainTo(remaining);
+            fail(remaining, new IllegalStateException("Operation status ingestor is stopped"));
+        }
+    }
+
+    private void flushQueue() {
+        while (running || !queue.isEmpty()) {
+            List<StatusUpdate> batch = null;
+            try {
+                StatusUpdate first = queue.poll(flushIntervalMills > 0 ? flushIntervalMills : 1000,
+                        TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long flushAt = System.currentTimeMillis() + flushIntervalMills;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = flushAt - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    StatusUpdate next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                log.warn("Operation status ingestor is interrupted");
+                fail(batch, e);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error occurred while flushing operation status updates", e);
+                fail(batch, e);
+            }
+        }
+    }
+
+    private void fail(List<StatusUpdate> batch, Exception e) {
+        if (batch != null) {
+            for (StatusUpdate statusUpdate : batch) {
+                if (statusUpdate.result.completeExceptionally(e)) {
+                    failedCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void flush(List<StatusUpdate> batch) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                boolean[] isUpdated = write(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(isUpdated[i]);
+                }
+                flushedCount.addAndGet(batch.size());
+                break;
+            } catch (OperationManagementDAOException | TransactionManagementException e) {
+                if (attempt >= maxFlushRetries) {
+                    log.error("Unable to flush a batch of " + batch.size() + " operation status updates, hence " +
+                            "updating them one at a time", e);
+                    flushEach(batch);
+                    break;
+                }
+                log.warn("Unable to flush a batch of " + batch.size() + " operation status updates, Attempt: " +
+                        (attempt + 1) + ", Error: " + e.getMessage());
+                Thread.sleep(RETRY_INTERVAL_MILLS * (attempt + 1));
+            }
+        }
+        recordFlush(batch.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private void flushEach(List<StatusUpdate> batch) {
+        for (StatusUpdate statusUpdate : batch) {
+            try {
+                statusUpdate.result.complete(write(Collections.singletonList(statusUpdate))[0]);
+                flushedCount.incrementAndGet();
+            } catch (OperationManagementDAOException | TransactionManagementException e) {
+                failedCount.incrementAndGet();
+                log.error("Error occurred while updating operation status. Operation ID: " +
+                        statusUpdate.operation.getId() + ", Enrollment ID: " + statusUpdate.enrolmentId +
+                        ", Device ID:" + statusUpdate.deviceId, e);
+                statusUpdate.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private boolean[] write(List<StatusUpdate> batch)
+            throws OperationManagementDAOException, TransactionManagementException {
+        List<OperationStatusUpdate> statusUpdates = new ArrayList<>(batch.size());
+        for (StatusUpdate statusUpdate : batch) {
+            statusUpdates.add(new OperationStatusUpdate(statusUpdate.enrolmentId, statusUpdate.operation.getId(),
+                    io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation.Status.valueOf(
+                            statusUpdate.operation.getStatus().toString())));
+        }
+        OperationManagementDAOFactory.beginTransaction();
+        try {
+            boolean[] isUpdated = operationDAO.updateOperationStatuses(statusUpdates);
+            for (int i = 0; i < batch.size(); i++) {
+                StatusUpdate statusUpdate = batch.get(i);
+                if (!isUpdated[i]) {
+                    log.warn("Operation " + statusUpdate.operation.getId() + "'s status is not updated");
+                } else if (statusUpdate.persistResponse) {
+                    OperationResponseMeta responseMeta = operationDAO.addOperationResponse(
+                            statusUpdate.enrolmentId, statusUpdate.operation, statusUpdate.deviceId);
+                    if (responseMeta.isLargeResponse() && responseMeta.getId() > 0) {
+                        operationDAO.addOperationResponseLarge(responseMeta, statusUpdate.operation,
+                                statusUpdate.deviceId);
+                    }
+                }
+            }
+            OperationManagementDAOFactory.commitTransaction();
+            return isUpdated;
+        } catch (OperationManagementDAOException e) {
+            OperationManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private void recordFlush(int size, long flushTimeMills) {
+        long flushes = flushCount.incrementAndGet();
+        totalFlushTimeMills.addAndGet(flushTimeMills);
+        maxFlushTimeMills.accumulateAndGet(flushTimeMills, Math::max);
+        if (log.isDebugEnabled() && flushes % METRICS_LOG_INTERVAL == 0) {
+            log.debug("Operation status ingestion metrics - queue depth: " + getQueueDepth() + ", last batch: " +
+                    size + ", flushed: " + getFlushedCount() + ", failed: " + getFailedCount() + ", rejected: " +
+                    getRejectedCount() + ", average flush time: " + getAverageFlushTimeMills() +
+                    "ms, max flush time: " + getMaxFlushTimeMills() + "ms");
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getAverageFlushTimeMills() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushTimeMills.get() / flushes;
+    }
+
+    public long getMaxFlushTimeMills() {
+        return maxFlushTimeMills.get();
+    }
+
+    private static class StatusUpdate {
+        private final int enrolmentId;
+        private final Operation operation;
+        private final String deviceId;
+        private final boolean persistResponse;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private StatusUpdate(int enrolmentId, Operation operation, String deviceId, boolean persistResponse) {
+            this.enrolmentId = enrolmentId;
+            this.operation = operation;
+            this.deviceId = deviceId;
+            this.persistResponse = persistResponse;
+        }
+    }
+}
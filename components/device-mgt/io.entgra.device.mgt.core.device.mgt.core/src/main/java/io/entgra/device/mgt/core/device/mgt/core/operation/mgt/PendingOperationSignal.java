@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory signal per enrolment, raised once operations are committed for the enrolment so that the device
+ * connections waiting for the next pending operation get released without polling the database. The signal is local
+ * to the node, hence a waiter on another node of the cluster is only released by its timeout. Each waiter holds a
+ * request thread, hence the number of waiters of the node is capped so that waiting devices do not take up the thread
+ * pool of the container.
+ */
+final class PendingOperationSignal {
+
+    static final int MAX_WAITERS = 100;
+    private static final Map<Integer, Waiters> waiters = new ConcurrentHashMap<>();
+    private static final AtomicInteger waiterCount = new AtomicInteger();
+
+    private PendingOperationSignal() {
+    }
+
+    /**
+     * Registers a waiter of an enrolment. The waiter has to be registered before the pending operations are looked
+     * up, so that an operation committed in between is not missed.
+     *
+     * @param enrolmentId Enrolment id of the device
+     * @return Registration to wait on and to release, or null if the node already has the maximum number of waiters
+     */
+    static Registration tryRegister(int enrolmentId) {
+        return tryRegister(enrolmentId, MAX_WAITERS);
+    }
+
+    static Registration tryRegister(int enrolmentId, int maxWaiters) {
+        if (waiterCount.incrementAndGet() > maxWaiters) {
+            waiterCount.decrementAndGet();
+            return null;
+        }
+        Waiters registered = waiters.compute(enrolmentId, (id, current) -> {
+            Waiters updated = current == null ? new Waiters() : current;
+            updated.count++;
+            return updated;
+        });
+        return new Registration(enrolmentId, registered);
+    }
+
+    /**
+     * Releases all the waiters of an enrolment.
+     *
+     * @param enrolmentId Enrolment id of the device
+     */
+    static void signal(int enrolmentId) {
+        Waiters current = waiters.remove(enrolmentId);
+        if (current != null) {
+            current.latch.countDown();
+        }
+    }
+
+    private static final class Waiters {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private int count;
+    }
+
+    static final class Registration implements AutoCloseable {
+
+        private final int enrolmentId;
+        private final Waiters registered;
+        private boolean isClosed;
+
+        private Registration(int enrolmentId, Waiters registered) {
+            this.enrolmentId = enrolmentId;
+            this.registered = registered;
+        }
+
+        /**
+         * @param timeoutMills Maximum time to wait in milliseconds
+         * @return true if the enrolment was signalled, false if the wait timed out
+         * @throws InterruptedException if the waiting thread is interrupted
+         */
+        boolean await(long timeoutMills) throws InterruptedException {
+            return registered.latch.await(timeoutMills, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void close() {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            waiterCount.decrementAndGet();
+            waiters.computeIfPresent(enrolmentId, (id, current) -> {
+                if (current != registered) {
+                    return current;
+                }
+                return --current.count == 0 ? null : current;
+            });
+        }
+    }
+}
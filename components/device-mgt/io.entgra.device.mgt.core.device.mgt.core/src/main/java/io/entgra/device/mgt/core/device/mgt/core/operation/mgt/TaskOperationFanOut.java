@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DynamicTaskContext;
+import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
+import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
+import io.entgra.device.mgt.core.device.mgt.common.metadata.mgt.Metadata;
+import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.OperationManagementException;
+import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.OperationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.operation.task.TaskOperationFanOutConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceDAO;
+import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
+import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.metadata.mgt.dao.MetadataDAO;
+import io.entgra.device.mgt.core.device.mgt.core.metadata.mgt.dao.MetadataManagementDAOException;
+import io.entgra.device.mgt.core.device.mgt.core.metadata.mgt.dao.MetadataManagementDAOFactory;
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fans a task operation out to all the devices of a device type. Devices are streamed in enrolment id order and each
+ * batch is persisted and committed on its own by a bounded pool of workers, hence neither a transaction nor the heap
+ * has to hold the whole fleet. The batch size and the pause before reading the next batch adapt to the time taken to
+ * persist the previous batches. The enrolment id up to which all batches are committed is checkpointed, so that a run
+ * interrupted by a node restart resumes from there on the next execution of the task. The checkpoint is cleared once
+ * a run ends, whether it completes or fails, hence a later run never starts part way through the fleet.
+ */
+class TaskOperationFanOut {
+
+    private static final Log log = LogFactory.getLog(TaskOperationFanOut.class);
+    private static final String CHECKPOINT_KEY_PREFIX = "TASK_OPERATION_CHECKPOINT_";
+    private static final int PROGRESS_LOG_INTERVAL = 10;
+    private static final double LATENCY_SMOOTHING_FACTOR = 0.3;
+
+    private final OperationManager operationManager;
+    private final DeviceDAO deviceDAO;
+    private final MetadataDAO metadataDAO;
+    private final TaskOperationFanOutConfiguration config;
+    private final String deviceType;
+    private final Operation operation;
+    private final DynamicTaskContext dynamicTaskContext;
+    private final List<String> validStatuses;
+    private final String checkpointKey;
+
+    /* Completed batches which are waiting for an earlier batch to complete, keyed by the batch sequence */
+    private final Map<Long, Integer> completedBatches = new HashMap<>();
+    private long nextBatchToCommit;
+    private int committedEnrolmentId;
+    private int processedDeviceCount;
+    private int completedBatchCount;
+    private double batchLatency;
+    private int batchSize;
+    private OperationManagementException failure;
+
+    TaskOperationFanOut(OperationManager operationManager, String deviceType, Operation operation,
+                        DynamicTaskContext dynamicTaskContext, TaskOperationFanOutConfiguration config) {
+        this.operationManager = operationManager;
+        this.deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
+        this.metadataDAO = MetadataManagementDAOFactory.getMetadataDAO();
+        this.config = config != null ? config : new TaskOperationFanOutConfiguration();
+        this.deviceType = deviceType;
+        this.operation = operation;
+        this.dynamicTaskContext = dynamicTaskContext;
+        this.validStatuses = Arrays.asList(EnrolmentInfo.Status.ACTIVE.toString(),
+                EnrolmentInfo.Status.INACTIVE.toString(),
+                EnrolmentInfo.Status.UNREACHABLE.toString());
+        this.batchSize = getMaxBatchSize();
+        String key = CHECKPOINT_KEY_PREFIX + deviceType + "_" + operation.getCode();
+        if (isPartitioned()) {
+            key = key + "_" + dynamicTaskContext.getServerHashIndex();
+        }
+        this.checkpointKey = key;
+    }
+
+    /**
+     * Add the operation to all the devices of the device type and wait until every batch is committed.
+     *
+     * @throws OperationManagementException if reading devices or persisting a batch fails
+     */
+    void execute() throws OperationManagementException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        int lastEnrolmentId = readCheckpoint(tenantId);
+        committedEnrolmentId = lastEnrolmentId;
+        if (lastEnrolmentId > 0) {
+            log.info("Resuming '" + operation.getCode() + "' task operation of device type '" + deviceType +
+                    "' after enrolment id " + lastEnrolmentId);
+        }
+        int concurrency = Math.max(1, config.getConcurrency());
+        Semaphore permits = new Semaphore(concurrency);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long startTime = System.currentTimeMillis();
+        long sequence = 0;
+        boolean isInterrupted = false;
+        try {
+            while (getFailure() == null) {
+                int requestedBatchSize = getBatchSize();
+                List<Device> devices = readBatch(lastEnrolmentId, requestedBatchSize, tenantId);
+                if (devices.isEmpty()) {
+                    break;
+                }
+                lastEnrolmentId = devices.get(devices.size() - 1).getEnrolmentInfo().getId();
+                // Blocks while all the workers are busy, so that reading never runs ahead of persisting
+                permits.acquire();
+                long batchSequence = sequence++;
+                int batchLastEnrolmentId = lastEnrolmentId;
+                executor.execute(() -> {
+                    try {
+                        persistBatch(tenantId, batchSequence, batchLastEnrolmentId, devices);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                if (devices.size() < requestedBatchSize) {
+                    break;
+                }
+                long delay = getBatchDelay();
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+            }
+        } catch (InterruptedException e) {
+            isInterrupted = true;
+            Thread.currentThread().interrupt();
+            throw new OperationManagementException("Interrupted while adding '" + operation.getCode() +
+                    "' task operation to devices of type '" + deviceType + "'", e);
+        } finally {
+            executor.shutdown();
+            // An interrupted run is stopped by the node and resumed from the checkpoint, any other run has ended
+            if (!isInterrupted) {
+                // Waits for the batches in progress, which would otherwise write the checkpoint again
+                permits.acquireUninterruptibly(concurrency);
+                clearCheckpoint(tenantId);
+            }
+        }
+        if (getFailure() != null) {
+            throw getFailure();
+        }
+        log.info("Added '" + operation.getCode() + "' task operation to " + processedDeviceCount + " devices of type '"
+                + deviceType + "' in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    private List<Device> readBatch(int lastEnrolmentId, int limit, int tenantId)
+            throws OperationManagementException {
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            if (isPartitioned()) {
+                return deviceDAO.getDevicesAfterEnrolment(deviceType, validStatuses, lastEnrolmentId, limit, tenantId,
+                        dynamicTaskContext.getTaskPartition());
+            }
+            return deviceDAO.getDevicesAfterEnrolment(deviceType, validStatuses, lastEnrolmentId, limit, tenantId,
+                    null);
+        } catch (DeviceManagementDAOException e) {
+            throw new OperationManagementException("Error occurred while getting devices to add operations", e);
+        } catch (SQLException e) {
+            throw new OperationManagementException("Error occurred while opening a connection to the data source", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private void persistBatch(int tenantId, long sequence, int lastEnrolmentId, List<Device> devices) {
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+        try {
+            long startTime = System.currentTimeMillis();
+            // Every batch is persisted as an operation of its own, hence workers must not share the operation
+            Operation batchOperation = (Operation) SerializationUtils.clone(operation);
+            operationManager.addTaskOperation(devices, batchOperation);
+            onBatchCommitted(tenantId, sequence, lastEnrolmentId, devices.size(),
+                    System.currentTimeMillis() - startTime);
+        } catch (OperationManagementException e) {
+            onBatchFailed(e);
+        } catch (RuntimeException e) {
+            onBatchFailed(new OperationManagementException("Error occurred while adding '" + operation.getCode() +
+                    "' task operation to devices of type '" + deviceType + "'", e));
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private synchronized void onBatchCommitted(int tenantId, long sequence, int lastEnrolmentId, int deviceCount,
+                                               long latency) {
+        processedDeviceCount += deviceCount;
+        completedBatchCount++;
+        batchLatency = batchLatency == 0 ? latency :
+                LATENCY_SMOOTHING_FACTOR * latency + (1 - LATENCY_SMOOTHING_FACTOR) * batchLatency;
+        if (batchLatency > config.getTargetBatchLatencyMills()) {
+            batchSize = Math.max(getMinBatchSize(), batchSize / 2);
+        } else {
+            batchSize = Math.min(getMaxBatchSize(), batchSize + Math.max(1, getMaxBatchSize() / 10));
+        }
+
+        completedBatches.put(sequence, lastEnrolmentId);
+        boolean isAdvanced = false;
+        while (completedBatches.containsKey(nextBatchToCommit)) {
+            committedEnrolmentId = completedBatches.remove(nextBatchToCommit++);
+            isAdvanced = true;
+        }
+        if (isAdvanced) {
+            writeCheckpoint(tenantId, committedEnrolmentId);
+        }
+
+        if (completedBatchCount % PROGRESS_LOG_INTERVAL == 0 || log.isDebugEnabled()) {
+            log.info("'" + operation.getCode() + "' task operation of device type '" + deviceType + "' added to " +
+                    processedDeviceCount + " devices, committed up to enrolment id " + committedEnrolmentId +
+                    ", batch latency " + Math.round(batchLatency) + " ms, " +
+                    (latency > 0 ? deviceCount * 1000 / latency : deviceCount) + " mappings/s, next batch size " +
+                    batchSize);
+        }
+    }
+
+    private synchronized void onBatchFailed(OperationManagementException e) {
+        log.error("Stopping '" + operation.getCode() + "' task operation of device type '" + deviceType +
+                "' at enrolment id " + committedEnrolmentId, e);
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    private synchronized OperationManagementException getFailure() {
+        return failure;
+    }
+
+    private synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    private synchronized long getBatchDelay() {
+        if (batchLatency <= config.getTargetBatchLatencyMills()) {
+            return 0;
+        }
+        return Math.min(config.getMaxBatchDelayMills(),
+                Math.round(batchLatency) - config.getTargetBatchLatencyMills());
+    }
+
+    private int getMaxBatchSize() {
+        return Math.max(1, config.getBatchSize());
+    }
+
+    private int getMinBatchSize() {
+        return Math.max(1, Math.min(config.getMinBatchSize(), getMaxBatchSize()));
+    }
+
+    private boolean isPartitioned() {
+        return dynamicTaskContext != null && dynamicTaskContext.isPartitioningEnabled();
+    }
+
+    private int readCheckpoint(int tenantId) {
+        if (!config.isCheckpointEnabled()) {
+            return 0;
+        }
+        try {
+            MetadataManagementDAOFactory.openConnection();
+            Metadata metadata = metadataDAO.getMetadata(tenantId, checkpointKey);
+            return metadata != null ? Integer.parseInt(metadata.getMetaValue()) : 0;
+        } catch (MetadataManagementDAOException | SQLException | NumberFormatException e) {
+            log.warn("Unable to read the checkpoint '" + checkpointKey + "', hence starting from the first enrolment",
+                    e);
+            return 0;
+        } finally {
+            MetadataManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private void writeCheckpoint(int tenantId, int enrolmentId) {
+        if (!config.isCheckpointEnabled()) {
+            return;
+        }
+        try {
+            MetadataManagementDAOFactory.beginTransaction();
+            Metadata metadata = new Metadata();
+            metadata.setMetaKey(checkpointKey);
+            metadata.setMetaValue(String.valueOf(enrolmentId));
+            if (metadataDAO.isExist(tenantId, checkpointKey)) {
+                metadataDAO.updateMetadata(tenantId, metadata);
+            } else {
+                metadataDAO.addMetadata(tenantId, metadata);
+            }
+            MetadataManagementDAOFactory.commitTransaction();
+        } catch (MetadataManagementDAOException e) {
+            MetadataManagementDAOFactory.rollbackTransaction();
+            log.warn("Unable to update the checkpoint '" + checkpointKey + "' to enrolment id " + enrolmentId, e);
+        } catch (TransactionManagementException e) {
+            log.warn("Error occurred while initiating the transaction to update the checkpoint '" +
+                    checkpointKey + "'", e);
+        } finally {
+            MetadataManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private void clearCheckpoint(int tenantId) {
+        if (!config.isCheckpointEnabled()) {
+            return;
+        }
+        try {
+            MetadataManagementDAOFactory.beginTransaction();
+            metadataDAO.deleteMetadata(tenantId, checkpointKey);
+            MetadataManagementDAOFactory.commitTransaction();
+        } catch (MetadataManagementDAOException e) {
+            MetadataManagementDAOFactory.rollbackTransaction();
+            log.warn("Unable to clear the checkpoint '" + checkpointKey + "'", e);
+        } catch (TransactionManagementException e) {
+            log.warn("Error occurred while initiating the transaction to clear the checkpoint '" +
+                    checkpointKey + "'", e);
+        } finally {
+            MetadataManagementDAOFactory.closeConnection();
+        }
+    }
+}
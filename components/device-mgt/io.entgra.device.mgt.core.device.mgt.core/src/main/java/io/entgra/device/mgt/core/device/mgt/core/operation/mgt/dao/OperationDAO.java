@@ -20,11 +20,14 @@ package io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao;
 import io.entgra.device.mgt.core.device.mgt.common.ActivityPaginationRequest;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Activity;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.OperationResponse;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.DeviceActivity;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
 import io.entgra.device.mgt.core.device.mgt.core.dto.OperationDTO;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.DeviceCheckIn;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.OperationStatusUpdate;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.OperationResponseMeta;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.OperationMapping;
@@ -58,15 +61,54 @@ public interface OperationDAO {
 
     Operation getNextOperation(int enrolmentId, Operation.Status status) throws OperationManagementDAOException;
 
+    /**
+     * Resolves the active enrolment of a device and the operation to be sent to it next in a single query. A NOTNOW
+     * operation is picked ahead of the PENDING operations only if it was deferred at or before the given time.
+     *
+     * @param deviceId          Identifier of the device
+     * @param tenantId          Tenant of the device
+     * @param notNowDeferredTil Latest deferral time in epoch seconds of a NOTNOW operation to be picked, a negative
+     *                          value to pick only PENDING operations
+     * @return {@link DeviceCheckIn} of the active enrolment, or null if the device has no active enrolment
+     * @throws OperationManagementDAOException if the query fails
+     */
+    DeviceCheckIn getNextOperation(DeviceIdentifier deviceId, int tenantId, long notNowDeferredTil)
+            throws OperationManagementDAOException;
+
     boolean updateOperationStatus(int enrolmentId, int operationId,Operation.Status status)
             throws OperationManagementDAOException;
 
+    /**
+     * Updates the statuses of operation to enrolment mappings as a single batch, in the given order.
+     *
+     * @param statusUpdates Statuses to be updated
+     * @return Whether a mapping was updated, for each of the given updates in order
+     * @throws OperationManagementDAOException if the batch fails
+     */
+    boolean[] updateOperationStatuses(List<OperationStatusUpdate> statusUpdates)
+            throws OperationManagementDAOException;
+
     int updateOperationByDeviceTypeAndInitialStatus(String deiceType, String initialStatus, String requiredStatus)
             throws OperationManagementDAOException;
 
     void updateEnrollmentOperationsStatus(int enrolmentId, String operationCode, Operation.Status existingStatus,
                                           Operation.Status newStatus) throws OperationManagementDAOException;
 
+    /**
+     * Updates the status of the operations of the given codes and existing status, for a set of enrolments, with
+     * set-based updates.
+     *
+     * @param enrolmentIds   Ids of the enrolments
+     * @param operationCodes Codes of the operations to update
+     * @param existingStatus Status of the operations to update
+     * @param newStatus      Status to set
+     * @return Number of updated operation mappings
+     * @throws OperationManagementDAOException if the update fails
+     */
+    int updateEnrollmentOperationsStatus(List<Integer> enrolmentIds, List<String> operationCodes,
+                                         Operation.Status existingStatus, Operation.Status newStatus)
+            throws OperationManagementDAOException;
+
     Map<Integer, Integer> getExistingNotExecutedOperationIDs(Integer[] enrolmentIds, String operationCode)
             throws OperationManagementDAOException;
 
@@ -111,8 +153,18 @@ public interface OperationDAO {
     Map<Integer, List<OperationMapping>> getOperationMappingsByStatus(Operation.Status opStatus, Operation.PushNotificationStatus pushNotificationStatus,
                                                                       int limit) throws OperationManagementDAOException;
 
+    /**
+     * Get the operation mappings of the devices allocated to the task partition of the current server.
+     *
+     * @param opStatus               Operation status
+     * @param pushNotificationStatus Push notification Status
+     * @param limit                  Limit for no devices
+     * @param partition              Task partition of the current server
+     * @return Tenant based operation mappings list
+     * @throws OperationManagementDAOException
+     */
     Map<Integer, List<OperationMapping>> getAllocatedOperationMappingsByStatus(Operation.Status opStatus,
-            Operation.PushNotificationStatus pushNotificationStatus, int limit, int activeServerCount, int serverIndex)
+            Operation.PushNotificationStatus pushNotificationStatus, int limit, TaskPartition partition)
             throws OperationManagementDAOException;
 
     List<Activity> getActivities(List<String> deviceTypes, String operationCode, long updatedSince, String operationStatus)
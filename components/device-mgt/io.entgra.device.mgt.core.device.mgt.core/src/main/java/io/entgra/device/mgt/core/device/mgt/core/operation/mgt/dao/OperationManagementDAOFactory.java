@@ -26,6 +26,9 @@ import io.entgra.device.mgt.core.device.mgt.core.config.datasource.DataSourceCon
 import io.entgra.device.mgt.core.device.mgt.core.config.datasource.JNDILookupDefinition;
 import io.entgra.device.mgt.core.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.*;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping.MySQLOperationMappingDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping.PostgreSQLOperationMappingDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping.SQLServerOperationMappingDAOImpl;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.operation.MySQLOperationDAOImpl;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.operation.OracleOperationDAOImpl;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.operation.PostgreSQLOperationDAOImpl;
@@ -77,6 +80,20 @@ public class OperationManagementDAOFactory {
     }
 
     public static OperationMappingDAO getOperationMappingDAO() {
+        if (databaseEngine != null) {
+            switch (databaseEngine) {
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_MSSQL:
+                    return new SQLServerOperationMappingDAOImpl();
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_POSTGRESQL:
+                    return new PostgreSQLOperationMappingDAOImpl();
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_H2:
+                case DeviceManagementConstants.DataBaseTypes.DB_TYPE_MYSQL:
+                    return new MySQLOperationMappingDAOImpl();
+                default:
+                    break;
+            }
+        }
+        // JDBC batch inserts of the generic implementation are supported by all the databases
         return new OperationMappingDAOImpl();
     }
 
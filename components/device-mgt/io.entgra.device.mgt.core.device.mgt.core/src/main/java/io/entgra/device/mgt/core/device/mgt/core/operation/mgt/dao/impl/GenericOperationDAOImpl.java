@@ -19,7 +19,9 @@ package io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl;
 
 import io.entgra.device.mgt.core.device.mgt.common.ActivityPaginationRequest;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Activity;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.ActivityHolder;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.ActivityStatus;
@@ -29,6 +31,8 @@ import io.entgra.device.mgt.core.device.mgt.core.DeviceManagementConstants;
 import io.entgra.device.mgt.core.device.mgt.core.dao.util.DeviceManagementDAOUtil;
 import io.entgra.device.mgt.core.device.mgt.core.dto.OperationDTO;
 import io.entgra.device.mgt.core.device.mgt.core.dto.OperationResponseDTO;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.DeviceCheckIn;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.OperationStatusUpdate;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.OperationResponseMeta;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.ProfileOperation;
@@ -51,10 +55,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -69,6 +75,19 @@ import java.util.stream.IntStream;
 public class GenericOperationDAOImpl implements OperationDAO {
 
     private static final Log log = LogFactory.getLog(GenericOperationDAOImpl.class);
+    private static final int ENROLMENT_CHUNK_SIZE = 500;
+    /* Active enrolment of a device joined with its PENDING operations and the NOTNOW operations deferred long
+     * enough, where the NOTNOW operations are ordered ahead of the PENDING operations */
+    protected static final String NEXT_OPERATION_OF_DEVICE_COLUMNS = "e.ID AS ENROLMENT_ID, " +
+            "e.STATUS AS ENROLMENT_STATUS, o.ID, o.TYPE, o.CREATED_TIMESTAMP, o.RECEIVED_TIMESTAMP, " +
+            "o.OPERATION_CODE, o.INITIATED_BY, o.OPERATION_DETAILS, o.OPERATION_PROPERTIES, " +
+            "om.ID AS OM_MAPPING_ID, om.UPDATED_TIMESTAMP";
+    protected static final String NEXT_OPERATION_OF_DEVICE_FROM = "FROM DM_ENROLMENT e " +
+            "LEFT JOIN DM_ENROLMENT_OP_MAPPING om ON om.ENROLMENT_ID = e.ID " +
+            "AND (om.STATUS = ? OR (om.STATUS = ? AND om.UPDATED_TIMESTAMP <= ?)) " +
+            "LEFT JOIN DM_OPERATION o ON o.ID = om.OPERATION_ID " +
+            "WHERE e.DEVICE_IDENTIFICATION = ? AND e.DEVICE_TYPE = ? AND e.TENANT_ID = ? AND e.STATUS != 'REMOVED' " +
+            "ORDER BY CASE WHEN om.STATUS = ? THEN 0 ELSE 1 END, om.UPDATED_TIMESTAMP ASC, om.ID ASC";
 
     public int addOperation(Operation operation) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
@@ -128,6 +147,35 @@ public class GenericOperationDAOImpl implements OperationDAO {
         return isUpdated;
     }
 
+    @Override
+    public boolean[] updateOperationStatuses(List<OperationStatusUpdate> statusUpdates)
+            throws OperationManagementDAOException {
+        boolean[] isUpdated = new boolean[statusUpdates.size()];
+        long time = DeviceManagementDAOUtil.getCurrentUTCTime();
+        try {
+            Connection connection = OperationManagementDAOFactory.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement("UPDATE DM_ENROLMENT_OP_MAPPING " +
+                    "SET STATUS = ?, UPDATED_TIMESTAMP = ? WHERE ENROLMENT_ID = ? AND OPERATION_ID = ?")) {
+                for (OperationStatusUpdate statusUpdate : statusUpdates) {
+                    stmt.setString(1, statusUpdate.getStatus().toString());
+                    stmt.setLong(2, time);
+                    stmt.setInt(3, statusUpdate.getEnrolmentId());
+                    stmt.setInt(4, statusUpdate.getOperationId());
+                    stmt.addBatch();
+                }
+                int[] numOfRecordsUpdated = stmt.executeBatch();
+                for (int i = 0; i < numOfRecordsUpdated.length && i < isUpdated.length; i++) {
+                    // Some drivers do not report the count of a batched update, which is taken as updated
+                    isUpdated[i] = numOfRecordsUpdated[i] > 0 || numOfRecordsUpdated[i] == Statement.SUCCESS_NO_INFO;
+                }
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while updating a batch of " +
+                    statusUpdates.size() + " device mapping operation statuses. " + e.getMessage(), e);
+        }
+        return isUpdated;
+    }
+
     public int updateOperationByDeviceTypeAndInitialStatus(String deiceType, String initialStatus, String requiredStatus)
             throws OperationManagementDAOException {
         int numOfRecordsUpdated;
@@ -197,6 +245,47 @@ public class GenericOperationDAOImpl implements OperationDAO {
         }
     }
 
+    @Override
+    public int updateEnrollmentOperationsStatus(List<Integer> enrolmentIds, List<String> operationCodes,
+                                                Operation.Status existingStatus, Operation.Status newStatus)
+            throws OperationManagementDAOException {
+        if (enrolmentIds.isEmpty() || operationCodes.isEmpty()) {
+            return 0;
+        }
+        int updatedCount = 0;
+        try {
+            Connection connection = OperationManagementDAOFactory.getConnection();
+            long updatedTimestamp = System.currentTimeMillis() / 1000;
+            for (int start = 0; start < enrolmentIds.size(); start += ENROLMENT_CHUNK_SIZE) {
+                List<Integer> chunk = enrolmentIds.subList(start,
+                        Math.min(enrolmentIds.size(), start + ENROLMENT_CHUNK_SIZE));
+                String sql = "UPDATE DM_ENROLMENT_OP_MAPPING SET STATUS = ?, UPDATED_TIMESTAMP = ? " +
+                        "WHERE STATUS = ? AND ENROLMENT_ID IN (" +
+                        String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") " +
+                        "AND EXISTS (SELECT 1 FROM DM_OPERATION o WHERE o.ID = DM_ENROLMENT_OP_MAPPING.OPERATION_ID " +
+                        "AND o.OPERATION_CODE IN (" +
+                        String.join(", ", Collections.nCopies(operationCodes.size(), "?")) + "))";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    int paramIdx = 1;
+                    stmt.setString(paramIdx++, newStatus.toString());
+                    stmt.setLong(paramIdx++, updatedTimestamp);
+                    stmt.setString(paramIdx++, existingStatus.toString());
+                    for (Integer enrolmentId : chunk) {
+                        stmt.setInt(paramIdx++, enrolmentId);
+                    }
+                    for (String operationCode : operationCodes) {
+                        stmt.setString(paramIdx++, operationCode);
+                    }
+                    updatedCount += stmt.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            throw new OperationManagementDAOException("Error occurred while updating the status of " +
+                    operationCodes + " operations of " + enrolmentIds.size() + " enrolments to " + newStatus, e);
+        }
+        return updatedCount;
+    }
+
     @Override
     public Map<Integer, Integer> getExistingNotExecutedOperationIDs(Integer[] enrolmentIds, String operationCode)
             throws OperationManagementDAOException {
@@ -1918,6 +2007,56 @@ public class GenericOperationDAOImpl implements OperationDAO {
         }
     }
 
+    @Override
+    public DeviceCheckIn getNextOperation(DeviceIdentifier deviceId, int tenantId, long notNowDeferredTil)
+            throws OperationManagementDAOException {
+        try {
+            Connection connection = OperationManagementDAOFactory.getConnection();
+            try (PreparedStatement stmt = connection.prepareStatement(getNextOperationOfDeviceQuery())) {
+                stmt.setString(1, Operation.Status.PENDING.toString());
+                stmt.setString(2, Operation.Status.NOTNOW.toString());
+                stmt.setLong(3, notNowDeferredTil);
+                stmt.setString(4, deviceId.getId());
+                stmt.setString(5, deviceId.getType());
+                stmt.setInt(6, tenantId);
+                stmt.setString(7, Operation.Status.NOTNOW.toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    DeviceCheckIn deviceCheckIn = new DeviceCheckIn();
+                    deviceCheckIn.setEnrolmentId(rs.getInt("ENROLMENT_ID"));
+                    deviceCheckIn.setEnrolmentStatus(EnrolmentInfo.Status.valueOf(rs.getString("ENROLMENT_STATUS")));
+                    rs.getInt("OM_MAPPING_ID");
+                    if (!rs.wasNull()) {
+                        Operation operation = OperationDAOUtil.getOperation(rs);
+                        if (rs.getLong("UPDATED_TIMESTAMP") == 0) {
+                            operation.setReceivedTimeStamp("");
+                        } else {
+                            operation.setReceivedTimeStamp(
+                                    new Timestamp((rs.getLong("UPDATED_TIMESTAMP") * 1000)).toString());
+                        }
+                        operation.setStatus(Operation.Status.PENDING);
+                        deviceCheckIn.setNextOperation(operation);
+                    }
+                    return deviceCheckIn;
+                }
+            }
+        } catch (SQLException e) {
+            String msg = "SQL error occurred while retrieving next operation of device '" + deviceId.getId() +
+                    "' of type '" + deviceId.getType() + "'";
+            log.error(msg, e);
+            throw new OperationManagementDAOException(msg, e);
+        }
+    }
+
+    /**
+     * @return Query to retrieve the active enrolment and the next operation of a device, limited to the first row
+     */
+    protected String getNextOperationOfDeviceQuery() {
+        return "SELECT " + NEXT_OPERATION_OF_DEVICE_COLUMNS + " " + NEXT_OPERATION_OF_DEVICE_FROM + " LIMIT 1";
+    }
+
     public List<? extends Operation> getOperationsByDeviceStatusAndType(
             int enrolmentId, Operation.Status status, Operation.Type type) throws OperationManagementDAOException {
         PreparedStatement stmt = null;
@@ -2008,7 +2147,7 @@ public class GenericOperationDAOImpl implements OperationDAO {
     @Override
     public Map<Integer, List<OperationMapping>> getAllocatedOperationMappingsByStatus(Operation.Status opStatus,
                                                                                       Operation.PushNotificationStatus pushNotificationStatus,
-                                                                                      int limit, int activeServerCount, int serverIndex)
+                                                                                      int limit, TaskPartition partition)
             throws OperationManagementDAOException {
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -2019,14 +2158,19 @@ public class GenericOperationDAOImpl implements OperationDAO {
             conn = OperationManagementDAOFactory.getConnection();
             String sql = "SELECT op.ENROLMENT_ID, op.OPERATION_ID, d.DEVICE_IDENTIFICATION, dt.NAME as DEVICE_TYPE, " +
                     "d.TENANT_ID FROM DM_DEVICE d, DM_ENROLMENT_OP_MAPPING op, DM_DEVICE_TYPE dt  WHERE op.STATUS = ?" +
-                    " AND op.PUSH_NOTIFICATION_STATUS = ? AND d.DEVICE_TYPE_ID = dt.ID AND d.ID=op.ENROLMENT_ID AND MOD(d.ID, ?) = ? ORDER" +
-                    " BY op.OPERATION_ID LIMIT ?";
+                    " AND op.PUSH_NOTIFICATION_STATUS = ? AND d.DEVICE_TYPE_ID = dt.ID AND d.ID=op.ENROLMENT_ID";
+            if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                sql += DeviceManagementDAOUtil.getPartitionCondition("d.PARTITION_BUCKET", partition);
+            }
+            sql += " ORDER BY op.OPERATION_ID LIMIT ?";
             stmt = conn.prepareStatement(sql);
-            stmt.setString(1, opStatus.toString());
-            stmt.setString(2, pushNotificationStatus.toString());
-            stmt.setInt(3, activeServerCount);
-            stmt.setInt(4, serverIndex);
-            stmt.setInt(5, limit);
+            int paramIdx = 1;
+            stmt.setString(paramIdx++, opStatus.toString());
+            stmt.setString(paramIdx++, pushNotificationStatus.toString());
+            if (DeviceManagementDAOUtil.isPartitioned(partition)) {
+                paramIdx = DeviceManagementDAOUtil.setPartitionParameters(stmt, paramIdx, partition);
+            }
+            stmt.setInt(paramIdx, limit);
             rs = stmt.executeQuery();
             while (rs.next()) {
                 int tenantID = rs.getInt("TENANT_ID");
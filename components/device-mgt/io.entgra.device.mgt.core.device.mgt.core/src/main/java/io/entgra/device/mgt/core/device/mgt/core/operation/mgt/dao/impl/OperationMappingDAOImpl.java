@@ -18,6 +18,8 @@
 package io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl;
 
 import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.operation.mapping.OperationMappingConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.OperationEnrolmentMapping;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.OperationMapping;
@@ -32,12 +34,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.List;
 
 public class OperationMappingDAOImpl implements OperationMappingDAO {
 
     private static final Log log = LogFactory.getLog(OperationMappingDAOImpl.class);
 
+    protected static final String INSERT_OPERATION_MAPPING = "INSERT INTO DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID, " +
+            "OPERATION_ID, STATUS, PUSH_NOTIFICATION_STATUS, CREATED_TIMESTAMP, UPDATED_TIMESTAMP, OPERATION_CODE, " +
+            "INITIATED_BY, TYPE, DEVICE_TYPE, DEVICE_ID, DEVICE_IDENTIFICATION, TENANT_ID) ";
+
     @Override
     public void addOperationMapping(Operation operation, Integer deviceId, boolean isScheduled, Device device, Integer tenantId) throws
             OperationManagementDAOException {
@@ -78,43 +85,130 @@ public class OperationMappingDAOImpl implements OperationMappingDAO {
     @Override
     public void addOperationMapping(Operation operation, List<Device> devices, boolean isScheduled, Integer tenantId) throws
             OperationManagementDAOException {
-        PreparedStatement stmt = null;
+        OperationMappingConfiguration config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getOperationMappingConfiguration();
+        if (config == null) {
+            config = new OperationMappingConfiguration();
+        }
+        int chunkSize = Math.max(1, Math.min(config.getChunkSize(), getMaxChunkSize()));
+        long time = System.currentTimeMillis() / 1000;
+        String pushNotificationStatus = isScheduled ? Operation.PushNotificationStatus.SCHEDULED.toString() :
+                Operation.PushNotificationStatus.COMPLETED.toString();
         try {
-            long time = System.currentTimeMillis() / 1000;
             Connection conn = OperationManagementDAOFactory.getConnection();
-            String sql = "INSERT INTO DM_ENROLMENT_OP_MAPPING(ENROLMENT_ID, OPERATION_ID, STATUS, " +
-                         "PUSH_NOTIFICATION_STATUS, CREATED_TIMESTAMP, UPDATED_TIMESTAMP, OPERATION_CODE, INITIATED_BY, " +
-                         "TYPE, DEVICE_TYPE, DEVICE_ID, DEVICE_IDENTIFICATION, TENANT_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql);
-            for (Device device : devices) {
-                stmt.setInt(1, device.getEnrolmentInfo().getId());
-                stmt.setInt(2, operation.getId());
-                stmt.setString(3, Operation.Status.PENDING.toString());
-                if (isScheduled) {
-                    stmt.setString(4, Operation.PushNotificationStatus.SCHEDULED.toString());
-                } else {
-                    stmt.setString(4, Operation.PushNotificationStatus.COMPLETED.toString());
-                }
-                stmt.setLong(5, time);
-                stmt.setLong(6, time);
-                stmt.setString(7, operation.getCode());
-                stmt.setString(8, operation.getInitiatedBy());
-                stmt.setString(9, operation.getType().toString());
-                stmt.setString(10, device.getType());
-                stmt.setInt(11, device.getId());
-                stmt.setString(12, device.getDeviceIdentifier());
-                stmt.setInt(13, tenantId);
-                stmt.addBatch();
+            for (int start = 0; start < devices.size(); start += chunkSize) {
+                List<Device> chunk = devices.subList(start, Math.min(devices.size(), start + chunkSize));
+                addOperationMappingChunk(conn, operation, chunk, pushNotificationStatus, time, tenantId, config);
             }
-            stmt.executeBatch();
         } catch (SQLException e) {
             throw new OperationManagementDAOException("Error occurred while persisting device operation mappings. " +
                     e.getMessage(), e);
-        } finally {
-            OperationManagementDAOUtil.cleanupResources(stmt, null);
         }
     }
 
+    /**
+     * Insert a chunk of operation mappings, retrying only the chunk on failure. When the connection is in a
+     * transaction, a failed attempt is rolled back to a savepoint so that the chunks inserted before are kept.
+     */
+    private void addOperationMappingChunk(Connection conn, Operation operation, List<Device> devices,
+                                          String pushNotificationStatus, long time, int tenantId,
+                                          OperationMappingConfiguration config) throws SQLException {
+        boolean isTransactional = !conn.getAutoCommit();
+        int failAttempts = 0;
+        while (true) {
+            Savepoint savepoint = isTransactional ? conn.setSavepoint() : null;
+            try {
+                insertOperationMappings(conn, operation, devices, pushNotificationStatus, time, tenantId);
+                if (savepoint != null) {
+                    releaseSavepoint(conn, savepoint);
+                }
+                return;
+            } catch (SQLException e) {
+                if (savepoint != null) {
+                    conn.rollback(savepoint);
+                }
+                if (++failAttempts > config.getMaxChunkRetries()) {
+                    throw e;
+                }
+                log.warn("Unable to insert a chunk of " + devices.size() + " mappings of operation " +
+                        operation.getId() + ", Attempt: " + failAttempts + ", Error: " + e.getMessage());
+                try {
+                    Thread.sleep(config.getChunkRetryIntervalMills());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void releaseSavepoint(Connection conn, Savepoint savepoint) {
+        try {
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            // Some drivers do not support releasing savepoints, they are released when the transaction ends
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to release the savepoint of the operation mapping chunk", e);
+            }
+        }
+    }
+
+    /**
+     * Insert operation mappings of the given devices with a single round trip where the database allows it.
+     * The default implementation uses a JDBC batch, which is supported by all the databases.
+     *
+     * @param conn                   Connection of the current transaction
+     * @param operation              Operation to be mapped
+     * @param devices                Devices of the chunk, never more than {@link #getMaxChunkSize()}
+     * @param pushNotificationStatus Push notification status of the mappings
+     * @param time                   Created and updated timestamp of the mappings in seconds
+     * @param tenantId               Tenant ID
+     * @throws SQLException if the insert fails
+     */
+    protected void insertOperationMappings(Connection conn, Operation operation, List<Device> devices,
+                                           String pushNotificationStatus, long time, int tenantId)
+            throws SQLException {
+        String sql = INSERT_OPERATION_MAPPING + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Device device : devices) {
+                setOperationMapping(stmt, 1, operation, device, pushNotificationStatus, time, tenantId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * @return the maximum number of mappings which can be inserted by a single
+     * {@link #insertOperationMappings(Connection, Operation, List, String, long, int)} call
+     */
+    protected int getMaxChunkSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Bind the columns of a mapping in the order of {@link #INSERT_OPERATION_MAPPING} starting from the given index.
+     *
+     * @return the index of the next parameter
+     */
+    protected int setOperationMapping(PreparedStatement stmt, int paramIdx, Operation operation, Device device,
+                                      String pushNotificationStatus, long time, int tenantId) throws SQLException {
+        stmt.setInt(paramIdx++, device.getEnrolmentInfo().getId());
+        stmt.setInt(paramIdx++, operation.getId());
+        stmt.setString(paramIdx++, Operation.Status.PENDING.toString());
+        stmt.setString(paramIdx++, pushNotificationStatus);
+        stmt.setLong(paramIdx++, time);
+        stmt.setLong(paramIdx++, time);
+        stmt.setString(paramIdx++, operation.getCode());
+        stmt.setString(paramIdx++, operation.getInitiatedBy());
+        stmt.setString(paramIdx++, operation.getType().toString());
+        stmt.setString(paramIdx++, device.getType());
+        stmt.setInt(paramIdx++, device.getId());
+        stmt.setString(paramIdx++, device.getDeviceIdentifier());
+        stmt.setInt(paramIdx++, tenantId);
+        return paramIdx;
+    }
+
     @Override
     public void removeOperationMapping(int operationId,
                                        Integer deviceId) throws OperationManagementDAOException {
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.OperationMappingDAOImpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This class holds the implementation of OperationMappingDAO which can be used to support MySQL and H2 db syntax.
+ * A chunk of operation mappings is inserted with a single multi-row INSERT statement.
+ */
+public class MySQLOperationMappingDAOImpl extends OperationMappingDAOImpl {
+
+    /* Keeps the parameter count of a statement within the 65535 placeholders allowed by MySQL */
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    @Override
+    protected void insertOperationMappings(Connection conn, Operation operation, List<Device> devices,
+                                           String pushNotificationStatus, long time, int tenantId)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder(INSERT_OPERATION_MAPPING).append("VALUES ");
+        for (int i = 0; i < devices.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int paramIdx = 1;
+            for (Device device : devices) {
+                paramIdx = setOperationMapping(stmt, paramIdx, operation, device, pushNotificationStatus, time,
+                        tenantId);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    protected int getMaxChunkSize() {
+        return MAX_CHUNK_SIZE;
+    }
+}
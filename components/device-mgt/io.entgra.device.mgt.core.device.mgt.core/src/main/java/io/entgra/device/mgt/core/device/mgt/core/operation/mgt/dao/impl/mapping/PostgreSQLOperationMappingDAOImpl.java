@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.OperationMappingDAOImpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This class holds the implementation of OperationMappingDAO which can be used to support PostgreSQL db syntax.
+ * The per device columns of a chunk are bound as arrays and expanded with UNNEST, hence a chunk is inserted with a
+ * single statement having a fixed number of parameters regardless of the chunk size.
+ */
+public class PostgreSQLOperationMappingDAOImpl extends OperationMappingDAOImpl {
+
+    @Override
+    protected void insertOperationMappings(Connection conn, Operation operation, List<Device> devices,
+                                           String pushNotificationStatus, long time, int tenantId)
+            throws SQLException {
+        String sql = INSERT_OPERATION_MAPPING +
+                "SELECT m.ENROLMENT_ID, ?, ?, ?, ?, ?, ?, ?, ?, m.DEVICE_TYPE, m.DEVICE_ID, " +
+                "m.DEVICE_IDENTIFICATION, ? " +
+                "FROM UNNEST(?, ?, ?, ?) AS m(ENROLMENT_ID, DEVICE_TYPE, DEVICE_ID, DEVICE_IDENTIFICATION)";
+        Integer[] enrolmentIds = new Integer[devices.size()];
+        String[] deviceTypes = new String[devices.size()];
+        Integer[] deviceIds = new Integer[devices.size()];
+        String[] deviceIdentifications = new String[devices.size()];
+        for (int i = 0; i < devices.size(); i++) {
+            Device device = devices.get(i);
+            enrolmentIds[i] = device.getEnrolmentInfo().getId();
+            deviceTypes[i] = device.getType();
+            deviceIds[i] = device.getId();
+            deviceIdentifications[i] = device.getDeviceIdentifier();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int paramIdx = 1;
+            stmt.setInt(paramIdx++, operation.getId());
+            stmt.setString(paramIdx++, Operation.Status.PENDING.toString());
+            stmt.setString(paramIdx++, pushNotificationStatus);
+            stmt.setLong(paramIdx++, time);
+            stmt.setLong(paramIdx++, time);
+            stmt.setString(paramIdx++, operation.getCode());
+            stmt.setString(paramIdx++, operation.getInitiatedBy());
+            stmt.setString(paramIdx++, operation.getType().toString());
+            stmt.setInt(paramIdx++, tenantId);
+            stmt.setArray(paramIdx++, conn.createArrayOf("int4", enrolmentIds));
+            stmt.setArray(paramIdx++, conn.createArrayOf("varchar", deviceTypes));
+            stmt.setArray(paramIdx++, conn.createArrayOf("int4", deviceIds));
+            stmt.setArray(paramIdx, conn.createArrayOf("varchar", deviceIdentifications));
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.OperationMappingDAOImpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * This class holds the implementation of OperationMappingDAO which can be used to support SQL Server db syntax.
+ * The per device columns of a chunk are bound through a table value constructor, while the columns shared by all
+ * the mappings are bound once.
+ */
+public class SQLServerOperationMappingDAOImpl extends OperationMappingDAOImpl {
+
+    /* Keeps the parameter count of a statement within the 2100 parameters allowed by SQL Server */
+    private static final int MAX_CHUNK_SIZE = 500;
+
+    @Override
+    protected void insertOperationMappings(Connection conn, Operation operation, List<Device> devices,
+                                           String pushNotificationStatus, long time, int tenantId)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder(INSERT_OPERATION_MAPPING)
+                .append("SELECT m.ENROLMENT_ID, ?, ?, ?, ?, ?, ?, ?, ?, m.DEVICE_TYPE, m.DEVICE_ID, ")
+                .append("m.DEVICE_IDENTIFICATION, ? FROM (VALUES ");
+        for (int i = 0; i < devices.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(?, ?, ?, ?)");
+        }
+        sql.append(") AS m(ENROLMENT_ID, DEVICE_TYPE, DEVICE_ID, DEVICE_IDENTIFICATION)");
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int paramIdx = 1;
+            stmt.setInt(paramIdx++, operation.getId());
+            stmt.setString(paramIdx++, Operation.Status.PENDING.toString());
+            stmt.setString(paramIdx++, pushNotificationStatus);
+            stmt.setLong(paramIdx++, time);
+            stmt.setLong(paramIdx++, time);
+            stmt.setString(paramIdx++, operation.getCode());
+            stmt.setString(paramIdx++, operation.getInitiatedBy());
+            stmt.setString(paramIdx++, operation.getType().toString());
+            stmt.setInt(paramIdx++, tenantId);
+            for (Device device : devices) {
+                stmt.setInt(paramIdx++, device.getEnrolmentInfo().getId());
+                stmt.setString(paramIdx++, device.getType());
+                stmt.setInt(paramIdx++, device.getId());
+                stmt.setString(paramIdx++, device.getDeviceIdentifier());
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    @Override
+    protected int getMaxChunkSize() {
+        return MAX_CHUNK_SIZE;
+    }
+}
@@ -48,6 +48,12 @@ public class OracleOperationDAOImpl extends GenericOperationDAOImpl {
 
     private static final Log log = LogFactory.getLog(OracleOperationDAOImpl.class);
 
+    @Override
+    protected String getNextOperationOfDeviceQuery() {
+        return "SELECT " + NEXT_OPERATION_OF_DEVICE_COLUMNS + " " + NEXT_OPERATION_OF_DEVICE_FROM +
+                " FETCH FIRST 1 ROWS ONLY";
+    }
+
     @Override
     public List<? extends Operation> getOperationsForDevice(int enrolmentId, PaginationRequest request)
             throws OperationManagementDAOException {
@@ -45,6 +45,11 @@ public class SQLServerOperationDAOImpl extends GenericOperationDAOImpl {
 
     private static final Log log = LogFactory.getLog(SQLServerOperationDAOImpl.class);
 
+    @Override
+    protected String getNextOperationOfDeviceQuery() {
+        return "SELECT TOP 1 " + NEXT_OPERATION_OF_DEVICE_COLUMNS + " " + NEXT_OPERATION_OF_DEVICE_FROM;
+    }
+
     @Override
     public List<? extends Operation> getOperationsForDevice(int enrolmentId, PaginationRequest request)
             throws OperationManagementDAOException {
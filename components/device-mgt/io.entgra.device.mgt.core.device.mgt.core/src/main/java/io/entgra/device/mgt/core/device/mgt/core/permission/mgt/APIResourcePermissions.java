@@ -25,16 +25,42 @@ import java.util.Map;
 
 public class APIResourcePermissions {
     private Map<String, List<Permission>> apiResourcePermissions;
+    private Map<String, PermissionTree> permissionTrees;
 
     public APIResourcePermissions() {
         apiResourcePermissions = new HashMap<>();
+        permissionTrees = new HashMap<>();
     }
 
     public void addPermissionList(String context, List<Permission> permissions){
+        PermissionTree permissionTree = new PermissionTree();
+        for (Permission permission : permissions) {
+            if (permission.getUrl() != null && permission.getMethod() != null) {
+                permissionTree.addPermission(permission);
+            }
+        }
         apiResourcePermissions.put(context, permissions);
+        permissionTrees.put(context, permissionTree);
     }
 
     public List<Permission> getPermissions(String context) {
         return apiResourcePermissions.get(context);
     }
+
+    /**
+     * Find the permission of the resource which serves the given request, using the permission tree built when
+     * the permissions of the context were added.
+     *
+     * @param context    Context of the webapp.
+     * @param url        Request URL including the context.
+     * @param httpMethod HTTP method of the request.
+     * @return Permission of the matching resource or null if there is no such resource in the context.
+     */
+    public Permission getPermission(String context, String url, String httpMethod) {
+        PermissionTree permissionTree = permissionTrees.get(context);
+        if (permissionTree == null) {
+            return null;
+        }
+        return permissionTree.getPermission(url, httpMethod);
+    }
 }
@@ -66,6 +66,12 @@ public class PermissionManagerServiceImpl implements PermissionManagerService {
         return apiResourcePermissions.getPermissions(context);
     }
 
+    @Override
+    public Permission getPermission(String context, String url, String httpMethod)
+            throws PermissionManagementException {
+        return apiResourcePermissions.getPermission(context, url, httpMethod);
+    }
+
     public String getRequiredPermission() {
         if (requiredPermission == null) {
             requiredPermission = new ThreadLocal<>();
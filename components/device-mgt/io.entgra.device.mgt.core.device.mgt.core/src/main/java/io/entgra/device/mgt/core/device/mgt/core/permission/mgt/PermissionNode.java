@@ -31,7 +31,7 @@ public class PermissionNode {
 
     private String pathName;
     private Map<String, Permission> permissions = new HashMap<String, Permission>();
-    private List<PermissionNode> children = new ArrayList<PermissionNode>();
+    private Map<String, PermissionNode> children = new HashMap<String, PermissionNode>();
 
     public PermissionNode(String pathName) {
         this.pathName = pathName;
@@ -45,22 +45,16 @@ public class PermissionNode {
         this.pathName = pathName;
     }
 
-    public List<PermissionNode> getChildren() {
-        return children;
+    public Collection<PermissionNode> getChildren() {
+        return children.values();
     }
 
     public PermissionNode getChild(String pathName) {
-        PermissionNode child = null;
-        for (PermissionNode node : children) {
-            if (node.getPathName().equals(pathName)) {
-                return node;
-            }
-        }
-        return child;
+        return children.get(pathName);
     }
 
     public void addChild(PermissionNode node) {
-        children.add(node);
+        children.put(node.getPathName(), node);
     }
 
     public void addPermission(String httpMethod, Permission permission) {
@@ -22,6 +22,8 @@ import io.entgra.device.mgt.core.device.mgt.common.permission.mgt.Permission;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
 
 /**
@@ -75,7 +77,10 @@ public class PermissionTree {
 
     /**
      * This method is used to retrieve the permission for a given url and http method.
-     * Breath First Search (BFS) is used to traverse the tree.
+     * Depth First Search (DFS) is used to traverse the tree. At each level the child which matches the path
+     * segment is tried before the dynamic path variable ('*'), so the resource with a static path segment wins
+     * over a templated one, and the search backtracks only when the static branch has no permission for the
+     * request.
      *
      * @param url        Request URL.
      * @param httpMethod HTTP method of the request.
@@ -83,31 +88,60 @@ public class PermissionTree {
      * no any permission that is stored with respected to the given request path.
      */
     public Permission getPermission(String url, String httpMethod) {
+        List<String> pathSegments = new ArrayList<>();
         StringTokenizer st = new StringTokenizer(url, ROOT);
-        PermissionNode tempRoot;
-        PermissionNode currentRoot = rootNode;
         while (st.hasMoreTokens()) {
-            String currentToken = st.nextToken();
+            pathSegments.add(st.nextToken());
+        }
+        Permission permission = getPermission(rootNode, pathSegments, 0, httpMethod);
+        if (permission == null && log.isDebugEnabled()) {
+            log.debug("Permission for request path '" + url + "' does not exist");
+        }
+        return permission;
+    }
 
-            // returns the child node which matches with the 'currentToken' path.
+    private Permission getPermission(PermissionNode currentRoot, List<String> pathSegments, int position,
+                                     String httpMethod) {
+        if (position == pathSegments.size()) {
+            return currentRoot.getPermission(httpMethod);
+        }
+        String currentToken = pathSegments.get(position);
+        PermissionNode tempRoot;
+        if (!DYNAMIC_PATH_NOTATION.equals(currentToken)) {
             tempRoot = currentRoot.getChild(currentToken);
-
-            // if tempRoot is null, that means 'currentToken' is not matched with the child's path.
-            // It means that it is at a point where the request must have dynamic path variables.
-            // Therefor it looks for '*' in the request path. ('*' denotes dynamic path variable).
-            if (tempRoot == null) {
-                tempRoot = currentRoot.getChild(DYNAMIC_PATH_NOTATION);
-                // if tempRoot is null, that means there is no any permission which matches with the
-                // given path
-                if (tempRoot == null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Permission for request path '" + url + "' does not exist");
-                    }
-                    return null;
+            if (tempRoot != null) {
+                Permission permission = getPermission(tempRoot, pathSegments, position + 1, httpMethod);
+                if (permission != null) {
+                    return permission;
                 }
             }
-            currentRoot = tempRoot;
         }
-        return currentRoot.getPermission(httpMethod);
+        // there is no static path for the rest of the request, therefore it looks for '*' in the request path
+        // ('*' denotes dynamic path variable).
+        if (isPathVariableValue(currentToken)) {
+            tempRoot = currentRoot.getChild(DYNAMIC_PATH_NOTATION);
+            if (tempRoot != null) {
+                return getPermission(tempRoot, pathSegments, position + 1, httpMethod);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the path segment can be the value of a dynamic path variable, which is the
+     * [a-zA-Z0-9-_.]+ pattern the resource urls are registered with.
+     *
+     * @param pathSegment Path segment of the request.
+     * @return true if the segment only consists of letters, digits, '-', '_' and '.'.
+     */
+    private boolean isPathVariableValue(String pathSegment) {
+        for (int i = 0; i < pathSegment.length(); i++) {
+            char c = pathSegment.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-'
+                    || c == '_' || c == '.')) {
+                return false;
+            }
+        }
+        return !pathSegment.isEmpty();
     }
 }
@@ -25,6 +25,7 @@ import io.entgra.device.mgt.core.device.mgt.common.exceptions.DeviceManagementEx
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.PrivacyComplianceException;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.DeviceInformationManager;
 import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
 import io.entgra.device.mgt.core.device.mgt.core.privacy.PrivacyComplianceProvider;
 import io.entgra.device.mgt.core.device.mgt.core.privacy.dao.PrivacyComplianceDAO;
@@ -88,6 +89,11 @@ public class PrivacyComplianceProviderImpl implements PrivacyComplianceProvider
                 complianceDAO.deleteDevice(deviceId, tenantId);
             }
             DeviceManagementDAOFactory.commitTransaction();
+            for (List<Integer> enrollmentIds : deviceMap.values()) {
+                for (Integer enrolmentId : enrollmentIds) {
+                    this.invalidateDeviceInfo(enrolmentId);
+                }
+            }
         } catch (PrivacyComplianceDAOException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             String msg = "Error occurred while deleting the devices and details of the given user";
@@ -123,6 +129,7 @@ public class PrivacyComplianceProviderImpl implements PrivacyComplianceProvider
             complianceDAO.deleteDeviceEnrollments(device.getId(), tenantId);
             complianceDAO.deleteDevice(device.getId(), tenantId);
             DeviceManagementDAOFactory.commitTransaction();
+            this.invalidateDeviceInfo(device.getEnrolmentInfo().getId());
         } catch (TransactionManagementException e) {
             DeviceManagementDAOFactory.rollbackTransaction();
             String msg = "Database error occurred while deleting the device details.";
@@ -140,6 +147,14 @@ public class PrivacyComplianceProviderImpl implements PrivacyComplianceProvider
 
     }
 
+    private void invalidateDeviceInfo(int enrolmentId) {
+        DeviceInformationManager deviceInformationManager = DeviceManagementDataHolder.getInstance()
+                .getDeviceInformationManager();
+        if (deviceInformationManager != null) {
+            deviceInformationManager.invalidateDeviceInfo(enrolmentId);
+        }
+    }
+
     private Device getDevice(DeviceIdentifier deviceId) throws PrivacyComplianceException {
         try {
             return DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().getDevice(deviceId, false);
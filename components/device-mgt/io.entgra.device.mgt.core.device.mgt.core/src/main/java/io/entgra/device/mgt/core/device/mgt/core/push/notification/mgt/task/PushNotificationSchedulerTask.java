@@ -28,8 +28,8 @@ import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagem
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.OperationManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationContext;
 import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationStrategy;
-import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.push.notification.PushNotificationConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
 import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.OperationMapping;
@@ -39,10 +39,23 @@ import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationMana
 import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
 import io.entgra.device.mgt.core.device.mgt.core.service.DeviceManagementProviderService;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * ${{@link PushNotificationSchedulerTask}} is for sending push notifications for given device batch.
@@ -50,16 +63,19 @@ import java.util.Map;
 public class PushNotificationSchedulerTask implements Runnable {
 
     private static final Log log = LogFactory.getLog(PushNotificationSchedulerTask.class);
+    private static final int STATUS_UPDATE_BATCH_SIZE = 500;
+    private static final long DELIVERY_TIMEOUT_MILLS = 60000;
+    private static final long IDLE_DISPATCHER_TIMEOUT_MILLS = 60000;
     private final OperationDAO operationDAO = OperationManagementDAOFactory.getOperationDAO();
     private final OperationMappingDAO operationMappingDAO = OperationManagementDAOFactory.getOperationMappingDAO();
     private final DeviceManagementProviderService provider = DeviceManagementDataHolder.getInstance()
             .getDeviceManagementProvider();
+    private ExecutorService dispatchExecutor;
 
     @Override
     public void run() {
         try {
             Map<Integer, List<OperationMapping>> operationMappingsTenantMap = new HashMap<>();
-            List<OperationMapping> operationsCompletedList = new LinkedList<>();
             if (log.isDebugEnabled()) {
                 log.debug("Push notification job started");
             }
@@ -73,7 +89,7 @@ public class PushNotificationSchedulerTask implements Runnable {
                             operationMappingsTenantMap = operationDAO.getAllocatedOperationMappingsByStatus(Operation.Status
                                             .PENDING, Operation.PushNotificationStatus.SCHEDULED, DeviceConfigurationManager.getInstance()
                                             .getDeviceManagementConfig().getPushNotificationConfiguration().getSchedulerBatchSize(),
-                                    serverCtxInfo.getActiveServerCount(), serverCtxInfo.getLocalServerHashIdx());
+                                    serverCtxInfo.getTaskPartition());
                         } else {
                             if (log.isDebugEnabled()) {
                                 log.debug("Active server information not recorded yet.");
@@ -93,63 +109,214 @@ public class PushNotificationSchedulerTask implements Runnable {
                 OperationManagementDAOFactory.closeConnection();
             }
             // Sending push notification to each device
-            for (List<OperationMapping> operationMappings : operationMappingsTenantMap.values()) {
-                for (OperationMapping operationMapping : operationMappings) {
-                    try {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Sending push notification for operationId :" + operationMapping.getOperationId() +
-                                    " to deviceId : " + operationMapping.getDeviceIdentifier().getId());
+            if (!operationMappingsTenantMap.isEmpty()) {
+                this.sendNotifications(operationMappingsTenantMap);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Push notification job running completed.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("PushNotificationSchedulerTask was interrupted while sending push notifications", e);
+        } catch (Throwable cause) {
+            log.error("PushNotificationSchedulerTask failed due to " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Send the push notifications of the batch through a bounded pool of threads. Strategies and operations are
+     * resolved once per tenant and device type and once per operation respectively, and the mappings of the delivered
+     * notifications are marked as completed in chunks while the rest of the batch is still being sent. A provider
+     * permit is held until the notification is delivered, so that each provider has a bounded number of deliveries
+     * in flight. Mappings of the notifications which could not be delivered are left scheduled, hence they are retried
+     * by the next run.
+     */
+    private void sendNotifications(Map<Integer, List<OperationMapping>> operationMappingsTenantMap)
+            throws InterruptedException {
+        PushNotificationConfiguration config = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPushNotificationConfiguration();
+        int providerConcurrency = Math.max(1, config.getSchedulerProviderConcurrency());
+        ExecutorService executor = this.getDispatchExecutor(config);
+        Map<String, Semaphore> providerPermits = new HashMap<>();
+        Queue<OperationMapping> operationsCompletedQueue = new ConcurrentLinkedQueue<>();
+        Queue<CompletableFuture<Void>> deliveries = new ConcurrentLinkedQueue<>();
+        List<Future<?>> notifications = new ArrayList<>();
+        boolean isStalled = false;
+        try {
+            for (Map.Entry<Integer, List<OperationMapping>> entry : operationMappingsTenantMap.entrySet()) {
+                if (isStalled) {
+                    break;
+                }
+                Map<String, NotificationStrategy> notificationStrategies = new HashMap<>();
+                Map<Integer, io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation> operations =
+                        new HashMap<>();
+                this.prefetch(entry.getKey(), entry.getValue(), notificationStrategies, operations);
+                for (OperationMapping operationMapping : entry.getValue()) {
+                    NotificationStrategy notificationStrategy =
+                            notificationStrategies.get(operationMapping.getDeviceIdentifier().getType());
+                    io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation operation =
+                            operations.get(operationMapping.getOperationId());
+                    if (notificationStrategy == null || operation == null) {
+                        continue;
+                    }
+                    Semaphore permits = providerPermits.computeIfAbsent(notificationStrategy.getClass().getName(),
+                            key -> new Semaphore(providerConcurrency));
+                    if (!permits.tryAcquire(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS)) {
+                        log.warn("Push notifications of " + notificationStrategy.getClass().getName() + " are not " +
+                                "delivered within " + DELIVERY_TIMEOUT_MILLS + "ms, hence the rest of the batch is " +
+                                "left to be retried");
+                        isStalled = true;
+                        break;
+                    }
+                    notifications.add(executor.submit(() -> {
+                        boolean isSent = false;
+                        try {
+                            deliveries.add(this.sendNotification(operationMapping, notificationStrategy, operation,
+                                    operationsCompletedQueue).whenComplete((result, e) -> permits.release()));
+                            isSent = true;
+                        } finally {
+                            // Permits of the sent notifications are released once they are delivered
+                            if (!isSent) {
+                                permits.release();
+                            }
                         }
-                        // Set tenant id and domain
-                        PrivilegedCarbonContext.startTenantFlow();
-                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(operationMapping.getTenantId(), true);
+                    }));
+                    if (operationsCompletedQueue.size() >= STATUS_UPDATE_BATCH_SIZE) {
+                        this.updateCompletedOperationMappings(operationsCompletedQueue);
+                    }
+                }
+            }
+            for (Future<?> notification : notifications) {
+                try {
+                    notification.get();
+                } catch (ExecutionException e) {
+                    log.error("Error occurred while sending push notification", e.getCause());
+                }
+            }
+            try {
+                CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0]))
+                        .get(DELIVERY_TIMEOUT_MILLS, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // failures of each notification are handled when it completes
+            } catch (TimeoutException e) {
+                log.warn("Push notifications are not delivered within " + DELIVERY_TIMEOUT_MILLS + "ms, hence " +
+                        "they are left to be retried");
+            }
+        } finally {
+            // Update push notification status to competed for operations which already sent
+            this.updateCompletedOperationMappings(operationsCompletedQueue);
+        }
+    }
+
+    /**
+     * Runs of the task never overlap, hence the dispatch pool is created by the first run and kept for the later runs.
+     * Idle dispatch threads time out between runs.
+     */
+    private ExecutorService getDispatchExecutor(PushNotificationConfiguration config) {
+        if (dispatchExecutor == null) {
+            int poolSize = Math.max(1, config.getSchedulerDispatchPoolSize());
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, IDLE_DISPATCHER_TIMEOUT_MILLS,
+                    TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "push-notification-dispatcher");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            dispatchExecutor = executor;
+        }
+        return dispatchExecutor;
+    }
+
+    private void prefetch(int tenantId, List<OperationMapping> operationMappings,
+                          Map<String, NotificationStrategy> notificationStrategies,
+                          Map<Integer, io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation> operations) {
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+            Set<String> resolvedDeviceTypes = new HashSet<>();
+            Set<Integer> resolvedOperations = new HashSet<>();
+            for (OperationMapping operationMapping : operationMappings) {
+                String deviceType = operationMapping.getDeviceIdentifier().getType();
+                if (resolvedDeviceTypes.add(deviceType)) {
+                    try {
                         // Get notification strategy for given device type
-                        NotificationStrategy notificationStrategy = provider.getNotificationStrategyByDeviceType
-                                (operationMapping.getDeviceIdentifier().getType());
-                        // Send the push notification on given strategy
+                        NotificationStrategy notificationStrategy = provider.getNotificationStrategyByDeviceType(
+                                deviceType);
                         if (notificationStrategy != null) {
-                            notificationStrategy.execute(new NotificationContext(operationMapping.getDeviceIdentifier(),
-                                    provider.getOperation(operationMapping.getDeviceIdentifier().getType(), operationMapping
-                                            .getOperationId())));
-                            operationMapping.setPushNotificationStatus(Operation.PushNotificationStatus.COMPLETED);
-                            operationsCompletedList.add(operationMapping);
-                        } else {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Tenant '" + PrivilegedCarbonContext.getThreadLocalCarbonContext()
-                                        .getTenantDomain() + "' does not have push notification strategy.");
-                            }
+                            notificationStrategies.put(deviceType, notificationStrategy);
+                        } else if (log.isDebugEnabled()) {
+                            log.debug("Tenant '" + PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                                    .getTenantDomain() + "' does not have push notification strategy for device " +
+                                    "type '" + deviceType + "'.");
                         }
                     } catch (DeviceManagementException e) {
                         log.error("Error occurred while getting notification strategy for operation mapping " +
-                                operationMapping.getDeviceIdentifier().getType(), e);
-                    } catch (OperationManagementException e) {
-                        log.error("Unable to get the operation for operation " + operationMapping.getOperationId(), e);
-                    } catch (PushNotificationExecutionFailedException e) {
-                        log.error("Error occurred while sending push notification to operation:  " + operationMapping
-                                .getOperationId(), e);
-                    } finally {
-                        PrivilegedCarbonContext.endTenantFlow();
+                                deviceType, e);
                     }
                 }
-            }
-            // Update push notification status to competed for operations which already sent
-            if (operationsCompletedList.size() > 0) {
-                try {
-                    OperationManagementDAOFactory.beginTransaction();
-                    operationMappingDAO.updateOperationMapping(operationsCompletedList);
-                    OperationManagementDAOFactory.commitTransaction();
-                } catch (TransactionManagementException | OperationManagementDAOException e) {
-                    OperationManagementDAOFactory.rollbackTransaction();
-                    log.error("Error occurred while updating operation mappings for sent notifications ", e);
-                } finally {
-                    OperationManagementDAOFactory.closeConnection();
+                if (notificationStrategies.containsKey(deviceType) &&
+                        resolvedOperations.add(operationMapping.getOperationId())) {
+                    try {
+                        operations.put(operationMapping.getOperationId(),
+                                provider.getOperation(deviceType, operationMapping.getOperationId()));
+                    } catch (OperationManagementException e) {
+                        log.error("Unable to get the operation for operation " + operationMapping.getOperationId(),
+                                e);
+                    }
                 }
             }
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private CompletableFuture<Void> sendNotification(
+            OperationMapping operationMapping, NotificationStrategy notificationStrategy,
+            io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation operation,
+            Queue<OperationMapping> operationsCompletedQueue) {
+        try {
             if (log.isDebugEnabled()) {
-                log.debug("Push notification job running completed.");
+                log.debug("Sending push notification for operationId :" + operationMapping.getOperationId() +
+                        " to deviceId : " + operationMapping.getDeviceIdentifier().getId());
             }
-        } catch (Throwable cause) {
-            log.error("PushNotificationSchedulerTask failed due to " + cause.getMessage(), cause);
+            // Set tenant id and domain
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(operationMapping.getTenantId(), true);
+            // Send the push notification on given strategy
+            return notificationStrategy.executeAsync(new NotificationContext(operationMapping.getDeviceIdentifier(),
+                    operation)).handle((result, e) -> {
+                if (e == null) {
+                    operationMapping.setPushNotificationStatus(Operation.PushNotificationStatus.COMPLETED);
+                    operationsCompletedQueue.add(operationMapping);
+                } else {
+                    log.error("Error occurred while sending push notification to operation:  " + operationMapping
+                            .getOperationId(), e);
+                }
+                return null;
+            });
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private void updateCompletedOperationMappings(Queue<OperationMapping> operationsCompletedQueue) {
+        List<OperationMapping> operationsCompletedList = new ArrayList<>();
+        OperationMapping operationMapping;
+        while ((operationMapping = operationsCompletedQueue.poll()) != null) {
+            operationsCompletedList.add(operationMapping);
+        }
+        if (operationsCompletedList.isEmpty()) {
+            return;
+        }
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            operationMappingDAO.updateOperationMapping(operationsCompletedList);
+            OperationManagementDAOFactory.commitTransaction();
+        } catch (TransactionManagementException | OperationManagementDAOException e) {
+            OperationManagementDAOFactory.rollbackTransaction();
+            log.error("Error occurred while updating operation mappings for sent notifications ", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
         }
     }
 }
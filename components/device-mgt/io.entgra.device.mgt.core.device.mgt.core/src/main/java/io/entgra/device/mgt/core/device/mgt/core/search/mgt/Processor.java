@@ -28,6 +28,31 @@ public interface Processor {
 
     List<Device> execute(SearchContext searchContext) throws SearchMgtException;
 
+    /**
+     * Returns a page of the matching devices, which starts after the given enrolment id. The enrolment id of the last
+     * device of a page is the cursor of the next page.
+     *
+     * @param searchContext search conditions
+     * @param afterEnrolmentId enrolment id to start after, 0 for the first page
+     * @param limit maximum number of devices in the page
+     * @param requireApplications true to load the installed applications of the devices
+     * @return matching devices in the ascending order of the enrolment ids
+     * @throws SearchMgtException if the search could not be executed
+     */
+    List<Device> execute(SearchContext searchContext, int afterEnrolmentId, int limit, boolean requireApplications)
+            throws SearchMgtException;
+
+    /**
+     * Passes all the matching devices to the handler chunk by chunk, without holding more than a chunk in memory.
+     *
+     * @param searchContext search conditions
+     * @param requireApplications true to load the installed applications of the devices
+     * @param handler handler of the device chunks
+     * @throws SearchMgtException if the search could not be executed or the handler failed
+     */
+    void execute(SearchContext searchContext, boolean requireApplications, SearchResultHandler handler)
+            throws SearchMgtException;
+
     List<Device> getUpdatedDevices(long epochTime) throws SearchMgtException;
 
 }
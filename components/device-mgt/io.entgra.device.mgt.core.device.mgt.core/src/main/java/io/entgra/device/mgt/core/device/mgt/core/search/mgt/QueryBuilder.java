@@ -40,4 +40,18 @@ public interface QueryBuilder {
 
     QueryHolder processUpdatedDevices(long epochTime) throws InvalidOperatorException;
 
+    /**
+     * Builds a single query for the whole condition list, which matches the devices satisfying the device detail
+     * conditions and all the AND property conditions, or any of the OR property conditions, or the location.
+     * The query ends with an enrolment id cursor, so the value of the cursor has to be set as the last parameter,
+     * after the parameters in the returned types. The query is ordered by the enrolment id and carries no row limit,
+     * hence the caller appends the row limit in the syntax of the database.
+     *
+     * @param conditions search conditions
+     * @param owner owner of the devices to match, or null to match devices of any owner
+     * @return query holder, or null if there is no condition to search for
+     * @throws InvalidOperatorException if a condition could not be converted to sql
+     */
+    QueryHolder buildSearchQuery(List<Condition> conditions, String owner) throws InvalidOperatorException;
+
 }
@@ -28,6 +28,12 @@ public interface SearchManagerService {
 
     List<Device> search(SearchContext searchContext) throws SearchMgtException;
 
+    List<Device> search(SearchContext searchContext, int afterEnrolmentId, int limit, boolean requireApplications)
+            throws SearchMgtException;
+
+    void search(SearchContext searchContext, boolean requireApplications, SearchResultHandler handler)
+            throws SearchMgtException;
+
     List<Device> getUpdated(long epochTime) throws SearchMgtException;
 }
 
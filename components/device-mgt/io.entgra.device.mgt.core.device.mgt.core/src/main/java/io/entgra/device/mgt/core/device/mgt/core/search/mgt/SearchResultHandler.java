@@ -16,16 +16,22 @@
  * under the License.
  */
 
-
 package io.entgra.device.mgt.core.device.mgt.core.search.mgt;
 
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 
 import java.util.List;
-import java.util.Map;
 
-public interface ResultSetAggregator {
+/**
+ * Receives the devices of a search chunk by chunk, in the ascending order of the enrolment ids.
+ */
+public interface SearchResultHandler {
 
-    List<Device> aggregate(Map<String, List<Device>> devices);
+    /**
+     * @param devices next chunk of the matching devices
+     * @return true to continue with the next chunk, false to stop the search
+     * @throws SearchMgtException if the chunk could not be handled, which stops the search
+     */
+    boolean handle(List<Device> devices) throws SearchMgtException;
 
 }
@@ -35,6 +35,8 @@ import io.entgra.device.mgt.core.device.mgt.core.search.mgt.dao.SearchDAOExcepti
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.CarbonContext;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.user.api.UserStoreException;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -52,61 +54,41 @@ public class ProcessorImpl implements Processor {
 
     @Override
     public List<Device> execute(SearchContext searchContext) throws SearchMgtException {
+        List<Device> devices = new ArrayList<>();
+        this.execute(searchContext, true, chunk -> {
+            devices.addAll(chunk);
+            return true;
+        });
+        return devices;
+    }
 
-        if (!Utils.validateOperators(searchContext.getConditions())) {
-            throw new SearchMgtException("Invalid validator is provided.");
+    @Override
+    public List<Device> execute(SearchContext searchContext, int afterEnrolmentId, int limit,
+                                boolean requireApplications) throws SearchMgtException {
+        QueryHolder queryHolder = this.buildSearchQuery(searchContext);
+        if (queryHolder == null || limit <= 0) {
+            return new ArrayList<>();
         }
+        return this.searchDevices(queryHolder, afterEnrolmentId, limit, requireApplications);
+    }
 
-        QueryBuilder queryBuilder = new QueryBuilderImpl();
-        List<Device> generalDevices = new ArrayList<>();
-        List<List<Device>> allANDDevices = new ArrayList<>();
-        List<List<Device>> allORDevices = new ArrayList<>();
-        List<Device> locationDevices = new ArrayList<>();
-        try {
-            DeviceManagementDAOFactory.openConnection();
-            Map<String, List<QueryHolder>> queries = queryBuilder.buildQueries(searchContext.getConditions());
-
-
-            if (queries.containsKey(Constants.GENERAL)) {
-                generalDevices = searchDeviceDetailsTable(queries.get(Constants.GENERAL).get(0));
-            }
-            if (queries.containsKey(Constants.PROP_AND)) {
-                for (QueryHolder queryHolder : queries.get(Constants.PROP_AND)) {
-                    List<Device> andDevices = searchDeviceDetailsTable(queryHolder);
-                    allANDDevices.add(andDevices);
-                }
-            }
-            if (queries.containsKey(Constants.PROP_OR)) {
-                for (QueryHolder queryHolder : queries.get(Constants.PROP_OR)) {
-                    List<Device> orDevices = searchDeviceDetailsTable(queryHolder);
-                    allORDevices.add(orDevices);
-                }
-            }
-            if (queries.containsKey(Constants.LOCATION)) {
-                locationDevices = searchDeviceDetailsTable(queries.get(Constants.LOCATION).get(0));
-            }
-        } catch (InvalidOperatorException e) {
-            throw new SearchMgtException("Invalid operator was provided, so cannot execute the search.", e);
-        } catch (SQLException e) {
-            throw new SearchMgtException("Error occurred while managing database transactions.", e);
-        } catch (SearchDAOException e) {
-            throw new SearchMgtException("Error occurred while running the search operations.", e);
-        } finally {
-            DeviceManagementDAOFactory.closeConnection();
+    @Override
+    public void execute(SearchContext searchContext, boolean requireApplications, SearchResultHandler handler)
+            throws SearchMgtException {
+        QueryHolder queryHolder = this.buildSearchQuery(searchContext);
+        if (queryHolder == null) {
+            return;
         }
-
-        ResultSetAggregator aggregator = new ResultSetAggregatorImpl();
-
-        Map<String, List<Device>> devices = new HashMap<>();
-
-        devices.put(Constants.GENERAL, generalDevices);
-        devices.put(Constants.PROP_AND, this.processANDSearch(allANDDevices));
-        devices.put(Constants.PROP_OR, this.processORSearch(allORDevices));
-        devices.put(Constants.LOCATION, locationDevices);
-
-        List<Device> finalDevices = aggregator.aggregate(devices);
-        this.setApplicationListOfDevices(finalDevices);
-        return finalDevices;
+        int afterEnrolmentId = 0;
+        List<Device> devices;
+        do {
+            devices = this.searchDevices(queryHolder, afterEnrolmentId, Constants.SEARCH_CHUNK_SIZE,
+                    requireApplications);
+            if (devices.isEmpty() || !handler.handle(devices)) {
+                return;
+            }
+            afterEnrolmentId = devices.get(devices.size() - 1).getEnrolmentInfo().getId();
+        } while (devices.size() == Constants.SEARCH_CHUNK_SIZE);
     }
 
     @Override
@@ -132,86 +114,128 @@ public class ProcessorImpl implements Processor {
     }
 
 
-    private List<Device> processANDSearch(List<List<Device>> deLists) {
-        List<Device> deviceList = new ArrayList<>();
-        List<Device> smallestDeviceList = this.findListWithLowestItems(deLists);
-        List<Map<Integer, Device>> maps = this.convertDeviceListToMap(deLists);
-        boolean valueExist = false;
-        for (Device device : smallestDeviceList) {
-            for (Map<Integer, Device> devices : maps) {
-                if (devices.containsKey(device.getId())) {
-                    valueExist = true;
-                } else {
-                    valueExist = false;
-                    break;
-                }
-            }
-            if (valueExist) {
-                deviceList.add(device);
+    /**
+     * Builds the search query of the conditions, which only matches the devices of the current user if the user is
+     * not permitted to view any device.
+     */
+    private QueryHolder buildSearchQuery(SearchContext searchContext) throws SearchMgtException {
+        if (!Utils.validateOperators(searchContext.getConditions())) {
+            throw new SearchMgtException("Invalid validator is provided.");
+        }
+        String username = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
+        String owner = username;
+        try {
+            if (Utils.isPermittedToViewAnyDevice(username)) {
+                owner = null;
             }
+        } catch (UserStoreException e) {
+            log.error("Unable to check permissions of the user: " + username, e);
+        }
+        try {
+            return new QueryBuilderImpl().buildSearchQuery(searchContext.getConditions(), owner);
+        } catch (InvalidOperatorException e) {
+            throw new SearchMgtException("Invalid operator was provided, so cannot execute the search.", e);
         }
-        return deviceList;
     }
 
-    private List<Device> processORSearch(List<List<Device>> deLists) {
+    /**
+     * Reads the matching devices after the given enrolment id up to the limit, and loads their properties and,
+     * if required, the installed applications within the same connection. The rows of the query are limited to the
+     * devices left to read, hence a device joined with more than one location or detail row can leave the page
+     * short, in which case the rest is read after the last device.
+     */
+    private List<Device> searchDevices(QueryHolder queryHolder, int afterEnrolmentId, int limit,
+                                       boolean requireApplications) throws SearchMgtException {
         List<Device> devices = new ArrayList<>();
-        Map<Integer, Device> map = new HashMap<>();
-
-        for (List<Device> list : deLists) {
-            for (Device device : list) {
-                if (!map.containsKey(device.getId())) {
-                    map.put(device.getId(), device);
-                    devices.add(device);
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            Connection conn = this.getConnection();
+            String query = queryHolder.getQuery() + this.getRowLimitPart(conn);
+            int lastEnrolmentId = afterEnrolmentId;
+            int rowLimit;
+            int rowCount;
+            do {
+                rowLimit = limit - devices.size();
+                rowCount = 0;
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    stmt.setFetchSize(Math.min(rowLimit, Constants.SEARCH_CHUNK_SIZE));
+                    int index = this.setParameters(stmt, queryHolder.getTypes());
+                    stmt.setInt(index++, lastEnrolmentId);
+                    stmt.setInt(index, rowLimit);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rowCount++;
+                            // Rows of the same enrolment are adjacent as the rows are ordered by the enrolment id
+                            if (rs.getInt("ENROLLMENT_ID") != lastEnrolmentId) {
+                                Device device = this.loadDevice(rs);
+                                lastEnrolmentId = device.getEnrolmentInfo().getId();
+                                devices.add(device);
+                            }
+                        }
+                    }
                 }
+            } while (rowCount == rowLimit && devices.size() < limit);
+
+            this.fillPropertiesOfDevices(devices);
+            if (requireApplications) {
+                this.setApplicationListOfDevices(devices);
             }
+        } catch (SQLException e) {
+            throw new SearchMgtException("Error occurred while running the search query.", e);
+        } catch (SearchDAOException e) {
+            throw new SearchMgtException("Error occurred while running the search operations.", e);
+        } catch (DeviceManagementDAOException e) {
+            throw new SearchMgtException("Error occurred while fetching the Application List of devices ", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Number of the devices returned after the enrolment " + afterEnrolmentId + " : " +
+                    devices.size());
         }
         return devices;
     }
 
-    private List<Device> findListWithLowestItems(List<List<Device>> deLists) {
-        int size = 0;
-        List<Device> devices = new ArrayList<>();
-        for (List<Device> list : deLists) {
-            if (size == 0) {
-                size = list.size();
-                devices = list;
-            } else {
-                if (list.size() < size) {
-                    devices = list;
-                }
-            }
+    /**
+     * Row limit of the search query in the syntax of the database, which takes the limit as the last parameter.
+     * The search query is ordered by the enrolment id, hence the limit follows the ORDER BY clause.
+     */
+    private String getRowLimitPart(Connection conn) throws SQLException {
+        String databaseProductName = conn.getMetaData().getDatabaseProductName();
+        if (databaseProductName.contains(DeviceManagementConstants.DataBaseTypes.DB_TYPE_MSSQL)) {
+            return " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+        } else if (databaseProductName.contains(DeviceManagementConstants.DataBaseTypes.DB_TYPE_ORACLE)) {
+            return " FETCH FIRST ? ROWS ONLY";
         }
-        return devices;
+        return " LIMIT ?";
     }
 
-    private List<Map<Integer, Device>> convertDeviceListToMap(List<List<Device>> deLists) {
-        List<Map<Integer, Device>> maps = new ArrayList<>();
-        for (List<Device> devices : deLists) {
-            Map<Integer, Device> deviceMap = new HashMap<>();
-
-            for (Device device : devices) {
-                deviceMap.put(device.getId(), device);
-            }
-            maps.add(deviceMap);
+    private void setApplicationListOfDevices(List<Device> devices) throws DeviceManagementDAOException {
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        for (Device device : devices) {
+            device.setApplications(applicationDAO.getInstalledApplications(device.getId(),
+                    device.getEnrolmentInfo().getId(), tenantId));
         }
-        return maps;
     }
 
-    private void setApplicationListOfDevices(List<Device> devices) throws SearchMgtException {
-        try {
-            DeviceManagementDAOFactory.openConnection();
-            int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-            for (Device device : devices) {
-                device.setApplications(applicationDAO.getInstalledApplications(device.getId(),
-                        device.getEnrolmentInfo().getId(), tenantId));
+    private int setParameters(PreparedStatement stmt, ValueType[] types) throws SQLException {
+        int x = 1;
+        for (ValueType type : types) {
+            if (type.getColumnType().equals(ValueType.columnType.STRING)) {
+                stmt.setString(x, type.getStringValue());
+                x++;
+            } else if (type.getColumnType().equals(ValueType.columnType.INTEGER)) {
+                stmt.setInt(x, type.getIntValue());
+                x++;
+            } else if (type.getColumnType().equals(ValueType.columnType.LONG)) {
+                stmt.setLong(x, type.getLongValue());
+                x++;
+            } else if (type.getColumnType().equals(ValueType.columnType.DOUBLE)) {
+                stmt.setDouble(x, type.getDoubleValue());
+                x++;
             }
-        } catch (DeviceManagementDAOException e) {
-            throw new SearchMgtException("Error occurred while fetching the Application List of devices ", e);
-        } catch (SQLException e) {
-            throw new SearchMgtException("Error occurred while opening a connection to the data source", e);
-        } finally {
-            DeviceManagementDAOFactory.closeConnection();
         }
+        return x;
     }
 
     private List<Device> searchDeviceDetailsTable(QueryHolder queryHolder) throws SearchDAOException {
@@ -226,77 +250,11 @@ public class ProcessorImpl implements Processor {
             conn = this.getConnection();
             stmt = conn.prepareStatement(queryHolder.getQuery());
 
-            int x = 1;
-            ValueType[] types = queryHolder.getTypes();
-            for (ValueType type : types) {
-                if (type.getColumnType().equals(ValueType.columnType.STRING)) {
-                    stmt.setString(x, type.getStringValue());
-                    x++;
-                } else if (type.getColumnType().equals(ValueType.columnType.INTEGER)) {
-                    stmt.setInt(x, type.getIntValue());
-                    x++;
-                } else if (type.getColumnType().equals(ValueType.columnType.LONG)) {
-                    stmt.setLong(x, type.getLongValue());
-                    x++;
-                } else if (type.getColumnType().equals(ValueType.columnType.DOUBLE)) {
-                    stmt.setDouble(x, type.getDoubleValue());
-                    x++;
-                }
-            }
+            this.setParameters(stmt, queryHolder.getTypes());
 
             rs = stmt.executeQuery();
             while (rs.next()) {
-                Device device = new Device();
-                device.setId(rs.getInt("ID"));
-                device.setDescription(rs.getString("DESCRIPTION"));
-                device.setName(rs.getString("NAME"));
-                device.setType(rs.getString("DEVICE_TYPE_NAME"));
-                device.setDeviceIdentifier(rs.getString("DEVICE_IDENTIFICATION"));
-
-                EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
-                enrolmentInfo.setId(rs.getInt("ENROLLMENT_ID"));
-                enrolmentInfo.setStatus(EnrolmentInfo.Status.valueOf(rs.getString("DE_STATUS")));
-                enrolmentInfo.setOwner(rs.getString("OWNER"));
-                enrolmentInfo.setOwnership(EnrolmentInfo.OwnerShip.valueOf(rs.getString("OWNERSHIP")));
-                device.setEnrolmentInfo(enrolmentInfo);
-
-                DeviceIdentifier identifier = new DeviceIdentifier();
-                identifier.setType(rs.getString("DEVICE_TYPE_NAME"));
-                identifier.setId(rs.getString("DEVICE_IDENTIFICATION"));
-
-                DeviceInfo deviceInfo = new DeviceInfo();
-                deviceInfo.setAvailableRAMMemory(rs.getDouble("AVAILABLE_RAM_MEMORY"));
-                deviceInfo.setBatteryLevel(rs.getDouble("BATTERY_LEVEL"));
-                deviceInfo.setConnectionType(rs.getString("CONNECTION_TYPE"));
-                deviceInfo.setCpuUsage(rs.getDouble("CPU_USAGE"));
-                deviceInfo.setDeviceModel(rs.getString("DEVICE_MODEL"));
-                deviceInfo.setExternalAvailableMemory(rs.getDouble("EXTERNAL_AVAILABLE_MEMORY"));
-                deviceInfo.setExternalTotalMemory(rs.getDouble("EXTERNAL_TOTAL_MEMORY"));
-                deviceInfo.setInternalAvailableMemory(rs.getDouble("INTERNAL_AVAILABLE_MEMORY"));
-                deviceInfo.setInternalTotalMemory(rs.getDouble("EXTERNAL_TOTAL_MEMORY"));
-                deviceInfo.setOsVersion(rs.getString("OS_VERSION"));
-                deviceInfo.setOsBuildDate(rs.getString("OS_BUILD_DATE"));
-                deviceInfo.setPluggedIn(rs.getBoolean("PLUGGED_IN"));
-                deviceInfo.setSsid(rs.getString("SSID"));
-                deviceInfo.setTotalRAMMemory(rs.getDouble("TOTAL_RAM_MEMORY"));
-                deviceInfo.setVendor(rs.getString("VENDOR"));
-                deviceInfo.setUpdatedTime(new java.util.Date(rs.getLong("UPDATE_TIMESTAMP")));
-
-                DeviceLocation deviceLocation = new DeviceLocation();
-                deviceLocation.setLatitude(rs.getDouble("LATITUDE"));
-                deviceLocation.setLongitude(rs.getDouble("LONGITUDE"));
-                deviceLocation.setStreet1(rs.getString("STREET1"));
-                deviceLocation.setStreet2(rs.getString("STREET2"));
-                deviceLocation.setCity(rs.getString("CITY"));
-                deviceLocation.setState(rs.getString("STATE"));
-                deviceLocation.setZip(rs.getString("ZIP"));
-                deviceLocation.setCountry(rs.getString("COUNTRY"));
-                deviceLocation.setDeviceId(rs.getInt("ID"));
-                deviceLocation.setUpdatedTime(new java.util.Date(rs.getLong("DL_UPDATED_TIMESTAMP")));
-
-                deviceInfo.setLocation(deviceLocation);
-                device.setDeviceInfo(deviceInfo);
-                devices.add(device);
+                devices.add(this.loadDevice(rs));
             }
         } catch (SQLException e) {
             throw new SearchDAOException("Error occurred while aquiring the device details.", e);
@@ -310,6 +268,59 @@ public class ProcessorImpl implements Processor {
         return devices;
     }
 
+    private Device loadDevice(ResultSet rs) throws SQLException {
+        Device device = new Device();
+        device.setId(rs.getInt("ID"));
+        device.setDescription(rs.getString("DESCRIPTION"));
+        device.setName(rs.getString("NAME"));
+        device.setType(rs.getString("DEVICE_TYPE_NAME"));
+        device.setDeviceIdentifier(rs.getString("DEVICE_IDENTIFICATION"));
+
+        EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+        enrolmentInfo.setId(rs.getInt("ENROLLMENT_ID"));
+        enrolmentInfo.setStatus(EnrolmentInfo.Status.valueOf(rs.getString("DE_STATUS")));
+        enrolmentInfo.setOwner(rs.getString("OWNER"));
+        enrolmentInfo.setOwnership(EnrolmentInfo.OwnerShip.valueOf(rs.getString("OWNERSHIP")));
+        device.setEnrolmentInfo(enrolmentInfo);
+
+        DeviceIdentifier identifier = new DeviceIdentifier();
+        identifier.setType(rs.getString("DEVICE_TYPE_NAME"));
+        identifier.setId(rs.getString("DEVICE_IDENTIFICATION"));
+
+        DeviceInfo deviceInfo = new DeviceInfo();
+        deviceInfo.setAvailableRAMMemory(rs.getDouble("AVAILABLE_RAM_MEMORY"));
+        deviceInfo.setBatteryLevel(rs.getDouble("BATTERY_LEVEL"));
+        deviceInfo.setConnectionType(rs.getString("CONNECTION_TYPE"));
+        deviceInfo.setCpuUsage(rs.getDouble("CPU_USAGE"));
+        deviceInfo.setDeviceModel(rs.getString("DEVICE_MODEL"));
+        deviceInfo.setExternalAvailableMemory(rs.getDouble("EXTERNAL_AVAILABLE_MEMORY"));
+        deviceInfo.setExternalTotalMemory(rs.getDouble("EXTERNAL_TOTAL_MEMORY"));
+        deviceInfo.setInternalAvailableMemory(rs.getDouble("INTERNAL_AVAILABLE_MEMORY"));
+        deviceInfo.setInternalTotalMemory(rs.getDouble("EXTERNAL_TOTAL_MEMORY"));
+        deviceInfo.setOsVersion(rs.getString("OS_VERSION"));
+        deviceInfo.setOsBuildDate(rs.getString("OS_BUILD_DATE"));
+        deviceInfo.setPluggedIn(rs.getBoolean("PLUGGED_IN"));
+        deviceInfo.setSsid(rs.getString("SSID"));
+        deviceInfo.setTotalRAMMemory(rs.getDouble("TOTAL_RAM_MEMORY"));
+        deviceInfo.setVendor(rs.getString("VENDOR"));
+        deviceInfo.setUpdatedTime(new java.util.Date(rs.getLong("UPDATE_TIMESTAMP")));
+
+        DeviceLocation deviceLocation = new DeviceLocation();
+        deviceLocation.setLatitude(rs.getDouble("LATITUDE"));
+        deviceLocation.setLongitude(rs.getDouble("LONGITUDE"));
+        deviceLocation.setStreet1(rs.getString("STREET1"));
+        deviceLocation.setStreet2(rs.getString("STREET2"));
+        deviceLocation.setCity(rs.getString("CITY"));
+        deviceLocation.setState(rs.getString("STATE"));
+        deviceLocation.setZip(rs.getString("ZIP"));
+        deviceLocation.setCountry(rs.getString("COUNTRY"));
+        deviceLocation.setDeviceId(rs.getInt("ID"));
+        deviceLocation.setUpdatedTime(new java.util.Date(rs.getLong("DL_UPDATED_TIMESTAMP")));
+
+        deviceInfo.setLocation(deviceLocation);
+        device.setDeviceInfo(deviceInfo);
+        return device;
+    }
 
     private Connection getConnection() throws SQLException {
         return DeviceManagementDAOFactory.getConnection();
@@ -346,10 +357,15 @@ public class ProcessorImpl implements Processor {
             }
             rs = stmt.executeQuery();
 
-            DeviceInfo dInfo;
+            Map<Integer, DeviceInfo> deviceInfos = new HashMap<>();
+            for (Device device : devices) {
+                if (!deviceInfos.containsKey(device.getId())) {
+                    deviceInfos.put(device.getId(), this.getDeviceInfo(device));
+                }
+            }
             while (rs.next()) {
-                dInfo = this.getDeviceInfo(devices, rs.getInt("DEVICE_ID"));
-                dInfo.getDeviceDetailsMap().put(rs.getString("KEY_FIELD"), rs.getString("VALUE_FIELD"));
+                deviceInfos.get(rs.getInt("DEVICE_ID")).getDeviceDetailsMap()
+                        .put(rs.getString("KEY_FIELD"), rs.getString("VALUE_FIELD"));
             }
         } catch (SQLException e) {
             throw new SearchDAOException("Error occurred while retrieving the device properties.", e);
@@ -359,15 +375,10 @@ public class ProcessorImpl implements Processor {
         return devices;
     }
 
-    private DeviceInfo getDeviceInfo(List<Device> devices, int deviceId) {
-        for (Device device : devices) {
-            if (device.getId() == deviceId) {
-                if (device.getDeviceInfo() == null) {
-                    device.setDeviceInfo(new DeviceInfo());
-                }
-                return device.getDeviceInfo();
-            }
+    private DeviceInfo getDeviceInfo(Device device) {
+        if (device.getDeviceInfo() == null) {
+            device.setDeviceInfo(new DeviceInfo());
         }
-        return null;
+        return device.getDeviceInfo();
     }
-}
\ No newline at end of file
+}
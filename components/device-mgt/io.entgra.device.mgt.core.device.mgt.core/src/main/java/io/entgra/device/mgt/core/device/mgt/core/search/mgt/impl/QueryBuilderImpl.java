@@ -26,6 +26,7 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,41 +46,8 @@ public class QueryBuilderImpl implements QueryBuilder {
         List<Condition> orColumns = new ArrayList<>();
         List<Condition> otherANDColumns = new ArrayList<>();
         List<Condition> otherORColumns = new ArrayList<>();
-        Condition locCondition = new Condition();
-
-        if (conditions.size() == 1) {
-            if (Constants.LOCATION.equalsIgnoreCase(conditions.get(0).getKey())) {
-                locCondition = conditions.get(0);
-            } else if (Utils.checkDeviceDetailsColumns(conditions.get(0).getKey()) ||
-                    Utils.checkDeviceLocationColumns(conditions.get(0).getKey())) {
-                andColumns.add(conditions.get(0));
-            } else {
-                otherANDColumns.add(conditions.get(0));
-            }
-        } else {
-            for (Condition con : conditions) {
-                if (Constants.LOCATION.equalsIgnoreCase(con.getKey())) {
-                    locCondition = con;
-                } else if (Utils.checkDeviceDetailsColumns(con.getKey()) ||
-                        Utils.checkDeviceLocationColumns(con.getKey())) {
-                    if (con.getState().equals(Condition.State.AND)) {
-                        andColumns.add(con);
-                    } else if (con.getState().equals(Condition.State.OR)) {
-                        orColumns.add(con);
-                    } else {
-                        throw new InvalidOperatorException(con.getState() + " is not a valid operator.");
-                    }
-                } else {
-                    if (con.getState().equals(Condition.State.AND)) {
-                        otherANDColumns.add(con);
-                    } else if (con.getState().equals(Condition.State.OR)) {
-                        otherORColumns.add(con);
-                    } else {
-                        throw new InvalidOperatorException(con.getState() + " is not a valid operator.");
-                    }
-                }
-            }
-        }
+        Condition locCondition = this.groupConditions(conditions, andColumns, orColumns, otherANDColumns,
+                otherORColumns);
 
         Map<String, List<QueryHolder>> queries = new HashMap<>();
         if ((!andColumns.isEmpty()) || (!orColumns.isEmpty())) {
@@ -254,6 +222,108 @@ public class QueryBuilderImpl implements QueryBuilder {
         }
     }
 
+    @Override
+    public QueryHolder buildSearchQuery(List<Condition> conditions, String owner) throws InvalidOperatorException {
+        List<Condition> andColumns = new ArrayList<>();
+        List<Condition> orColumns = new ArrayList<>();
+        List<Condition> otherANDColumns = new ArrayList<>();
+        List<Condition> otherORColumns = new ArrayList<>();
+        Condition locCondition = this.groupConditions(conditions, andColumns, orColumns, otherANDColumns,
+                otherORColumns);
+
+        ValueType[] tenantType = new ValueType[1];
+        String query = this.getGenericQueryPart(tenantType);
+        List<ValueType> types = new ArrayList<>();
+        Collections.addAll(types, tenantType);
+
+        List<String> matches = new ArrayList<>();
+        if (!andColumns.isEmpty() || !orColumns.isEmpty() || !otherANDColumns.isEmpty()) {
+            ValueType[] columnTypes = new ValueType[andColumns.size() + orColumns.size()];
+            Integer[] intArr = new Integer[]{0};
+            StringBuilder match = new StringBuilder("(1 = 1");
+            match.append(this.processAND(andColumns, columnTypes, intArr));
+            match.append(this.processOR(orColumns, columnTypes, intArr));
+            Collections.addAll(types, columnTypes);
+            for (Condition con : otherANDColumns) {
+                match.append(" AND ").append(this.getPropertyExistsPart(con, types));
+            }
+            matches.add(match.append(")").toString());
+        }
+        for (Condition con : otherORColumns) {
+            matches.add(this.getPropertyExistsPart(con, types));
+        }
+        if (locCondition != null && locCondition.getValue() != null) {
+            matches.add(this.getLocationPart(locCondition.getValue(), types));
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        query = query + " AND (" + String.join(" OR ", matches) + ")";
+        if (owner != null) {
+            query = query + " AND DE.OWNER = ?";
+            ValueType type = new ValueType();
+            type.setColumnType(ValueType.columnType.STRING);
+            type.setStringValue(owner);
+            types.add(type);
+        }
+        query = query + " AND DE.ID > ? ORDER BY DE.ID";
+
+        QueryHolder queryHolder = new QueryHolder();
+        queryHolder.setQuery(query);
+        queryHolder.setTypes(types.toArray(new ValueType[0]));
+        if (log.isDebugEnabled()) {
+            log.debug("Search Query : " + query);
+        }
+        return queryHolder;
+    }
+
+    /**
+     * Groups the conditions by the tables they have to be matched against.
+     *
+     * @return location condition, which is an empty condition if there is no location condition
+     * @throws InvalidOperatorException if a condition has an unknown state
+     */
+    private Condition groupConditions(List<Condition> conditions, List<Condition> andColumns,
+                                      List<Condition> orColumns, List<Condition> otherANDColumns,
+                                      List<Condition> otherORColumns) throws InvalidOperatorException {
+        Condition locCondition = new Condition();
+        if (conditions.size() == 1) {
+            if (Constants.LOCATION.equalsIgnoreCase(conditions.get(0).getKey())) {
+                locCondition = conditions.get(0);
+            } else if (Utils.checkDeviceDetailsColumns(conditions.get(0).getKey()) ||
+                    Utils.checkDeviceLocationColumns(conditions.get(0).getKey())) {
+                andColumns.add(conditions.get(0));
+            } else {
+                otherANDColumns.add(conditions.get(0));
+            }
+        } else {
+            for (Condition con : conditions) {
+                if (Constants.LOCATION.equalsIgnoreCase(con.getKey())) {
+                    locCondition = con;
+                } else if (Utils.checkDeviceDetailsColumns(con.getKey()) ||
+                        Utils.checkDeviceLocationColumns(con.getKey())) {
+                    if (con.getState().equals(Condition.State.AND)) {
+                        andColumns.add(con);
+                    } else if (con.getState().equals(Condition.State.OR)) {
+                        orColumns.add(con);
+                    } else {
+                        throw new InvalidOperatorException(con.getState() + " is not a valid operator.");
+                    }
+                } else {
+                    if (con.getState().equals(Condition.State.AND)) {
+                        otherANDColumns.add(con);
+                    } else if (con.getState().equals(Condition.State.OR)) {
+                        otherORColumns.add(con);
+                    } else {
+                        throw new InvalidOperatorException(con.getState() + " is not a valid operator.");
+                    }
+                }
+            }
+        }
+        return locCondition;
+    }
+
     private List<QueryHolder> getQueryList(List<Condition> conditions) throws InvalidOperatorException {
         try {
             List<QueryHolder> queryHolders = new ArrayList<>();
@@ -286,36 +356,56 @@ public class QueryBuilderImpl implements QueryBuilder {
     }
 
     private QueryHolder buildLocationQuery(String location) throws InvalidOperatorException {
-        try {
-            ValueType valueTypeArray[] = new ValueType[7];
-            String query = this.getGenericQueryPart(valueTypeArray);
-            query = query + " AND (DL.STREET1 LIKE ? ";
-            query = query + " OR DL.STREET2 LIKE ? ";
-            query = query + " OR DL.CITY LIKE ? ";
-            query = query + " OR DL.STATE LIKE ? ";
-            query = query + " OR DL.COUNTRY LIKE ? ";
-            query = query + " OR DL.ZIP LIKE ? )";
-
-            ValueType value = new ValueType();
-            value.setColumnType(ValueType.columnType.STRING);
-            value.setStringValue("%" + location + "%");
-
-            // Same location is passed to each place
-            valueTypeArray[1] = value;
-            valueTypeArray[2] = value;
-            valueTypeArray[3] = value;
-            valueTypeArray[4] = value;
-            valueTypeArray[5] = value;
-            valueTypeArray[6] = value;
+        ValueType[] tenantType = new ValueType[1];
+        String query = this.getGenericQueryPart(tenantType);
+        List<ValueType> types = new ArrayList<>();
+        Collections.addAll(types, tenantType);
+        query = query + " AND " + this.getLocationPart(location, types);
+
+        QueryHolder queryHolder = new QueryHolder();
+        queryHolder.setQuery(query);
+        queryHolder.setTypes(types.toArray(new ValueType[0]));
+        return queryHolder;
+    }
 
-            QueryHolder queryHolder = new QueryHolder();
-            queryHolder.setQuery(query);
-            queryHolder.setTypes(valueTypeArray);
+    private String getLocationPart(String location, List<ValueType> types) {
+        String query = "(DL.STREET1 LIKE ? ";
+        query = query + " OR DL.STREET2 LIKE ? ";
+        query = query + " OR DL.CITY LIKE ? ";
+        query = query + " OR DL.STATE LIKE ? ";
+        query = query + " OR DL.COUNTRY LIKE ? ";
+        query = query + " OR DL.ZIP LIKE ? )";
+
+        ValueType value = new ValueType();
+        value.setColumnType(ValueType.columnType.STRING);
+        value.setStringValue("%" + location + "%");
+
+        // Same location is passed to each place
+        for (int i = 0; i < 6; i++) {
+            types.add(value);
+        }
+        return query;
+    }
 
-            return queryHolder;
-        } catch (Exception e) {
-            throw new InvalidOperatorException("Error occurred while building the sql for location.", e);
+    private String getPropertyExistsPart(Condition con, List<ValueType> types) {
+        ValueType key = new ValueType();
+        key.setColumnType(ValueType.columnType.STRING);
+        key.setStringValue(con.getKey());
+        types.add(key);
+
+        ValueType value = new ValueType();
+        value.setColumnType(ValueType.columnType.STRING);
+        String valueOperator;
+        if (WILDCARD_OPERATOR.equals(con.getOperator())) {
+            valueOperator = " LIKE ";
+            value.setStringValue("%" + con.getValue() + "%");
+        } else {
+            valueOperator = con.getOperator();
+            value.setStringValue(con.getValue());
         }
+        types.add(value);
+        return "EXISTS (SELECT 1 FROM DM_DEVICE_INFO DI WHERE DI.DEVICE_ID = D.ID AND DI.KEY_FIELD = ? " +
+                "AND DI.VALUE_FIELD " + valueOperator + " ?)";
     }
 
     private String getGenericQueryPart(ValueType[] valueTypeArray) throws InvalidOperatorException {
@@ -24,6 +24,7 @@ import io.entgra.device.mgt.core.device.mgt.common.search.SearchContext;
 import io.entgra.device.mgt.core.device.mgt.core.search.mgt.Processor;
 import io.entgra.device.mgt.core.device.mgt.core.search.mgt.SearchManagerService;
 import io.entgra.device.mgt.core.device.mgt.core.search.mgt.SearchMgtException;
+import io.entgra.device.mgt.core.device.mgt.core.search.mgt.SearchResultHandler;
 
 import java.util.List;
 
@@ -40,6 +41,18 @@ public class SearchManagerServiceImpl implements SearchManagerService {
         return processor.execute(searchContext);
     }
 
+    @Override
+    public List<Device> search(SearchContext searchContext, int afterEnrolmentId, int limit,
+                               boolean requireApplications) throws SearchMgtException {
+        return processor.execute(searchContext, afterEnrolmentId, limit, requireApplications);
+    }
+
+    @Override
+    public void search(SearchContext searchContext, boolean requireApplications, SearchResultHandler handler)
+            throws SearchMgtException {
+        processor.execute(searchContext, requireApplications, handler);
+    }
+
     @Override
     public List<Device> getUpdated(long epochTime) throws SearchMgtException {
         return processor.getUpdatedDevices(epochTime);
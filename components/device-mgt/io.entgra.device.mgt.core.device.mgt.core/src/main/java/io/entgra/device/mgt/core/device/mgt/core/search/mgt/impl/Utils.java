@@ -21,6 +21,12 @@ package io.entgra.device.mgt.core.device.mgt.core.search.mgt.impl;
 
 import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.search.Condition;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.permission.mgt.PermissionUtils;
+import io.entgra.device.mgt.core.device.mgt.core.search.mgt.Constants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.user.api.UserRealm;
+import org.wso2.carbon.user.api.UserStoreException;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -183,5 +189,20 @@ public class Utils {
         return true;
     }
 
-}
+    /**
+     * Checks if the user has permissions to view all devices.
+     *
+     * @param username username
+     * @return {@code true} if user is permitted
+     * @throws UserStoreException If unable to check user permissions
+     */
+    public static boolean isPermittedToViewAnyDevice(String username) throws UserStoreException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true);
+        UserRealm userRealm = DeviceManagementDataHolder.getInstance().getRealmService().getTenantUserRealm(tenantId);
+        return userRealm != null && userRealm.getAuthorizationManager() != null &&
+                userRealm.getAuthorizationManager().isUserAuthorized(username,
+                        PermissionUtils.getAbsolutePermissionPath(Constants.ANY_DEVICE_PERMISSION), 
+                        Constants.UI_EXECUTE);
+    }
 
+}
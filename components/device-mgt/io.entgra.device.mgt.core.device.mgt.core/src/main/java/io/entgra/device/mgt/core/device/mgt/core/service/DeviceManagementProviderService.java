@@ -90,9 +90,21 @@ public interface DeviceManagementProviderService {
      * @param serverIndex
      * @return
      * @throws DeviceManagementException
+     * @deprecated the servers are identified by the hash indexes, hence most of the devices are moved among the
+     * servers when the cluster formation changes. Use {@link #getAllocatedDevices(String, TaskPartition)} instead.
      */
+    @Deprecated
     List<Device> getAllocatedDevices(String deviceType, int activeServerCount, int serverIndex) throws DeviceManagementException;
 
+    /**
+     * Method returns a list of devices allocated to the task partition of a specific node of the server
+     * @param deviceType type of the devices
+     * @param partition task partition of the node
+     * @return devices of the given type allocated to the partition
+     * @throws DeviceManagementException
+     */
+    List<Device> getAllocatedDevices(String deviceType, TaskPartition partition) throws DeviceManagementException;
+
     /**
      * Method to retrieve all the devices registered in the system.
      *
@@ -734,11 +746,28 @@ public interface DeviceManagementProviderService {
     Operation getNextPendingOperation(DeviceIdentifier deviceId, long notNowOperationFrequency)
             throws OperationManagementException;
 
+    Operation getNextPendingOperation(DeviceIdentifier deviceId, long notNowOperationFrequency, long waitTimeMills)
+            throws OperationManagementException;
+
     @Deprecated
     void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException;
 
     void updateOperation(Device device, Operation operation) throws OperationManagementException;
 
+    /**
+     * Updates the status of the pending operations of the given codes for a set of enrolments of a device type at
+     * once, e.g. to mark the outdated policy operations of a large number of devices as repeated.
+     *
+     * @param deviceType     Type of the devices
+     * @param enrolmentIds   Ids of the enrolments
+     * @param operationCodes Codes of the operations to update
+     * @param status         Status to set
+     * @return Number of updated operations
+     * @throws OperationManagementException if the update fails
+     */
+    int updatePendingOperationsStatus(String deviceType, List<Integer> enrolmentIds, List<String> operationCodes,
+                                      Operation.Status status) throws OperationManagementException;
+
     boolean updateProperties(DeviceIdentifier deviceId, List<Device.Property> properties) throws DeviceManagementException;
 
     Operation getOperationByDeviceAndOperationId(DeviceIdentifier deviceId, int operationId)
@@ -971,6 +1000,17 @@ public interface DeviceManagementProviderService {
     List<Device> getDeviceByIdList(List<String> deviceIdentifiers)
             throws DeviceManagementException;
 
+    /**
+     * Resolve the latest enrolment of each given device with set based queries instead of one lookup per device.
+     * Identifiers which do not match any enrolled device are omitted from the result.
+     *
+     * @param deviceIdentifiers A list of device identifiers
+     * @return A map of devices keyed by the requested device identifier
+     * @throws {@link DeviceManagementException}
+     */
+    Map<DeviceIdentifier, Device> getDevices(List<DeviceIdentifier> deviceIdentifiers)
+            throws DeviceManagementException;
+
     /**
      * Retrieve device enrollment details to be sent device enrollment invitation.
      * This has the relevant enrollment steps of each enrollment types.
@@ -69,6 +69,7 @@ import io.entgra.device.mgt.core.device.mgt.common.OperationMonitoringTaskConfig
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationResult;
 import io.entgra.device.mgt.core.device.mgt.common.StartupOperationConfig;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.BillingResponse;
 import io.entgra.device.mgt.core.device.mgt.common.app.mgt.Application;
 import io.entgra.device.mgt.core.device.mgt.common.app.mgt.ApplicationManagementException;
@@ -179,6 +180,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class DeviceManagementProviderServiceImpl implements DeviceManagementProviderService,
@@ -189,6 +191,8 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
     private static final EntgraLogger log = new EntgraDeviceEnrolmentLoggerImpl(DeviceManagementProviderServiceImpl.class);
 
     private static final String OPERATION_RESPONSE_EVENT_STREAM_DEFINITION = "org.wso2.iot.OperationResponseStream";
+    // Kept below the IN clause limits of Oracle (1000 items) and SQL Server (2100 parameters)
+    private static final int DEVICE_LOOKUP_BATCH_SIZE = 1000;
     private final DeviceManagementPluginRepository pluginRepository;
     private final DeviceDAO deviceDAO;
     private final DeviceTypeDAO deviceTypeDAO;
@@ -301,7 +305,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         DeviceIdentifier deviceIdentifier = new DeviceIdentifier(device.getDeviceIdentifier(), device.getType());
 
         int tenantId = this.getTenantId();
-        Device existingDevice = this.getDevice(deviceIdentifier, false);
+        Device existingDevice = this.getDevice(deviceIdentifier, false, false);
 
         if (existingDevice != null) {
             deviceManager.modifyEnrollment(device);
@@ -414,6 +418,8 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                     }
                     device.setEnrolmentInfo(enrollment);
                     DeviceManagementDAOFactory.commitTransaction();
+                    // Identifier might have been cached as non existent while the device was not enrolled
+                    this.removeDeviceFromCache(deviceIdentifier);
                     log.info("Device enrolled successfully", deviceEnrolmentLogContextBuilder.setDeviceId(String.valueOf(device.getId())).setDeviceType(String.valueOf(device.getType())).setOwner(enrollment.getOwner()).setOwnership(String.valueOf(enrollment.getOwnership())).setTenantID(String.valueOf(tenantId)).setTenantDomain(tenantDomain).setUserName(userName).build());
                 } else {
                     DeviceManagementDAOFactory.rollbackTransaction();
@@ -531,7 +537,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         boolean status = deviceManager.modifyEnrollment(device);
         try {
             int tenantId = this.getTenantId();
-            Device currentDevice = this.getDevice(deviceIdentifier, false);
+            Device currentDevice = this.getDevice(deviceIdentifier, false, false);
             DeviceManagementDAOFactory.beginTransaction();
             device.setId(currentDevice.getId());
             DeviceStatusManagementService deviceStatusManagementService = DeviceManagementDataHolder
@@ -978,19 +984,25 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
     @Override
     public List<Device> getAllocatedDevices(String deviceType, int activeServerCount, int serverIndex) throws DeviceManagementException {
+        return getAllocatedDevices(deviceType, TaskPartition.of(activeServerCount, serverIndex));
+    }
+
+    @Override
+    public List<Device> getAllocatedDevices(String deviceType, TaskPartition partition)
+            throws DeviceManagementException {
         if (deviceType == null) {
             String msg = "Device type is empty for method getAllDevices";
             log.error(msg);
             throw new DeviceManagementException(msg);
         }
         if (log.isDebugEnabled()) {
-            log.debug("Getting allocated Devices for Server with index " + serverIndex + " and" +
+            log.debug("Getting allocated Devices for partition " + partition + " and" +
                     " type '" + deviceType);
         }
         List<Device> allocatedDevices;
         try {
             DeviceManagementDAOFactory.openConnection();
-            allocatedDevices = deviceDAO.getAllocatedDevices(deviceType, this.getTenantId(), activeServerCount, serverIndex);
+            allocatedDevices = deviceDAO.getAllocatedDevices(deviceType, this.getTenantId(), partition);
             if (allocatedDevices == null) {
                 if (log.isDebugEnabled()) {
                     log.debug("No device is found upon the type '" + deviceType + "'");
@@ -1518,6 +1530,23 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
     @Override
     public Device getDevice(DeviceIdentifier deviceId, boolean requireDeviceInfo) throws DeviceManagementException {
+        return this.getDevice(deviceId, requireDeviceInfo, true);
+    }
+
+    /**
+     * Get the device of the identifier from the cache or the database.
+     *
+     * @param deviceId          identifier of the device
+     * @param requireDeviceInfo true to populate the device info
+     * @param trustNonExistent  false to look up the database even if this node has cached the identifier as
+     *                          non-existent. The entries of non-existent devices are local to the node, hence a
+     *                          device enrolled through another node is not seen until the entry expires, which is not
+     *                          acceptable for the lookups deciding whether a device is to be enrolled or updated.
+     * @return the device, or null if there is no such device
+     * @throws DeviceManagementException if the device could not be retrieved
+     */
+    private Device getDevice(DeviceIdentifier deviceId, boolean requireDeviceInfo, boolean trustNonExistent)
+            throws DeviceManagementException {
         if (deviceId == null) {
             String msg = "Received null device identifier for method getDevice";
             log.error(msg);
@@ -1530,15 +1559,26 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         int tenantId = this.getTenantId();
         Device device = this.getDeviceFromCache(deviceId);
         if (device == null) {
+            DeviceCacheManagerImpl deviceCacheManager = DeviceCacheManagerImpl.getInstance();
+            if (trustNonExistent && deviceCacheManager.isNonExistentDevice(deviceId, tenantId)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("No device is found upon the type '" + deviceId.getType() + "' and id '" +
+                            deviceId.getId() + "' as per the device cache");
+                }
+                return null;
+            }
             try {
                 DeviceManagementDAOFactory.openConnection();
+                long loadStartTime = System.nanoTime();
                 device = deviceDAO.getDevice(deviceId, tenantId);
+                deviceCacheManager.recordLoadTime(System.nanoTime() - loadStartTime);
                 if (device == null) {
                     String msg = "No device is found upon the type '" + deviceId.getType() + "' and id '" +
                             deviceId.getId() + "'";
                     if (log.isDebugEnabled()) {
                         log.debug(msg);
                     }
+                    deviceCacheManager.addNonExistentDeviceToCache(deviceId, tenantId);
                     return null;
                 }
             } catch (DeviceManagementDAOException e) {
@@ -2532,6 +2572,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 .getNextPendingOperation(deviceId, notNowOperationFrequency);
     }
 
+    @Override
+    public Operation getNextPendingOperation(DeviceIdentifier deviceId, long notNowOperationFrequency,
+                                             long waitTimeMills) throws OperationManagementException {
+        return pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId())
+                .getNextPendingOperation(deviceId, notNowOperationFrequency, waitTimeMills);
+    }
+
     @Override
     public void updateOperation(DeviceIdentifier deviceId, Operation operation) throws OperationManagementException {
         pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId())
@@ -2568,6 +2615,14 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 //        }
     }
 
+    @Override
+    public int updatePendingOperationsStatus(String deviceType, List<Integer> enrolmentIds,
+                                             List<String> operationCodes, Operation.Status status)
+            throws OperationManagementException {
+        return pluginRepository.getOperationManager(deviceType, this.getTenantId())
+                .updatePendingOperationsStatus(enrolmentIds, operationCodes, status);
+    }
+
     @Override
     public void updateOperation(Device device, Operation operation) throws OperationManagementException {
         try {
@@ -2629,7 +2684,11 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             }
             return false;
         }
-        return deviceManager.updateDeviceProperties(deviceId, properties);
+        boolean isUpdated = deviceManager.updateDeviceProperties(deviceId, properties);
+        if (isUpdated) {
+            invalidateNotificationStrategy(deviceId);
+        }
+        return isUpdated;
     }
 
     @Override
@@ -3475,7 +3534,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         }
         boolean isDeviceUpdated;
         this.removeDeviceFromCache(deviceIdentifier);
-        Device device = getDevice(deviceIdentifier, false);
+        Device device = getDevice(deviceIdentifier, false, false);
         int deviceId = device.getId();
         EnrolmentInfo enrolmentInfo = device.getEnrolmentInfo();
         if (enrolmentInfo.getStatus().equals(newStatus)) {
@@ -3984,6 +4043,32 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
 
     public void removeDeviceFromCache(DeviceIdentifier deviceIdentifier) {
         DeviceCacheManagerImpl.getInstance().removeDeviceFromCache(deviceIdentifier, this.getTenantId());
+        invalidateNotificationStrategy(deviceIdentifier);
+    }
+
+    /**
+     * Notify the push notification strategy of the device type that the device is changed, so that it discards the
+     * device data it has cached.
+     *
+     * @param deviceIdentifier {@link DeviceIdentifier} of the changed device
+     */
+    private void invalidateNotificationStrategy(DeviceIdentifier deviceIdentifier) {
+        if (deviceIdentifier == null || deviceIdentifier.getType() == null) {
+            return;
+        }
+        OperationManager operationManager = pluginRepository.getOperationManager(deviceIdentifier.getType(),
+                this.getTenantId());
+        if (operationManager != null) {
+            NotificationStrategy notificationStrategy = operationManager.getNotificationStrategy();
+            if (notificationStrategy != null) {
+                try {
+                    notificationStrategy.invalidate(deviceIdentifier);
+                } catch (RuntimeException e) {
+                    log.warn("Error occurred while invalidating push notification data of device '"
+                            + deviceIdentifier.getId() + "' of type '" + deviceIdentifier.getType() + "'", e);
+                }
+            }
+        }
     }
 
     private void updateDeviceInCache(DeviceIdentifier deviceIdentifier, Device device) {
@@ -4956,6 +5041,70 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         }
     }
 
+    @Override
+    public Map<DeviceIdentifier, Device> getDevices(List<DeviceIdentifier> deviceIdentifiers)
+            throws DeviceManagementException {
+        if (deviceIdentifiers == null) {
+            String msg = "Received null device identifier list for method getDevices";
+            log.error(msg);
+            throw new DeviceManagementException(msg);
+        }
+        int tenantId = this.getTenantId();
+        DeviceCacheManagerImpl deviceCacheManager = DeviceCacheManagerImpl.getInstance();
+        Map<DeviceIdentifier, Device> devices = deviceCacheManager.getDevicesFromCache(deviceIdentifiers, tenantId);
+        Set<DeviceIdentifier> unresolvedDeviceIds = new HashSet<>();
+        Set<String> unresolvedIdentifiers = new HashSet<>();
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            if (!devices.containsKey(deviceIdentifier)
+                    && !deviceCacheManager.isNonExistentDevice(deviceIdentifier, tenantId)) {
+                unresolvedDeviceIds.add(deviceIdentifier);
+                unresolvedIdentifiers.add(deviceIdentifier.getId());
+            }
+        }
+        if (unresolvedIdentifiers.isEmpty()) {
+            return devices;
+        }
+        List<String> identifiers = new ArrayList<>(unresolvedIdentifiers);
+        Map<DeviceIdentifier, Device> loadedDevices = new HashMap<>();
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            long loadStartTime = System.nanoTime();
+            for (int start = 0; start < identifiers.size(); start += DEVICE_LOOKUP_BATCH_SIZE) {
+                List<String> batch = identifiers.subList(start,
+                        Math.min(start + DEVICE_LOOKUP_BATCH_SIZE, identifiers.size()));
+                // Rows are ordered by the latest enrolment first, hence the first row of each identifier and type
+                // is the same enrolment that getDevice(DeviceIdentifier, boolean) would return.
+                for (Device device : deviceDAO.getDevicesByIdentifiers(batch, tenantId)) {
+                    DeviceIdentifier deviceIdentifier =
+                            new DeviceIdentifier(device.getDeviceIdentifier(), device.getType());
+                    if (unresolvedDeviceIds.contains(deviceIdentifier)
+                            && !loadedDevices.containsKey(deviceIdentifier)) {
+                        loadedDevices.put(deviceIdentifier, device);
+                    }
+                }
+            }
+            deviceCacheManager.recordLoadTime(System.nanoTime() - loadStartTime);
+        } catch (DeviceManagementDAOException e) {
+            String msg = "Error occurred while retrieving devices for the given device identifiers.";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        deviceCacheManager.addDevicesToCache(loadedDevices, tenantId);
+        for (DeviceIdentifier deviceIdentifier : unresolvedDeviceIds) {
+            if (!loadedDevices.containsKey(deviceIdentifier)) {
+                deviceCacheManager.addNonExistentDeviceToCache(deviceIdentifier, tenantId);
+            }
+        }
+        devices.putAll(loadedDevices);
+        return devices;
+    }
+
     @Override
     public DeviceEnrollmentInvitationDetails getDeviceEnrollmentInvitationDetails(String deviceType) {
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
@@ -4981,7 +5130,7 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
             throw new BadRequestException(msg);
         }
 
-        Device device = getDevice(deviceIdentifier, false);
+        Device device = getDevice(deviceIdentifier, false, false);
         if (device == null) {
             String msg = "Couldn't find and device for device identifier " + deviceIdentifier;
             log.error(msg);
@@ -289,6 +289,20 @@ public interface GroupManagementProviderService {
     List<Device> getAllDevicesOfGroup(String groupName, List<String> deviceStatuses, boolean requireDeviceProps)
             throws GroupManagementException;
 
+    /**
+     * Get a page of the devices that are in one of the given device status and belongs to given group, ordered by
+     * the device id.
+     *
+     * @param groupName Group name.
+     * @param deviceStatuses Device statuses list.
+     * @param lastDeviceId Id of the last device of the previous page, or 0 to get the first page.
+     * @param limit Maximum number of devices of the page.
+     * @return List of devices in group.
+     * @throws GroupManagementException if error occurred while fetching devices
+     */
+    List<Device> getDevicesOfGroup(String groupName, List<String> deviceStatuses, int lastDeviceId, int limit)
+            throws GroupManagementException;
+
     /**
      * This method is used to retrieve the device count of a given group.
      *
@@ -1233,6 +1233,25 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
         return devices;
     }
 
+    @Override
+    public List<Device> getDevicesOfGroup(String groupName, List<String> deviceStatuses, int lastDeviceId, int limit)
+            throws GroupManagementException {
+        if (log.isDebugEnabled()) {
+            log.debug("Group devices of group: " + groupName + " after device " + lastDeviceId + " limit " + limit);
+        }
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            GroupManagementDAOFactory.openConnection();
+            return this.groupDAO.getDevicesOfGroup(groupName, deviceStatuses, lastDeviceId, limit, tenantId);
+        } catch (GroupManagementDAOException | SQLException e) {
+            String msg = "Error occurred while getting a page of devices in group " + groupName;
+            log.error(msg, e);
+            throw new GroupManagementException(msg, e);
+        } finally {
+            GroupManagementDAOFactory.closeConnection();
+        }
+    }
+
     /**
      * Load Dice properties of given list of devices
      *
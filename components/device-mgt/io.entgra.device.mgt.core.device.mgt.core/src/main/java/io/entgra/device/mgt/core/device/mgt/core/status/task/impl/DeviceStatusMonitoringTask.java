@@ -21,6 +21,7 @@ package io.entgra.device.mgt.core.device.mgt.core.status.task.impl;
 import com.google.gson.Gson;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.MetadataManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.metadata.mgt.DeviceStatusManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.dao.EnrollmentDAO;
 import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,6 +29,7 @@ import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceStatusTaskPluginConfig;
 import io.entgra.device.mgt.core.device.mgt.common.DynamicTaskContext;
 import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceMonitoringData;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.DeviceManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
@@ -36,24 +38,35 @@ import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOExceptio
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
 import io.entgra.device.mgt.core.device.mgt.core.status.task.DeviceStatusTaskException;
 import io.entgra.device.mgt.core.device.mgt.core.task.impl.DynamicPartitionedScheduleTask;
-import org.wso2.carbon.context.CarbonContext;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.service.RealmService;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This implements the Task service which monitors the device activity periodically & update the device-status if
- * necessary.
+ * necessary. Each run only looks up the devices which crossed an idle threshold since the previous run, by the time
+ * the devices were last seen, and the statuses are updated with set-based statements per tenant. Hence, the cost of a
+ * run is proportional to the number of status transitions rather than the size of the fleet. Every
+ * {@value #FULL_SCAN_INTERVAL} runs, and on the first run on a node, all the idle devices are looked up to pick the
+ * devices of which the status was changed behind the last seen time, e.g. by an administrator.
  */
 public class DeviceStatusMonitoringTask extends DynamicPartitionedScheduleTask {
 
     private static final Log log = LogFactory.getLog(DeviceStatusMonitoringTask.class);
+    private static final int FULL_SCAN_INTERVAL = 24;
+    /* Idle thresholds up to which each device type partition is monitored, kept across the task instances */
+    private static final Map<String, Watermark> watermarks = new ConcurrentHashMap<>();
     private String deviceType;
     private int deviceTypeId = -1;
 
@@ -61,19 +74,23 @@ public class DeviceStatusMonitoringTask extends DynamicPartitionedScheduleTask {
     protected void setup() {
     }
 
-    public List<DeviceMonitoringData> getAllDevicesForMonitoring() throws DeviceManagementException {
-
+    /**
+     * Get the devices of which the latest active or unreachable enrolment has to transit to another status.
+     *
+     * @param statuses       current statuses of the enrolments to be transited
+     * @param lastSeenBefore devices last seen at or before this time are looked up
+     * @param lastSeenAfter  devices last seen after this time are looked up, or null to look up from the beginning
+     * @return devices along with the enrolments to be transited
+     * @throws DeviceManagementException if the devices cannot be retrieved
+     */
+    public List<DeviceMonitoringData> getDevicesForStatusTransition(List<EnrolmentInfo.Status> statuses,
+                                                                    Timestamp lastSeenBefore, Timestamp lastSeenAfter)
+            throws DeviceManagementException {
         try {
             DeviceManagementDAOFactory.openConnection();
-            DynamicTaskContext ctx = getTaskContext();
-            if (ctx != null && ctx.isPartitioningEnabled()) {
-                return DeviceManagementDAOFactory.getDeviceDAO()
-                        .getAllDevicesForMonitoring(this.deviceTypeId, this.deviceType,
-                                ctx.getActiveServerCount(), ctx.getServerHashIndex());
-            } else {
-                return DeviceManagementDAOFactory.getDeviceDAO()
-                        .getAllDevicesForMonitoring(this.deviceTypeId, this.deviceType, -1, -1);
-            }
+            return DeviceManagementDAOFactory.getDeviceDAO()
+                    .getDevicesForStatusTransition(this.deviceTypeId, this.deviceType, statuses,
+                            lastSeenBefore, lastSeenAfter, getTaskPartition());
         } catch (DeviceManagementDAOException e) {
             String msg = "Error occurred while retrieving devices list for monitoring.";
             log.error(msg, e);
@@ -94,62 +111,51 @@ public class DeviceStatusMonitoringTask extends DynamicPartitionedScheduleTask {
         String deviceStatusTaskConfigStr = getProperty(DeviceStatusTaskManagerServiceImpl.DEVICE_STATUS_TASK_CONFIG);
         Gson gson = new Gson();
         DeviceStatusTaskPluginConfig deviceStatusTaskPluginConfig = gson.fromJson(deviceStatusTaskConfigStr, DeviceStatusTaskPluginConfig.class);
+        long timeMillis = System.currentTimeMillis();
+        Timestamp inactiveBefore = new Timestamp(
+                timeMillis - deviceStatusTaskPluginConfig.getIdleTimeToMarkInactive() * 1000L);
+        Timestamp unreachableBefore = new Timestamp(
+                timeMillis - deviceStatusTaskPluginConfig.getIdleTimeToMarkUnreachable() * 1000L);
+        String watermarkKey = getWatermarkKey();
+        Watermark previous = watermarks.get(watermarkKey);
+        boolean isFullScan = previous == null || previous.incrementalRuns >= FULL_SCAN_INTERVAL
+                || previous.idleTimeToMarkInactive != deviceStatusTaskPluginConfig.getIdleTimeToMarkInactive()
+                || previous.idleTimeToMarkUnreachable != deviceStatusTaskPluginConfig.getIdleTimeToMarkUnreachable();
         try {
-            List<EnrolmentInfo> enrolmentInfoTobeUpdated = new ArrayList<>();
-            List<DeviceMonitoringData> allDevicesForMonitoring = getAllDevicesForMonitoring();
-            Map<Integer, List<DeviceMonitoringData>> tenantDevicesMap = new HashMap<>();
-            List<DeviceMonitoringData> tenantMonitoringData = null;
             //Delegate the devices in each tenant to a separate list to be updated the statuses.
             //This improvement has been done since the tenants maintain a separate caches and the task is running
             //in the super-tenant space. Hence, the device status updates are not reflected in the tenant caches.
             //Refer to https://roadmap.entgra.net/issues/11386 for more information.
-            for (DeviceMonitoringData deviceMonitoringData : allDevicesForMonitoring) {
-                tenantMonitoringData = tenantDevicesMap.get(deviceMonitoringData.getTenantId());
-                if (tenantMonitoringData == null) {
-                    tenantMonitoringData = new ArrayList<>();
-                }
-                tenantMonitoringData.add(deviceMonitoringData);
-                tenantDevicesMap.put(deviceMonitoringData.getTenantId(), tenantMonitoringData);
+            Map<Integer, Map<EnrolmentInfo.Status, List<DeviceMonitoringData>>> tenantTransitions = new HashMap<>();
+            // Devices idle for the inactive threshold are marked inactive regardless of being unreachable before
+            addTransitions(tenantTransitions, EnrolmentInfo.Status.INACTIVE, getDevicesForStatusTransition(
+                    Arrays.asList(EnrolmentInfo.Status.ACTIVE, EnrolmentInfo.Status.UNREACHABLE), inactiveBefore,
+                    isFullScan ? null : previous.inactiveBefore));
+            if (unreachableBefore.after(inactiveBefore)) {
+                Timestamp unreachableAfter = isFullScan || previous.unreachableBefore.before(inactiveBefore) ?
+                        inactiveBefore : previous.unreachableBefore;
+                addTransitions(tenantTransitions, EnrolmentInfo.Status.UNREACHABLE, getDevicesForStatusTransition(
+                        Collections.singletonList(EnrolmentInfo.Status.ACTIVE), unreachableBefore,
+                        unreachableAfter));
             }
 
-            List<DeviceMonitoringData> monitoringDevices = null;
-            long timeMillis = System.currentTimeMillis();
-            //Retrieving the devices belongs for each tenants and updating the status of the devices.
-            for (Map.Entry<Integer, List<DeviceMonitoringData>> entry : tenantDevicesMap.entrySet()) {
+            boolean isUpdated = true;
+            RealmService realmService = DeviceManagementDataHolder.getInstance().getRealmService();
+            //Updating the statuses of the devices which belong to each tenant.
+            for (Map.Entry<Integer, Map<EnrolmentInfo.Status, List<DeviceMonitoringData>>> entry :
+                    tenantTransitions.entrySet()) {
                 Integer tenantId = entry.getKey();
-                RealmService realmService = DeviceManagementDataHolder.getInstance().getRealmService();
                 if (realmService != null) {
                     String domain = realmService.getTenantManager().getDomain(tenantId);
                     if (domain != null) {
                         try {
                             PrivilegedCarbonContext.startTenantFlow();
                             PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(domain, true);
-                            monitoringDevices = entry.getValue();
-                            for (DeviceMonitoringData monitoringData : monitoringDevices) {
-                                long lastUpdatedTime = (timeMillis - monitoringData
-                                        .getLastUpdatedTime()) / 1000;
-
-                                EnrolmentInfo enrolmentInfo = monitoringData.getDevice().getEnrolmentInfo();
-                                EnrolmentInfo.Status status = null;
-                                if (lastUpdatedTime >= deviceStatusTaskPluginConfig
-                                        .getIdleTimeToMarkInactive()) {
-                                    status = EnrolmentInfo.Status.INACTIVE;
-                                } else if (lastUpdatedTime >= deviceStatusTaskPluginConfig
-                                        .getIdleTimeToMarkUnreachable()) {
-                                    status = EnrolmentInfo.Status.UNREACHABLE;
-                                }
-
-                                if (status != null) {
-                                    enrolmentInfo.setStatus(status);
-                                    enrolmentInfoTobeUpdated.add(enrolmentInfo);
-                                    DeviceIdentifier deviceIdentifier =
-                                            new DeviceIdentifier(monitoringData.getDevice()
-                                                    .getDeviceIdentifier(), deviceType);
-                                    monitoringData.getDevice().setEnrolmentInfo(enrolmentInfo);
-                                    DeviceCacheManagerImpl.getInstance().addDeviceToCache(deviceIdentifier,
-                                            monitoringData.getDevice(), monitoringData.getTenantId());
-                                }
-                            }
+                            this.updateDeviceStatus(tenantId, entry.getValue());
+                        } catch (DeviceStatusTaskException e) {
+                            isUpdated = false;
+                            log.error("Error occurred while updating non-responsive " +
+                                    "device-status of devices of type '" + deviceType + "' of tenant " + tenantId, e);
                         } finally {
                             PrivilegedCarbonContext.endTenantFlow();
                         }
@@ -158,16 +164,14 @@ public class DeviceStatusMonitoringTask extends DynamicPartitionedScheduleTask {
                                 "extracting tenant domain of the tenant id : " + tenantId);
                     }
                 } else {
+                    isUpdated = false;
                     log.error("Failed while running the device status update task. RealmService is not initiated");
                 }
             }
-            if (!enrolmentInfoTobeUpdated.isEmpty()) {
-                try {
-                    this.updateDeviceStatus(enrolmentInfoTobeUpdated);
-                } catch (DeviceStatusTaskException e) {
-                    log.error("Error occurred while updating non-responsive " +
-                            "device-status of devices of type '" + deviceType + "'", e);
-                }
+            // The watermark is not moved if a tenant failed, hence the same devices are looked up on the next run
+            if (isUpdated) {
+                watermarks.put(watermarkKey, new Watermark(inactiveBefore, unreachableBefore,
+                        deviceStatusTaskPluginConfig, isFullScan ? 0 : previous.incrementalRuns + 1));
             }
         } catch (DeviceManagementException e) {
             String msg = "Error occurred while retrieving devices list for monitoring.";
@@ -178,26 +182,50 @@ public class DeviceStatusMonitoringTask extends DynamicPartitionedScheduleTask {
         }
     }
 
+    private TaskPartition getTaskPartition() {
+        DynamicTaskContext ctx = getTaskContext();
+        if (ctx != null && ctx.isPartitioningEnabled()) {
+            return ctx.getTaskPartition();
+        }
+        return null;
+    }
+
+    private String getWatermarkKey() {
+        TaskPartition partition = getTaskPartition();
+        if (partition != null) {
+            return deviceTypeId + "|" + partition;
+        }
+        return String.valueOf(deviceTypeId);
+    }
+
+    private void addTransitions(Map<Integer, Map<EnrolmentInfo.Status, List<DeviceMonitoringData>>> tenantTransitions,
+                                EnrolmentInfo.Status status, List<DeviceMonitoringData> devices) {
+        for (DeviceMonitoringData deviceMonitoringData : devices) {
+            tenantTransitions.computeIfAbsent(deviceMonitoringData.getTenantId(),
+                    tenantId -> new EnumMap<>(EnrolmentInfo.Status.class))
+                    .computeIfAbsent(status, ignored -> new ArrayList<>()).add(deviceMonitoringData);
+        }
+    }
 
-    private boolean updateDeviceStatus(List<EnrolmentInfo> enrolmentInfos) throws
-            DeviceStatusTaskException {
-        boolean updateStatus;
-        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+    private void updateDeviceStatus(int tenantId, Map<EnrolmentInfo.Status, List<DeviceMonitoringData>> transitions)
+            throws DeviceStatusTaskException {
         DeviceStatusManagementService deviceStatusManagementService = DeviceManagementDataHolder
                 .getInstance().getDeviceStatusManagementService();
         try {
             DeviceManagementDAOFactory.beginTransaction();
-            updateStatus = DeviceManagementDAOFactory.getEnrollmentDAO().updateEnrollmentStatus(enrolmentInfos);
+            EnrollmentDAO enrollmentDAO = DeviceManagementDAOFactory.getEnrollmentDAO();
             boolean isEnableDeviceStatusCheck = deviceStatusManagementService.getDeviceStatusCheck(tenantId);
-            if (updateStatus) {
-                for (EnrolmentInfo enrolmentInfo : enrolmentInfos) {
-                    if (isEnableDeviceStatusCheck) {
-                        if (deviceStatusManagementService.isDeviceStatusValid(this.deviceType, enrolmentInfo.getStatus().name(), tenantId)) {
-                            DeviceManagementDAOFactory.getEnrollmentDAO().addDeviceStatus(enrolmentInfo);
-                        }
-                    } else {
-                        DeviceManagementDAOFactory.getEnrollmentDAO().addDeviceStatus(enrolmentInfo);
-                    }
+            for (Map.Entry<EnrolmentInfo.Status, List<DeviceMonitoringData>> entry : transitions.entrySet()) {
+                EnrolmentInfo.Status status = entry.getKey();
+                List<Integer> enrolmentIds = new ArrayList<>(entry.getValue().size());
+                for (DeviceMonitoringData monitoringData : entry.getValue()) {
+                    enrolmentIds.add(monitoringData.getDevice().getEnrolmentInfo().getId());
+                }
+                if (enrollmentDAO.updateEnrollmentStatus(enrolmentIds, status, tenantId) > 0 &&
+                        (!isEnableDeviceStatusCheck ||
+                                deviceStatusManagementService.isDeviceStatusValid(this.deviceType, status.name(),
+                                        tenantId))) {
+                    enrollmentDAO.addDeviceStatus(enrolmentIds, status, tenantId);
                 }
             }
             DeviceManagementDAOFactory.commitTransaction();
@@ -211,7 +239,33 @@ public class DeviceStatusMonitoringTask extends DynamicPartitionedScheduleTask {
         } finally {
             DeviceManagementDAOFactory.closeConnection();
         }
-        return updateStatus;
+
+        for (Map.Entry<EnrolmentInfo.Status, List<DeviceMonitoringData>> entry : transitions.entrySet()) {
+            for (DeviceMonitoringData monitoringData : entry.getValue()) {
+                monitoringData.getDevice().getEnrolmentInfo().setStatus(entry.getKey());
+                DeviceIdentifier deviceIdentifier = new DeviceIdentifier(monitoringData.getDevice()
+                        .getDeviceIdentifier(), deviceType);
+                DeviceCacheManagerImpl.getInstance().addDeviceToCache(deviceIdentifier,
+                        monitoringData.getDevice(), tenantId);
+            }
+        }
+    }
+
+    private static class Watermark {
+        private final Timestamp inactiveBefore;
+        private final Timestamp unreachableBefore;
+        private final int idleTimeToMarkInactive;
+        private final int idleTimeToMarkUnreachable;
+        private final int incrementalRuns;
+
+        private Watermark(Timestamp inactiveBefore, Timestamp unreachableBefore,
+                          DeviceStatusTaskPluginConfig deviceStatusTaskPluginConfig, int incrementalRuns) {
+            this.inactiveBefore = inactiveBefore;
+            this.unreachableBefore = unreachableBefore;
+            this.idleTimeToMarkInactive = deviceStatusTaskPluginConfig.getIdleTimeToMarkInactive();
+            this.idleTimeToMarkUnreachable = deviceStatusTaskPluginConfig.getIdleTimeToMarkUnreachable();
+            this.incrementalRuns = incrementalRuns;
+        }
     }
 
 }
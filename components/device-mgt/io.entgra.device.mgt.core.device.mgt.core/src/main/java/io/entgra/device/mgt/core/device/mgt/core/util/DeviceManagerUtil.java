@@ -567,9 +567,46 @@ public final class DeviceManagerUtil {
         return deviceIDHolder;
     }
 
+    /**
+     * Validate device identifiers against devices which were already resolved in bulk, so that no further lookups
+     * are needed per device.
+     *
+     * @param deviceIDs device identifiers to be validated
+     * @param devices   devices resolved for the given identifiers, keyed by device identifier
+     * @return {@link DeviceIDHolder} carrying valid and invalid device identifiers
+     */
+    public static DeviceIDHolder validateDeviceIdentifiers(List<DeviceIdentifier> deviceIDs,
+                                                           Map<DeviceIdentifier, Device> devices) {
+        List<DeviceIdentifier> errorDeviceIdList = new ArrayList<>();
+        List<DeviceIdentifier> validDeviceIDList = new ArrayList<>();
+        for (DeviceIdentifier deviceIdentifier : deviceIDs) {
+            String deviceID = deviceIdentifier.getId();
+            if (deviceID == null || deviceID.isEmpty()) {
+                log.warn("When adding operation for devices, found a device identifiers which doesn't have defined "
+                        + "the identity of the device, with the request. Hence ignoring the device identifier.");
+                continue;
+            }
+            if (isValidDevice(devices.get(deviceIdentifier))) {
+                validDeviceIDList.add(deviceIdentifier);
+            } else {
+                errorDeviceIdList.add(deviceIdentifier);
+            }
+        }
+
+        DeviceIDHolder deviceIDHolder = new DeviceIDHolder();
+        deviceIDHolder.setValidDeviceIDList(validDeviceIDList);
+        deviceIDHolder.setErrorDeviceIdList(errorDeviceIdList);
+
+        return deviceIDHolder;
+    }
+
     public static boolean isValidDeviceIdentifier(DeviceIdentifier deviceIdentifier) throws DeviceManagementException {
         Device device = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().getDevice(deviceIdentifier,
                 false);
+        return isValidDevice(device);
+    }
+
+    private static boolean isValidDevice(Device device) {
         if (device == null || device.getDeviceIdentifier() == null ||
                 device.getDeviceIdentifier().isEmpty() || device.getEnrolmentInfo() == null) {
             return false;
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.archival;
+
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.ArchivalDAO;
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.ArchivalDAOException;
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.ArchivalDestinationDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.ArchivalSourceDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.ArchivalTable;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests how {@link ArchivalServiceImpl} walks the tables in batches and splits them between the archival workers.
+ */
+public class ArchivalServiceImplTest extends BaseDeviceManagementTest {
+
+    private static final List<ArchivalTable> OPERATION_TABLES = Arrays.asList(
+            ArchivalTable.OPERATION_RESPONSE_LARGE, ArchivalTable.OPERATION_RESPONSE,
+            ArchivalTable.ENROLMENT_OP_MAPPING, ArchivalTable.OPERATION);
+
+    private int batchSize;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        ArchivalSourceDAOFactory.init(this.getDataSource());
+        ArchivalDestinationDAOFactory.init(this.getDataSource());
+        this.batchSize = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getArchivalConfiguration().getArchivalTaskConfiguration().getBatchSize();
+    }
+
+    @Test
+    public void testBatchSizeAdaptsToFailures() throws Exception {
+        int recordCount = this.batchSize * 5 / 2;
+        TestArchivalDAO archivalDAO = new TestArchivalDAO(recordCount, ArchivalTable.NOTIFICATION, 1);
+        new ArchivalServiceImpl(archivalDAO, null).archiveTransactionalRecords();
+
+        // The failed batch is retried with half the size, and the size doubles back with the next batch
+        Assert.assertEquals(archivalDAO.getBatchSizes(ArchivalTable.NOTIFICATION), Arrays.asList(
+                this.batchSize, this.batchSize / 2, this.batchSize, this.batchSize, this.batchSize));
+        Assert.assertEquals(archivalDAO.getAfterIds(ArchivalTable.NOTIFICATION), Arrays.asList(
+                0, 0, this.batchSize / 2, this.batchSize * 3 / 2, recordCount));
+        for (ArchivalTable table : OPERATION_TABLES) {
+            Assert.assertEquals(archivalDAO.getBatchSizes(table), Collections.nCopies(4, this.batchSize));
+            Assert.assertEquals(archivalDAO.getAfterIds(table), Arrays.asList(
+                    0, this.batchSize, this.batchSize * 2, recordCount));
+        }
+        for (ArchivalTable table : ArchivalTable.values()) {
+            Assert.assertEquals(archivalDAO.getRemovedCount(table), recordCount,
+                    "Not all the records of " + table.getTableName() + " are removed.");
+        }
+    }
+
+    @Test
+    public void testArchivalAbortsAfterRepeatedFailures() {
+        TestArchivalDAO archivalDAO = new TestArchivalDAO(this.batchSize, ArchivalTable.NOTIFICATION,
+                Integer.MAX_VALUE);
+        try {
+            new ArchivalServiceImpl(archivalDAO, null).archiveTransactionalRecords();
+            Assert.fail("Archival is not aborted.");
+        } catch (ArchivalException e) {
+            Assert.assertEquals(archivalDAO.getBatchSizes(ArchivalTable.NOTIFICATION), Arrays.asList(
+                    this.batchSize, this.batchSize / 2, this.batchSize / 4, this.batchSize / 8));
+        }
+        Assert.assertEquals(archivalDAO.getRemovedCount(ArchivalTable.NOTIFICATION), 0);
+    }
+
+    @Test
+    public void testTablesAreSplitBetweenTwoWorkers() throws Exception {
+        TestArchivalDAO archivalDAO = new TestArchivalDAO(this.batchSize, null, 0);
+        new ArchivalServiceImpl(archivalDAO, null).archiveTransactionalRecords();
+
+        Assert.assertTrue(archivalDAO.isConcurrent(), "Workers did not archive at the same time.");
+        Assert.assertEquals(archivalDAO.getTableOrder(), OPERATION_TABLES,
+                "Operation tables are not archived in the order of their references.");
+        String operationWorker = archivalDAO.getWorker(ArchivalTable.OPERATION);
+        for (ArchivalTable table : OPERATION_TABLES) {
+            Assert.assertEquals(archivalDAO.getWorker(table), operationWorker,
+                    table.getTableName() + " is archived by another worker.");
+        }
+        Assert.assertNotEquals(archivalDAO.getWorker(ArchivalTable.NOTIFICATION), operationWorker,
+                "Notifications are archived by the worker of the operation tables.");
+    }
+
+    @Test
+    public void testTablesMissingInSourceAreSkipped() throws Exception {
+        TestArchivalDAO archivalDAO = new TestArchivalDAO(this.batchSize, null, 0,
+                ArchivalTable.OPERATION_RESPONSE_LARGE);
+        new ArchivalServiceImpl(archivalDAO, null).archiveTransactionalRecords();
+
+        Assert.assertEquals(archivalDAO.getTableOrder(), OPERATION_TABLES.subList(1, OPERATION_TABLES.size()));
+        Assert.assertTrue(archivalDAO.getBatchSizes(ArchivalTable.OPERATION_RESPONSE_LARGE).isEmpty());
+        Assert.assertEquals(archivalDAO.getRemovedCount(ArchivalTable.OPERATION_RESPONSE), this.batchSize);
+        Assert.assertEquals(archivalDAO.getRemovedCount(ArchivalTable.NOTIFICATION), this.batchSize);
+    }
+
+    /**
+     * Archival DAO over tables of sequential primary keys, which records how the tables are walked.
+     */
+    private static class TestArchivalDAO implements ArchivalDAO {
+
+        private final int recordCount;
+        private final ArchivalTable failingTable;
+        private final List<ArchivalTable> missingTables;
+        private int remainingFailures;
+        private final Map<ArchivalTable, List<Integer>> batchSizes = new ConcurrentHashMap<>();
+        private final Map<ArchivalTable, List<Integer>> afterIds = new ConcurrentHashMap<>();
+        private final Map<ArchivalTable, Integer> removedCounts = new ConcurrentHashMap<>();
+        private final Map<ArchivalTable, String> workers = new ConcurrentHashMap<>();
+        private final List<ArchivalTable> tableOrder = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch startedWorkers = new CountDownLatch(2);
+        private volatile boolean concurrent = true;
+
+        TestArchivalDAO(int recordCount, ArchivalTable failingTable, int failures, ArchivalTable... missingTables) {
+            this.recordCount = recordCount;
+            this.failingTable = failingTable;
+            this.remainingFailures = failures;
+            this.missingTables = Arrays.asList(missingTables);
+        }
+
+        @Override
+        public List<Integer> transferRecords(ArchivalTable table, int afterId, int batchSize, Timestamp time)
+                throws ArchivalDAOException {
+            if (workers.putIfAbsent(table, Thread.currentThread().getName()) == null) {
+                if (table != ArchivalTable.NOTIFICATION) {
+                    tableOrder.add(table);
+                }
+                if (table == ArchivalTable.NOTIFICATION || tableOrder.size() == 1) {
+                    // Both workers have to reach their first table before either of them continues
+                    startedWorkers.countDown();
+                    try {
+                        if (!startedWorkers.await(10, TimeUnit.SECONDS)) {
+                            concurrent = false;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ArchivalDAOException("Interrupted while waiting for the other worker", e);
+                    }
+                }
+            }
+            batchSizes.computeIfAbsent(table, t -> Collections.synchronizedList(new ArrayList<>())).add(batchSize);
+            afterIds.computeIfAbsent(table, t -> Collections.synchronizedList(new ArrayList<>())).add(afterId);
+            if (table == failingTable && remainingFailures > 0) {
+                remainingFailures--;
+                throw new ArchivalDAOException("Failing batch of " + table.getTableName());
+            }
+            List<Integer> ids = new ArrayList<>();
+            for (int id = afterId + 1; id <= recordCount && ids.size() < batchSize; id++) {
+                ids.add(id);
+            }
+            return ids;
+        }
+
+        @Override
+        public void removeRecords(ArchivalTable table, List<Integer> ids) {
+            removedCounts.merge(table, ids.size(), Integer::sum);
+        }
+
+        @Override
+        public boolean isArchivable(ArchivalTable table) {
+            return !missingTables.contains(table);
+        }
+
+        List<Integer> getBatchSizes(ArchivalTable table) {
+            return batchSizes.getOrDefault(table, Collections.emptyList());
+        }
+
+        List<Integer> getAfterIds(ArchivalTable table) {
+            return afterIds.getOrDefault(table, Collections.emptyList());
+        }
+
+        int getRemovedCount(ArchivalTable table) {
+            return removedCounts.getOrDefault(table, 0);
+        }
+
+        String getWorker(ArchivalTable table) {
+            return workers.get(table);
+        }
+
+        List<ArchivalTable> getTableOrder() {
+            return tableOrder;
+        }
+
+        boolean isConcurrent() {
+            return concurrent;
+        }
+    }
+}
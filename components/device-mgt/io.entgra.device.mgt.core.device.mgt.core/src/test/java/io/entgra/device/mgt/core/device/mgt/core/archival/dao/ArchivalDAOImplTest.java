@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.archival.dao;
+
+import io.entgra.device.mgt.core.device.mgt.core.archival.dao.impl.ArchivalDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the batched archival of the transactional records, using the test database as both the source and the
+ * archival database.
+ */
+public class ArchivalDAOImplTest extends BaseDeviceManagementTest {
+
+    private static final int RETENTION_PERIOD = 30;
+    private static final int BATCH_SIZE = 2;
+    private static final String DESCRIPTION = "ARCHIVAL-TEST-NOTIFICATION";
+
+    private ArchivalDAO archivalDAO;
+    private int deviceId;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        ArchivalSourceDAOFactory.init(this.getDataSource());
+        ArchivalDestinationDAOFactory.init(this.getDataSource());
+        this.archivalDAO = new ArchivalDAOImpl(RETENTION_PERIOD, BATCH_SIZE);
+        try (Connection conn = this.getDataSource().getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS DM_NOTIFICATION_ARCH (" +
+                    "NOTIFICATION_ID INTEGER NOT NULL, " +
+                    "DEVICE_ID INTEGER NOT NULL, " +
+                    "OPERATION_ID INTEGER NULL, " +
+                    "TENANT_ID INTEGER NOT NULL, " +
+                    "STATUS VARCHAR(10) NULL, " +
+                    "DESCRIPTION VARCHAR(1000) NULL, " +
+                    "ARCHIVED_AT TIMESTAMP DEFAULT NOW(), " +
+                    "PRIMARY KEY (NOTIFICATION_ID))");
+            try (ResultSet rs = stmt.executeQuery("SELECT MIN(ID) FROM DM_DEVICE")) {
+                Assert.assertTrue(rs.next());
+                this.deviceId = rs.getInt(1);
+            }
+        }
+        Assert.assertTrue(this.deviceId > 0, "No device to add the test notifications to.");
+    }
+
+    @Test
+    public void testRecordsAreArchivedInPrimaryKeyBatches() throws Exception {
+        Timestamp expired = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RETENTION_PERIOD + 1));
+        List<Integer> expiredIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expiredIds.add(this.addNotification(expired));
+        }
+        int retainedId = this.addNotification(new Timestamp(System.currentTimeMillis()));
+
+        List<Integer> archivedIds = this.archive();
+
+        Assert.assertTrue(archivedIds.containsAll(expiredIds), "Expired records are not archived.");
+        Assert.assertFalse(archivedIds.contains(retainedId), "Record within the retention period is archived.");
+        for (Integer id : expiredIds) {
+            Assert.assertFalse(this.isInSource(id), "Archived record is not removed from the source table.");
+            Assert.assertEquals(this.getArchivedCount(id), 1);
+        }
+        Assert.assertTrue(this.isInSource(retainedId), "Retained record is removed from the source table.");
+    }
+
+    @Test(dependsOnMethods = "testRecordsAreArchivedInPrimaryKeyBatches")
+    public void testBatchIsArchivedOnceAfterFailedRemoval() throws Exception {
+        Timestamp expired = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RETENTION_PERIOD + 1));
+        List<Integer> expiredIds = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            expiredIds.add(this.addNotification(expired));
+        }
+        // The archived copies are committed while the removal from the source is rolled back
+        try {
+            ArchivalSourceDAOFactory.beginTransaction();
+            ArchivalDestinationDAOFactory.beginTransaction();
+            List<Integer> ids = this.archivalDAO.transferRecords(ArchivalTable.NOTIFICATION,
+                    expiredIds.get(0) - 1, BATCH_SIZE, new Timestamp(System.currentTimeMillis()));
+            Assert.assertEquals(ids, expiredIds);
+            this.archivalDAO.removeRecords(ArchivalTable.NOTIFICATION, ids);
+            ArchivalDestinationDAOFactory.commitTransaction();
+            ArchivalSourceDAOFactory.rollbackTransaction();
+        } finally {
+            ArchivalSourceDAOFactory.closeConnection();
+            ArchivalDestinationDAOFactory.closeConnection();
+        }
+        for (Integer id : expiredIds) {
+            Assert.assertTrue(this.isInSource(id), "Removal of the record is not rolled back.");
+        }
+
+        List<Integer> archivedIds = this.archive();
+
+        Assert.assertTrue(archivedIds.containsAll(expiredIds), "Records are not archived again.");
+        for (Integer id : expiredIds) {
+            Assert.assertFalse(this.isInSource(id), "Archived record is not removed from the source table.");
+            Assert.assertEquals(this.getArchivedCount(id), 1, "Record is archived more than once.");
+        }
+    }
+
+    /**
+     * Archives all archivable notifications the way the archival service does, verifying that each batch continues
+     * after the last record of the previous batch.
+     */
+    private List<Integer> archive() throws Exception {
+        List<Integer> archivedIds = new ArrayList<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int afterId = 0;
+        try {
+            ArchivalSourceDAOFactory.beginTransaction();
+            ArchivalDestinationDAOFactory.beginTransaction();
+            List<Integer> ids;
+            do {
+                ids = this.archivalDAO.transferRecords(ArchivalTable.NOTIFICATION, afterId, BATCH_SIZE, now);
+                Assert.assertTrue(ids.size() <= BATCH_SIZE, "Batch is larger than the batch size.");
+                for (Integer id : ids) {
+                    Assert.assertTrue(id > afterId, "Batch is not in the ascending order of the primary key.");
+                    afterId = id;
+                }
+                this.archivalDAO.removeRecords(ArchivalTable.NOTIFICATION, ids);
+                ArchivalDestinationDAOFactory.commitTransaction();
+                ArchivalSourceDAOFactory.commitTransaction();
+                archivedIds.addAll(ids);
+            } while (!ids.isEmpty());
+        } finally {
+            ArchivalSourceDAOFactory.closeConnection();
+            ArchivalDestinationDAOFactory.closeConnection();
+        }
+        return archivedIds;
+    }
+
+    private int addNotification(Timestamp lastUpdated) throws SQLException {
+        String sql = "INSERT INTO DM_NOTIFICATION (DEVICE_ID, OPERATION_ID, TENANT_ID, STATUS, DESCRIPTION, " +
+                "LAST_UPDATED_TIMESTAMP) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = this.getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, new String[]{"NOTIFICATION_ID"})) {
+            stmt.setInt(1, this.deviceId);
+            stmt.setInt(2, 1);
+            stmt.setInt(3, -1234);
+            stmt.setString(4, "NEW");
+            stmt.setString(5, DESCRIPTION);
+            stmt.setTimestamp(6, lastUpdated);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                Assert.assertTrue(rs.next());
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private boolean isInSource(int id) throws SQLException {
+        return this.count("SELECT COUNT(*) FROM DM_NOTIFICATION WHERE NOTIFICATION_ID = ?", id) > 0;
+    }
+
+    private int getArchivedCount(int id) throws SQLException {
+        return this.count("SELECT COUNT(*) FROM DM_NOTIFICATION_ARCH WHERE NOTIFICATION_ID = ?", id);
+    }
+
+    private int count(String sql, int id) throws SQLException {
+        try (Connection conn = this.getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
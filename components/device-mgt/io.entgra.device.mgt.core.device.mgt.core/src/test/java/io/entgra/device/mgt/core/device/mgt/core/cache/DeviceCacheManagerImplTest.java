@@ -37,7 +37,9 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /*
     Unit tests for DeviceCacheManagerImpl
@@ -127,4 +129,39 @@ public class DeviceCacheManagerImplTest extends BaseDeviceManagementTest {
         }
         deviceCacheManager.removeDevicesFromCache(deviceCacheKeyList);
     }
+
+    @Test(description = "test adding and getting devices from cache in bulk",
+            dependsOnMethods = {"testRemoveDevicesFromCache"})
+    public void testBulkDevicesInCache() {
+        Map<DeviceIdentifier, Device> deviceMap = new HashMap<>();
+        for (int i = 0; i < NO_OF_DEVICES; i++) {
+            deviceMap.put(deviceIds.get(i), devices.get(i));
+        }
+        deviceCacheManager.addDevicesToCache(deviceMap, MultitenantConstants.SUPER_TENANT_ID);
+        List<DeviceIdentifier> lookupIds = new ArrayList<>(deviceIds);
+        lookupIds.add(new DeviceIdentifier(DEVICE_ID_PREFIX + "NOT-CACHED", DEVICE_TYPE));
+        Map<DeviceIdentifier, Device> cachedDevices = deviceCacheManager.getDevicesFromCache(lookupIds,
+                MultitenantConstants.SUPER_TENANT_ID);
+        Assert.assertEquals(cachedDevices.size(), NO_OF_DEVICES, "Cached device count is not matching");
+        for (int i = 0; i < NO_OF_DEVICES; i++) {
+            Assert.assertEquals(cachedDevices.get(deviceIds.get(i)), devices.get(i),
+                    "Received device from cache is not matching with the saved device");
+        }
+        deviceCacheManager.removeDevicesFromCache(deviceCacheKeyList);
+    }
+
+    @Test(description = "test remembering non existent devices", dependsOnMethods = {"testBulkDevicesInCache"})
+    public void testNonExistentDeviceInCache() {
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier(DEVICE_ID_PREFIX + "NON-EXISTENT", DEVICE_TYPE);
+        Assert.assertFalse(deviceCacheManager.isNonExistentDevice(deviceIdentifier,
+                MultitenantConstants.SUPER_TENANT_ID));
+        deviceCacheManager.addNonExistentDeviceToCache(deviceIdentifier, MultitenantConstants.SUPER_TENANT_ID);
+        Assert.assertTrue(deviceCacheManager.isNonExistentDevice(deviceIdentifier,
+                MultitenantConstants.SUPER_TENANT_ID), "Non existent device is not remembered");
+        Device device = TestDataHolder.generateDummyDeviceData(deviceIdentifier);
+        deviceCacheManager.addDeviceToCache(deviceIdentifier, device, MultitenantConstants.SUPER_TENANT_ID);
+        Assert.assertFalse(deviceCacheManager.isNonExistentDevice(deviceIdentifier,
+                MultitenantConstants.SUPER_TENANT_ID), "Cached device is still marked as non existent");
+        deviceCacheManager.removeDeviceFromCache(deviceIdentifier, MultitenantConstants.SUPER_TENANT_ID);
+    }
 }
@@ -25,6 +25,7 @@ import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo.Status;
 import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceData;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
+import io.entgra.device.mgt.core.device.mgt.common.TaskPartition;
 import io.entgra.device.mgt.core.device.mgt.common.geo.service.GeoCoordinate;
 import io.entgra.device.mgt.core.device.mgt.common.geo.service.GeoQuery;
 import io.entgra.device.mgt.core.device.mgt.common.geo.service.GeoCluster;
@@ -43,6 +44,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -54,6 +56,9 @@ public class DevicePersistTests extends BaseDeviceManagementTest {
     DeviceTypeDAO deviceTypeDAO;
 
     private static final Log log = LogFactory.getLog(DevicePersistTests.class);
+    private static final String PARTITION_BUCKET_MIGRATION_SCRIPT = "../../../features/device-mgt/" +
+            "io.entgra.device.mgt.core.device.mgt.basics.feature/src/main/resources/dbscripts/cdm/migration/" +
+            "partition-bucket/h2.sql";
 
     @BeforeClass
     @Override
@@ -264,6 +269,26 @@ public class DevicePersistTests extends BaseDeviceManagementTest {
         }
     }
 
+    @Test(dependsOnMethods = "testAddDeviceTest")
+    public void getDevicesAfterEnrolmentTest() throws DeviceManagementDAOException {
+        Device device = TestDataHolder.initialTestDevice;
+        List<String> statuses = Collections.singletonList(Status.ACTIVE.name());
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            List<Device> retrieved = deviceDAO.getDevicesAfterEnrolment(device.getType(), statuses, 0, 10,
+                    TestDataHolder.SUPER_TENANT_ID, null);
+            Assert.assertEquals(retrieved.size(), 1, "Device count is not matched to expected.");
+            int lastEnrolmentId = retrieved.get(0).getEnrolmentInfo().getId();
+            retrieved = deviceDAO.getDevicesAfterEnrolment(device.getType(), statuses, lastEnrolmentId, 10,
+                    TestDataHolder.SUPER_TENANT_ID, null);
+            Assert.assertTrue(retrieved.isEmpty(), "Devices enrolled before the given enrolment are returned.");
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while opening a connection", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Test(dependsOnMethods = "testAddDeviceTest")
     public void recordDeviceUpdateTest() throws DeviceManagementDAOException, TransactionManagementException {
         Device device = TestDataHolder.initialTestDevice;
@@ -464,8 +489,21 @@ public class DevicePersistTests extends BaseDeviceManagementTest {
         Device device = TestDataHolder.initialTestDevice;
         try {
             DeviceManagementDAOFactory.beginTransaction();
-            List<Device> results = deviceDAO.getAllocatedDevices(device.getType(), TestDataHolder.SUPER_TENANT_ID, 1, 0);
+            List<Device> results = deviceDAO.getAllocatedDevices(device.getType(), TestDataHolder.SUPER_TENANT_ID,
+                    TaskPartition.of(1, 0));
             Assert.assertEquals(1, results.size(), "No device returned");
+            List<String> servers = new ArrayList<>();
+            servers.add("server-a");
+            servers.add("server-b");
+            int allocated = 0;
+            for (String server : servers) {
+                TaskPartition partition = TaskPartition.of(servers, server);
+                results = deviceDAO.getAllocatedDevices(device.getType(), TestDataHolder.SUPER_TENANT_ID, partition);
+                Assert.assertEquals(partition.contains(TaskPartition.getBucket(device.getId())),
+                        !results.isEmpty(), "Device is not allocated to the server owning its bucket");
+                allocated += results.size();
+            }
+            Assert.assertEquals(allocated, 1, "Device is not allocated to exactly one server");
             DeviceManagementDAOFactory.commitTransaction();
         } catch (DeviceManagementDAOException e) {
             throw new DeviceManagementDAOException("Error occurred while retrieving the device" + e);
@@ -474,6 +512,69 @@ public class DevicePersistTests extends BaseDeviceManagementTest {
         }
     }
 
+    @Test(dependsOnMethods = "testAddDeviceTest")
+    public void getAllocatedDevicesOfMigratedDevice() throws Exception {
+        Device device = TestDataHolder.initialTestDevice;
+        int tenantId = TestDataHolder.ALTERNATE_TENANT_ID_1;
+        int deviceId;
+        // a device enrolled before the partition buckets were introduced, which is left in the default bucket
+        try (Connection conn = getDataSource().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO DM_DEVICE(DESCRIPTION, NAME, " +
+                    "DEVICE_TYPE_ID, DEVICE_IDENTIFICATION, LAST_UPDATED_TIMESTAMP, TENANT_ID) " +
+                    "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, ?)", new String[]{"id"})) {
+                stmt.setString(1, "Device enrolled before the partition buckets");
+                stmt.setString(2, "migrated-device");
+                stmt.setInt(3, TestDataHolder.initialTestDeviceType.getId());
+                stmt.setString(4, "MIGRATED-DEVICE-ID");
+                stmt.setInt(5, tenantId);
+                stmt.executeUpdate();
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    Assert.assertTrue(rs.next(), "Device is not added");
+                    deviceId = rs.getInt(1);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO DM_ENROLMENT(DEVICE_ID, DEVICE_TYPE, " +
+                    "DEVICE_IDENTIFICATION, OWNER, OWNERSHIP, STATUS, DATE_OF_ENROLMENT, DATE_OF_LAST_UPDATE, " +
+                    "TENANT_ID) VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, ?)")) {
+                stmt.setInt(1, deviceId);
+                stmt.setString(2, device.getType());
+                stmt.setString(3, "MIGRATED-DEVICE-ID");
+                stmt.setString(4, TestDataHolder.OWNER);
+                stmt.setString(5, EnrolmentInfo.OwnerShip.BYOD.toString());
+                stmt.setString(6, Status.ACTIVE.toString());
+                stmt.setInt(7, tenantId);
+                stmt.executeUpdate();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("RUNSCRIPT FROM '" + PARTITION_BUCKET_MIGRATION_SCRIPT + "'");
+            }
+        }
+
+        List<String> servers = new ArrayList<>();
+        servers.add("server-a");
+        servers.add("server-b");
+        servers.add("server-c");
+        int allocated = 0;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            for (String server : servers) {
+                TaskPartition partition = TaskPartition.of(servers, server);
+                List<Device> results = deviceDAO.getAllocatedDevices(device.getType(), tenantId, partition);
+                Assert.assertEquals(!results.isEmpty(), partition.contains(TaskPartition.getBucket(deviceId)),
+                        "Migrated device is not allocated to the server owning its bucket");
+                allocated += results.size();
+            }
+            // the bucket of the device enrolled with the dao is not changed by the migration
+            List<Device> results = deviceDAO.getAllocatedDevices(device.getType(), TestDataHolder.SUPER_TENANT_ID,
+                    TaskPartition.of(servers, servers.get(0)));
+            Assert.assertEquals(!results.isEmpty(), TaskPartition.of(servers, servers.get(0))
+                    .contains(TaskPartition.getBucket(device.getId())), "Migration moved a device of another bucket");
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(allocated, 1, "Migrated device is not allocated to exactly one server");
+    }
+
     @Test(dependsOnMethods = "testAddDeviceTest")
     public void getDevicesOfUser() throws DeviceManagementDAOException, TransactionManagementException {
         try {
@@ -365,6 +365,38 @@ public class GroupPersistTests extends BaseDeviceManagementTest {
         }
     }
 
+    @Test(dependsOnMethods = {"addDeviceToGroupTest"})
+    public void getDevicesOfGroupPage() {
+        DeviceGroup deviceGroup = getGroupById(groupId);
+        Assert.assertNotNull(deviceGroup, "Group is null");
+        int initialTestDeviceId = TestDataHolder.initialTestDevice.getId();
+        List<String> deviceStatus = new ArrayList<>();
+        for (EnrolmentInfo.Status status : EnrolmentInfo.Status.values()) {
+            deviceStatus.add(status.name());
+        }
+        try {
+            GroupManagementDAOFactory.openConnection();
+            List<Device> firstPage = groupDAO.getDevicesOfGroup(deviceGroup.getName(), deviceStatus, 0, 1,
+                    TestDataHolder.SUPER_TENANT_ID);
+            List<Device> nextPage = groupDAO.getDevicesOfGroup(deviceGroup.getName(), deviceStatus,
+                    initialTestDeviceId, 10, TestDataHolder.SUPER_TENANT_ID);
+            Assert.assertTrue(firstPage.size() <= 1, "Page exceeds the limit");
+            for (Device device : nextPage) {
+                Assert.assertTrue(device.getId() > initialTestDeviceId, "Device before the last device is paged");
+            }
+        } catch (GroupManagementDAOException e) {
+            String msg = "Error occurred while getting a page of the devices of group '" + groupId + "'.";
+            log.error(msg, e);
+            Assert.fail(msg, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source.";
+            log.error(msg, e);
+            Assert.fail(msg, e);
+        } finally {
+            GroupManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Test(dependsOnMethods = {"addDeviceToGroupTest"})
     public void getAllDevicesOfGroup() {
         DeviceGroup deviceGroup = getGroupById(groupId);
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceInfo;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.annotations.Test;
+
+/**
+ * This class measures the throughput of the device information reports replayed by {@link DeviceInfoReportTests},
+ * with and without the change detection of the reports. It is run by the benchmark suite only, with
+ * mvn test -Pbenchmark. The report count per device can be changed with the system property
+ * device.info.benchmark.reports, e.g. -Ddevice.info.benchmark.reports=1000
+ */
+public class DeviceInfoReportBenchmarkTests extends DeviceInfoReportTests {
+
+    private static final Log log = LogFactory.getLog(DeviceInfoReportBenchmarkTests.class);
+    private static final String BENCHMARK_REPORTS_PROPERTY = "device.info.benchmark.reports";
+    private static final String DEFAULT_BENCHMARK_REPORTS = "100";
+
+    @Test(dataProvider = "changeDetection")
+    public void benchmarkDeviceInfoReports(boolean isChangeDetectionEnabled) throws Exception {
+        int reportCount = Integer.parseInt(System.getProperty(BENCHMARK_REPORTS_PROPERTY,
+                DEFAULT_BENCHMARK_REPORTS).trim());
+        DeviceInformationManagerImpl deviceInformationManager =
+                createDeviceInformationManager(isChangeDetectionEnabled);
+
+        long startTime = System.nanoTime();
+        for (int report = 0; report < reportCount; report++) {
+            for (Device device : this.devices) {
+                deviceInformationManager.addDeviceInfo(device, this.getAndroidReport(report));
+            }
+        }
+        long elapsedMills = Math.max(1, (System.nanoTime() - startTime) / 1000000);
+        int totalReports = reportCount * DEVICE_COUNT;
+        log.info("Persisted " + totalReports + " device information reports with change detection " +
+                (isChangeDetectionEnabled ? "enabled" : "disabled") + " in " + elapsedMills + " ms, " +
+                (totalReports * 1000L / elapsedMills) + " reports/sec");
+
+        DeviceInfo lastReport = this.getAndroidReport(reportCount - 1);
+        for (Device device : this.devices) {
+            this.assertPersisted(device, lastReport);
+        }
+    }
+}
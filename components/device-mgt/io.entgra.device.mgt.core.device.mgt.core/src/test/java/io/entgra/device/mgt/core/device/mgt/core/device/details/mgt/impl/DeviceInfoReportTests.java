@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceInfo;
+import io.entgra.device.mgt.core.device.mgt.core.TestDeviceManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.config.cache.DeviceInfoCacheConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.service.DeviceManagementProviderService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class replays Android device information reports against the H2 test database, with and without the change
+ * detection of the reports. Most reports only change the battery and memory figures, some repeat the previous report
+ * and a few change the device properties. A report is detected as persisted or skipped through the details altered
+ * in the database behind the device information manager.
+ */
+public class DeviceInfoReportTests extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "DEVICE_INFO_REPORT_TYPE";
+    private static final String DEVICE_ID_PREFIX = "DEVICE-INFO-REPORT-DEVICE-ID-";
+    private static final String IP_ADDRESS = "IP_ADDRESS";
+    private static final int REPORT_COUNT = 30;
+    private static final int REPEATED_REPORT_INTERVAL = 3;
+    private static final int PROPERTY_CHANGE_INTERVAL = 25;
+    private static final double ALTERED_BATTERY_LEVEL = -1.0;
+    static final int DEVICE_COUNT = 10;
+
+    final List<Device> devices = new ArrayList<>();
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+        for (int i = 0; i < DEVICE_COUNT; i++) {
+            deviceIdentifiers.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+        }
+        for (Device device : TestDataHolder.generateDummyDeviceData(deviceIdentifiers)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            this.devices.add(deviceMgtService.getDevice(deviceIdentifier, false));
+        }
+    }
+
+    @DataProvider(name = "changeDetection")
+    public Object[][] getChangeDetection() {
+        return new Object[][]{{false}, {true}};
+    }
+
+    @Test(dataProvider = "changeDetection")
+    public void testLastReportPersisted(boolean isChangeDetectionEnabled) throws Exception {
+        DeviceInformationManagerImpl deviceInformationManager =
+                createDeviceInformationManager(isChangeDetectionEnabled);
+        for (int report = 0; report < REPORT_COUNT; report++) {
+            for (Device device : this.devices) {
+                deviceInformationManager.addDeviceInfo(device, this.getAndroidReport(report));
+            }
+        }
+        DeviceInfo lastReport = this.getAndroidReport(REPORT_COUNT - 1);
+        for (Device device : this.devices) {
+            this.assertPersisted(device, lastReport);
+        }
+    }
+
+    @Test(dataProvider = "changeDetection")
+    public void testRepeatedReport(boolean isChangeDetectionEnabled) throws Exception {
+        DeviceInformationManagerImpl deviceInformationManager =
+                createDeviceInformationManager(isChangeDetectionEnabled);
+        Device device = this.devices.get(1);
+        DeviceInfo report = this.getAndroidReport(0);
+        deviceInformationManager.addDeviceInfo(device, report);
+        this.alterBatteryLevel(device);
+
+        deviceInformationManager.addDeviceInfo(device, this.getAndroidReport(0));
+        if (isChangeDetectionEnabled) {
+            Assert.assertEquals(this.getBatteryLevel(device), ALTERED_BATTERY_LEVEL,
+                    "Repeated report is persisted with the change detection enabled.");
+        } else {
+            this.assertPersisted(device, report);
+        }
+
+        DeviceInfo changedReport = this.getAndroidReport(1);
+        deviceInformationManager.addDeviceInfo(device, changedReport);
+        this.assertPersisted(device, changedReport);
+    }
+
+    @Test
+    public void testReportPersistedAfterInvalidation() throws Exception {
+        DeviceInformationManagerImpl deviceInformationManager = createDeviceInformationManager(true);
+        Device device = this.devices.get(0);
+        int enrolmentId = device.getEnrolmentInfo().getId();
+        DeviceInfo report = this.getAndroidReport(0);
+        deviceInformationManager.addDeviceInfo(device, report);
+
+        // Device information removed without going through the device information manager, e.g. by privacy compliance
+        try (Connection conn = getDataSource().getConnection()) {
+            for (String table : new String[]{"DM_DEVICE_DETAIL", "DM_DEVICE_INFO"}) {
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table +
+                        " WHERE ENROLMENT_ID = ?")) {
+                    stmt.setInt(1, enrolmentId);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+        deviceInformationManager.invalidateDeviceInfo(enrolmentId);
+        deviceInformationManager.addDeviceInfo(device, report);
+        this.assertPersisted(device, report);
+    }
+
+    static DeviceInformationManagerImpl createDeviceInformationManager(boolean isChangeDetectionEnabled) {
+        DeviceInfoCacheConfiguration config = new DeviceInfoCacheConfiguration();
+        config.setEnabled(isChangeDetectionEnabled);
+        config.setExpiryTime(300);
+        config.setCapacity(DEVICE_COUNT);
+        return new DeviceInformationManagerImpl(config);
+    }
+
+    /**
+     * @return Android report of the given sequence number, which repeats the previous report at every
+     * REPEATED_REPORT_INTERVAL and changes the properties at every PROPERTY_CHANGE_INTERVAL
+     */
+    DeviceInfo getAndroidReport(int report) {
+        int figures = report - report / REPEATED_REPORT_INTERVAL;
+        DeviceInfo deviceInfo = new DeviceInfo();
+        deviceInfo.setDeviceModel("SM-G991B");
+        deviceInfo.setVendor("samsung");
+        deviceInfo.setOsVersion("13");
+        deviceInfo.setOsBuildDate("1698796800000");
+        deviceInfo.setBatteryLevel((double) (100 - figures % 100));
+        deviceInfo.setInternalTotalMemory(110.42);
+        deviceInfo.setInternalAvailableMemory(64.0 + figures % 10);
+        deviceInfo.setExternalTotalMemory(0.0);
+        deviceInfo.setExternalAvailableMemory(0.0);
+        deviceInfo.setOperator("Dialog");
+        deviceInfo.setConnectionType("WIFI");
+        deviceInfo.setMobileSignalStrength(-70.0 - report % 20);
+        deviceInfo.setSsid("\"Entgra\"");
+        deviceInfo.setCpuUsage((double) (figures % 50));
+        deviceInfo.setTotalRAMMemory(7.3);
+        deviceInfo.setAvailableRAMMemory(2.0 + figures % 5);
+        deviceInfo.setPluggedIn(figures % 2 == 0);
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put("IMEI", "356938035643809");
+        properties.put("IMSI", "413021234567890");
+        properties.put("SERIAL", "R58R12ABCDE");
+        properties.put("MAC", "02:00:00:00:00:00");
+        properties.put("BUILD_ID", "TP1A.220624.014");
+        properties.put("ENCRYPTION_ENABLED", "true");
+        properties.put("PASSCODE_ENABLED", "true");
+        properties.put("DEVICE_ROOTED", "false");
+        properties.put("DEVICE_INFO_ADMIN", "true");
+        properties.put("AGENT_VERSION", "5.2.0");
+        properties.put("SECURITY_PATCH_LEVEL", "2023-11-01");
+        properties.put("LOCALE", "en_US");
+        properties.put("TIME_ZONE", "Asia/Colombo");
+        properties.put(IP_ADDRESS, "192.168.1." + (report / PROPERTY_CHANGE_INTERVAL + 10));
+        deviceInfo.setDeviceDetailsMap(properties);
+        return deviceInfo;
+    }
+
+    void assertPersisted(Device device, DeviceInfo lastReport) throws Exception {
+        try (Connection conn = getDataSource().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT BATTERY_LEVEL FROM DM_DEVICE_DETAIL " +
+                    "WHERE ENROLMENT_ID = ?")) {
+                stmt.setInt(1, device.getEnrolmentInfo().getId());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    Assert.assertTrue(rs.next(), "Device details are not persisted.");
+                    Assert.assertEquals(rs.getDouble("BATTERY_LEVEL"), lastReport.getBatteryLevel(),
+                            "Persisted battery level is not the last reported one.");
+                    Assert.assertFalse(rs.next(), "Device details are persisted more than once.");
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT KEY_FIELD, VALUE_FIELD FROM DM_DEVICE_INFO " +
+                    "WHERE ENROLMENT_ID = ?")) {
+                stmt.setInt(1, device.getEnrolmentInfo().getId());
+                Map<String, String> properties = new HashMap<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Assert.assertNull(properties.put(rs.getString("KEY_FIELD"), rs.getString("VALUE_FIELD")),
+                                "Device property is persisted more than once.");
+                    }
+                }
+                Assert.assertEquals(properties.get(IP_ADDRESS), lastReport.getDeviceDetailsMap().get(IP_ADDRESS),
+                        "Persisted device property is not the last reported one.");
+            }
+        }
+    }
+
+    private void alterBatteryLevel(Device device) throws Exception {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE DM_DEVICE_DETAIL SET BATTERY_LEVEL = ? " +
+                     "WHERE ENROLMENT_ID = ?")) {
+            stmt.setDouble(1, ALTERED_BATTERY_LEVEL);
+            stmt.setInt(2, device.getEnrolmentInfo().getId());
+            Assert.assertEquals(stmt.executeUpdate(), 1, "Device details are not persisted.");
+        }
+    }
+
+    private double getBatteryLevel(Device device) throws Exception {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT BATTERY_LEVEL FROM DM_DEVICE_DETAIL " +
+                     "WHERE ENROLMENT_ID = ?")) {
+            stmt.setInt(1, device.getEnrolmentInfo().getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                Assert.assertTrue(rs.next(), "Device details are not persisted.");
+                return rs.getDouble("BATTERY_LEVEL");
+            }
+        }
+    }
+}
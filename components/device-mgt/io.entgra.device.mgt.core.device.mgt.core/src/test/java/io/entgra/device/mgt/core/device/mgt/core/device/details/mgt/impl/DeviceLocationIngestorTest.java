@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt;
+package io.entgra.device.mgt.core.device.mgt.core.device.details.mgt.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.common.device.details.DeviceLocation;
+import io.entgra.device.mgt.core.device.mgt.core.TestDeviceManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.config.geo.location.LocationIngestionConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.service.DeviceManagementProviderService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests the coalescing ingestion of device locations against the H2 test database.
+ */
+public class DeviceLocationIngestorTest extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "LOCATION_INGESTION_TYPE";
+    private static final String DEVICE_ID_PREFIX = "LOCATION-INGESTION-DEVICE-ID-";
+    private static final int DEVICE_COUNT = 5;
+    private static final int FIX_COUNT = 20;
+
+    private final List<Device> devices = new ArrayList<>();
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+        for (int i = 0; i < DEVICE_COUNT; i++) {
+            deviceIdentifiers.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+        }
+        for (Device device : TestDataHolder.generateDummyDeviceData(deviceIdentifiers)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            this.devices.add(deviceMgtService.getDevice(deviceIdentifier, false));
+        }
+    }
+
+    @Test
+    public void testCoalescedLocationIngestion() throws Exception {
+        this.ingest(0, 50000);
+        this.assertLocations(FIX_COUNT);
+    }
+
+    @Test(dependsOnMethods = "testCoalescedLocationIngestion")
+    public void testCurrentLocationsAreUpdated() throws Exception {
+        this.ingest(FIX_COUNT, 50000);
+        this.assertLocations(2 * FIX_COUNT);
+    }
+
+    @Test(dependsOnMethods = "testCurrentLocationsAreUpdated")
+    public void testLocationsBeyondQueueCapacity() throws Exception {
+        // Most of the locations overflow the queue, while their current locations are still left to the flusher
+        this.ingest(2 * FIX_COUNT, 1);
+        this.assertLocations(3 * FIX_COUNT);
+    }
+
+    private void ingest(int firstFix, int queueCapacity) throws Exception {
+        LocationIngestionConfiguration config = new LocationIngestionConfiguration();
+        config.setEnabled(true);
+        config.setQueueCapacity(queueCapacity);
+        config.setBatchSize(16);
+        config.setFlushIntervalMills(50);
+        DeviceLocationIngestor ingestor = new DeviceLocationIngestor(config,
+                DeviceManagementDAOFactory.getDeviceDetailsDAO());
+
+        ExecutorService executor = Executors.newFixedThreadPool(DEVICE_COUNT);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Device device : this.devices) {
+                results.add(executor.submit(() -> {
+                    boolean isTaken = true;
+                    for (int fix = firstFix; fix < firstFix + FIX_COUNT; fix++) {
+                        isTaken &= ingestor.submit(device, this.getLocation(device, fix),
+                                TestDataHolder.SUPER_TENANT_ID);
+                    }
+                    return isTaken;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(), "Location is not taken by the ingestor.");
+            }
+        } finally {
+            executor.shutdownNow();
+            ingestor.stop();
+        }
+
+        Assert.assertEquals(ingestor.getFlushedCount() + ingestor.getRejectedCount(), DEVICE_COUNT * FIX_COUNT,
+                "Flushed location count is not matched.");
+        Assert.assertEquals(ingestor.getFailedCount(), 0, "Locations are failed.");
+        Assert.assertEquals(ingestor.getQueueDepth(), 0, "Locations are left in the queue.");
+        Assert.assertEquals(ingestor.getPendingLocationCount(), 0, "Current locations are left pending.");
+    }
+
+    private DeviceLocation getLocation(Device device, int fix) {
+        DeviceLocation location = new DeviceLocation();
+        location.setDeviceId(device.getId());
+        location.setLatitude(fix);
+        location.setLongitude(device.getId());
+        location.setUpdatedTime(new Date(1000000000000L + fix * 1000L));
+        return location;
+    }
+
+    private void assertLocations(int fixCount) throws Exception {
+        try (Connection conn = getDataSource().getConnection()) {
+            for (Device device : this.devices) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT LATITUDE FROM DM_DEVICE_LOCATION " +
+                        "WHERE ENROLMENT_ID = ?")) {
+                    stmt.setInt(1, device.getEnrolmentInfo().getId());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        Assert.assertTrue(rs.next(), "Current location is not saved.");
+                        Assert.assertEquals(rs.getDouble("LATITUDE"), fixCount - 1.0,
+                                "Current location is not the latest location.");
+                        Assert.assertFalse(rs.next(), "Current location is saved more than once.");
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM " +
+                        "DM_DEVICE_HISTORY_LAST_SEVEN_DAYS WHERE DEVICE_ID = ?")) {
+                    stmt.setInt(1, device.getId());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                        Assert.assertEquals(rs.getInt(1), fixCount, "Location history count is not matched.");
+                    }
+                }
+            }
+        }
+    }
+}
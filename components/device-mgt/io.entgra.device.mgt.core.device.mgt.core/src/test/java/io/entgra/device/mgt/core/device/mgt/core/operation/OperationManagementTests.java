@@ -45,6 +45,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This is the testcase which covers the methods from {@link OperationManager}
@@ -632,6 +636,44 @@ public class OperationManagementTests extends BaseDeviceManagementTest {
         Assert.assertTrue(this.operationMgtService.getNextPendingOperation(this.deviceIds.get(1)) == null);
     }
 
+    @Test(dependsOnMethods = "getNextPendingOperationForAllOperations")
+    public void getNextPendingOperationWithWaitTime() throws OperationManagementException {
+        long startTime = System.currentTimeMillis();
+        Operation operation = this.operationMgtService.getNextPendingOperation(this.deviceIds.get(1), -1, 1000);
+        Assert.assertNull(operation);
+        Assert.assertTrue(System.currentTimeMillis() - startTime >= 1000,
+                "Returned before the wait time without a pending operation");
+    }
+
+    @Test(dependsOnMethods = "getNextPendingOperationWithWaitTime")
+    public void getNextPendingOperationWokenUpByAddOperation() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Operation> poll = executor.submit(() -> {
+                PrivilegedCarbonContext.startTenantFlow();
+                try {
+                    PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                            .setTenantId(MultitenantConstants.SUPER_TENANT_ID, true);
+                    PrivilegedCarbonContext.getThreadLocalCarbonContext().setUsername(ADMIN_USER);
+                    return this.operationMgtService.getNextPendingOperation(this.deviceIds.get(1), -1, 30000);
+                } finally {
+                    PrivilegedCarbonContext.endTenantFlow();
+                }
+            });
+            Thread.sleep(500);
+            Assert.assertFalse(poll.isDone(), "Returned before an operation is added");
+            this.operationMgtService.addOperation(getOperation(new CommandOperation(), Operation.Type.COMMAND,
+                    COMMAND_OPERATION_CODE), Collections.singletonList(this.deviceIds.get(1)));
+            Operation operation = poll.get(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(operation, "Waiting device is not woken up by the added operation");
+            Assert.assertEquals(operation.getCode(), COMMAND_OPERATION_CODE);
+            operation.setStatus(Operation.Status.COMPLETED);
+            this.operationMgtService.updateOperation(this.deviceIds.get(1), operation);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test(dependsOnMethods = "getNextPendingOperationForAllOperations")
     public void getOperationByDeviceAndOperationIdForAllOperations() throws DeviceManagementException,
             OperationManagementException {
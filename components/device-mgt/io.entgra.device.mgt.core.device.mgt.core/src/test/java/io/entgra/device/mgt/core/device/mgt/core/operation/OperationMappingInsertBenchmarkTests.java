@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.operation;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.core.TestDeviceManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.OperationMappingDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping.MySQLOperationMappingDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.service.DeviceManagementProviderService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class measures the throughput of inserting operation mappings against the H2 test database. It is run by the
+ * benchmark suite only, with mvn test -Pbenchmark. The mapping counts can be changed with the system property
+ * operation.mapping.benchmark.sizes, e.g. -Doperation.mapping.benchmark.sizes=10000,100000,1000000
+ */
+public class OperationMappingInsertBenchmarkTests extends BaseDeviceManagementTest {
+
+    private static final Log log = LogFactory.getLog(OperationMappingInsertBenchmarkTests.class);
+    private static final String DEVICE_TYPE = "OP_MAPPING_BENCHMARK_TYPE";
+    private static final String DEVICE_ID = "OP-MAPPING-BENCHMARK-DEVICE-ID";
+    private static final String OPERATION_CODE = "OP-MAPPING-BENCHMARK";
+    private static final String BENCHMARK_SIZES_PROPERTY = "operation.mapping.benchmark.sizes";
+    private static final String DEFAULT_BENCHMARK_SIZES = "10000";
+
+    private Device device;
+    private int operationId;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        deviceMgtService.enrollDevice(TestDataHolder.generateDummyDeviceData(
+                Collections.singletonList(new DeviceIdentifier(DEVICE_ID, DEVICE_TYPE))).get(0));
+        this.device = deviceMgtService.getDevice(new DeviceIdentifier(DEVICE_ID, DEVICE_TYPE), false);
+
+        Operation operation = new Operation();
+        operation.setType(Operation.Type.COMMAND);
+        operation.setCode(OPERATION_CODE);
+        operation.setInitiatedBy("admin");
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            this.operationId = OperationManagementDAOFactory.getCommandOperationDAO().addOperation(operation);
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @DataProvider(name = "mappingCounts")
+    public Object[][] getMappingCounts() {
+        String[] sizes = System.getProperty(BENCHMARK_SIZES_PROPERTY, DEFAULT_BENCHMARK_SIZES).split(",");
+        Object[][] mappingCounts = new Object[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            mappingCounts[i] = new Object[]{Integer.parseInt(sizes[i].trim())};
+        }
+        return mappingCounts;
+    }
+
+    @Test(dataProvider = "mappingCounts")
+    public void benchmarkBatchInsert(int mappingCount) throws Exception {
+        this.benchmark(new OperationMappingDAOImpl(), mappingCount);
+    }
+
+    @Test(dataProvider = "mappingCounts")
+    public void benchmarkMultiRowInsert(int mappingCount) throws Exception {
+        this.benchmark(new MySQLOperationMappingDAOImpl(), mappingCount);
+    }
+
+    private void benchmark(OperationMappingDAO operationMappingDAO, int mappingCount) throws Exception {
+        Operation operation = new Operation();
+        operation.setId(this.operationId);
+        operation.setType(Operation.Type.COMMAND);
+        operation.setCode(OPERATION_CODE);
+        operation.setInitiatedBy("admin");
+        List<Device> devices = new ArrayList<>(mappingCount);
+        for (int i = 0; i < mappingCount; i++) {
+            devices.add(this.device);
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            operationMappingDAO.addOperationMapping(operation, devices, false, TestDataHolder.SUPER_TENANT_ID);
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+        long elapsedMills = Math.max(1, (System.nanoTime() - startTime) / 1000000);
+        log.info(operationMappingDAO.getClass().getSimpleName() + " inserted " + mappingCount + " operation " +
+                "mappings in " + elapsedMills + " ms, " + (mappingCount * 1000L / elapsedMills) + " rows/sec");
+
+        Assert.assertEquals(this.removeMappings(), mappingCount, "Inserted operation mapping count is not matched.");
+    }
+
+    private int removeMappings() throws Exception {
+        try (Connection conn = getDataSource().getConnection()) {
+            int count;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT COUNT(*) FROM DM_ENROLMENT_OP_MAPPING WHERE OPERATION_ID = ?")) {
+                stmt.setInt(1, this.operationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    count = rs.getInt(1);
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM DM_ENROLMENT_OP_MAPPING WHERE OPERATION_ID = ?")) {
+                stmt.setInt(1, this.operationId);
+                stmt.executeUpdate();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.operation;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.core.TestDeviceManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationMappingDAO;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.OperationMappingDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.mapping.MySQLOperationMappingDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.service.DeviceManagementProviderService;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests that operation mappings are inserted in chunks of the size the dialect allows, one statement per chunk, and
+ * that a failed chunk is retried without losing or duplicating the mappings of the other chunks.
+ */
+public class OperationMappingInsertTests extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "OP_MAPPING_INSERT_TYPE";
+    private static final String DEVICE_ID_PREFIX = "OP-MAPPING-INSERT-DEVICE-ID-";
+    private static final String OPERATION_CODE = "OP-MAPPING-INSERT";
+    private static final int DEVICE_COUNT = 10;
+    private static final int MAX_CHUNK_SIZE = 4;
+
+    private final List<Device> devices = new ArrayList<>();
+    private Operation operation;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+        for (int i = 0; i < DEVICE_COUNT; i++) {
+            deviceIdentifiers.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+        }
+        for (Device device : TestDataHolder.generateDummyDeviceData(deviceIdentifiers)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            this.devices.add(deviceMgtService.getDevice(deviceIdentifier, false));
+        }
+
+        this.operation = new Operation();
+        this.operation.setType(Operation.Type.COMMAND);
+        this.operation.setCode(OPERATION_CODE);
+        this.operation.setInitiatedBy("admin");
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            this.operation.setId(OperationManagementDAOFactory.getCommandOperationDAO().addOperation(this.operation));
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @AfterMethod
+    public void removeMappings() throws Exception {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM DM_ENROLMENT_OP_MAPPING WHERE OPERATION_ID = ?")) {
+            stmt.setInt(1, this.operation.getId());
+            stmt.executeUpdate();
+        }
+    }
+
+    @Test(description = "Mappings are inserted with one statement per chunk of the maximum chunk size")
+    public void testInsertInChunks() throws Exception {
+        ChunkRecordingOperationMappingDAO operationMappingDAO = new ChunkRecordingOperationMappingDAO(0);
+        this.addOperationMappings(operationMappingDAO);
+
+        Assert.assertEquals(operationMappingDAO.getChunkSizes(), Arrays.asList(4, 4, 2));
+        Assert.assertEquals(this.getMappedEnrolmentIds(), this.getEnrolmentIds());
+    }
+
+    @Test(description = "A failed chunk is retried while the chunks inserted before it are kept")
+    public void testRetryFailedChunk() throws Exception {
+        ChunkRecordingOperationMappingDAO operationMappingDAO = new ChunkRecordingOperationMappingDAO(2);
+        this.addOperationMappings(operationMappingDAO);
+
+        // The second chunk fails after inserting its rows and is retried once
+        Assert.assertEquals(operationMappingDAO.getChunkSizes(), Arrays.asList(4, 4, 4, 2));
+        Assert.assertEquals(this.getMappedEnrolmentIds(), this.getEnrolmentIds(),
+                "Mappings of the failed chunk are lost or duplicated.");
+    }
+
+    @Test(description = "Multi-row insert maps every device once")
+    public void testMultiRowInsert() throws Exception {
+        this.addOperationMappings(new MySQLOperationMappingDAOImpl());
+
+        Assert.assertEquals(this.getMappedEnrolmentIds(), this.getEnrolmentIds());
+    }
+
+    private void addOperationMappings(OperationMappingDAO operationMappingDAO) throws Exception {
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            operationMappingDAO.addOperationMapping(this.operation, this.devices, false,
+                    TestDataHolder.SUPER_TENANT_ID);
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private List<Integer> getEnrolmentIds() {
+        List<Integer> enrolmentIds = new ArrayList<>();
+        for (Device device : this.devices) {
+            enrolmentIds.add(device.getEnrolmentInfo().getId());
+        }
+        Collections.sort(enrolmentIds);
+        return enrolmentIds;
+    }
+
+    private List<Integer> getMappedEnrolmentIds() throws Exception {
+        List<Integer> enrolmentIds = new ArrayList<>();
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT ENROLMENT_ID FROM DM_ENROLMENT_OP_MAPPING " +
+                     "WHERE OPERATION_ID = ? ORDER BY ENROLMENT_ID")) {
+            stmt.setInt(1, this.operation.getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    enrolmentIds.add(rs.getInt("ENROLMENT_ID"));
+                }
+            }
+        }
+        return enrolmentIds;
+    }
+
+    /**
+     * Records the size of each inserted chunk, and fails the chunk of the given attempt after inserting its rows.
+     */
+    private static class ChunkRecordingOperationMappingDAO extends OperationMappingDAOImpl {
+
+        private final List<Integer> chunkSizes = new ArrayList<>();
+        private final int failingAttempt;
+
+        ChunkRecordingOperationMappingDAO(int failingAttempt) {
+            this.failingAttempt = failingAttempt;
+        }
+
+        @Override
+        protected void insertOperationMappings(Connection conn, Operation operation, List<Device> devices,
+                                               String pushNotificationStatus, long time, int tenantId)
+                throws SQLException {
+            chunkSizes.add(devices.size());
+            super.insertOperationMappings(conn, operation, devices, pushNotificationStatus, time, tenantId);
+            if (chunkSizes.size() == failingAttempt) {
+                throw new SQLException("Failing chunk " + failingAttempt);
+            }
+        }
+
+        @Override
+        protected int getMaxChunkSize() {
+            return MAX_CHUNK_SIZE;
+        }
+
+        List<Integer> getChunkSizes() {
+            return chunkSizes;
+        }
+    }
+}
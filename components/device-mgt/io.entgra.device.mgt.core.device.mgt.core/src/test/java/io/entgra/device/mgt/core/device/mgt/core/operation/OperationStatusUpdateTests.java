@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.operation;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.core.TestDeviceManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.service.DeviceManagementProviderService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class tests the set-based update of the operation statuses of a list of enrolments against the H2 test
+ * database.
+ */
+public class OperationStatusUpdateTests extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "OP_STATUS_UPDATE_TYPE";
+    private static final String DEVICE_ID_PREFIX = "OP-STATUS-UPDATE-DEVICE-ID-";
+    private static final String BUNDLE_OPERATION_CODE = "OP-STATUS-UPDATE-BUNDLE";
+    private static final String REVOKE_OPERATION_CODE = "OP-STATUS-UPDATE-REVOKE";
+    private static final String OTHER_OPERATION_CODE = "OP-STATUS-UPDATE-OTHER";
+
+    private final List<Device> devices = new ArrayList<>();
+    private int bundleOperationId;
+    private int revokeOperationId;
+    private int otherOperationId;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            deviceIdentifiers.add(new DeviceIdentifier(DEVICE_ID_PREFIX + i, DEVICE_TYPE));
+        }
+        for (Device device : TestDataHolder.generateDummyDeviceData(deviceIdentifiers)) {
+            deviceMgtService.enrollDevice(device);
+        }
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            devices.add(deviceMgtService.getDevice(deviceIdentifier, false));
+        }
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            this.bundleOperationId = addOperation(BUNDLE_OPERATION_CODE);
+            this.revokeOperationId = addOperation(REVOKE_OPERATION_CODE);
+            this.otherOperationId = addOperation(OTHER_OPERATION_CODE);
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Test
+    public void testUpdateOnlyMatchingOperationsOfEnrolments() throws Exception {
+        Device device0 = devices.get(0);
+        Device device1 = devices.get(1);
+        Device device2 = devices.get(2);
+        int pendingBundle0 = addMapping(device0, bundleOperationId, BUNDLE_OPERATION_CODE, Operation.Status.PENDING);
+        int pendingRevoke0 = addMapping(device0, revokeOperationId, REVOKE_OPERATION_CODE, Operation.Status.PENDING);
+        int pendingOther0 = addMapping(device0, otherOperationId, OTHER_OPERATION_CODE, Operation.Status.PENDING);
+        int completedBundle0 = addMapping(device0, bundleOperationId, BUNDLE_OPERATION_CODE,
+                Operation.Status.COMPLETED);
+        int pendingBundle1 = addMapping(device1, bundleOperationId, BUNDLE_OPERATION_CODE, Operation.Status.PENDING);
+        int pendingBundle2 = addMapping(device2, bundleOperationId, BUNDLE_OPERATION_CODE, Operation.Status.PENDING);
+
+        int updatedCount;
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            updatedCount = OperationManagementDAOFactory.getOperationDAO().updateEnrollmentOperationsStatus(
+                    Arrays.asList(device0.getEnrolmentInfo().getId(), device1.getEnrolmentInfo().getId()),
+                    Arrays.asList(BUNDLE_OPERATION_CODE, REVOKE_OPERATION_CODE), Operation.Status.PENDING,
+                    Operation.Status.REPEATED);
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+
+        Assert.assertEquals(updatedCount, 3, "Updated operation mapping count is not matched.");
+        Assert.assertEquals(getStatus(pendingBundle0), Operation.Status.REPEATED.toString());
+        Assert.assertEquals(getStatus(pendingRevoke0), Operation.Status.REPEATED.toString());
+        Assert.assertEquals(getStatus(pendingBundle1), Operation.Status.REPEATED.toString());
+        Assert.assertEquals(getStatus(pendingOther0), Operation.Status.PENDING.toString(),
+                "Operation of another code is updated.");
+        Assert.assertEquals(getStatus(completedBundle0), Operation.Status.COMPLETED.toString(),
+                "Operation in another status is updated.");
+        Assert.assertEquals(getStatus(pendingBundle2), Operation.Status.PENDING.toString(),
+                "Operation of another enrolment is updated.");
+    }
+
+    @Test
+    public void testUpdateWithoutEnrolments() throws Exception {
+        try {
+            OperationManagementDAOFactory.openConnection();
+            Assert.assertEquals(OperationManagementDAOFactory.getOperationDAO().updateEnrollmentOperationsStatus(
+                    new ArrayList<>(), Arrays.asList(BUNDLE_OPERATION_CODE), Operation.Status.PENDING,
+                    Operation.Status.REPEATED), 0);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    private int addOperation(String operationCode) throws Exception {
+        Operation operation = new Operation();
+        operation.setType(Operation.Type.COMMAND);
+        operation.setCode(operationCode);
+        operation.setInitiatedBy("admin");
+        return OperationManagementDAOFactory.getCommandOperationDAO().addOperation(operation);
+    }
+
+    private int addMapping(Device device, int operationId, String operationCode, Operation.Status status)
+            throws Exception {
+        long timestamp = System.currentTimeMillis() / 1000;
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO DM_ENROLMENT_OP_MAPPING (ENROLMENT_ID, " +
+                     "OPERATION_ID, STATUS, CREATED_TIMESTAMP, UPDATED_TIMESTAMP, OPERATION_CODE, TYPE, " +
+                     "DEVICE_ID, DEVICE_TYPE, TENANT_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                     new String[]{"ID"})) {
+            stmt.setInt(1, device.getEnrolmentInfo().getId());
+            stmt.setInt(2, operationId);
+            stmt.setString(3, status.toString());
+            stmt.setLong(4, timestamp);
+            stmt.setLong(5, timestamp);
+            stmt.setString(6, operationCode);
+            stmt.setString(7, Operation.Type.COMMAND.toString());
+            stmt.setInt(8, device.getId());
+            stmt.setString(9, DEVICE_TYPE);
+            stmt.setInt(10, TestDataHolder.SUPER_TENANT_ID);
+            stmt.executeUpdate();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private String getStatus(int mappingId) throws Exception {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT STATUS FROM DM_ENROLMENT_OP_MAPPING WHERE ID = ?")) {
+            stmt.setInt(1, mappingId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Assert.assertTrue(rs.next(), "Operation mapping " + mappingId + " is not found.");
+                return rs.getString("STATUS");
+            }
+        }
+    }
+}
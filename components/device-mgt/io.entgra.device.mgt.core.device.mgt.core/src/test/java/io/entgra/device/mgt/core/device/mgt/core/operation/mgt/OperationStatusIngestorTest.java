@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.core.TestDeviceManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.config.operation.ingestion.OperationStatusIngestionConfiguration;
+import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.OperationManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.operation.mgt.dao.impl.OperationMappingDAOImpl;
+import io.entgra.device.mgt.core.device.mgt.core.service.DeviceManagementProviderService;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests the write-behind ingestion of operation statuses and responses against the H2 test database.
+ */
+public class OperationStatusIngestorTest extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "OP_STATUS_INGESTION_TYPE";
+    private static final String DEVICE_ID = "OP-STATUS-INGESTION-DEVICE-ID";
+    private static final String OPERATION_CODE = "OP-STATUS-INGESTION";
+    private static final int OPERATION_COUNT = 40;
+
+    private Device device;
+    private final List<Integer> operationIds = new ArrayList<>();
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        DeviceManagementProviderService deviceMgtService = DeviceManagementDataHolder.getInstance()
+                .getDeviceManagementProvider();
+        deviceMgtService.registerDeviceType(new TestDeviceManagementService(DEVICE_TYPE,
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME));
+        deviceMgtService.enrollDevice(TestDataHolder.generateDummyDeviceData(
+                Collections.singletonList(new DeviceIdentifier(DEVICE_ID, DEVICE_TYPE))).get(0));
+        this.device = deviceMgtService.getDevice(new DeviceIdentifier(DEVICE_ID, DEVICE_TYPE), false);
+
+        OperationMappingDAOImpl operationMappingDAO = new OperationMappingDAOImpl();
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            for (int i = 0; i < OPERATION_COUNT; i++) {
+                Operation operation = new Operation();
+                operation.setType(Operation.Type.COMMAND);
+                operation.setCode(OPERATION_CODE);
+                operation.setInitiatedBy("admin");
+                operation.setId(OperationManagementDAOFactory.getCommandOperationDAO().addOperation(operation));
+                operationMappingDAO.addOperationMapping(operation, Collections.singletonList(this.device), false,
+                        TestDataHolder.SUPER_TENANT_ID);
+                this.operationIds.add(operation.getId());
+            }
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
+    @Test
+    public void testBatchedStatusUpdates() throws Exception {
+        OperationStatusIngestionConfiguration config = new OperationStatusIngestionConfiguration();
+        config.setEnabled(true);
+        config.setBatchSize(10);
+        config.setFlushIntervalMills(50);
+        config.setDurability(OperationStatusIngestionConfiguration.DURABILITY_COMMITTED);
+        OperationStatusIngestor ingestor = new OperationStatusIngestor(config,
+                OperationManagementDAOFactory.getOperationDAO());
+
+        ExecutorService executor = Executors.newFixedThreadPool(OPERATION_COUNT);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int operationId : this.operationIds) {
+                io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation operation =
+                        new io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation();
+                operation.setId(operationId);
+                operation.setCode(OPERATION_CODE);
+                operation.setStatus(
+                        io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation.Status.COMPLETED);
+                operation.setOperationResponse("Completed " + operationId);
+                results.add(executor.submit(() -> ingestor.submit(this.device.getEnrolmentInfo().getId(), operation,
+                        DEVICE_ID, true)));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(), "Status update is not taken by the ingestor.");
+            }
+        } finally {
+            executor.shutdownNow();
+            ingestor.stop();
+        }
+
+        Assert.assertEquals(ingestor.getFlushedCount(), OPERATION_COUNT, "Flushed status update count is not matched.");
+        Assert.assertEquals(ingestor.getFailedCount(), 0, "Status updates are failed.");
+        Assert.assertEquals(ingestor.getQueueDepth(), 0, "Status updates are left in the queue.");
+        Assert.assertEquals(this.countMappings(Operation.Status.COMPLETED), OPERATION_COUNT,
+                "Updated operation status count is not matched.");
+        Assert.assertEquals(this.countResponses(), OPERATION_COUNT,
+                "Persisted operation response count is not matched.");
+    }
+
+    @Test(dependsOnMethods = "testBatchedStatusUpdates")
+    public void testSynchronousUpdateIsNotOvertaken() throws Exception {
+        OperationStatusIngestionConfiguration config = new OperationStatusIngestionConfiguration();
+        config.setEnabled(true);
+        config.setFlushIntervalMills(500);
+        config.setDurability(OperationStatusIngestionConfiguration.DURABILITY_QUEUED);
+        OperationStatusIngestor ingestor = new OperationStatusIngestor(config,
+                OperationManagementDAOFactory.getOperationDAO());
+        int enrolmentId = this.device.getEnrolmentInfo().getId();
+        int operationId = this.operationIds.get(0);
+        try {
+            io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation operation =
+                    new io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation();
+            operation.setId(operationId);
+            operation.setCode(OPERATION_CODE);
+            operation.setStatus(io.entgra.device.mgt.core.device.mgt.common.operation.mgt.Operation.Status.IN_PROGRESS);
+            Assert.assertTrue(ingestor.submit(enrolmentId, operation, DEVICE_ID, false),
+                    "Status update is not taken by the ingestor.");
+
+            // a newer status written by the caller itself, as done for revoked policies and a full queue
+            ingestor.awaitPending(enrolmentId, operationId);
+            try {
+                OperationManagementDAOFactory.beginTransaction();
+                OperationManagementDAOFactory.getOperationDAO().updateOperationStatus(enrolmentId, operationId,
+                        Operation.Status.ERROR);
+                OperationManagementDAOFactory.commitTransaction();
+            } finally {
+                OperationManagementDAOFactory.closeConnection();
+            }
+        } finally {
+            ingestor.stop();
+        }
+
+        Assert.assertEquals(ingestor.getFlushedCount(), 1, "Queued status update is not flushed.");
+        Assert.assertEquals(this.getMappingStatus(operationId), Operation.Status.ERROR.toString(),
+                "Synchronous status update is overtaken by the queued status update.");
+    }
+
+    @Test
+    public void testDisabledIngestion() {
+        // status ingestion is not configured for the tests, so updates stay synchronous
+        Assert.assertNull(OperationStatusIngestor.getInstance(), "Disabled ingestor is created.");
+        Assert.assertNull(OperationStatusIngestor.getInstance(), "Disabled ingestor is created on a later call.");
+    }
+
+    private String getMappingStatus(int operationId) throws Exception {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT STATUS FROM DM_ENROLMENT_OP_MAPPING " +
+                     "WHERE ENROLMENT_ID = ? AND OPERATION_ID = ?")) {
+            stmt.setInt(1, this.device.getEnrolmentInfo().getId());
+            stmt.setInt(2, operationId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private int countMappings(Operation.Status status) throws Exception {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM DM_ENROLMENT_OP_MAPPING " +
+                     "WHERE ENROLMENT_ID = ? AND STATUS = ?")) {
+            stmt.setInt(1, this.device.getEnrolmentInfo().getId());
+            stmt.setString(2, status.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private int countResponses() throws Exception {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM DM_DEVICE_OPERATION_RESPONSE " +
+                     "WHERE ENROLMENT_ID = ?")) {
+            stmt.setInt(1, this.device.getEnrolmentInfo().getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.operation.mgt;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the in-memory signal which releases the devices waiting for pending operations.
+ */
+public class PendingOperationSignalTest {
+
+    private static final int ENROLMENT_ID = 987001;
+
+    @Test
+    public void testSignalReleasesWaiter() throws InterruptedException {
+        PendingOperationSignal.Registration registration = PendingOperationSignal.tryRegister(ENROLMENT_ID);
+        Assert.assertNotNull(registration, "Waiter is not registered.");
+        try {
+            Thread signaller = new Thread(() -> PendingOperationSignal.signal(ENROLMENT_ID));
+            signaller.start();
+            Assert.assertTrue(registration.await(10000), "Waiter is not released by the signal.");
+            signaller.join();
+        } finally {
+            registration.close();
+        }
+    }
+
+    @Test
+    public void testWaitersAreCapped() {
+        PendingOperationSignal.Registration first = PendingOperationSignal.tryRegister(ENROLMENT_ID + 1, 2);
+        Assert.assertNotNull(first, "Waiter below the cap is not registered.");
+        PendingOperationSignal.Registration second = PendingOperationSignal.tryRegister(ENROLMENT_ID + 2, 2);
+        Assert.assertNotNull(second, "Waiter below the cap is not registered.");
+        try {
+            Assert.assertNull(PendingOperationSignal.tryRegister(ENROLMENT_ID + 3, 2),
+                    "Waiter above the cap is registered.");
+        } finally {
+            first.close();
+            // closing twice must not release a slot of another waiter
+            first.close();
+        }
+        PendingOperationSignal.Registration third = PendingOperationSignal.tryRegister(ENROLMENT_ID + 3, 2);
+        try {
+            Assert.assertNotNull(third, "Slot of a released waiter is not reused.");
+            Assert.assertNull(PendingOperationSignal.tryRegister(ENROLMENT_ID + 4, 2),
+                    "Waiter above the cap is registered.");
+        } finally {
+            second.close();
+            if (third != null) {
+                third.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.permission.mgt;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * This class compares the time taken by the permission tree lookup and by the regex based matching over the requests
+ * of {@link PermissionTreeTest}. It is run by the benchmark suite only, with mvn test -Pbenchmark. The lookup count
+ * can be changed with the system property permission.benchmark.lookups, e.g. -Dpermission.benchmark.lookups=1000000
+ */
+public class PermissionTreeBenchmarkTests extends PermissionTreeTest {
+
+    private static final Log log = LogFactory.getLog(PermissionTreeBenchmarkTests.class);
+    private static final String BENCHMARK_LOOKUPS_PROPERTY = "permission.benchmark.lookups";
+    private static final String DEFAULT_BENCHMARK_LOOKUPS = "10000";
+
+    @Test(dependsOnMethods = "testPermissionTreeLookup")
+    public void benchmarkPermissionLookup() {
+        int lookupCount = Integer.parseInt(System.getProperty(BENCHMARK_LOOKUPS_PROPERTY,
+                DEFAULT_BENCHMARK_LOOKUPS).trim());
+        int resolvedCount = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < lookupCount; i++) {
+            String[] request = this.requests.get(i % this.requests.size());
+            if (this.getMatchingPermission(request[1], request[0]) != null) {
+                resolvedCount++;
+            }
+        }
+        long regexElapsedNanos = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < lookupCount; i++) {
+            String[] request = this.requests.get(i % this.requests.size());
+            if (this.apiResourcePermissions.getPermission(CONTEXT, request[1], request[0]) != null) {
+                resolvedCount--;
+            }
+        }
+        long treeElapsedNanos = System.nanoTime() - startTime;
+
+        log.info("Resolved " + lookupCount + " request permissions out of " + this.permissions.size() +
+                " resources, regex matching: " + (regexElapsedNanos / lookupCount) + " ns/lookup, permission tree: "
+                + (treeElapsedNanos / lookupCount) + " ns/lookup");
+        Assert.assertEquals(resolvedCount, 0, "Permission tree resolved a different number of requests.");
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.permission.mgt;
+
+import io.entgra.device.mgt.core.device.mgt.common.permission.mgt.Permission;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * This class checks the permission tree lookup against the regex based matching of the request url against every
+ * resource of the context, which the webapp authorizer used before. Both are run over the same requests and have
+ * to resolve the same permissions.
+ */
+public class PermissionTreeTest {
+
+    static final String CONTEXT = "/api/device-mgt/v1.0";
+    private static final String[] RESOURCES = {"devices", "groups", "users", "roles", "policies", "operations",
+            "notifications", "certificates", "configuration", "applications", "device-types", "activities",
+            "admin", "events", "geo-services", "reports", "tags", "metadata", "whitelabel", "billing"};
+
+    final List<Permission> permissions = new ArrayList<>();
+    final List<String[]> requests = new ArrayList<>();
+    final APIResourcePermissions apiResourcePermissions = new APIResourcePermissions();
+
+    @BeforeClass
+    public void init() {
+        for (String resource : RESOURCES) {
+            String base = CONTEXT + "/" + resource;
+            this.addPermission("GET", base);
+            this.addPermission("POST", base);
+            this.addPermission("GET", base + "/search");
+            this.addPermission("GET", base + "/count");
+            this.addPermission("GET", base + "/*");
+            this.addPermission("PUT", base + "/*");
+            this.addPermission("DELETE", base + "/*");
+            this.addPermission("GET", base + "/*/*");
+            this.addPermission("GET", base + "/*/details");
+            this.addPermission("POST", base + "/*/actions");
+            this.addPermission("GET", base + "/*/*/status");
+            this.addPermission("PUT", base + "/*/*/status");
+            this.addPermission("GET", base + "/type/*/id/*");
+
+            this.requests.add(new String[]{"GET", base});
+            this.requests.add(new String[]{"POST", base});
+            this.requests.add(new String[]{"GET", base + "/search"});
+            this.requests.add(new String[]{"GET", base + "/count"});
+            this.requests.add(new String[]{"POST", base + "/count"});
+            this.requests.add(new String[]{"GET", base + "/5c6a8b2e-0d4f"});
+            this.requests.add(new String[]{"DELETE", base + "/1024"});
+            this.requests.add(new String[]{"GET", base + "/android/1024"});
+            this.requests.add(new String[]{"GET", base + "/android/details"});
+            this.requests.add(new String[]{"POST", base + "/android/actions"});
+            this.requests.add(new String[]{"GET", base + "/android/1024/status"});
+            this.requests.add(new String[]{"PUT", base + "/type/android/id/1024"});
+            this.requests.add(new String[]{"GET", base + "/type/android/id/1024"});
+            this.requests.add(new String[]{"GET", base + "/admin@carbon.super"});
+            this.requests.add(new String[]{"GET", base + "/android/1024/status/history"});
+        }
+        this.requests.add(new String[]{"GET", CONTEXT + "/unknown/1024"});
+        this.apiResourcePermissions.addPermissionList(CONTEXT, this.permissions);
+    }
+
+    @Test
+    public void testPermissionTreeLookup() {
+        for (String[] request : this.requests) {
+            Permission permission = this.apiResourcePermissions.getPermission(CONTEXT, request[1], request[0]);
+            Assert.assertEquals(permission == null ? null : permission.getPath(),
+                    this.getMatchingPermission(request[1], request[0]),
+                    "Permission tree resolved a different permission for " + request[0] + " " + request[1]);
+        }
+    }
+
+    private void addPermission(String method, String url) {
+        Permission permission = new Permission();
+        permission.setMethod(method);
+        permission.setUrl(url);
+        permission.setUrlPattern(url.replace("*", "[a-zA-Z0-9-_.]+"));
+        permission.setName(method + " " + url);
+        permission.setPath("/permission/admin/device-mgt" + url.replace(CONTEXT, "").replace("*", "any")
+                + "/" + method.toLowerCase());
+        this.permissions.add(permission);
+    }
+
+    /**
+     * Regex based matching which the webapp authorizer did before the permission tree, which matches the request
+     * url against the url pattern of each resource, and picks the resource with a static path segment at the first
+     * position the templated resources differ.
+     */
+    String getMatchingPermission(String requestUri, String requestMethod) {
+        List<Permission> matchingResources = new ArrayList<>();
+        for (Permission permission : this.permissions) {
+            if (requestMethod.equals(permission.getMethod()) && requestUri.matches(permission.getUrlPattern())) {
+                if (requestUri.equals(permission.getUrl())) {
+                    return permission.getPath();
+                }
+                matchingResources.add(permission);
+            }
+        }
+        if (matchingResources.size() == 1) {
+            return matchingResources.get(0).getPath();
+        }
+        if (matchingResources.size() > 1) {
+            StringTokenizer st = new StringTokenizer(requestUri.replace(CONTEXT, ""), "/");
+            int tokenPosition = 1;
+            while (st.hasMoreTokens()) {
+                List<Permission> tempList = new ArrayList<>();
+                String currentToken = st.nextToken();
+                for (Permission matchingResource : matchingResources) {
+                    StringTokenizer stmr = new StringTokenizer(matchingResource.getUrlPattern()
+                            .replace(CONTEXT, ""), "/");
+                    int internalTokenPosition = 1;
+                    while (stmr.hasMoreTokens()) {
+                        String internalToken = stmr.nextToken();
+                        if ((tokenPosition == internalTokenPosition) && currentToken.equals(internalToken)) {
+                            tempList.add(matchingResource);
+                        }
+                        internalTokenPosition++;
+                        if (tokenPosition < internalTokenPosition) {
+                            break;
+                        }
+                    }
+                }
+                if (tempList.size() == 1) {
+                    return tempList.get(0).getPath();
+                }
+                tokenPosition++;
+            }
+        }
+        return null;
+    }
+}
@@ -17,9 +17,15 @@
  */
 package io.entgra.device.mgt.core.device.mgt.core.push.notification.mgt.task;
 
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.DeviceManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.operation.mgt.OperationManagementException;
+import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationContext;
+import io.entgra.device.mgt.core.device.mgt.common.push.notification.NotificationStrategy;
+import io.entgra.device.mgt.core.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
 import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
 import io.entgra.device.mgt.core.device.mgt.core.dto.operation.mgt.Operation;
 import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
@@ -41,9 +47,19 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.registry.core.exceptions.RegistryException;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class contains unit tests to test {@link PushNotificationSchedulerTask} class.
@@ -93,4 +109,132 @@ public class PushNotificationSchedulerTaskTest extends BaseDeviceManagementTest
             OperationManagementDAOFactory.closeConnection();
         }
     }
+
+    @Test(description = "Tests that the mappings of push notifications which could not be delivered are left " +
+            "scheduled", dependsOnMethods = "testPushNotificationScheduler")
+    public void testUndeliveredPushNotificationIsRescheduled() throws Exception {
+        Device device = this.getDeviceOfMatchingEnrolment();
+        Operation operation = new Operation();
+        operation.setType(Operation.Type.COMMAND);
+        operation.setCode("UNDELIVERED_PUSH_NOTIFICATION");
+        operation.setInitiatedBy("admin");
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            operation.setId(OperationManagementDAOFactory.getCommandOperationDAO().addOperation(operation));
+            OperationManagementDAOFactory.getOperationMappingDAO().addOperationMapping(operation,
+                    Collections.singletonList(device), true, TestDataHolder.SUPER_TENANT_ID);
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+
+        NotificationStrategy failingStrategy = Mockito.mock(NotificationStrategy.class);
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new PushNotificationExecutionFailedException("Push provider is unavailable"));
+        Mockito.doReturn(failure).when(failingStrategy).executeAsync(Mockito.any(NotificationContext.class));
+        Mockito.doReturn(failingStrategy).when(this.deviceMgtProviderService)
+                .getNotificationStrategyByDeviceType(Mockito.anyString());
+        this.pushNotificationSchedulerTask.run();
+        Assert.assertEquals(this.getPushNotificationStatus(operation.getId(), device.getEnrolmentInfo().getId()),
+                Operation.PushNotificationStatus.SCHEDULED.toString(),
+                "Push notification which could not be delivered is not left to be retried.");
+
+        Mockito.doReturn(new TestNotificationStrategy()).when(this.deviceMgtProviderService)
+                .getNotificationStrategyByDeviceType(Mockito.anyString());
+        this.pushNotificationSchedulerTask.run();
+        Assert.assertEquals(this.getPushNotificationStatus(operation.getId(), device.getEnrolmentInfo().getId()),
+                Operation.PushNotificationStatus.COMPLETED.toString(),
+                "Retried push notification is not marked as completed.");
+    }
+
+    @Test(description = "Tests that a provider has no more deliveries in flight than its concurrency",
+            dependsOnMethods = "testUndeliveredPushNotificationIsRescheduled")
+    public void testProviderConcurrencyIsBoundedUntilDelivery() throws Exception {
+        int providerConcurrency = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPushNotificationConfiguration().getSchedulerProviderConcurrency();
+        Device device = this.getDeviceOfMatchingEnrolment();
+        List<Integer> operationIds = new ArrayList<>();
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            for (int i = 0; i < providerConcurrency * 3; i++) {
+                Operation operation = new Operation();
+                operation.setType(Operation.Type.COMMAND);
+                operation.setCode("BOUNDED_PUSH_NOTIFICATION");
+                operation.setInitiatedBy("admin");
+                operation.setId(OperationManagementDAOFactory.getCommandOperationDAO().addOperation(operation));
+                OperationManagementDAOFactory.getOperationMappingDAO().addOperationMapping(operation,
+                        Collections.singletonList(device), true, TestDataHolder.SUPER_TENANT_ID);
+                operationIds.add(operation.getId());
+            }
+            OperationManagementDAOFactory.commitTransaction();
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+
+        // Deliveries complete a while after they are sent, as done by the providers which wait for an acknowledgement
+        ScheduledExecutorService acknowledger = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        NotificationStrategy delayedStrategy = Mockito.mock(NotificationStrategy.class);
+        Mockito.doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<Void> delivery = new CompletableFuture<>();
+            acknowledger.schedule(() -> {
+                inFlight.decrementAndGet();
+                delivery.complete(null);
+            }, 50, TimeUnit.MILLISECONDS);
+            return delivery;
+        }).when(delayedStrategy).executeAsync(Mockito.any(NotificationContext.class));
+        Mockito.doReturn(delayedStrategy).when(this.deviceMgtProviderService)
+                .getNotificationStrategyByDeviceType(Mockito.anyString());
+        try {
+            this.pushNotificationSchedulerTask.run();
+        } finally {
+            acknowledger.shutdown();
+        }
+
+        Assert.assertTrue(maxInFlight.get() <= providerConcurrency, "Provider had " + maxInFlight.get() +
+                " deliveries in flight, while its concurrency is " + providerConcurrency);
+        for (int operationId : operationIds) {
+            Assert.assertEquals(this.getPushNotificationStatus(operationId, device.getEnrolmentInfo().getId()),
+                    Operation.PushNotificationStatus.COMPLETED.toString(),
+                    "Delivered push notification is not marked as completed.");
+        }
+    }
+
+    /**
+     * Scheduled mappings are looked up with the enrolment id as the device id, hence a device of such an enrolment is
+     * used to schedule a push notification.
+     */
+    private Device getDeviceOfMatchingEnrolment() throws SQLException {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT d.ID, d.DEVICE_IDENTIFICATION, dt.NAME " +
+                     "FROM DM_DEVICE d, DM_DEVICE_TYPE dt, DM_ENROLMENT e WHERE d.DEVICE_TYPE_ID = dt.ID " +
+                     "AND e.DEVICE_ID = d.ID AND e.ID = d.ID ORDER BY d.ID")) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                Assert.assertTrue(rs.next(), "No device is enrolled to schedule a push notification.");
+                Device device = new Device();
+                device.setId(rs.getInt("ID"));
+                device.setDeviceIdentifier(rs.getString("DEVICE_IDENTIFICATION"));
+                device.setType(rs.getString("NAME"));
+                EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+                enrolmentInfo.setId(device.getId());
+                device.setEnrolmentInfo(enrolmentInfo);
+                return device;
+            }
+        }
+    }
+
+    private String getPushNotificationStatus(int operationId, int enrolmentId) throws SQLException {
+        try (Connection conn = getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT PUSH_NOTIFICATION_STATUS FROM " +
+                     "DM_ENROLMENT_OP_MAPPING WHERE OPERATION_ID = ? AND ENROLMENT_ID = ?")) {
+            stmt.setInt(1, operationId);
+            stmt.setInt(2, enrolmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Assert.assertTrue(rs.next(), "Operation mapping is not found.");
+                return rs.getString(1);
+            }
+        }
+    }
 }
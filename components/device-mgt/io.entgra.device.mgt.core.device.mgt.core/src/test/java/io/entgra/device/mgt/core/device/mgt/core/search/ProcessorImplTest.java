@@ -37,8 +37,13 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This class holds unit test cases for io.entgra.device.mgt.core.device.mgt.core.search.mgt.impl.ProcessorImpl
@@ -90,6 +95,100 @@ public class ProcessorImplTest extends BaseDeviceManagementTest {
         Assert.assertEquals(devices.size(), 5, "There should be exactly 5 devices with matching search criteria");
     }
 
+    @Test (description = "Search for device pages with the enrolment id cursor")
+    public void testSearchDevicePages() throws SearchMgtException {
+        SearchContext context = new SearchContext();
+        context.setConditions(this.getIMEICondition());
+        ProcessorImpl processor = new ProcessorImpl();
+        List<Integer> enrolmentIds = new ArrayList<>();
+        int afterEnrolmentId = 0;
+        List<Device> devices;
+        do {
+            devices = processor.execute(context, afterEnrolmentId, 2, false);
+            Assert.assertTrue(devices.size() <= 2, "Page should not exceed the limit");
+            for (Device device : devices) {
+                Assert.assertTrue(device.getEnrolmentInfo().getId() > afterEnrolmentId,
+                        "Devices of a page should be after the cursor");
+                Assert.assertEquals(device.getDeviceInfo().getDeviceDetailsMap().get("IMEI"), "e6f236ac82537a8e");
+                afterEnrolmentId = device.getEnrolmentInfo().getId();
+                enrolmentIds.add(afterEnrolmentId);
+            }
+        } while (!devices.isEmpty());
+        Assert.assertEquals(enrolmentIds.size(), 5, "There should be exactly 5 devices in all the pages");
+    }
+
+    @Test (description = "Search for device pages when devices are joined with more than one detail row")
+    public void testSearchDevicePagesWithDuplicateRows() throws Exception {
+        int lastDetailId;
+        try (Connection conn = getDataSource().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT MAX(ID) FROM DM_DEVICE_DETAIL");
+                 ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                lastDetailId = rs.getInt(1);
+            }
+            // each search device gets a second detail row, so that the matches have twice as many rows as devices
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO DM_DEVICE_DETAIL (DEVICE_ID, " +
+                    "ENROLMENT_ID, UPDATE_TIMESTAMP) SELECT DD.DEVICE_ID, DD.ENROLMENT_ID, DD.UPDATE_TIMESTAMP " +
+                    "FROM DM_DEVICE_DETAIL DD INNER JOIN DM_DEVICE D ON D.ID = DD.DEVICE_ID " +
+                    "WHERE D.DEVICE_IDENTIFICATION LIKE ?")) {
+                stmt.setString(1, DEVICE_ID_PREFIX + "%");
+                Assert.assertTrue(stmt.executeUpdate() >= deviceIdentifiers.size(),
+                        "Every search device should have a duplicate detail row");
+            }
+        }
+        try {
+            SearchContext context = new SearchContext();
+            context.setConditions(this.getIMEICondition());
+            ProcessorImpl processor = new ProcessorImpl();
+            Set<Integer> enrolmentIds = new HashSet<>();
+            int pageCount = 0;
+            int afterEnrolmentId = 0;
+            List<Device> devices;
+            do {
+                devices = processor.execute(context, afterEnrolmentId, 2, false);
+                if (!devices.isEmpty()) {
+                    pageCount++;
+                    Assert.assertEquals(devices.size(), Math.min(2, deviceIdentifiers.size() - enrolmentIds.size()),
+                            "Page should be filled up to the limit despite the duplicate rows");
+                }
+                for (Device device : devices) {
+                    Assert.assertTrue(enrolmentIds.add(device.getEnrolmentInfo().getId()),
+                            "Device should not be repeated across the pages");
+                    afterEnrolmentId = device.getEnrolmentInfo().getId();
+                }
+            } while (!devices.isEmpty());
+            Assert.assertEquals(enrolmentIds.size(), 5, "There should be exactly 5 devices in all the pages");
+            Assert.assertEquals(pageCount, 3, "5 devices should be read in 3 pages of 2");
+        } finally {
+            try (Connection conn = getDataSource().getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM DM_DEVICE_DETAIL WHERE ID > ?")) {
+                stmt.setInt(1, lastDetailId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    @Test (description = "Stream the search results until the handler stops")
+    public void testStreamSearchResults() throws SearchMgtException {
+        SearchContext context = new SearchContext();
+        context.setConditions(this.getIMEICondition());
+        ProcessorImpl processor = new ProcessorImpl();
+        List<Device> devices = new ArrayList<>();
+        processor.execute(context, false, chunk -> {
+            devices.addAll(chunk);
+            return true;
+        });
+        Assert.assertEquals(devices.size(), 5, "There should be exactly 5 devices streamed");
+
+        List<Device> firstChunk = new ArrayList<>();
+        processor.execute(context, false, chunk -> {
+            Assert.assertTrue(firstChunk.isEmpty(), "No chunk should be passed after the handler stops");
+            firstChunk.addAll(chunk);
+            return false;
+        });
+        Assert.assertEquals(firstChunk.size(), 5, "All 5 devices should fit in the first chunk");
+    }
+
     @Test (description = "Search for device with or condition")
     public void testSearchDevicesWIthORCondition() throws SearchMgtException {
         SearchContext context = new SearchContext();
@@ -162,4 +261,15 @@ public class ProcessorImplTest extends BaseDeviceManagementTest {
             }
         }
     }
+
+    private List<Condition> getIMEICondition() {
+        List<Condition> conditions = new ArrayList<>();
+        Condition condition = new Condition();
+        condition.setKey("IMEI");
+        condition.setOperator("=");
+        condition.setValue("e6f236ac82537a8e");
+        condition.setState(Condition.State.AND);
+        conditions.add(condition);
+        return conditions;
+    }
 }
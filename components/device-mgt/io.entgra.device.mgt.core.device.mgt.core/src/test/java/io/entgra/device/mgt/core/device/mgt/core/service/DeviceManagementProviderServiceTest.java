@@ -37,9 +37,11 @@ import io.entgra.device.mgt.core.device.mgt.common.exceptions.TransactionManagem
 import io.entgra.device.mgt.core.device.mgt.common.license.mgt.License;
 import io.entgra.device.mgt.core.device.mgt.core.TestDeviceManagementService;
 import io.entgra.device.mgt.core.device.mgt.core.authorization.DeviceAccessAuthorizationServiceImpl;
+import io.entgra.device.mgt.core.device.mgt.core.cache.impl.DeviceCacheManagerImpl;
 import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
 import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
 import io.entgra.device.mgt.core.device.mgt.core.config.DeviceConfigurationManager;
+import io.entgra.device.mgt.core.device.mgt.core.config.cache.DeviceCacheConfiguration;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceDAO;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOException;
 import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
@@ -65,6 +67,9 @@ import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import java.io.File;
 import java.io.InputStream;
 import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.util.*;
 
@@ -73,6 +78,7 @@ public class DeviceManagementProviderServiceTest extends BaseDeviceManagementTes
     private static final Log log = LogFactory.getLog(DeviceManagementProviderServiceTest.class);
     public static final String DEVICE_ID = "9999";
     private static final String ALTERNATE_DEVICE_ID = "1128";
+    private static final String NON_EXISTENT_CACHED_DEVICE_ID = "1129";
     private static final String DEVICE_TYPE = "RANDOM_DEVICE_TYPE";
     private final DeviceDetailsDAO deviceDetailsDAO = DeviceManagementDAOFactory.getDeviceDetailsDAO();
     private static final String MDM_CONFIG_LOCATION = "src" + File.separator + "test" + File.separator + "resources" +
@@ -215,6 +221,40 @@ public class DeviceManagementProviderServiceTest extends BaseDeviceManagementTes
         }
     }
 
+    @Test
+    public void testReEnrollmentOfDeviceCachedAsNonExistent() throws Exception {
+        if (!isMock()) {
+            DeviceIdentifier deviceIdentifier = new DeviceIdentifier(NON_EXISTENT_CACHED_DEVICE_ID, DEVICE_TYPE);
+            DeviceCacheConfiguration cacheConfig = DeviceConfigurationManager.getInstance()
+                    .getDeviceManagementConfig().getDeviceCacheConfiguration();
+            boolean isCacheEnabled = cacheConfig.isEnabled();
+            cacheConfig.setEnabled(true);
+            try {
+                Assert.assertTrue(deviceMgtService.enrollDevice(TestDataHolder.generateDummyDeviceData(deviceIdentifier)));
+                // the device is enrolled through another node while this node has cached it as non-existent
+                DeviceCacheManagerImpl.getInstance().removeDeviceFromCache(deviceIdentifier,
+                        MultitenantConstants.SUPER_TENANT_ID);
+                DeviceCacheManagerImpl.getInstance().addNonExistentDeviceToCache(deviceIdentifier,
+                        MultitenantConstants.SUPER_TENANT_ID);
+
+                Assert.assertTrue(deviceMgtService.enrollDevice(TestDataHolder.generateDummyDeviceData(deviceIdentifier)));
+                try (Connection conn = getDataSource().getConnection();
+                     PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM DM_DEVICE " +
+                             "WHERE DEVICE_IDENTIFICATION = ?")) {
+                    stmt.setString(1, NON_EXISTENT_CACHED_DEVICE_ID);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        Assert.assertTrue(rs.next());
+                        Assert.assertEquals(rs.getInt(1), 1, "Device cached as non-existent is enrolled again.");
+                    }
+                }
+            } finally {
+                DeviceCacheManagerImpl.getInstance().removeDeviceFromCache(deviceIdentifier,
+                        MultitenantConstants.SUPER_TENANT_ID);
+                cacheConfig.setEnabled(isCacheEnabled);
+            }
+        }
+    }
+
     @Test(dependsOnMethods = {"testReEnrollmentofSameDeviceUnderSameUser"})
     public void testReEnrollmentofSameDeviceWithOtherUser() throws DeviceManagementException {
         if (!isMock()) {
@@ -361,6 +401,24 @@ public class DeviceManagementProviderServiceTest extends BaseDeviceManagementTes
         Assert.assertTrue(device.getDeviceIdentifier().equalsIgnoreCase(DEVICE_ID));
     }
 
+    @Test(dependsOnMethods = {"testSuccessfulDeviceEnrollment"})
+    public void testGetDevicesByIdentifiers() throws DeviceManagementException {
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier(DEVICE_ID, DEVICE_TYPE);
+        DeviceIdentifier nonExistingIdentifier = new DeviceIdentifier("NON-EXISTING-DEVICE", DEVICE_TYPE);
+        Map<DeviceIdentifier, Device> devices = deviceMgtService.getDevices(
+                Arrays.asList(deviceIdentifier, nonExistingIdentifier));
+        if (!isMock()) {
+            Assert.assertEquals(devices.size(), 1);
+            Assert.assertTrue(devices.get(deviceIdentifier).getDeviceIdentifier().equalsIgnoreCase(DEVICE_ID));
+            Assert.assertFalse(devices.containsKey(nonExistingIdentifier));
+        }
+    }
+
+    @Test(expectedExceptions = DeviceManagementException.class)
+    public void testGetDevicesByNullIdentifiers() throws DeviceManagementException {
+        deviceMgtService.getDevices((List<DeviceIdentifier>) null);
+    }
+
     @Test(dependsOnMethods = {"testSuccessfulDeviceEnrollment"})
     public void testGetDeviceWithInfo() throws DeviceManagementException {
         Device device = deviceMgtService.getDevice(new DeviceIdentifier(DEVICE_ID, DEVICE_TYPE)
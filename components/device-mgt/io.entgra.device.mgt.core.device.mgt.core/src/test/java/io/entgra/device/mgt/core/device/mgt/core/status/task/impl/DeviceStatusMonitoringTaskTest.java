@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.device.mgt.core.status.task.impl;
+
+import com.google.gson.Gson;
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceStatusTaskPluginConfig;
+import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
+import io.entgra.device.mgt.core.device.mgt.common.metadata.mgt.DeviceStatusManagementService;
+import io.entgra.device.mgt.core.device.mgt.core.common.BaseDeviceManagementTest;
+import io.entgra.device.mgt.core.device.mgt.core.common.TestDataHolder;
+import io.entgra.device.mgt.core.device.mgt.core.dao.DeviceManagementDAOFactory;
+import io.entgra.device.mgt.core.device.mgt.core.dto.DeviceType;
+import io.entgra.device.mgt.core.device.mgt.core.internal.DeviceManagementDataHolder;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.tenant.TenantManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the status transitions of the devices by their last seen time, and the watermark which limits a run to the
+ * devices which crossed an idle threshold since the previous run.
+ */
+public class DeviceStatusMonitoringTaskTest extends BaseDeviceManagementTest {
+
+    private static final String DEVICE_TYPE = "STATUS-MONITORING-DEVICE-TYPE";
+    private static final int IDLE_TIME_TO_MARK_UNREACHABLE = 600;
+    private static final int IDLE_TIME_TO_MARK_INACTIVE = 3600;
+
+    private int deviceTypeId;
+    private RealmService realmService;
+    private DeviceStatusManagementService deviceStatusManagementService;
+    private int activeEnrolmentId;
+    private int unreachableEnrolmentId;
+    private int inactiveEnrolmentId;
+
+    @BeforeClass
+    @Override
+    public void init() throws Exception {
+        DeviceType deviceType = TestDataHolder.generateDeviceTypeData(DEVICE_TYPE);
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            DeviceManagementDAOFactory.getDeviceTypeDAO().addDeviceType(deviceType, TestDataHolder.SUPER_TENANT_ID,
+                    true);
+            DeviceManagementDAOFactory.commitTransaction();
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            deviceTypeId = DeviceManagementDAOFactory.getDeviceTypeDAO()
+                    .getDeviceType(DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID).getId();
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+
+        realmService = DeviceManagementDataHolder.getInstance().getRealmService();
+        RealmService taskRealmService = Mockito.mock(RealmService.class);
+        TenantManager tenantManager = Mockito.mock(TenantManager.class);
+        Mockito.when(taskRealmService.getTenantManager()).thenReturn(tenantManager);
+        Mockito.when(tenantManager.getDomain(TestDataHolder.SUPER_TENANT_ID))
+                .thenReturn(TestDataHolder.SUPER_TENANT_DOMAIN);
+        DeviceManagementDataHolder.getInstance().setRealmService(taskRealmService);
+
+        deviceStatusManagementService = DeviceManagementDataHolder.getInstance().getDeviceStatusManagementService();
+        DeviceStatusManagementService taskDeviceStatusManagementService =
+                Mockito.mock(DeviceStatusManagementService.class);
+        Mockito.when(taskDeviceStatusManagementService.getDeviceStatusCheck(Mockito.anyInt())).thenReturn(false);
+        DeviceManagementDataHolder.getInstance().setDeviceStatusManagementService(taskDeviceStatusManagementService);
+    }
+
+    @AfterClass
+    public void cleanup() {
+        DeviceManagementDataHolder.getInstance().setRealmService(realmService);
+        DeviceManagementDataHolder.getInstance().setDeviceStatusManagementService(deviceStatusManagementService);
+    }
+
+    @Test(description = "Marks the devices idle beyond the thresholds as unreachable and inactive")
+    public void testStatusTransitions() throws Exception {
+        activeEnrolmentId = addDevice(TimeUnit.MINUTES.toMillis(1));
+        unreachableEnrolmentId = addDevice(TimeUnit.MINUTES.toMillis(20));
+        inactiveEnrolmentId = addDevice(TimeUnit.HOURS.toMillis(2));
+
+        runTask(IDLE_TIME_TO_MARK_INACTIVE);
+
+        Assert.assertEquals(getStatus(activeEnrolmentId), EnrolmentInfo.Status.ACTIVE.toString());
+        Assert.assertEquals(getStatus(unreachableEnrolmentId), EnrolmentInfo.Status.UNREACHABLE.toString());
+        Assert.assertEquals(getStatus(inactiveEnrolmentId), EnrolmentInfo.Status.INACTIVE.toString());
+        Assert.assertEquals(getStatusHistoryCount(unreachableEnrolmentId, EnrolmentInfo.Status.UNREACHABLE), 1,
+                "Status history of the unreachable device is not recorded.");
+        Assert.assertEquals(getStatusHistoryCount(inactiveEnrolmentId, EnrolmentInfo.Status.INACTIVE), 1,
+                "Status history of the inactive device is not recorded.");
+    }
+
+    @Test(description = "Looks up only the devices idle since the watermark of the previous run",
+            dependsOnMethods = "testStatusTransitions")
+    public void testWatermark() throws Exception {
+        // Last seen behind the watermark, as if the status was changed after the device went idle
+        int staleEnrolmentId = addDevice(TimeUnit.HOURS.toMillis(3));
+
+        runTask(IDLE_TIME_TO_MARK_INACTIVE);
+
+        Assert.assertEquals(getStatus(staleEnrolmentId), EnrolmentInfo.Status.ACTIVE.toString(),
+                "Device last seen behind the watermark is looked up by an incremental run.");
+        Assert.assertEquals(getStatusHistoryCount(unreachableEnrolmentId, EnrolmentInfo.Status.UNREACHABLE), 1,
+                "Unreachable device is transited again.");
+
+        // Changing an idle threshold forces a full scan
+        runTask(IDLE_TIME_TO_MARK_INACTIVE - 1);
+
+        Assert.assertEquals(getStatus(staleEnrolmentId), EnrolmentInfo.Status.INACTIVE.toString(),
+                "Device last seen behind the watermark is not looked up by a full scan.");
+        Assert.assertEquals(getStatus(activeEnrolmentId), EnrolmentInfo.Status.ACTIVE.toString());
+        Assert.assertEquals(getStatus(unreachableEnrolmentId), EnrolmentInfo.Status.UNREACHABLE.toString());
+    }
+
+    private void runTask(int idleTimeToMarkInactive) {
+        DeviceStatusTaskPluginConfig config = new DeviceStatusTaskPluginConfig();
+        config.setRequireStatusMonitoring(true);
+        config.setIdleTimeToMarkInactive(idleTimeToMarkInactive);
+        config.setIdleTimeToMarkUnreachable(IDLE_TIME_TO_MARK_UNREACHABLE);
+        Map<String, String> properties = new HashMap<>();
+        properties.put(DeviceStatusTaskManagerServiceImpl.DEVICE_TYPE, DEVICE_TYPE);
+        properties.put(DeviceStatusTaskManagerServiceImpl.DEVICE_TYPE_ID, String.valueOf(deviceTypeId));
+        properties.put(DeviceStatusTaskManagerServiceImpl.DEVICE_STATUS_TASK_CONFIG, new Gson().toJson(config));
+        DeviceStatusMonitoringTask task = new DeviceStatusMonitoringTask();
+        task.setProperties(properties);
+        task.executeDynamicTask();
+    }
+
+    private int addDevice(long idleTimeMillis) throws Exception {
+        Device device = TestDataHolder.generateDummyDeviceData(DEVICE_TYPE);
+        device.setDeviceIdentifier(UUID.randomUUID().toString());
+        int enrolmentId;
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            int deviceId = DeviceManagementDAOFactory.getDeviceDAO().addDevice(deviceTypeId, device,
+                    TestDataHolder.SUPER_TENANT_ID);
+            device.setId(deviceId);
+            enrolmentId = DeviceManagementDAOFactory.getDeviceDAO().addEnrollment(device,
+                    TestDataHolder.SUPER_TENANT_ID);
+            DeviceManagementDAOFactory.commitTransaction();
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        try (Connection conn = this.getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE DM_DEVICE SET LAST_UPDATED_TIMESTAMP = ? WHERE ID = ?")) {
+            stmt.setTimestamp(1, new Timestamp(System.currentTimeMillis() - idleTimeMillis));
+            stmt.setInt(2, device.getId());
+            stmt.executeUpdate();
+        }
+        return enrolmentId;
+    }
+
+    private String getStatus(int enrolmentId) throws SQLException {
+        try (Connection conn = this.getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT STATUS FROM DM_ENROLMENT WHERE ID = ?")) {
+            stmt.setInt(1, enrolmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Assert.assertTrue(rs.next(), "Enrolment " + enrolmentId + " is not found.");
+                return rs.getString("STATUS");
+            }
+        }
+    }
+
+    private int getStatusHistoryCount(int enrolmentId, EnrolmentInfo.Status status) throws SQLException {
+        try (Connection conn = this.getDataSource().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM DM_DEVICE_STATUS WHERE ENROLMENT_ID = ? AND STATUS = ?")) {
+            stmt.setInt(1, enrolmentId);
+            stmt.setString(2, status.toString());
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+}
@@ -38,12 +38,16 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE (
      DEVICE_IDENTIFICATION VARCHAR(300) DEFAULT NULL,
      LAST_UPDATED_TIMESTAMP TIMESTAMP NOT NULL,
      TENANT_ID INTEGER DEFAULT 0,
+     PARTITION_BUCKET INTEGER NOT NULL DEFAULT 0,
      PRIMARY KEY (ID),
      CONSTRAINT fk_DM_DEVICE_DM_DEVICE_TYPE2 FOREIGN KEY (DEVICE_TYPE_ID)
      REFERENCES DM_DEVICE_TYPE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION,
      CONSTRAINT uk_DM_DEVICE UNIQUE (NAME, DEVICE_TYPE_ID, DEVICE_IDENTIFICATION, TENANT_ID)
 );
 
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TYPE_LAST_UPDATED_TIMESTAMP ON DM_DEVICE(DEVICE_TYPE_ID, LAST_UPDATED_TIMESTAMP);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TYPE_PARTITION_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET);
+
 CREATE TABLE IF NOT EXISTS DM_DEVICE_PROPERTIES (
      DEVICE_TYPE_NAME VARCHAR(300) NOT NULL,
      DEVICE_IDENTIFICATION VARCHAR(300) NOT NULL,
@@ -506,6 +510,10 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE_LOCATION (
   COUNTRY VARCHAR(45) NULL,
   GEO_HASH VARCHAR(45) NULL,
   UPDATE_TIMESTAMP BIGINT NOT NULL,
+  ALTITUDE DOUBLE NULL,
+  SPEED FLOAT NULL,
+  BEARING FLOAT NULL,
+  DISTANCE DOUBLE NULL,
   PRIMARY KEY (ID),
   CONSTRAINT DM_DEVICE_LOCATION_DEVICE
     FOREIGN KEY (DEVICE_ID)
@@ -520,6 +528,25 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE_LOCATION (
 );
 CREATE INDEX DM_DEVICE_LOCATION_GEO_hashx ON DM_DEVICE_LOCATION(GEO_HASH ASC);
 
+CREATE TABLE IF NOT EXISTS DM_DEVICE_HISTORY_LAST_SEVEN_DAYS
+(
+    ID               INTEGER AUTO_INCREMENT NOT NULL,
+    DEVICE_ID        INT                    NOT NULL,
+    DEVICE_ID_NAME   VARCHAR(255)           NOT NULL,
+    TENANT_ID        INT                    NOT NULL,
+    DEVICE_TYPE_NAME VARCHAR(45)            NOT NULL,
+    LATITUDE         DOUBLE                 NULL,
+    LONGITUDE        DOUBLE                 NULL,
+    SPEED            FLOAT                  NULL,
+    HEADING          FLOAT                  NULL,
+    TIMESTAMP        BIGINT                 NOT NULL,
+    GEO_HASH         VARCHAR(45)            NULL,
+    DEVICE_OWNER     VARCHAR(45)            NULL,
+    DEVICE_ALTITUDE  DOUBLE                 NULL,
+    DISTANCE         DOUBLE                 NULL,
+    PRIMARY KEY (ID)
+);
+
 CREATE TABLE IF NOT EXISTS DM_DEVICE_DETAIL (
   ID INT NOT NULL AUTO_INCREMENT,
   DEVICE_ID INT NOT NULL,
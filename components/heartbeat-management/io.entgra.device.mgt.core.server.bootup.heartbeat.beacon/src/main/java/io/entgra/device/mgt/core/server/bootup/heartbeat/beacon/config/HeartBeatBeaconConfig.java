@@ -42,6 +42,7 @@ public class HeartBeatBeaconConfig {
     private int notifierDelay;
     private int serverTimeOutIntervalInSeconds;
     private int timeSkew;
+    private int clusterViewMaxStalenessInSeconds;
     private DataSourceConfig dataSourceConfig;
 
     private static HeartBeatBeaconConfig config;
@@ -100,6 +101,15 @@ public class HeartBeatBeaconConfig {
         this.serverTimeOutIntervalInSeconds = serverTimeOutIntervalInSeconds;
     }
 
+    @XmlElement(name = "ClusterViewMaxStalenessInSeconds")
+    public int getClusterViewMaxStalenessInSeconds() {
+        return clusterViewMaxStalenessInSeconds;
+    }
+
+    public void setClusterViewMaxStalenessInSeconds(int clusterViewMaxStalenessInSeconds) {
+        this.clusterViewMaxStalenessInSeconds = clusterViewMaxStalenessInSeconds;
+    }
+
     @XmlElement(name = "DataSourceConfiguration", required = true)
     public DataSourceConfig getDataSourceConfig() {
         return dataSourceConfig;
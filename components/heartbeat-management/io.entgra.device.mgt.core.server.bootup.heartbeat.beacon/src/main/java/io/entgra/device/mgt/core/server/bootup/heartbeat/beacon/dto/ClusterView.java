@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto;
+
+import io.entgra.device.mgt.core.device.mgt.common.ServerCtxInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the active servers of the cluster as seen by the local server. The version is incremented
+ * whenever the formation of the cluster, i.e. the set of active servers or the hash index of the local server, changes.
+ */
+public class ClusterView {
+
+    private final long version;
+    private final Map<String, ServerContext> activeServers;
+    private final ServerContext localServer;
+    private final long refreshedTimeMillis;
+    private final long formationChangedTimeMillis;
+
+    public ClusterView(long version, Map<String, ServerContext> activeServers, ServerContext localServer,
+                       long refreshedTimeMillis, long formationChangedTimeMillis) {
+        this.version = version;
+        this.activeServers = Collections.unmodifiableMap(new HashMap<>(activeServers));
+        this.localServer = localServer;
+        this.refreshedTimeMillis = refreshedTimeMillis;
+        this.formationChangedTimeMillis = formationChangedTimeMillis;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return active servers of the cluster keyed by the server UUID
+     */
+    public Map<String, ServerContext> getActiveServers() {
+        return activeServers;
+    }
+
+    /**
+     * @return context of the local server, or null if the local server is not seen as active
+     */
+    public ServerContext getLocalServer() {
+        return localServer;
+    }
+
+    public int getActiveServerCount() {
+        return activeServers.size();
+    }
+
+    public long getRefreshedTimeMillis() {
+        return refreshedTimeMillis;
+    }
+
+    public long getFormationChangedTimeMillis() {
+        return formationChangedTimeMillis;
+    }
+
+    /**
+     * @return time elapsed in milliseconds since the view was read from the database
+     */
+    public long getStalenessInMillis() {
+        return System.currentTimeMillis() - refreshedTimeMillis;
+    }
+
+    /**
+     * @return server context information of the local server, or null if the local server is not seen as active
+     */
+    public ServerCtxInfo getServerCtxInfo() {
+        if (localServer == null) {
+            return null;
+        }
+        return new ServerCtxInfo(new ArrayList<>(activeServers.keySet()), localServer.getUuid(),
+                localServer.getIndex());
+    }
+
+    /**
+     * Checks whether the formation of the cluster differs from the given active servers.
+     *
+     * @param servers     active servers keyed by the server UUID
+     * @param localServer context of the local server among the given active servers
+     * @return true if the active servers or the hash index of the local server is different
+     */
+    public boolean isFormationChanged(Map<String, ServerContext> servers, ServerContext localServer) {
+        if (!servers.keySet().equals(activeServers.keySet())) {
+            return true;
+        }
+        if (this.localServer == null || localServer == null) {
+            return this.localServer != localServer;
+        }
+        return this.localServer.getIndex() != localServer.getIndex();
+    }
+}
@@ -19,6 +19,7 @@
 package io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.service;
 
 import io.entgra.device.mgt.core.device.mgt.common.ServerCtxInfo;
+import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.ClusterView;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.HeartBeatEvent;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.ServerContext;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.exception.HeartBeatManagementException;
@@ -31,6 +32,15 @@ public interface HeartBeatManagementService {
 
     ServerCtxInfo getServerCtxInfo() throws HeartBeatManagementException;
 
+    /**
+     * Get the cached view of the active servers. The view is refreshed by the heart beat notifier and is read from
+     * the database again only if it is older than the configured maximum staleness.
+     *
+     * @return the cluster view along with its version and staleness
+     * @throws HeartBeatManagementException if the active servers cannot be retrieved
+     */
+    ClusterView getClusterView() throws HeartBeatManagementException;
+
     String updateServerContext(ServerContext ctx) throws HeartBeatManagementException;
 
     boolean recordHeartBeat(HeartBeatEvent event) throws HeartBeatManagementException;
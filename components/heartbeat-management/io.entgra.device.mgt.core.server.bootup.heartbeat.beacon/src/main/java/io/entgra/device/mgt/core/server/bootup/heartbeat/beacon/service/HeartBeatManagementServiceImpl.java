@@ -24,6 +24,7 @@ import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.config.HeartBeat
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dao.HeartBeatBeaconDAOFactory;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dao.HeartBeatDAO;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dao.exception.HeartBeatDAOException;
+import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.ClusterView;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.ElectedCandidate;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.HeartBeatEvent;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.ServerContext;
@@ -43,8 +44,10 @@ public class HeartBeatManagementServiceImpl implements HeartBeatManagementServic
 
     private final HeartBeatDAO heartBeatDAO;
 
-    private static int lastActiveCount = -1;
-    private static int lastHashIndex = -1;
+    private static final int DEFAULT_CLUSTER_VIEW_MAX_STALENESS = 5;
+    private static final Object clusterViewLock = new Object();
+    private static volatile ClusterView clusterView;
+    private static long lastNotifiedVersion = 0;
     private static volatile boolean isQualified = false;
 
     public HeartBeatManagementServiceImpl() {
@@ -54,24 +57,32 @@ public class HeartBeatManagementServiceImpl implements HeartBeatManagementServic
 
     @Override
     public ServerCtxInfo getServerCtxInfo() throws HeartBeatManagementException {
-        int hashIndex;
-        ServerContext localServerCtx;
-        ServerCtxInfo serverCtxInfo = null;
-        if (HeartBeatBeaconConfig.getInstance().isEnabled()) {
+        return getClusterView().getServerCtxInfo();
+    }
+
+    @Override
+    public ClusterView getClusterView() throws HeartBeatManagementException {
+        if (!HeartBeatBeaconConfig.getInstance().isEnabled()) {
+            String msg = "Heart Beat Configuration Disabled. Server Context Information Not available.";
+            log.error(msg);
+            throw new HeartBeatManagementException(msg);
+        }
+        ClusterView view = clusterView;
+        long maxStalenessMillis = getClusterViewMaxStalenessMillis();
+        if (view != null && view.getStalenessInMillis() <= maxStalenessMillis) {
+            return view;
+        }
+        synchronized (clusterViewLock) {
+            view = clusterView;
+            if (view != null && view.getStalenessInMillis() <= maxStalenessMillis) {
+                return view;
+            }
             try {
                 HeartBeatBeaconDAOFactory.openConnection();
                 int timeOutIntervalInSeconds = HeartBeatBeaconConfig.getInstance().getServerTimeOutIntervalInSeconds();
                 int timeSkew = HeartBeatBeaconConfig.getInstance().getTimeSkew();
                 int cumulativeTimeOut = timeOutIntervalInSeconds + timeSkew;
-                String localServerUUID = HeartBeatBeaconDataHolder.getInstance().getLocalServerUUID();
-                Map<String, ServerContext> serverCtxMap = heartBeatDAO.getActiveServerDetails(cumulativeTimeOut);
-                if (!serverCtxMap.isEmpty()) {
-                    localServerCtx = serverCtxMap.get(localServerUUID);
-                    if (localServerCtx != null) {
-                        hashIndex = localServerCtx.getIndex();
-                        serverCtxInfo = new ServerCtxInfo(serverCtxMap.size(), hashIndex);
-                    }
-                }
+                return refreshClusterView(heartBeatDAO.getActiveServerDetails(cumulativeTimeOut));
             } catch (SQLException e) {
                 String msg = "Error occurred while opening a connection to the underlying data source";
                 log.error(msg, e);
@@ -83,12 +94,51 @@ public class HeartBeatManagementServiceImpl implements HeartBeatManagementServic
             } finally {
                 HeartBeatBeaconDAOFactory.closeConnection();
             }
-        } else {
-            String msg = "Heart Beat Configuration Disabled. Server Context Information Not available.";
-            log.error(msg);
-            throw new HeartBeatManagementException(msg);
         }
-        return serverCtxInfo;
+    }
+
+    /**
+     * Replaces the cluster view with the given active servers. The version of the view is incremented only if the
+     * formation of the cluster has changed.
+     *
+     * @param servers active servers keyed by the server UUID
+     * @return the refreshed cluster view
+     */
+    private ClusterView refreshClusterView(Map<String, ServerContext> servers) {
+        synchronized (clusterViewLock) {
+            ClusterView previous = clusterView;
+            ServerContext localServerCtx = servers.get(HeartBeatBeaconDataHolder.getInstance().getLocalServerUUID());
+            long timeMillis = System.currentTimeMillis();
+            ClusterView view;
+            if (previous == null || previous.isFormationChanged(servers, localServerCtx)) {
+                view = new ClusterView(previous == null ? 1 : previous.getVersion() + 1, servers, localServerCtx,
+                        timeMillis, timeMillis);
+                if (log.isDebugEnabled()) {
+                    log.debug("Cluster formation changed to version " + view.getVersion() + " with "
+                            + servers.size() + " active server(s)" + (previous == null ? "" : ", " +
+                            (timeMillis - previous.getFormationChangedTimeMillis()) + " ms after the previous change"));
+                }
+            } else {
+                view = new ClusterView(previous.getVersion(), servers, localServerCtx, timeMillis,
+                        previous.getFormationChangedTimeMillis());
+                if (log.isDebugEnabled()) {
+                    log.debug("Cluster view version " + view.getVersion() + " refreshed after "
+                            + previous.getStalenessInMillis() + " ms");
+                }
+            }
+            clusterView = view;
+            return view;
+        }
+    }
+
+    private long getClusterViewMaxStalenessMillis() {
+        HeartBeatBeaconConfig config = HeartBeatBeaconConfig.getInstance();
+        int maxStaleness = config.getClusterViewMaxStalenessInSeconds();
+        if (maxStaleness <= 0) {
+            maxStaleness = config.getNotifierFrequency() > 0 ?
+                    config.getNotifierFrequency() : DEFAULT_CLUSTER_VIEW_MAX_STALENESS;
+        }
+        return TimeUnit.SECONDS.toMillis(maxStaleness);
     }
 
     @Override
@@ -247,17 +297,22 @@ public class HeartBeatManagementServiceImpl implements HeartBeatManagementServic
                 Map<String, ServerContext> servers = heartBeatDAO.getActiveServerDetails(elapsedTimeInSeconds);
                 HeartBeatBeaconDAOFactory.commitTransaction();
                 if (servers != null && !servers.isEmpty()) {
-                    String serverUUID = HeartBeatBeaconDataHolder.getInstance().getLocalServerUUID();
-                    ServerContext serverContext = servers.get(serverUUID);
-
+                    ClusterView view = refreshClusterView(servers);
+                    if (view.getLocalServer() == null) {
+                        log.warn("Local server is not among the active servers, cluster formation changes are not " +
+                                "notified.");
+                        return;
+                    }
                     if (log.isDebugEnabled()) {
-                        log.debug("HashIndex (previous, current) : " + lastHashIndex + ", " + serverContext.getIndex());
-                        log.debug("ActiveServerCount (previous, current) : " + lastActiveCount + ", " + servers.size());
+                        log.debug("Cluster view version (notified, current) : " + lastNotifiedVersion + ", "
+                                + view.getVersion());
                     }
-                    // cluster change can be identified, either by changing hash index or changing active server count
-                    if ((lastHashIndex != serverContext.getIndex()) || (lastActiveCount != servers.size())) {
-                        lastHashIndex = serverContext.getIndex();
-                        lastActiveCount = servers.size();
+                    // cluster change is identified by the version of the view, which changes either by changing hash
+                    // index or changing active servers
+                    if (lastNotifiedVersion != view.getVersion()) {
+                        lastNotifiedVersion = view.getVersion();
+                        int hashIndex = view.getLocalServer().getIndex();
+                        int activeCount = view.getActiveServerCount();
 
                         ClusterFormationChangedNotifierRepository repository = HeartBeatBeaconDataHolder.getInstance()
                                 .getClusterFormationChangedNotifierRepository();
@@ -270,7 +325,7 @@ public class HeartBeatManagementServiceImpl implements HeartBeatManagementServic
                                     if (log.isDebugEnabled()) {
                                         log.debug("notify cluster formation changed : " + notifier.getType());
                                     }
-                                    notifier.notifyClusterFormationChanged(lastHashIndex, lastActiveCount);
+                                    notifier.notifyClusterFormationChanged(hashIndex, activeCount);
                                 }
                             };
                             new Thread(r).start();
@@ -348,33 +403,8 @@ public class HeartBeatManagementServiceImpl implements HeartBeatManagementServic
     @Override
     public Map<Integer, ServerContext> getActiveServers() throws HeartBeatManagementException {
         Map<Integer, ServerContext> activeServers = new HashMap<>();
-
-        if (HeartBeatBeaconConfig.getInstance().isEnabled()) {
-            try {
-                HeartBeatBeaconDAOFactory.openConnection();
-                int timeOutIntervalInSeconds = HeartBeatBeaconConfig.getInstance().getServerTimeOutIntervalInSeconds();
-                int timeSkew = HeartBeatBeaconConfig.getInstance().getTimeSkew();
-                int cumulativeTimeOut = timeOutIntervalInSeconds + timeSkew;
-                Map<String, ServerContext> serverCtxMap = heartBeatDAO.getActiveServerDetails(cumulativeTimeOut);
-                for (String uuid : serverCtxMap.keySet()) {
-                    ServerContext serverContext = serverCtxMap.get(uuid);
-                    activeServers.put(serverContext.getIndex(), serverContext);
-                }
-            } catch (SQLException e) {
-                String msg = "Error occurred while opening a connection to the underlying data source";
-                log.error(msg, e);
-                throw new HeartBeatManagementException(msg, e);
-            } catch (HeartBeatDAOException e) {
-                String msg = "Error occurred while retrieving active server details.";
-                log.error(msg, e);
-                throw new HeartBeatManagementException(msg, e);
-            } finally {
-                HeartBeatBeaconDAOFactory.closeConnection();
-            }
-        } else {
-            String msg = "Heart Beat Configuration Disabled. Server Context Information Not available.";
-            log.error(msg);
-            throw new HeartBeatManagementException(msg);
+        for (ServerContext serverContext : getClusterView().getActiveServers().values()) {
+            activeServers.put(serverContext.getIndex(), serverContext);
         }
         return activeServers;
     }
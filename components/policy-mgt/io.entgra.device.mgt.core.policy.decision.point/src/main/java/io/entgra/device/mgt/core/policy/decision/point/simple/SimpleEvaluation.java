@@ -23,10 +23,12 @@ import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
 import io.entgra.device.mgt.core.policy.mgt.common.PolicyEvaluationException;
 
+/**
+ * Evaluates the effective policy of a device. Implementations are shared between the concurrent device check-ins,
+ * hence they must not keep any per evaluation state.
+ */
 public interface SimpleEvaluation  {
 
-    void sortPolicies() throws PolicyEvaluationException;
-
     Policy getEffectivePolicy(DeviceIdentifier deviceIdentifier)  throws PolicyEvaluationException;
 
 }
@@ -26,38 +26,31 @@ import io.entgra.device.mgt.core.policy.mgt.core.PolicyManagerService;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 public class SimpleEvaluationImpl implements SimpleEvaluation {
 
     private static final Log log = LogFactory.getLog(SimpleEvaluationImpl.class);
-    private PolicyManagerService policyManagerService;
-    private volatile List<Policy> policyList = new ArrayList<Policy>();
 
     @Override
     public Policy getEffectivePolicy(DeviceIdentifier deviceIdentifier) throws PolicyEvaluationException {
         Policy policy = new Policy();
-        PolicyAdministratorPoint policyAdministratorPoint;
-        PolicyInformationPoint policyInformationPoint;
-        policyManagerService = getPolicyManagerService();
+        PolicyManagerService policyManagerService = getPolicyManagerService();
 
         try {
             if (policyManagerService != null) {
 
-                policyInformationPoint = policyManagerService.getPIP();
+                PolicyInformationPoint policyInformationPoint = policyManagerService.getPIP();
                 PIPDevice pipDevice = policyInformationPoint.getDeviceData(deviceIdentifier);
-                policyList = policyInformationPoint.getRelatedPolicies(pipDevice);
-                policyAdministratorPoint = policyManagerService.getPAP();
-                sortPolicies();
-                if(!policyList.isEmpty()) {
-                    policy = policyList.get(0);
-                } else {
+                List<Policy> policyList = policyInformationPoint.getRelatedPolicies(pipDevice);
+                PolicyAdministratorPoint policyAdministratorPoint = policyManagerService.getPAP();
+                if (policyList == null || policyList.isEmpty()) {
                     policyAdministratorPoint.removePolicyUsed(deviceIdentifier);
                     return null;
                 }
-                //TODO : UNCOMMENT THE FOLLOWING CASE
+                // Policy with the highest priority is the effective one, which is picked without sorting the list
+                policy = Collections.min(policyList);
                 policyAdministratorPoint.setPolicyUsed(deviceIdentifier, policy);
 
             }
@@ -70,11 +63,6 @@ public class SimpleEvaluationImpl implements SimpleEvaluation {
         return policy;
     }
 
-    @Override
-    public synchronized void sortPolicies() throws PolicyEvaluationException {
-        Collections.sort(policyList);
-    }
-
     private PolicyManagerService getPolicyManagerService() {
         return PolicyDecisionPointDataHolder.getInstance().getPolicyManagerService();
     }
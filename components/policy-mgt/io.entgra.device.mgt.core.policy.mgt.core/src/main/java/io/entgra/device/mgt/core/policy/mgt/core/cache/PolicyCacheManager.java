@@ -49,6 +49,15 @@ public interface PolicyCacheManager {
      */
     List<Policy> getAllPolicies() throws PolicyManagementException;
 
+    /**
+     * This method will return the policies of a device type sorted by the priority, without assembling the policies
+     * of the other device types.
+     * @param deviceType - name of the device type
+     * @return - unmodifiable list of policies, shared between the callers
+     * @throws PolicyManagementException
+     */
+    List<Policy> getPoliciesOfDeviceType(String deviceType) throws PolicyManagementException;
+
     /**
      * This method will repopulate the cache, this will be called when there is a change of the policies.
      * @throws PolicyManagementException
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.cache.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import io.entgra.device.mgt.core.policy.mgt.core.impl.PolicyMatchingIndex;
+import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the active general policies of each tenant and device type as an immutable list sorted by the priority,
+ * along with its {@link PolicyMatchingIndex}. A snapshot is derived from the policy list of the device type held in
+ * the policy cache and it is rebuilt only once that list is replaced or invalidated, so that the policy evaluations
+ * read the snapshots without locking, sorting or filtering.
+ */
+public final class ActivePolicySnapshotCache {
+
+    private static final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    private ActivePolicySnapshotCache() {
+    }
+
+    /**
+     * Returns the active general policies of the device type sorted by the priority.
+     *
+     * @param tenantId           Id of the tenant the policies belong to
+     * @param deviceType         Name of the device type
+     * @param deviceTypePolicies Policies of the device type as held in the policy cache
+     * @return Unmodifiable list of policies, which must not be altered by the callers
+     */
+    public static List<Policy> getActivePolicies(int tenantId, String deviceType,
+                                                 List<Policy> deviceTypePolicies) {
+        return getActivePolicyIndex(tenantId, deviceType, deviceTypePolicies).getPolicies();
+    }
+
+    /**
+     * Returns the matching index of the active general policies of the device type.
+     *
+     * @param tenantId           Id of the tenant the policies belong to
+     * @param deviceType         Name of the device type
+     * @param deviceTypePolicies Policies of the device type as held in the policy cache
+     * @return Matching index of the policies
+     */
+    public static PolicyMatchingIndex getActivePolicyIndex(int tenantId, String deviceType,
+                                                           List<Policy> deviceTypePolicies) {
+        String key = tenantId + ":" + deviceType.toLowerCase();
+        Snapshot snapshot = snapshots.get(key);
+        if (snapshot == null || snapshot.source != deviceTypePolicies) {
+            snapshot = new Snapshot(deviceTypePolicies,
+                    new PolicyMatchingIndex(buildActivePolicies(deviceType, deviceTypePolicies)));
+            snapshots.put(key, snapshot);
+        }
+        return snapshot.index;
+    }
+
+    /**
+     * Drops the snapshots of a tenant, releasing the policy lists they were derived from.
+     *
+     * @param tenantId Id of the tenant
+     */
+    public static void invalidate(int tenantId) {
+        String prefix = tenantId + ":";
+        snapshots.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Filters out the active general policies of the device type and sorts them by the priority.
+     *
+     * @param deviceType Name of the device type
+     * @param policies   Policies to filter
+     * @return Unmodifiable sorted list of policies
+     */
+    public static List<Policy> buildActivePolicies(String deviceType, List<Policy> policies) {
+        List<Policy> activePolicies = new ArrayList<>();
+        for (Policy policy : policies) {
+            if (policy.isActive()
+                    && PolicyManagementConstants.GENERAL_POLICY_TYPE.equalsIgnoreCase(policy.getPolicyType())
+                    && deviceType.equalsIgnoreCase(policy.getProfile().getDeviceType())) {
+                activePolicies.add(policy);
+            }
+        }
+        Collections.sort(activePolicies);
+        return Collections.unmodifiableList(activePolicies);
+    }
+
+    private static final class Snapshot {
+
+        private final List<Policy> source;
+        private final PolicyMatchingIndex index;
+
+        private Snapshot(List<Policy> source, PolicyMatchingIndex index) {
+            this.source = source;
+            this.index = index;
+        }
+    }
+}
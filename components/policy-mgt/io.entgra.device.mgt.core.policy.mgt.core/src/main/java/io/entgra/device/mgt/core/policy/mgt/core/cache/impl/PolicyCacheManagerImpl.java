@@ -16,7 +16,6 @@
  * under the License.
  */
 
-
 package io.entgra.device.mgt.core.policy.mgt.core.cache.impl;
 
 import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
@@ -28,23 +27,61 @@ import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagementConstants;
 import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagerUtil;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import javax.cache.Cache;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the policies of a tenant in three caches, which are never altered in place:
+ * <ul>
+ *     <li>each policy keyed by its id,</li>
+ *     <li>the ids of all the policies of the tenant, replaced by a new list on each change, and</li>
+ *     <li>an immutable priority ordered list of policies per device type, built on the first read.</li>
+ * </ul>
+ * A change of a policy only replaces the entry of that policy and removes the lists of the affected device types, so
+ * that the cluster receives targeted invalidations instead of the whole policy list of the tenant. The policies are
+ * reloaded from the database while holding the lock of the updates of the tenant, and a device type list is only put
+ * back into the cache if none of its policies were replaced or invalidated while it was built. Each tenant has a lock
+ * of its own, so that the updates of a tenant do not hold back the reloads of the others.
+ */
 public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     private static final Log log = LogFactory.getLog(PolicyCacheManagerImpl.class);
 
+    private static final int POLICY_IDS_KEY = 1;
+
     private static PolicyCacheManagerImpl policyCacheManager;
 
-    private static Cache<Integer, List<Policy>> getPolicyListCache() {
-        return PolicyManagerUtil.getPolicyListCache(PolicyManagementConstants.DM_CACHE_LIST);
+    private final Supplier<PolicyManager> policyManagerSupplier;
+
+    /* Locks of the updates and reloads, keyed by the tenant, since the caches of each tenant are separate */
+    private final Map<Integer, Object> tenantLocks = new ConcurrentHashMap<>();
+
+    private static Cache<Integer, Policy> getPolicyCache() {
+        return PolicyManagerUtil.getPolicyCache(PolicyManagementConstants.DM_CACHE_POLICY);
+    }
+
+    private static Cache<Integer, List<Integer>> getPolicyIdListCache() {
+        return PolicyManagerUtil.getPolicyIdListCache(PolicyManagementConstants.DM_CACHE_POLICY_IDS);
+    }
+
+    private static Cache<String, List<Policy>> getDeviceTypePolicyListCache() {
+        return PolicyManagerUtil.getDeviceTypePolicyListCache(
+                PolicyManagementConstants.DM_CACHE_DEVICE_TYPE_POLICY_LIST);
     }
 
     private PolicyCacheManagerImpl() {
+        this(PolicyManagerImpl::new);
+    }
+
+    PolicyCacheManagerImpl(Supplier<PolicyManager> policyManagerSupplier) {
+        this.policyManagerSupplier = policyManagerSupplier;
     }
 
     public static PolicyCacheManager getInstance() {
@@ -60,28 +97,90 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void addAllPolicies(List<Policy> policies) {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.put(1, policies);
+        synchronized (getTenantLock()) {
+            Cache<Integer, Policy> policyCache = getPolicyCache();
+            List<Integer> policyIds = new ArrayList<>();
+            for (Policy policy : policies) {
+                policyCache.put(policy.getId(), policy);
+                policyIds.add(policy.getId());
+            }
+            getPolicyIdListCache().put(POLICY_IDS_KEY, Collections.unmodifiableList(policyIds));
+        }
     }
 
     @Override
     public void updateAllPolicies(List<Policy> policies) {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.removeAll();
-        lCache.put(1, policies);
+        synchronized (getTenantLock()) {
+            this.removeAllPolicies();
+            this.addAllPolicies(policies);
+        }
     }
 
     @Override
     public List<Policy> getAllPolicies() throws PolicyManagementException {
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        updateCache(lCache);
+        List<Policy> policies = getCachedPolicies();
+        if (policies == null) {
+            policies = loadAllPolicies();
+        }
         if (log.isDebugEnabled()) {
-            showDebugLog(lCache);
+            showDebugLog(policies);
+        }
+        return policies;
+    }
+
+    /**
+     * Reloads the policies of the tenant. Synchronized with the updates of the tenant so that a policy changed while
+     * the policies are read from the database is not overwritten by its previous state.
+     */
+    private List<Policy> loadAllPolicies() throws PolicyManagementException {
+        synchronized (getTenantLock()) {
+            List<Policy> policies = getCachedPolicies();
+            if (policies == null) {
+                policies = policyManagerSupplier.get().getPolicies();
+                this.updateAllPolicies(policies);
+                policies = new ArrayList<>(policies);
+            }
+            return policies;
+        }
+    }
+
+    @Override
+    public List<Policy> getPoliciesOfDeviceType(String deviceType) throws PolicyManagementException {
+        String key = deviceType.toLowerCase();
+        List<Policy> policies = getDeviceTypePolicyListCache().get(key);
+        if (policies == null) {
+            policies = loadPoliciesOfDeviceType(key);
+        }
+        return policies;
+    }
+
+    /**
+     * Builds the policy list of a device type. Synchronized with the updates of the tenant in this node, while the
+     * policies are checked against the cache before the put, so that a list built from policies replaced or
+     * invalidated by another node in the meantime is not put back into the cache.
+     */
+    private List<Policy> loadPoliciesOfDeviceType(String key) throws PolicyManagementException {
+        synchronized (getTenantLock()) {
+            Cache<String, List<Policy>> deviceTypeCache = getDeviceTypePolicyListCache();
+            List<Policy> policies = deviceTypeCache.get(key);
+            if (policies == null) {
+                List<Policy> allPolicies = this.getAllPolicies();
+                List<Policy> deviceTypePolicies = new ArrayList<>();
+                for (Policy policy : allPolicies) {
+                    if (key.equals(getDeviceTypeKey(policy))) {
+                        deviceTypePolicies.add(policy);
+                    }
+                }
+                Collections.sort(deviceTypePolicies);
+                policies = Collections.unmodifiableList(deviceTypePolicies);
+                if (isCached(allPolicies)) {
+                    deviceTypeCache.put(key, policies);
+                } else if (log.isDebugEnabled()) {
+                    log.debug("Policies changed while building the policy list of " + key + ", hence not caching it.");
+                }
+            }
+            return policies;
         }
-        lCache = getPolicyListCache();
-        return lCache.get(1);
     }
 
     @Override
@@ -93,95 +192,93 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void removeAllPolicies() {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        lCache.removeAll();
+        synchronized (getTenantLock()) {
+            getPolicyIdListCache().removeAll();
+            getDeviceTypePolicyListCache().removeAll();
+            getPolicyCache().removeAll();
+            ActivePolicySnapshotCache.invalidate(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+        }
     }
 
     @Override
     public void addPolicy(Policy policy) {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-
-            for (Policy pol : cachedPolicy) {
-                if (pol.getId() == policy.getId()) {
-                    return;
-                }
+        synchronized (getTenantLock()) {
+            Cache<Integer, List<Integer>> policyIdCache = getPolicyIdListCache();
+            List<Integer> policyIds = policyIdCache.get(POLICY_IDS_KEY);
+            if (policyIds != null && !policyIds.contains(policy.getId())) {
+                getPolicyCache().put(policy.getId(), policy);
+                List<Integer> updatedPolicyIds = new ArrayList<>(policyIds);
+                updatedPolicyIds.add(policy.getId());
+                policyIdCache.put(POLICY_IDS_KEY, Collections.unmodifiableList(updatedPolicyIds));
+                removeDeviceTypePolicies(policy);
             }
-            cachedPolicy.add(policy);
         }
-
     }
 
     @Override
     public void updatePolicy(Policy policy) {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            Iterator iterator = cachedPolicy.iterator();
-            while (iterator.hasNext()) {
-                Policy pol = (Policy) iterator.next();
-                if (pol.getId() == policy.getId()) {
-                    iterator.remove();
-                    break;
+        synchronized (getTenantLock()) {
+            Cache<Integer, List<Integer>> policyIdCache = getPolicyIdListCache();
+            List<Integer> policyIds = policyIdCache.get(POLICY_IDS_KEY);
+            if (policyIds != null) {
+                Cache<Integer, Policy> policyCache = getPolicyCache();
+                Policy cachedPolicy = policyCache.get(policy.getId());
+                policyCache.put(policy.getId(), policy);
+                if (!policyIds.contains(policy.getId())) {
+                    List<Integer> updatedPolicyIds = new ArrayList<>(policyIds);
+                    updatedPolicyIds.add(policy.getId());
+                    policyIdCache.put(POLICY_IDS_KEY, Collections.unmodifiableList(updatedPolicyIds));
+                }
+                if (cachedPolicy != null) {
+                    removeDeviceTypePolicies(cachedPolicy);
                 }
+                removeDeviceTypePolicies(policy);
             }
-            cachedPolicy.add(policy);
-            lCache.replace(1, cachedPolicy);
         }
-
     }
 
     @Override
     public void updatePolicy(int policyId) throws PolicyManagementException {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            PolicyManager policyManager = new PolicyManagerImpl();
-            Policy policy = policyManager.getPolicy(policyId);
-            this.updatePolicy(policy);
+        synchronized (getTenantLock()) {
+            if (getPolicyIdListCache().containsKey(POLICY_IDS_KEY)) {
+                PolicyManager policyManager = policyManagerSupplier.get();
+                Policy policy = policyManager.getPolicy(policyId);
+                this.updatePolicy(policy);
+            }
         }
-
     }
 
     @Override
     public void removePolicy(int policyId) {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (lCache.containsKey(1)) {
-            List<Policy> cachedPolicy = lCache.get(1);
-            Iterator iterator = cachedPolicy.iterator();
-            while (iterator.hasNext()) {
-                Policy pol = (Policy) iterator.next();
-                if (pol.getId() == policyId) {
-                    iterator.remove();
-                    break;
+        synchronized (getTenantLock()) {
+            Cache<Integer, List<Integer>> policyIdCache = getPolicyIdListCache();
+            List<Integer> policyIds = policyIdCache.get(POLICY_IDS_KEY);
+            if (policyIds != null) {
+                List<Integer> updatedPolicyIds = new ArrayList<>(policyIds);
+                updatedPolicyIds.remove(Integer.valueOf(policyId));
+                policyIdCache.put(POLICY_IDS_KEY, Collections.unmodifiableList(updatedPolicyIds));
+                Cache<Integer, Policy> policyCache = getPolicyCache();
+                Policy cachedPolicy = policyCache.get(policyId);
+                policyCache.remove(policyId);
+                if (cachedPolicy != null) {
+                    removeDeviceTypePolicies(cachedPolicy);
+                } else {
+                    getDeviceTypePolicyListCache().removeAll();
                 }
             }
-            lCache.replace(1, cachedPolicy);
         }
     }
 
     @Override
     public Policy getPolicy(int policyId) throws PolicyManagementException {
-
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        if (!lCache.containsKey(1)) {
-            this.removeAllPolicies();
-            this.getAllPolicies();
-        }
-
-        Policy policy = null;
-        List<Policy> cachedPolicy = lCache.get(1);
-        Iterator iterator = cachedPolicy.iterator();
-        while (iterator.hasNext()) {
-            Policy pol = (Policy) iterator.next();
-            if (pol.getId() == policyId) {
-                policy = pol;
+        Policy policy = getPolicyCache().get(policyId);
+        if (policy == null) {
+            List<Integer> policyIds = getPolicyIdListCache().get(POLICY_IDS_KEY);
+            if (policyIds != null && !policyIds.contains(policyId)) {
+                return null;
             }
+            this.rePopulateCache();
+            policy = getPolicyCache().get(policyId);
         }
         return policy;
     }
@@ -203,17 +300,8 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public List<Policy> getAllPolicies(String policyType) throws PolicyManagementException {
-        Cache<Integer, List<Policy>> lCache = getPolicyListCache();
-        updateCache(lCache);
-        if (log.isDebugEnabled()) {
-            showDebugLog(lCache);
-        }
-        lCache = getPolicyListCache();
         List<Policy> policyListByType = new ArrayList<>();
-        List<Policy> cachedPolicyList = lCache.get(1);
-        Iterator<Policy> iterator = cachedPolicyList.iterator();
-        while (iterator.hasNext()) {
-            Policy policy = iterator.next();
+        for (Policy policy : this.getAllPolicies()) {
             if (policy.getPolicyType().equals(policyType)) {
                 policyListByType.add(policy);
             }
@@ -221,15 +309,74 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
         return policyListByType;
     }
 
-    private void updateCache(Cache<Integer, List<Policy>> lCache) throws PolicyManagementException {
-        if (!lCache.containsKey(1)) {
-            PolicyManager policyManager = new PolicyManagerImpl();
-            this.addAllPolicies(policyManager.getPolicies());
+    /**
+     * Assembles the policies of the tenant from the cached entries.
+     *
+     * @return Policies of the tenant, or null if any of them is not available in the cache
+     */
+    private List<Policy> getCachedPolicies() {
+        List<Integer> policyIds = getPolicyIdListCache().get(POLICY_IDS_KEY);
+        if (policyIds == null) {
+            return null;
+        }
+        Cache<Integer, Policy> policyCache = getPolicyCache();
+        List<Policy> policies = new ArrayList<>(policyIds.size());
+        for (Integer policyId : policyIds) {
+            Policy policy = policyCache.get(policyId);
+            if (policy == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Policy " + policyId + " is evicted from the cache, hence reloading the policies.");
+                }
+                return null;
+            }
+            policies.add(policy);
+        }
+        return policies;
+    }
+
+    /**
+     * @param policies Policies assembled from the cache or loaded into it
+     * @return true if the cache still holds the same policies, which are replaced on each change
+     */
+    private boolean isCached(List<Policy> policies) {
+        List<Integer> policyIds = getPolicyIdListCache().get(POLICY_IDS_KEY);
+        if (policyIds == null || policyIds.size() != policies.size()) {
+            return false;
+        }
+        Cache<Integer, Policy> policyCache = getPolicyCache();
+        for (Policy policy : policies) {
+            if (policyCache.get(policy.getId()) != policy) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Lock of the tenant in the carbon context, which is held to update or reload its cached policies
+     */
+    private Object getTenantLock() {
+        return tenantLocks.computeIfAbsent(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(),
+                tenantId -> new Object());
+    }
+
+    private void removeDeviceTypePolicies(Policy policy) {
+        String key = getDeviceTypeKey(policy);
+        if (key != null) {
+            getDeviceTypePolicyListCache().remove(key);
+        } else {
+            getDeviceTypePolicyListCache().removeAll();
+        }
+    }
+
+    private static String getDeviceTypeKey(Policy policy) {
+        if (policy.getProfile() == null || policy.getProfile().getDeviceType() == null) {
+            return null;
         }
+        return policy.getProfile().getDeviceType().toLowerCase();
     }
 
-    private void showDebugLog(Cache<Integer, List<Policy>> lCache) {
-        List<Policy> cachedPolicy = lCache.get(1);
+    private void showDebugLog(List<Policy> cachedPolicy) {
         for (Policy policy : cachedPolicy) {
             log.debug("Policy id in cache .. : " + policy.getId() + " policy name : " + policy.
                     getPolicyName() + " Activated : " + policy.isActive());
@@ -33,13 +33,19 @@ import io.entgra.device.mgt.core.policy.mgt.core.mgt.bean.UpdatedPolicyDeviceLis
 import io.entgra.device.mgt.core.policy.mgt.core.mgt.impl.PolicyManagerImpl;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DelegationTask extends DynamicPartitionedScheduleTask {
 
     private static final Log log = LogFactory.getLog(DelegationTask.class);
+    private static final int MAX_CONCURRENT_DEVICE_TYPES = 4;
     private final PolicyConfiguration policyConfiguration = DeviceConfigurationManager.getInstance()
             .getDeviceManagementConfig().getPolicyConfiguration();
 
@@ -56,48 +62,94 @@ public class DelegationTask extends DynamicPartitionedScheduleTask {
                 log.debug("Number of device types which policies are changed .......... : " + deviceTypes.size());
             }
             if (!deviceTypes.isEmpty()) {
-                DeviceManagementProviderService service = PolicyManagementDataHolder.getInstance().
-                        getDeviceManagementService();
-                List<Device> devices;
-                List<Device> toBeNotified;
-                for (String deviceType : deviceTypes) {
-                    try {
-                        devices = new ArrayList<>();
-                        toBeNotified = new ArrayList<>();
-                        if(getTaskContext() != null && getTaskContext().isPartitioningEnabled()){
-                            devices.addAll(service.getAllocatedDevices(deviceType,
-                                                                       getTaskContext().getActiveServerCount(),
-                                                                       getTaskContext().getServerHashIndex()));
-                        } else {
-                            devices.addAll(service.getAllDevices(deviceType, false));
-                        }
-                        for (Device device : devices) {
-                            if (device != null && device.getEnrolmentInfo() != null
-                                && device.getEnrolmentInfo().getStatus() != EnrolmentInfo.Status.REMOVED) {
-                                toBeNotified.add(device);
-                                if (log.isDebugEnabled()) {
-                                    log.debug("Adding policy operation to device : " + device.getDeviceIdentifier());
-                                }
-                            }
-                        }
-                        if (!toBeNotified.isEmpty()) {
-                            PolicyEnforcementDelegator enforcementDelegator = new PolicyEnforcementDelegatorImpl(
-                                    toBeNotified, updatedPolicyDeviceList.getUpdatedPolicyIds());
-                            enforcementDelegator.delegate();
-                        }
-                    } catch (DeviceManagementException e) {
-                        throw new PolicyManagementException("Error occurred while fetching the devices", e);
-                    } catch (PolicyDelegationException e) {
-                        throw new PolicyManagementException("Error occurred while running the delegation task on " +
-                                                            "device-type : " + deviceType, e);
-                    }
-                }
+                enforcePolicies(deviceTypes, updatedPolicyDeviceList.getUpdatedPolicyIds());
             }
         } catch (PolicyManagementException e) {
             log.error("Error occurred while getting the policies applied to devices.", e);
         }
     }
 
+    /**
+     * Re-enforces the policies on the devices of the given device types, running the device types in parallel.
+     *
+     * @param deviceTypes      Device types of which the policies are changed
+     * @param updatedPolicyIds Ids of the updated policies
+     */
+    private void enforcePolicies(List<String> deviceTypes, List<Integer> updatedPolicyIds) {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(deviceTypes.size(), MAX_CONCURRENT_DEVICE_TYPES));
+        List<Future<?>> futures = new ArrayList<>();
+        for (String deviceType : deviceTypes) {
+            futures.add(executor.submit(() -> {
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                try {
+                    enforcePolicies(deviceType, updatedPolicyIds);
+                    return null;
+                } finally {
+                    PrivilegedCarbonContext.endTenantFlow();
+                }
+            }));
+        }
+        executor.shutdown();
+        int completedCount = 0;
+        for (int idx = 0; idx < futures.size(); idx++) {
+            try {
+                futures.get(idx).get();
+                completedCount++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                log.error("Interrupted while re-enforcing the policies of device types.", e);
+                return;
+            } catch (ExecutionException e) {
+                log.error("Error occurred while running the delegation task on device-type : " +
+                        deviceTypes.get(idx), e.getCause());
+            }
+            log.info("Policy re-enforcement progress : " + (idx + 1) + " out of " + deviceTypes.size() +
+                    " device types processed.");
+        }
+        if (completedCount < deviceTypes.size()) {
+            log.error("Policy re-enforcement failed for " + (deviceTypes.size() - completedCount) + " out of " +
+                    deviceTypes.size() + " device types.");
+        }
+    }
+
+    private void enforcePolicies(String deviceType, List<Integer> updatedPolicyIds)
+            throws PolicyManagementException {
+        DeviceManagementProviderService service = PolicyManagementDataHolder.getInstance().
+                getDeviceManagementService();
+        List<Device> devices = new ArrayList<>();
+        List<Device> toBeNotified = new ArrayList<>();
+        try {
+            if (getTaskContext() != null && getTaskContext().isPartitioningEnabled()) {
+                devices.addAll(service.getAllocatedDevices(deviceType, getTaskContext().getTaskPartition()));
+            } else {
+                devices.addAll(service.getAllDevices(deviceType, false));
+            }
+            for (Device device : devices) {
+                if (device != null && device.getEnrolmentInfo() != null
+                    && device.getEnrolmentInfo().getStatus() != EnrolmentInfo.Status.REMOVED) {
+                    toBeNotified.add(device);
+                    if (log.isDebugEnabled()) {
+                        log.debug("Adding policy operation to device : " + device.getDeviceIdentifier());
+                    }
+                }
+            }
+            if (!toBeNotified.isEmpty()) {
+                PolicyEnforcementDelegator enforcementDelegator = new PolicyEnforcementDelegatorImpl(
+                        toBeNotified, updatedPolicyIds);
+                enforcementDelegator.delegate();
+            }
+        } catch (DeviceManagementException e) {
+            throw new PolicyManagementException("Error occurred while fetching the devices", e);
+        } catch (PolicyDelegationException e) {
+            throw new PolicyManagementException("Error occurred while running the delegation task on " +
+                                            "device-type : " + deviceType, e);
+        }
+    }
+
     @Override
     protected void setup() {
 
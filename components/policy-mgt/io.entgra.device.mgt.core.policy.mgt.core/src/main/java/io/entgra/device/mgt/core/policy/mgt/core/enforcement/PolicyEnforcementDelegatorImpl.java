@@ -38,11 +38,19 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegator{
 
     private static final Log log = LogFactory.getLog(PolicyEnforcementDelegatorImpl.class);
+    private static final int OPERATION_BATCH_SIZE = 1000;
+    private static final int PROGRESS_LOG_INTERVAL = 1000;
+    private static final List<String> POLICY_BUNDLE_OPERATION_CODES = Arrays.asList(
+            PolicyOperation.POLICY_OPERATION_CODE, OperationMgtConstants.OperationCodes.POLICY_REVOKE);
 
     private final List<Device> devices;
     private final List<Integer> updatedPolicyIds;
@@ -63,6 +71,9 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
 
     @Override
     public void delegate() throws PolicyDelegationException {
+        Map<String, EnforcementGroup> policyGroups = new HashMap<>();
+        Map<String, EnforcementGroup> revokeGroups = new HashMap<>();
+        int evaluatedCount = 0;
         for (Device device : devices) {
             DeviceIdentifier identifier = new DeviceIdentifier();
             identifier.setId(device.getDeviceIdentifier());
@@ -70,8 +81,6 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
 
             Policy devicePolicy = this.getAppliedPolicyToDevice(device);
             Policy policy = this.getEffectivePolicy(identifier);
-            List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
-            deviceIdentifiers.add(identifier);
             if (policy != null) {
                  /*
                 We add policy operation for the device if,
@@ -81,15 +90,38 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
                  */
                 if (devicePolicy == null || devicePolicy.getId() != policy.getId() || updatedPolicyIds.contains
                         (policy.getId())) {
-                    this.markPreviousPolicyBundlesRepeated(device);
-                    this.addPolicyRevokeOperation(deviceIdentifiers);
-                    this.addPolicyOperation(deviceIdentifiers, policy);
+                    policyGroups.computeIfAbsent(device.getType() + ":" + policy.getId(),
+                            key -> new EnforcementGroup(device.getType(), policy)).devices.add(device);
                 }
             } else {
                 //This means all the applicable policies have been removed from device. Hence calling a policy revoke.
+                revokeGroups.computeIfAbsent(device.getType(), key -> new EnforcementGroup(device.getType(), null))
+                        .devices.add(device);
+            }
+            if (++evaluatedCount % PROGRESS_LOG_INTERVAL == 0) {
+                log.info("Evaluated effective policies of " + evaluatedCount + " out of " + devices.size() +
+                        " devices for policy re-enforcement.");
+            }
+        }
+        int enforcedCount = 0;
+        for (EnforcementGroup group : policyGroups.values()) {
+            for (List<Device> batch : group.getBatches()) {
+                List<DeviceIdentifier> deviceIdentifiers = getDeviceIdentifiers(batch);
+                this.markPreviousPolicyBundlesRepeated(group.deviceType, getEnrolmentIds(batch));
                 this.addPolicyRevokeOperation(deviceIdentifiers);
+                this.addPolicyOperation(deviceIdentifiers, group.policy);
+                enforcedCount += batch.size();
+            }
+        }
+        for (EnforcementGroup group : revokeGroups.values()) {
+            for (List<Device> batch : group.getBatches()) {
+                this.addPolicyRevokeOperation(getDeviceIdentifiers(batch));
+                enforcedCount += batch.size();
             }
         }
+        log.info("Policy re-enforcement completed for " + devices.size() + " devices. Policy operations are added to "
+                + enforcedCount + " devices in " + policyGroups.size() + " policy groups and " +
+                revokeGroups.size() + " revocation groups.");
     }
 
     @Override
@@ -195,22 +227,72 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
      * @throws PolicyDelegationException throws when getting pending operations
      */
     public void markPreviousPolicyBundlesRepeated(Device device) throws PolicyDelegationException {
+        this.markPreviousPolicyBundlesRepeated(device.getType(),
+                Collections.singletonList(device.getEnrolmentInfo().getId()));
+    }
+
+    /**
+     * Update the previous pending policy operations' status of a set of enrolments as REPEATED, at once.
+     * @param deviceType Type of the devices
+     * @param enrolmentIds Ids of the enrolments of the devices
+     * @throws PolicyDelegationException throws when updating the pending operations
+     */
+    public void markPreviousPolicyBundlesRepeated(String deviceType, List<Integer> enrolmentIds)
+            throws PolicyDelegationException {
         DeviceManagementProviderService deviceManagerService = PolicyManagementDataHolder.getInstance().
                 getDeviceManagementService();
         try {
-            List<? extends Operation> operations = deviceManagerService.getPendingOperations(device);
-            for(Operation operation : operations) {
-                String operationCode = operation.getCode();
-                if(PolicyOperation.POLICY_OPERATION_CODE.equals(operationCode) ||
-                        OperationMgtConstants.OperationCodes.POLICY_REVOKE.equals(operationCode)) {
-                    operation.setStatus(Operation.Status.REPEATED);
-                    deviceManagerService.updateOperation(device, operation);
-                }
-            }
+            deviceManagerService.updatePendingOperationsStatus(deviceType, enrolmentIds,
+                    POLICY_BUNDLE_OPERATION_CODES, Operation.Status.REPEATED);
         } catch (OperationManagementException e) {
-            String msg = "Error occurred while retrieving pending operations of device id "+device.getId();
+            String msg = "Error occurred while updating pending policy operations of " + enrolmentIds.size() +
+                    " devices of type " + deviceType;
             log.error(msg, e);
             throw new PolicyDelegationException(msg, e);
         }
     }
+
+    /**
+     * Devices of a device type receiving the same policy, or a policy revocation when the policy is null.
+     */
+    private static final class EnforcementGroup {
+
+        private final String deviceType;
+        private final Policy policy;
+        private final List<Device> devices = new ArrayList<>();
+
+        private EnforcementGroup(String deviceType, Policy policy) {
+            this.deviceType = deviceType;
+            this.policy = policy;
+        }
+
+        /**
+         * Splits the devices into batches, so that the operations and the transactions stay bounded in size.
+         */
+        private List<List<Device>> getBatches() {
+            List<List<Device>> batches = new ArrayList<>();
+            for (int start = 0; start < devices.size(); start += OPERATION_BATCH_SIZE) {
+                batches.add(devices.subList(start, Math.min(devices.size(), start + OPERATION_BATCH_SIZE)));
+            }
+            return batches;
+        }
+    }
+
+    private static List<DeviceIdentifier> getDeviceIdentifiers(List<Device> devices) {
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+        for (Device device : devices) {
+            deviceIdentifiers.add(new DeviceIdentifier(device.getDeviceIdentifier(), device.getType()));
+        }
+        return deviceIdentifiers;
+    }
+
+    private static List<Integer> getEnrolmentIds(List<Device> devices) {
+        List<Integer> enrolmentIds = new ArrayList<>();
+        for (Device device : devices) {
+            if (device.getEnrolmentInfo() != null) {
+                enrolmentIds.add(device.getEnrolmentInfo().getId());
+            }
+        }
+        return enrolmentIds;
+    }
 }
@@ -22,7 +22,6 @@ import io.entgra.device.mgt.core.device.mgt.common.Device;
 import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
 import io.entgra.device.mgt.core.device.mgt.common.Feature;
 import io.entgra.device.mgt.core.device.mgt.common.exceptions.DeviceManagementException;
-import io.entgra.device.mgt.core.device.mgt.common.group.mgt.DeviceGroup;
 import io.entgra.device.mgt.core.device.mgt.common.group.mgt.GroupManagementException;
 import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
 import io.entgra.device.mgt.core.device.mgt.core.dto.DeviceType;
@@ -99,41 +98,17 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
     @Override
     public List<Policy> getRelatedPolicies(PIPDevice pipDevice) throws PolicyManagementException {
 
-        List<Policy> policies = policyManager.getPoliciesOfDeviceType(pipDevice.getDeviceType().getName());
-        PolicyFilter policyFilter = new PolicyFilterImpl();
+        PolicyMatchingIndex policyIndex = policyManager.getActivePolicyIndex(pipDevice.getDeviceType().getName());
 
         if (log.isDebugEnabled()) {
-            log.debug("No of policies for the device type : " + pipDevice.getDeviceType().getName() + " : " +
-                    policies.size());
-            for (Policy policy : policies) {
+            log.debug("No of active policies for the device type : " + pipDevice.getDeviceType().getName() + " : " +
+                    policyIndex.getPolicies().size());
+            for (Policy policy : policyIndex.getPolicies()) {
                 log.debug("Names of policy for above device type : " + policy.getPolicyName());
             }
         }
 
-        policies = policyFilter.filterActivePolicies(policies);
-        policies = policyFilter.filterGeneralPolicies(policies);
-
-        if (pipDevice.getDeviceType() != null) {
-            policies = policyFilter.filterDeviceTypeBasedPolicies(pipDevice.getDeviceType().getName(), policies);
-        }
-        if (pipDevice.getOwnershipType() != null && !pipDevice.getOwnershipType().isEmpty()) {
-            policies = policyFilter.filterOwnershipTypeBasedPolicies(pipDevice.getOwnershipType(), policies);
-        }
-        if (pipDevice.getRoles() != null) {
-            policies = policyFilter.filterRolesBasedPolicies(pipDevice.getRoles(), policies);
-        }
-        if (pipDevice.getUserId() != null && !pipDevice.getUserId().isEmpty()) {
-            policies = policyFilter.filterUserBasedPolicies(pipDevice.getUserId(), policies);
-        }
-        if (pipDevice.getDeviceGroups() != null && !pipDevice.getDeviceGroups().isEmpty()) {
-
-            Map<Integer, DeviceGroup> groupMap = new HashMap<>();
-            List<DeviceGroup> groups = pipDevice.getDeviceGroups();
-            for(DeviceGroup gr: groups){
-                groupMap.put(gr.getGroupId(), gr);
-            }
-            policies = policyFilter.filterDeviceGroupsPolicies(groupMap, policies);
-        }
+        List<Policy> policies = policyIndex.getMatchingPolicies(pipDevice);
 
         if (log.isDebugEnabled()) {
             log.debug("No of policies selected for the device type : " + pipDevice.getDeviceType().getName() + " : " +
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.group.mgt.DeviceGroup;
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.DeviceGroupWrapper;
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import io.entgra.device.mgt.core.policy.mgt.common.PIPDevice;
+import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiled form of the criteria of a priority ordered policy list. For each of the ownership, role, user and group
+ * criteria the index keeps a bit set of the policies applicable to any value and a bit set per named value, so that
+ * the policies related to a device are resolved by intersecting a handful of bit sets, with the same outcome as the
+ * filter chain of {@link PolicyFilterImpl}. Instances are immutable and safe to share between threads.
+ */
+public final class PolicyMatchingIndex {
+
+    private final List<Policy> policies;
+    private final Criterion ownershipCriterion = new Criterion();
+    private final Criterion roleCriterion = new Criterion();
+    private final Criterion userCriterion = new Criterion();
+    private final Map<Integer, BitSet> groupPolicies = new HashMap<>();
+    private final BitSet anyGroupPolicies = new BitSet();
+
+    /**
+     * @param policies Policies sorted by the priority, which the index takes over without copying
+     */
+    public PolicyMatchingIndex(List<Policy> policies) {
+        this.policies = Collections.unmodifiableList(policies);
+        for (int idx = 0; idx < policies.size(); idx++) {
+            Policy policy = policies.get(idx);
+            indexOwnership(policy, idx);
+            indexRoles(policy, idx);
+            indexUsers(policy, idx);
+            indexGroups(policy, idx);
+        }
+    }
+
+    /**
+     * @return Indexed policies sorted by the priority
+     */
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    /**
+     * Resolves the policies applicable to a device. A criterion is skipped when the device has no data for it.
+     *
+     * @param pipDevice Device data to match
+     * @return Applicable policies sorted by the priority
+     */
+    public List<Policy> getMatchingPolicies(PIPDevice pipDevice) {
+        BitSet matches = new BitSet(policies.size());
+        matches.set(0, policies.size());
+        String ownershipType = pipDevice.getOwnershipType();
+        if (ownershipType != null && !ownershipType.isEmpty()) {
+            matches.and(ownershipCriterion.match(Collections.singletonList(ownershipType)));
+        }
+        if (pipDevice.getRoles() != null) {
+            List<String> roles = new ArrayList<>();
+            Collections.addAll(roles, pipDevice.getRoles());
+            matches.and(roleCriterion.match(roles));
+        }
+        String userId = pipDevice.getUserId();
+        if (userId != null && !userId.isEmpty()) {
+            matches.and(userCriterion.match(Collections.singletonList(userId)));
+        }
+        List<DeviceGroup> deviceGroups = pipDevice.getDeviceGroups();
+        if (deviceGroups != null && !deviceGroups.isEmpty()) {
+            BitSet groupMatches = (BitSet) anyGroupPolicies.clone();
+            for (DeviceGroup deviceGroup : deviceGroups) {
+                BitSet matched = groupPolicies.get(deviceGroup.getGroupId());
+                if (matched != null) {
+                    groupMatches.or(matched);
+                }
+            }
+            matches.and(groupMatches);
+        }
+        List<Policy> matchingPolicies = new ArrayList<>(matches.cardinality());
+        for (int idx = matches.nextSetBit(0); idx >= 0; idx = matches.nextSetBit(idx + 1)) {
+            matchingPolicies.add(policies.get(idx));
+        }
+        return matchingPolicies;
+    }
+
+    private void indexOwnership(Policy policy, int idx) {
+        String ownershipType = policy.getOwnershipType();
+        if (ownershipType == null || PolicyManagementConstants.ANY.equalsIgnoreCase(ownershipType)) {
+            ownershipCriterion.anyValue.set(idx);
+        } else {
+            ownershipCriterion.add(ownershipType, idx);
+        }
+    }
+
+    private void indexRoles(Policy policy, int idx) {
+        List<String> roles = policy.getRoles();
+        if (roles == null || roles.isEmpty() || PolicyManagementConstants.ANY.equalsIgnoreCase(roles.get(0))) {
+            roleCriterion.anyValue.set(idx);
+        } else {
+            for (String role : roles) {
+                roleCriterion.add(role, idx);
+            }
+        }
+    }
+
+    private void indexUsers(Policy policy, int idx) {
+        List<String> users = policy.getUsers();
+        if (users == null || users.isEmpty() || users.contains(PolicyManagementConstants.ANY)) {
+            userCriterion.anyValue.set(idx);
+        } else {
+            for (String user : users) {
+                userCriterion.add(user, idx);
+            }
+        }
+    }
+
+    private void indexGroups(Policy policy, int idx) {
+        List<DeviceGroupWrapper> wrappers = policy.getDeviceGroups();
+        if (wrappers == null || wrappers.isEmpty()
+                || PolicyManagementConstants.ANY.equalsIgnoreCase(wrappers.get(0).getName())) {
+            anyGroupPolicies.set(idx);
+        } else {
+            for (DeviceGroupWrapper wrapper : wrappers) {
+                groupPolicies.computeIfAbsent(wrapper.getId(), id -> new BitSet()).set(idx);
+            }
+        }
+    }
+
+    /**
+     * Policies of a criterion matched case-insensitively by name.
+     */
+    private static final class Criterion {
+
+        private final BitSet anyValue = new BitSet();
+        private final Map<String, BitSet> values = new HashMap<>();
+
+        private void add(String value, int idx) {
+            if (value != null) {
+                values.computeIfAbsent(value.toLowerCase(Locale.ROOT), key -> new BitSet()).set(idx);
+            }
+        }
+
+        private BitSet match(List<String> deviceValues) {
+            BitSet matches = (BitSet) anyValue.clone();
+            for (String value : deviceValues) {
+                if (value != null) {
+                    BitSet matched = values.get(value.toLowerCase(Locale.ROOT));
+                    if (matched != null) {
+                        matches.or(matched);
+                    }
+                }
+            }
+            return matches;
+        }
+    }
+}
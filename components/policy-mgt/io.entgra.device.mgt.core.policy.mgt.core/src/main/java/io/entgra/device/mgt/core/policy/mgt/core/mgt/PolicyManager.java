@@ -23,6 +23,7 @@ import io.entgra.device.mgt.core.device.mgt.common.PaginationRequest;
 import io.entgra.device.mgt.core.device.mgt.common.PolicyPaginationRequest;
 import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
 import io.entgra.device.mgt.core.policy.mgt.common.PolicyManagementException;
+import io.entgra.device.mgt.core.policy.mgt.core.impl.PolicyMatchingIndex;
 import io.entgra.device.mgt.core.policy.mgt.core.mgt.bean.UpdatedPolicyDeviceListBean;
 
 import java.util.HashMap;
@@ -61,6 +62,26 @@ public interface PolicyManager {
 
     List<Policy> getPoliciesOfDeviceType(String deviceType) throws PolicyManagementException;
 
+    /**
+     * Returns the active general policies of a device type sorted by the priority. When the policy cache is enabled,
+     * the list is a snapshot shared between the callers, hence it must not be altered.
+     *
+     * @param deviceType Name of the device type
+     * @return Unmodifiable list of policies
+     * @throws PolicyManagementException if the policies cannot be retrieved
+     */
+    List<Policy> getActivePoliciesOfDeviceType(String deviceType) throws PolicyManagementException;
+
+    /**
+     * Returns the matching index of the active general policies of a device type, which resolves the policies
+     * related to a device.
+     *
+     * @param deviceType Name of the device type
+     * @return Matching index of the policies
+     * @throws PolicyManagementException if the policies cannot be retrieved
+     */
+    PolicyMatchingIndex getActivePolicyIndex(String deviceType) throws PolicyManagementException;
+
     List<Policy> getPoliciesOfRole(String roleName) throws PolicyManagementException;
 
     List<Policy> getPoliciesOfUser(String username) throws PolicyManagementException;
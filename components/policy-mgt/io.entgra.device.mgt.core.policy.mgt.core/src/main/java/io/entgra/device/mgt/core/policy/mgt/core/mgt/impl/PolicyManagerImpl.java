@@ -46,6 +46,7 @@ import io.entgra.device.mgt.core.notification.logger.impl.EntgraPolicyLoggerImpl
 import io.entgra.device.mgt.core.policy.mgt.common.Criterion;
 import io.entgra.device.mgt.core.policy.mgt.common.PolicyManagementException;
 import io.entgra.device.mgt.core.policy.mgt.common.ProfileManagementException;
+import io.entgra.device.mgt.core.policy.mgt.core.cache.impl.ActivePolicySnapshotCache;
 import io.entgra.device.mgt.core.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
 import io.entgra.device.mgt.core.policy.mgt.core.dao.FeatureDAO;
 import io.entgra.device.mgt.core.policy.mgt.core.dao.FeatureManagerDAOException;
@@ -54,6 +55,7 @@ import io.entgra.device.mgt.core.policy.mgt.core.dao.PolicyManagementDAOFactory;
 import io.entgra.device.mgt.core.policy.mgt.core.dao.PolicyManagerDAOException;
 import io.entgra.device.mgt.core.policy.mgt.core.dao.ProfileDAO;
 import io.entgra.device.mgt.core.policy.mgt.core.dao.ProfileManagerDAOException;
+import io.entgra.device.mgt.core.policy.mgt.core.impl.PolicyMatchingIndex;
 import io.entgra.device.mgt.core.policy.mgt.core.internal.PolicyManagementDataHolder;
 import io.entgra.device.mgt.core.policy.mgt.core.mgt.PolicyManager;
 import io.entgra.device.mgt.core.policy.mgt.core.mgt.ProfileManager;
@@ -966,13 +968,11 @@ public class PolicyManagerImpl implements PolicyManager {
 
     @Override
     public List<Policy> getPoliciesOfDeviceType(String deviceTypeName) throws PolicyManagementException {
-        List<Policy> policies = new ArrayList<>();
-        List<Policy> allPolicies;
         if (policyConfiguration.getCacheEnable()) {
-            allPolicies = PolicyCacheManagerImpl.getInstance().getAllPolicies();
-        } else {
-            allPolicies = this.getPolicies();
+            return new ArrayList<>(PolicyCacheManagerImpl.getInstance().getPoliciesOfDeviceType(deviceTypeName));
         }
+        List<Policy> policies = new ArrayList<>();
+        List<Policy> allPolicies = this.getPolicies();
 
         for (Policy policy : allPolicies) {
             if (policy.getProfile().getDeviceType().equalsIgnoreCase(deviceTypeName)) {
@@ -983,6 +983,27 @@ public class PolicyManagerImpl implements PolicyManager {
         return policies;
     }
 
+    @Override
+    public List<Policy> getActivePoliciesOfDeviceType(String deviceTypeName) throws PolicyManagementException {
+        if (policyConfiguration.getCacheEnable()) {
+            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+            return ActivePolicySnapshotCache.getActivePolicies(tenantId, deviceTypeName,
+                    PolicyCacheManagerImpl.getInstance().getPoliciesOfDeviceType(deviceTypeName));
+        }
+        return ActivePolicySnapshotCache.buildActivePolicies(deviceTypeName, this.getPolicies());
+    }
+
+    @Override
+    public PolicyMatchingIndex getActivePolicyIndex(String deviceTypeName) throws PolicyManagementException {
+        if (policyConfiguration.getCacheEnable()) {
+            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+            return ActivePolicySnapshotCache.getActivePolicyIndex(tenantId, deviceTypeName,
+                    PolicyCacheManagerImpl.getInstance().getPoliciesOfDeviceType(deviceTypeName));
+        }
+        return new PolicyMatchingIndex(ActivePolicySnapshotCache.buildActivePolicies(deviceTypeName,
+                this.getPolicies()));
+    }
+
     @Override
     public List<Policy> getPoliciesOfRole(String roleName) throws PolicyManagementException {
         List<Policy> policies = new ArrayList<>();
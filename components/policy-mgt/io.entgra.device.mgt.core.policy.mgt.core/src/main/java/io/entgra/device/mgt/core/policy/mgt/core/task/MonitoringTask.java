@@ -107,8 +107,7 @@ public class MonitoringTask extends DynamicPartitionedScheduleTask {
                     List<Device> devices;
                     if (getTaskContext() != null && getTaskContext().isPartitioningEnabled()) {
                         devices = deviceManagementProviderService
-                                .getAllocatedDevices(deviceType, getTaskContext().getActiveServerCount(),
-                                        getTaskContext().getServerHashIndex());
+                                .getAllocatedDevices(deviceType, getTaskContext().getTaskPartition());
                     } else {
                         devices = deviceManagementProviderService.getAllDevices(deviceType, false);
                     }
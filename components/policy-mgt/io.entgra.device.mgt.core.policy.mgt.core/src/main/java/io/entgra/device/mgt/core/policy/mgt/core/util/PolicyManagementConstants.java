@@ -41,6 +41,9 @@ public final class PolicyManagementConstants {
     public static final String DM_CACHE_MANAGER = "DM_CACHE_MANAGER";
     // public static final String DM_CACHE = "DM_CACHE";
     public static final String DM_CACHE_LIST = "DM_CACHE_LIST";
+    public static final String DM_CACHE_POLICY = "DM_CACHE_POLICY";
+    public static final String DM_CACHE_POLICY_IDS = "DM_CACHE_POLICY_IDS";
+    public static final String DM_CACHE_DEVICE_TYPE_POLICY_LIST = "DM_CACHE_DEVICE_TYPE_POLICY_LIST";
 
     public static final String DELEGATION_TASK_TYPE = "DELEGATION__TASK";
     public static final String DELEGATION_TASK_NAME = "DELEGATION";
@@ -386,6 +386,18 @@ public class PolicyManagerUtil {
                 Caching.getCacheManager().<Integer, List<Policy>>getCache(name);
     }
 
+    public static Cache<Integer, List<Integer>> getPolicyIdListCache(String name) {
+        CacheManager manager = getCacheManager();
+        return (manager != null) ? manager.<Integer, List<Integer>>getCache(name) :
+                Caching.getCacheManager().<Integer, List<Integer>>getCache(name);
+    }
+
+    public static Cache<String, List<Policy>> getDeviceTypePolicyListCache(String name) {
+        CacheManager manager = getCacheManager();
+        return (manager != null) ? manager.<String, List<Policy>>getCache(name) :
+                Caching.getCacheManager().<String, List<Policy>>getCache(name);
+    }
+
     private static CacheManager getCacheManager() {
         return Caching.getCacheManagerFactory().getCacheManager(
                 PolicyManagementConstants.DM_CACHE_MANAGER);
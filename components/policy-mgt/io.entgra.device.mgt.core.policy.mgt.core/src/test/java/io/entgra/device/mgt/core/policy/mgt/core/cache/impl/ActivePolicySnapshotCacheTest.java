@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.cache.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Profile;
+import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagementConstants;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ActivePolicySnapshotCacheTest {
+
+    private static final int TENANT_ID = 9001;
+    private static final int OTHER_TENANT_ID = 9002;
+    private static final String DEVICE_TYPE = "snapshot_test_device_type";
+
+    @Test(description = "Keeps the active general policies of the device type sorted by the priority")
+    public void testActivePoliciesOfDeviceType() {
+        Policy inactivePolicy = createPolicy(1, 1, DEVICE_TYPE);
+        inactivePolicy.setActive(false);
+        Policy correctivePolicy = createPolicy(2, 2, DEVICE_TYPE);
+        correctivePolicy.setPolicyType(PolicyManagementConstants.CORRECTIVE_POLICY_TYPE);
+        Policy lowPriorityPolicy = createPolicy(3, 9, DEVICE_TYPE);
+        Policy highPriorityPolicy = createPolicy(4, 3, DEVICE_TYPE.toUpperCase());
+        Policy otherTypePolicy = createPolicy(5, 4, "other_device_type");
+
+        List<Policy> activePolicies = ActivePolicySnapshotCache.getActivePolicies(TENANT_ID, DEVICE_TYPE,
+                Arrays.asList(inactivePolicy, correctivePolicy, lowPriorityPolicy, highPriorityPolicy,
+                        otherTypePolicy));
+
+        Assert.assertEquals(activePolicies, Arrays.asList(highPriorityPolicy, lowPriorityPolicy));
+        try {
+            activePolicies.clear();
+            Assert.fail("Snapshot of the active policies can be altered.");
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+
+    @Test(description = "Rebuilds the snapshot only once the source policy list is replaced")
+    public void testSnapshotRebuiltOnSourceChange() {
+        List<Policy> source = Collections.unmodifiableList(Arrays.asList(createPolicy(1, 1, DEVICE_TYPE),
+                createPolicy(2, 2, DEVICE_TYPE)));
+        List<Policy> snapshot = ActivePolicySnapshotCache.getActivePolicies(TENANT_ID, DEVICE_TYPE, source);
+        Assert.assertSame(ActivePolicySnapshotCache.getActivePolicies(TENANT_ID, DEVICE_TYPE, source), snapshot,
+                "Snapshot is rebuilt from the same source list.");
+        Assert.assertSame(ActivePolicySnapshotCache.getActivePolicyIndex(TENANT_ID, DEVICE_TYPE, source),
+                ActivePolicySnapshotCache.getActivePolicyIndex(TENANT_ID, DEVICE_TYPE, source),
+                "Matching index is rebuilt from the same source list.");
+
+        List<Policy> replacedSource = new ArrayList<>(source);
+        replacedSource.get(0).setActive(false);
+        replacedSource.add(createPolicy(3, 3, DEVICE_TYPE));
+        List<Policy> rebuiltSnapshot = ActivePolicySnapshotCache.getActivePolicies(TENANT_ID, DEVICE_TYPE,
+                replacedSource);
+        Assert.assertNotSame(rebuiltSnapshot, snapshot, "Snapshot is not rebuilt from the replaced source list.");
+        Assert.assertEquals(rebuiltSnapshot, Arrays.asList(replacedSource.get(1), replacedSource.get(2)));
+    }
+
+    @Test(description = "Drops the snapshots of a tenant only")
+    public void testInvalidateTenant() {
+        List<Policy> source = Collections.singletonList(createPolicy(1, 1, DEVICE_TYPE));
+        List<Policy> snapshot = ActivePolicySnapshotCache.getActivePolicies(TENANT_ID, DEVICE_TYPE, source);
+        List<Policy> otherSnapshot = ActivePolicySnapshotCache.getActivePolicies(OTHER_TENANT_ID, DEVICE_TYPE,
+                source);
+
+        ActivePolicySnapshotCache.invalidate(TENANT_ID);
+
+        Assert.assertNotSame(ActivePolicySnapshotCache.getActivePolicies(TENANT_ID, DEVICE_TYPE, source), snapshot,
+                "Snapshot of the invalidated tenant is not rebuilt.");
+        Assert.assertSame(ActivePolicySnapshotCache.getActivePolicies(OTHER_TENANT_ID, DEVICE_TYPE, source),
+                otherSnapshot, "Snapshot of another tenant is rebuilt.");
+    }
+
+    static Policy createPolicy(int id, int priority, String deviceType) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPriorityId(priority);
+        policy.setPolicyName("Policy " + id);
+        policy.setActive(true);
+        policy.setPolicyType(PolicyManagementConstants.GENERAL_POLICY_TYPE);
+        Profile profile = new Profile();
+        profile.setDeviceType(deviceType);
+        policy.setProfile(profile);
+        policy.setRoles(Collections.singletonList(PolicyManagementConstants.ANY));
+        policy.setUsers(Collections.singletonList(PolicyManagementConstants.ANY));
+        policy.setOwnershipType(PolicyManagementConstants.ANY);
+        return policy;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.cache.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import io.entgra.device.mgt.core.policy.mgt.common.PIPDevice;
+import io.entgra.device.mgt.core.policy.mgt.core.BasePolicyManagementDAOTest;
+import io.entgra.device.mgt.core.policy.mgt.core.impl.PolicyMatchingIndex;
+import io.entgra.device.mgt.core.policy.mgt.core.mgt.PolicyManager;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the effective policy of a device the way the simple policy evaluation does, through the policy cache and
+ * {@link ActivePolicySnapshotCache}, while the policies of the device type are republished by another thread. Each
+ * republished generation of the policies has a different effective policy.
+ */
+public class ActivePolicySnapshotConcurrencyTest extends BasePolicyManagementDAOTest {
+
+    private static final String DEVICE_TYPE = "snapshot_concurrency_device_type";
+    private static final int POLICY_COUNT = 50;
+    private static final int GENERATIONS = 200;
+    private static final int EVALUATION_THREADS = 4;
+
+    private PolicyCacheManagerImpl policyCacheManager;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void init() {
+        PolicyManager policyManager = Mockito.mock(PolicyManager.class);
+        this.policyCacheManager = new PolicyCacheManagerImpl(() -> policyManager);
+        this.executor = Executors.newFixedThreadPool(EVALUATION_THREADS + 1);
+    }
+
+    @AfterClass
+    public void cleanUp() throws Exception {
+        this.executor.shutdownNow();
+        PolicyCacheManagerImplTest.asTenant(() -> {
+            this.policyCacheManager.removeAllPolicies();
+            return null;
+        }).call();
+    }
+
+    @Test(description = "Evaluations observe neither a stale nor a partially republished policy snapshot")
+    public void testEffectivePolicyDuringRepublish() throws Exception {
+        AtomicInteger publishedGeneration = new AtomicInteger();
+        PolicyCacheManagerImplTest.asTenant(() -> {
+            this.policyCacheManager.updateAllPolicies(createPolicies(0));
+            return null;
+        }).call();
+
+        Future<Void> publisher = this.executor.submit(PolicyCacheManagerImplTest.asTenant(() -> {
+            for (int generation = 1; generation <= GENERATIONS; generation++) {
+                this.policyCacheManager.updateAllPolicies(createPolicies(generation));
+                publishedGeneration.set(generation);
+            }
+            return null;
+        }));
+        List<Future<Integer>> evaluators = new ArrayList<>();
+        for (int i = 0; i < EVALUATION_THREADS; i++) {
+            evaluators.add(this.executor.submit(PolicyCacheManagerImplTest.asTenant(() -> {
+                PIPDevice device = new PIPDevice();
+                device.setOwnershipType("BYOD");
+                device.setRoles(new String[]{"Internal/everyone"});
+                device.setUserId("admin");
+                int evaluations = 0;
+                int generation = -1;
+                while (generation < GENERATIONS && !Thread.currentThread().isInterrupted()) {
+                    int publishedBefore = publishedGeneration.get();
+                    PolicyMatchingIndex index = ActivePolicySnapshotCache.getActivePolicyIndex(
+                            MultitenantConstants.SUPER_TENANT_ID, DEVICE_TYPE,
+                            this.policyCacheManager.getPoliciesOfDeviceType(DEVICE_TYPE));
+                    List<Policy> policies = index.getMatchingPolicies(device);
+                    Assert.assertEquals(policies.size(), POLICY_COUNT, "Snapshot holds a part of the policies.");
+                    generation = getGeneration(policies.get(0));
+                    for (Policy policy : policies) {
+                        Assert.assertEquals(getGeneration(policy), generation,
+                                "Snapshot mixes the policies of two generations.");
+                    }
+                    Assert.assertTrue(generation >= publishedBefore, "Snapshot of generation " + generation
+                            + " is observed after generation " + publishedBefore + " is published.");
+                    Assert.assertEquals(Collections.min(policies).getId(), getEffectivePolicyId(generation),
+                            "Effective policy does not belong to the observed generation.");
+                    evaluations++;
+                }
+                return evaluations;
+            })));
+        }
+
+        publisher.get(60, TimeUnit.SECONDS);
+        for (Future<Integer> evaluator : evaluators) {
+            Assert.assertTrue(evaluator.get(60, TimeUnit.SECONDS) > 0);
+        }
+    }
+
+    /**
+     * Creates the policies of a generation, in which a different policy takes the highest priority.
+     */
+    private static List<Policy> createPolicies(int generation) {
+        List<Policy> policies = new ArrayList<>();
+        for (int id = 1; id <= POLICY_COUNT; id++) {
+            Policy policy = ActivePolicySnapshotCacheTest.createPolicy(id,
+                    id == getEffectivePolicyId(generation) ? 0 : id, DEVICE_TYPE);
+            policy.setPolicyName(generation + ":" + id);
+            policies.add(policy);
+        }
+        return policies;
+    }
+
+    private static int getEffectivePolicyId(int generation) {
+        return generation % POLICY_COUNT + 1;
+    }
+
+    private static int getGeneration(Policy policy) {
+        String policyName = policy.getPolicyName();
+        return Integer.parseInt(policyName.substring(0, policyName.indexOf(':')));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.cache.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Profile;
+import io.entgra.device.mgt.core.policy.mgt.core.BasePolicyManagementDAOTest;
+import io.entgra.device.mgt.core.policy.mgt.core.mgt.PolicyManager;
+import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagementConstants;
+import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagerUtil;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests that the policy cache does not keep stale policies when it is invalidated while being rebuilt.
+ */
+public class PolicyCacheManagerImplTest extends BasePolicyManagementDAOTest {
+
+    private static final String DEVICE_TYPE = "cache_test_device_type";
+
+    private PolicyManager policyManager;
+    private PolicyCacheManagerImpl policyCacheManager;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void init() {
+        this.policyManager = Mockito.mock(PolicyManager.class);
+        this.policyCacheManager = new PolicyCacheManagerImpl(() -> this.policyManager);
+        this.executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public void cleanUp() {
+        this.executor.shutdownNow();
+        this.policyCacheManager.removeAllPolicies();
+    }
+
+    @Test(description = "A policy updated while the policies are reloaded is not overwritten by the reload")
+    public void testPolicyUpdatedDuringReloadIsKept() throws Exception {
+        this.policyCacheManager.removeAllPolicies();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(this.policyManager.getPolicies()).thenAnswer(invocation -> {
+            loading.countDown();
+            Assert.assertTrue(release.await(10, TimeUnit.SECONDS));
+            return new ArrayList<>(Arrays.asList(createPolicy(1), createPolicy(2)));
+        });
+
+        Future<List<Policy>> reload = this.executor.submit(asTenant(this.policyCacheManager::getAllPolicies));
+        Assert.assertTrue(loading.await(10, TimeUnit.SECONDS), "Policies are not reloaded.");
+        Policy updatedPolicy = createPolicy(1);
+        updatedPolicy.setPolicyName("Updated policy");
+        Future<Void> update = this.executor.submit(asTenant(() -> {
+            this.policyCacheManager.updatePolicy(updatedPolicy);
+            return null;
+        }));
+        Thread.sleep(200);
+        Assert.assertFalse(update.isDone(), "Policy is updated in the middle of the reload.");
+        release.countDown();
+        reload.get(10, TimeUnit.SECONDS);
+        update.get(10, TimeUnit.SECONDS);
+
+        Assert.assertSame(this.policyCacheManager.getPolicy(1), updatedPolicy,
+                "Updated policy is overwritten by the reloaded policies.");
+        Mockito.verify(this.policyManager, Mockito.times(1)).getPolicies();
+    }
+
+    @Test(description = "A device type list built from a policy invalidated meanwhile is not put into the cache",
+            dependsOnMethods = "testPolicyUpdatedDuringReloadIsKept")
+    public void testInvalidationDuringDeviceTypeRebuild() throws Exception {
+        this.policyCacheManager.removeAllPolicies();
+        BlockingPolicy blockingPolicy = new BlockingPolicy();
+        initPolicy(blockingPolicy, 1);
+        this.policyCacheManager.addAllPolicies(Arrays.asList(blockingPolicy, createPolicy(2)));
+        List<Policy> reloadedPolicies = Arrays.asList(createPolicy(1), createPolicy(2));
+        Mockito.reset(this.policyManager);
+        Mockito.when(this.policyManager.getPolicies()).thenReturn(new ArrayList<>(reloadedPolicies));
+
+        blockingPolicy.block();
+        Future<List<Policy>> rebuild = this.executor.submit(asTenant(
+                () -> this.policyCacheManager.getPoliciesOfDeviceType(DEVICE_TYPE)));
+        Assert.assertTrue(blockingPolicy.reading.await(10, TimeUnit.SECONDS), "Device type list is not rebuilt.");
+        // Invalidation of a policy received from another node, which does not take the lock of this node
+        PolicyManagerUtil.getPolicyCache(PolicyManagementConstants.DM_CACHE_POLICY).remove(2);
+        blockingPolicy.release.countDown();
+        Assert.assertEquals(rebuild.get(10, TimeUnit.SECONDS).size(), 2);
+
+        Assert.assertNull(PolicyManagerUtil.getDeviceTypePolicyListCache(
+                        PolicyManagementConstants.DM_CACHE_DEVICE_TYPE_POLICY_LIST).get(DEVICE_TYPE),
+                "Device type list built from an invalidated policy is cached.");
+        List<Policy> policies = this.policyCacheManager.getPoliciesOfDeviceType(DEVICE_TYPE);
+        Assert.assertEquals(policies, reloadedPolicies, "Policies of the device type are not reloaded.");
+        Assert.assertSame(PolicyManagerUtil.getDeviceTypePolicyListCache(
+                PolicyManagementConstants.DM_CACHE_DEVICE_TYPE_POLICY_LIST).get(DEVICE_TYPE), policies,
+                "Device type list built from the reloaded policies is not cached.");
+    }
+
+    static <T> Callable<T> asTenant(Callable<T> callable) {
+        return () -> {
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                        .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+                PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                        .setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+                return callable.call();
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        };
+    }
+
+    private static Policy createPolicy(int id) {
+        return initPolicy(new Policy(), id);
+    }
+
+    private static Policy initPolicy(Policy policy, int id) {
+        policy.setId(id);
+        policy.setPriorityId(id);
+        policy.setPolicyName("Policy " + id);
+        policy.setActive(true);
+        policy.setPolicyType(PolicyManagementConstants.GENERAL_POLICY_TYPE);
+        Profile profile = new Profile();
+        profile.setDeviceType(DEVICE_TYPE);
+        policy.setProfile(profile);
+        return policy;
+    }
+
+    /**
+     * Policy which holds the thread reading its profile once blocked, until it is released.
+     */
+    private static class BlockingPolicy extends Policy {
+
+        private static final long serialVersionUID = 1L;
+        private final transient CountDownLatch reading = new CountDownLatch(1);
+        private final transient CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blocked;
+
+        void block() {
+            this.blocked = true;
+        }
+
+        @Override
+        public Profile getProfile() {
+            if (this.blocked) {
+                this.blocked = false;
+                this.reading.countDown();
+                try {
+                    this.release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.getProfile();
+        }
+    }
+}
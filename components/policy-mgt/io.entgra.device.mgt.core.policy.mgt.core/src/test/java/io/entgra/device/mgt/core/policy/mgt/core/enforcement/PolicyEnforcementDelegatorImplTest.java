@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.enforcement;
+
+import io.entgra.device.mgt.core.device.mgt.common.Device;
+import io.entgra.device.mgt.core.device.mgt.common.DeviceIdentifier;
+import io.entgra.device.mgt.core.device.mgt.common.EnrolmentInfo;
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the grouping and batching of the devices by {@link PolicyEnforcementDelegatorImpl#delegate()}. The policy
+ * evaluation and the operation management are replaced with a recording delegator, hence no database is needed.
+ */
+public class PolicyEnforcementDelegatorImplTest {
+
+    private static final String ANDROID = "android";
+    private static final String IOS = "ios";
+
+    @Test
+    public void testDelegateGroupsDevicesByTypeAndPolicy() throws PolicyDelegationException {
+        Policy policyA = createPolicy(1);
+        Policy policyB = createPolicy(2);
+        List<Device> devices = new ArrayList<>();
+        RecordingDelegator delegator = new RecordingDelegator(devices, Collections.emptyList());
+        delegator.addDevice(createDevice(ANDROID, 1), null, policyA);
+        delegator.addDevice(createDevice(ANDROID, 2), null, policyA);
+        delegator.addDevice(createDevice(ANDROID, 3), policyA, policyB);
+        delegator.addDevice(createDevice(IOS, 4), null, policyA);
+        delegator.addDevice(createDevice(ANDROID, 5), policyA, null);
+        delegator.addDevice(createDevice(IOS, 6), policyB, null);
+        // Already has the unchanged effective policy, hence not re-enforced
+        delegator.addDevice(createDevice(ANDROID, 7), policyA, policyA);
+
+        delegator.delegate();
+
+        Assert.assertEquals(new HashSet<>(delegator.policyOperations), new HashSet<>(Arrays.asList(
+                "android:1:[android-1, android-2]", "android:2:[android-3]", "ios:1:[ios-4]")),
+                "Devices are not grouped by device type and effective policy.");
+        Assert.assertEquals(new HashSet<>(delegator.repeatedBundles), new HashSet<>(Arrays.asList(
+                "android:[1, 2]", "android:[3]", "ios:[4]")),
+                "Previous policy bundles are not marked repeated per group.");
+        Assert.assertEquals(new HashSet<>(delegator.revokeOperations), new HashSet<>(Arrays.asList(
+                "[android-1, android-2]", "[android-3]", "[ios-4]", "[android-5]", "[ios-6]")),
+                "Policy revocations are not added per group.");
+        Assert.assertEquals(delegator.revokeOperations.size(), 5, "A group received more than one revocation.");
+    }
+
+    @Test
+    public void testDelegateReEnforcesUpdatedPolicy() throws PolicyDelegationException {
+        Policy policyA = createPolicy(1);
+        List<Device> devices = new ArrayList<>();
+        RecordingDelegator delegator = new RecordingDelegator(devices, Collections.singletonList(1));
+        delegator.addDevice(createDevice(ANDROID, 1), policyA, policyA);
+
+        delegator.delegate();
+
+        Assert.assertEquals(delegator.policyOperations, Collections.singletonList("android:1:[android-1]"),
+                "Device is not re-enforced after its policy is updated.");
+    }
+
+    @Test
+    public void testDelegateSplitsGroupsIntoBatches() throws PolicyDelegationException {
+        Policy policyA = createPolicy(1);
+        List<Device> devices = new ArrayList<>();
+        RecordingDelegator delegator = new RecordingDelegator(devices, Collections.emptyList());
+        for (int i = 1; i <= 1001; i++) {
+            delegator.addDevice(createDevice(ANDROID, i), null, policyA);
+        }
+
+        delegator.delegate();
+
+        Assert.assertEquals(delegator.policyOperationSizes, Arrays.asList(1000, 1),
+                "Group of 1001 devices is not split into batches of 1000 devices.");
+        Assert.assertEquals(delegator.repeatedBundles.size(), 2);
+        Assert.assertEquals(delegator.revokeOperations.size(), 2);
+    }
+
+    private static Policy createPolicy(int id) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPolicyName("policy-" + id);
+        return policy;
+    }
+
+    private static Device createDevice(String deviceType, int id) {
+        Device device = new Device();
+        device.setId(id);
+        device.setType(deviceType);
+        device.setDeviceIdentifier(deviceType + "-" + id);
+        EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+        enrolmentInfo.setId(id);
+        device.setEnrolmentInfo(enrolmentInfo);
+        return device;
+    }
+
+    /**
+     * Delegator which resolves the applied and effective policies from maps and records the operations instead of
+     * adding them.
+     */
+    private static class RecordingDelegator extends PolicyEnforcementDelegatorImpl {
+
+        private final List<Device> devices;
+        private final Map<String, Policy> appliedPolicies = new HashMap<>();
+        private final Map<String, Policy> effectivePolicies = new HashMap<>();
+        private final List<String> policyOperations = new ArrayList<>();
+        private final List<Integer> policyOperationSizes = new ArrayList<>();
+        private final List<String> revokeOperations = new ArrayList<>();
+        private final List<String> repeatedBundles = new ArrayList<>();
+
+        private RecordingDelegator(List<Device> devices, List<Integer> updatedPolicyIds) {
+            super(devices, updatedPolicyIds);
+            this.devices = devices;
+        }
+
+        private void addDevice(Device device, Policy appliedPolicy, Policy effectivePolicy) {
+            devices.add(device);
+            appliedPolicies.put(device.getDeviceIdentifier(), appliedPolicy);
+            effectivePolicies.put(device.getDeviceIdentifier(), effectivePolicy);
+        }
+
+        @Override
+        public Policy getAppliedPolicyToDevice(Device device) {
+            return appliedPolicies.get(device.getDeviceIdentifier());
+        }
+
+        @Override
+        public Policy getEffectivePolicy(DeviceIdentifier identifier) {
+            return effectivePolicies.get(identifier.getId());
+        }
+
+        @Override
+        public void addPolicyOperation(List<DeviceIdentifier> deviceIdentifiers, Policy policy) {
+            policyOperations.add(deviceIdentifiers.get(0).getType() + ":" + policy.getId() + ":"
+                    + getIds(deviceIdentifiers));
+            policyOperationSizes.add(deviceIdentifiers.size());
+        }
+
+        @Override
+        public void addPolicyRevokeOperation(List<DeviceIdentifier> deviceIdentifiers) {
+            revokeOperations.add(getIds(deviceIdentifiers).toString());
+        }
+
+        @Override
+        public void markPreviousPolicyBundlesRepeated(String deviceType, List<Integer> enrolmentIds) {
+            repeatedBundles.add(deviceType + ":" + enrolmentIds);
+        }
+
+        private static List<String> getIds(List<DeviceIdentifier> deviceIdentifiers) {
+            List<String> ids = new ArrayList<>();
+            for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+                ids.add(deviceIdentifier.getId());
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import io.entgra.device.mgt.core.policy.mgt.common.PIPDevice;
+import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagementConstants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the time taken to resolve the policies related to a device through the filter chain of
+ * {@link PolicyFilterImpl}, against resolving them through a {@link PolicyMatchingIndex} of the same policies. The
+ * policies are spread over a set of roles, users and groups, and each device belongs to several roles. The number
+ * of evaluations can be set with the system property policy.benchmark.matches. It is run by the benchmark suite
+ * only, with mvn test -Pbenchmark.
+ */
+public class PolicyMatchingIndexBenchmarkTests {
+
+    private static final Log log = LogFactory.getLog(PolicyMatchingIndexBenchmarkTests.class);
+    private static final String BENCHMARK_MATCHES_PROPERTY = "policy.benchmark.matches";
+    private static final String DEFAULT_BENCHMARK_MATCHES = "10000";
+    private static final int POLICY_COUNT = 300;
+    private static final int ROLE_COUNT = 40;
+    private static final int USER_COUNT = 100;
+    private static final int GROUP_COUNT = 20;
+    private static final int ROLES_PER_DEVICE = 12;
+    private static final int DEVICE_COUNT = 50;
+
+    private List<Policy> policies;
+    private PolicyMatchingIndex policyIndex;
+    private List<PIPDevice> devices;
+
+    @BeforeClass
+    public void init() {
+        policies = new ArrayList<>();
+        for (int i = 0; i < POLICY_COUNT; i++) {
+            String ownershipType = i % 3 == 0 ? PolicyManagementConstants.ANY : (i % 3 == 1 ? "BYOD" : "COPE");
+            List<String> roles = i % 5 == 0 ? Collections.singletonList(PolicyManagementConstants.ANY)
+                    : Arrays.asList("role" + (i % ROLE_COUNT), "role" + ((i * 7) % ROLE_COUNT));
+            List<String> users = i % 4 == 0 ? Collections.singletonList("user" + (i % USER_COUNT))
+                    : Collections.emptyList();
+            List<Integer> groupIds = i % 6 == 0 ? Collections.singletonList(i % GROUP_COUNT)
+                    : Collections.emptyList();
+            policies.add(PolicyMatchingIndexTest.createPolicy(i + 1, ownershipType, roles, users, groupIds));
+        }
+        policyIndex = new PolicyMatchingIndex(policies);
+
+        devices = new ArrayList<>();
+        for (int i = 0; i < DEVICE_COUNT; i++) {
+            String[] roles = new String[ROLES_PER_DEVICE];
+            for (int j = 0; j < ROLES_PER_DEVICE; j++) {
+                roles[j] = "role" + ((i + j * 3) % ROLE_COUNT);
+            }
+            devices.add(PolicyMatchingIndexTest.createDevice(i % 2 == 0 ? "BYOD" : "COPE", roles,
+                    "user" + ((i * 4) % USER_COUNT), Arrays.asList(i % GROUP_COUNT, (i + 6) % GROUP_COUNT)));
+        }
+    }
+
+    @Test(description = "Index resolves the same policies as the filter chain for every benchmarked device")
+    public void testIndexMatchesFilterChain() {
+        for (PIPDevice device : devices) {
+            Assert.assertEquals(policyIndex.getMatchingPolicies(device),
+                    PolicyMatchingIndexTest.filterPolicies(policies, device),
+                    "Policies matched by the index differ from the policies of the filter chain.");
+        }
+    }
+
+    @Test(description = "Compare the matching throughput of the filter chain and the index",
+            dependsOnMethods = "testIndexMatchesFilterChain")
+    public void benchmarkPolicyMatching() {
+        int matches = Integer.parseInt(System.getProperty(BENCHMARK_MATCHES_PROPERTY,
+                DEFAULT_BENCHMARK_MATCHES).trim());
+
+        long filtered = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < matches; i++) {
+            filtered += PolicyMatchingIndexTest.filterPolicies(policies, devices.get(i % DEVICE_COUNT)).size();
+        }
+        long filterTime = System.nanoTime() - start;
+
+        long indexed = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < matches; i++) {
+            indexed += policyIndex.getMatchingPolicies(devices.get(i % DEVICE_COUNT)).size();
+        }
+        long indexTime = System.nanoTime() - start;
+
+        log.info("Matching " + POLICY_COUNT + " policies against devices in " + ROLES_PER_DEVICE + " roles for "
+                + matches + " matches, filter chain: " + (filterTime / matches) + " ns/match, index: "
+                + (indexTime / matches) + " ns/match");
+        Assert.assertEquals(indexed, filtered);
+    }
+}
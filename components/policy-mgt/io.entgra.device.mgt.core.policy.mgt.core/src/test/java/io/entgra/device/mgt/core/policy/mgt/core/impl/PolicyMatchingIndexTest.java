@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018 - 2023, Entgra (Pvt) Ltd. (http://www.entgra.io) All Rights Reserved.
+ *
+ * Entgra (Pvt) Ltd. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.entgra.device.mgt.core.policy.mgt.core.impl;
+
+import io.entgra.device.mgt.core.device.mgt.common.group.mgt.DeviceGroup;
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.DeviceGroupWrapper;
+import io.entgra.device.mgt.core.device.mgt.common.policy.mgt.Policy;
+import io.entgra.device.mgt.core.policy.mgt.common.PIPDevice;
+import io.entgra.device.mgt.core.policy.mgt.core.util.PolicyManagementConstants;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class PolicyMatchingIndexTest {
+
+    private List<Policy> policies;
+    private PolicyMatchingIndex policyIndex;
+
+    @BeforeClass
+    public void init() {
+        policies = new ArrayList<>();
+        policies.add(createPolicy(1, null, Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyList()));
+        policies.add(createPolicy(2, "BYOD", Arrays.asList("admin", "Internal/devicemgt-user"),
+                Collections.emptyList(), Collections.emptyList()));
+        policies.add(createPolicy(3, PolicyManagementConstants.ANY, Collections.emptyList(),
+                Arrays.asList("john", "jane"), Collections.emptyList()));
+        policies.add(createPolicy(4, "COPE", Collections.singletonList(PolicyManagementConstants.ANY),
+                Collections.singletonList(PolicyManagementConstants.ANY), Collections.singletonList(2)));
+        policies.add(createPolicy(5, "cope", Collections.singletonList("ADMIN"), Collections.singletonList("John"),
+                Arrays.asList(1, 3)));
+        policyIndex = new PolicyMatchingIndex(policies);
+    }
+
+    @Test(description = "Matches the policies in the same order as the policy filter chain")
+    public void testMatchingPolicies() {
+        List<PIPDevice> devices = new ArrayList<>();
+        devices.add(createDevice("BYOD", new String[]{"admin"}, "john", Collections.emptyList()));
+        devices.add(createDevice("COPE", new String[]{"Internal/everyone"}, "jane", Collections.singletonList(2)));
+        devices.add(createDevice("COPE", new String[]{"admin"}, "JOHN", Arrays.asList(3, 4)));
+        devices.add(createDevice("COPE", null, null, Collections.singletonList(1)));
+        devices.add(createDevice(null, new String[0], "alex", null));
+        for (PIPDevice device : devices) {
+            Assert.assertEquals(policyIndex.getMatchingPolicies(device), filterPolicies(policies, device),
+                    "Policies matched by the index differ from the policies of the filter chain.");
+        }
+    }
+
+    @Test(description = "Excludes the policies of which no criterion matches")
+    public void testNoMatchingPolicies() {
+        PIPDevice device = createDevice("COPE", new String[]{"Internal/everyone"}, "alex",
+                Collections.singletonList(7));
+        List<Policy> matchingPolicies = policyIndex.getMatchingPolicies(device);
+        Assert.assertEquals(matchingPolicies.size(), 1, "Only the unrestricted policy should match.");
+        Assert.assertEquals(matchingPolicies.get(0).getId(), 1, "Unrestricted policy is not matched.");
+    }
+
+    static List<Policy> filterPolicies(List<Policy> policies, PIPDevice device) {
+        PolicyFilterImpl policyFilter = new PolicyFilterImpl();
+        List<Policy> filtered = policies;
+        if (device.getOwnershipType() != null && !device.getOwnershipType().isEmpty()) {
+            filtered = policyFilter.filterOwnershipTypeBasedPolicies(device.getOwnershipType(), filtered);
+        }
+        if (device.getRoles() != null) {
+            filtered = policyFilter.filterRolesBasedPolicies(device.getRoles(), filtered);
+        }
+        if (device.getUserId() != null && !device.getUserId().isEmpty()) {
+            filtered = policyFilter.filterUserBasedPolicies(device.getUserId(), filtered);
+        }
+        if (device.getDeviceGroups() != null && !device.getDeviceGroups().isEmpty()) {
+            Map<Integer, DeviceGroup> groupMap = new HashMap<>();
+            for (DeviceGroup group : device.getDeviceGroups()) {
+                groupMap.put(group.getGroupId(), group);
+            }
+            filtered = policyFilter.filterDeviceGroupsPolicies(groupMap, filtered);
+        }
+        // Role filter of the chain adds a policy once per matching role
+        return new ArrayList<>(new LinkedHashSet<>(filtered));
+    }
+
+    static Policy createPolicy(int id, String ownershipType, List<String> roles, List<String> users,
+                                List<Integer> groupIds) {
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPriorityId(id);
+        policy.setPolicyName("Policy " + id);
+        policy.setOwnershipType(ownershipType);
+        policy.setRoles(roles);
+        policy.setUsers(users);
+        List<DeviceGroupWrapper> wrappers = new ArrayList<>();
+        for (int groupId : groupIds) {
+            DeviceGroupWrapper wrapper = new DeviceGroupWrapper();
+            wrapper.setId(groupId);
+            wrapper.setName("Group " + groupId);
+            wrappers.add(wrapper);
+        }
+        policy.setDeviceGroups(wrappers);
+        return policy;
+    }
+
+    static PIPDevice createDevice(String ownershipType, String[] roles, String userId, List<Integer> groupIds) {
+        PIPDevice device = new PIPDevice();
+        device.setOwnershipType(ownershipType);
+        device.setRoles(roles);
+        device.setUserId(userId);
+        if (groupIds != null) {
+            List<DeviceGroup> groups = new ArrayList<>();
+            for (int groupId : groupIds) {
+                DeviceGroup group = new DeviceGroup("Group " + groupId);
+                group.setGroupId(groupId);
+                groups.add(group);
+            }
+            device.setDeviceGroups(groups);
+        }
+        return device;
+    }
+}
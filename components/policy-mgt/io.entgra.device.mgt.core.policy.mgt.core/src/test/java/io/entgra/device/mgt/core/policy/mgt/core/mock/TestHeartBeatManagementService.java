@@ -19,6 +19,7 @@
 package io.entgra.device.mgt.core.policy.mgt.core.mock;
 
 import io.entgra.device.mgt.core.device.mgt.common.ServerCtxInfo;
+import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.ClusterView;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.HeartBeatEvent;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.dto.ServerContext;
 import io.entgra.device.mgt.core.server.bootup.heartbeat.beacon.exception.HeartBeatManagementException;
@@ -37,6 +38,11 @@ public class TestHeartBeatManagementService implements HeartBeatManagementServic
         return null;
     }
 
+    @Override
+    public ClusterView getClusterView() throws HeartBeatManagementException {
+        return null;
+    }
+
     @Override
     public String updateServerContext(ServerContext ctx) throws HeartBeatManagementException {
         return null;
@@ -46,6 +46,7 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE (
      DEVICE_IDENTIFICATION VARCHAR(300) DEFAULT NULL,
      LAST_UPDATED_TIMESTAMP TIMESTAMP NOT NULL,
      TENANT_ID INTEGER DEFAULT 0,
+     PARTITION_BUCKET INTEGER NOT NULL DEFAULT 0,
      PRIMARY KEY (ID),
      CONSTRAINT fk_DM_DEVICE_DM_DEVICE_TYPE2 FOREIGN KEY (DEVICE_TYPE_ID)
      REFERENCES DM_DEVICE_TYPE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION,
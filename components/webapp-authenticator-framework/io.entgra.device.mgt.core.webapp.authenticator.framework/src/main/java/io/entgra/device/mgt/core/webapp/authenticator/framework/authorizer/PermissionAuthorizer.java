@@ -29,10 +29,6 @@ import org.apache.catalina.connector.Request;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.StringTokenizer;
-
 public class PermissionAuthorizer {
 
     private static final Log log = LogFactory.getLog(PermissionAuthorizer.class);
@@ -52,76 +48,22 @@ public class PermissionAuthorizer {
 
         PermissionManagerService registryBasedPermissionManager =
                 PermissionManagerServiceImpl.getInstance();
-        List<Permission> matchingPermissions = null;
+        Permission matchingPermission = null;
         try {
-            matchingPermissions = registryBasedPermissionManager.getPermission(context);
+            matchingPermission = registryBasedPermissionManager.getPermission(context, requestUri, requestMethod);
         } catch (PermissionManagementException e) {
             log.error(
                     "Error occurred while fetching the permission for URI : " + requestUri +
                             ", msg = " + e.getMessage());
         }
 
-        if (matchingPermissions == null) {
-            if (log.isDebugEnabled()) {
-                log.debug("Permission to request '" + requestUri + "' is not defined in the configuration");
-            }
-            return WebappAuthenticator.Status.FAILURE;
-        }
-
-        String requiredPermission = null;
-        List<MatchingResource> matchingResources = new ArrayList<>();
-        for (Permission permission : matchingPermissions) {
-            if (requestMethod.equals(permission.getMethod()) && requestUri.matches(permission.getUrlPattern())) {
-                if (requestUri.equals(permission.getUrl())) { // is there a exact match
-                    requiredPermission = permission.getPath();
-                    break;
-                } else { // all templated urls add to a list
-                    matchingResources.add(new MatchingResource(permission.getUrlPattern().replace(context, ""), permission.getPath()));
-                }
-            }
-        }
-
-        if (requiredPermission == null) {
-            if (matchingResources.size() == 1) { // only 1 templated url found
-                requiredPermission = matchingResources.get(0).getPermission();
-            }
-
-            if (matchingResources.size() > 1) { // more than 1 templated urls found
-                String urlWithoutContext = requestUri.replace(context, "");
-                StringTokenizer st = new StringTokenizer(urlWithoutContext, "/");
-                int tokenPosition = 1;
-                while (st.hasMoreTokens()) {
-                    List<MatchingResource> tempList = new ArrayList<>();
-                    String currentToken = st.nextToken();
-                    for (MatchingResource matchingResource : matchingResources) {
-                        StringTokenizer stmr = new StringTokenizer(matchingResource.getUrlPattern(), "/");
-                        int internalTokenPosition = 1;
-                        while (stmr.hasMoreTokens()) {
-                            String internalToken = stmr.nextToken();
-                            if ((tokenPosition == internalTokenPosition)  && currentToken.equals(internalToken)) {
-                                tempList.add(matchingResource);
-                            }
-                            internalTokenPosition++;
-                            if (tokenPosition < internalTokenPosition) {
-                                break;
-                            }
-                        }
-                    }
-                    if (tempList.size() == 1) {
-                        requiredPermission = tempList.get(0).getPermission();
-                        break;
-                    }
-                    tokenPosition++;
-                }
-            }
-        }
-
-        if (requiredPermission == null) {
+        if (matchingPermission == null) {
             if (log.isDebugEnabled()) {
                 log.debug("Matching permission not found for " + requestUri);
             }
             return WebappAuthenticator.Status.FAILURE;
         }
+        String requiredPermission = matchingPermission.getPath();
 
         boolean isUserAuthorized;
         try {
@@ -0,0 +1,73 @@
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[DM_OPERATION_ARCH]') AND TYPE IN (N'U'))
+CREATE TABLE DM_OPERATION_ARCH (
+    ID INTEGER NOT NULL,
+    TYPE VARCHAR(20) NOT NULL,
+    CREATED_TIMESTAMP BIGINT NOT NULL,
+    RECEIVED_TIMESTAMP BIGINT NULL,
+    OPERATION_CODE VARCHAR(50) NOT NULL,
+    INITIATED_BY VARCHAR(100) NULL,
+    OPERATION_DETAILS VARBINARY(MAX) DEFAULT NULL,
+    OPERATION_PROPERTIES VARBINARY(MAX) DEFAULT NULL,
+    ENABLED BIT NOT NULL DEFAULT 0,
+    ARCHIVED_AT DATETIME2 DEFAULT GETDATE(),
+    PRIMARY KEY (ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_OPR_ARC' AND OBJECT_ID = OBJECT_ID('DM_OPERATION_ARCH'))
+CREATE INDEX IDX_OPR_ARC ON DM_OPERATION_ARCH(ARCHIVED_AT);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[DM_ENROLMENT_OP_MAPPING_ARCH]') AND TYPE IN (N'U'))
+CREATE TABLE DM_ENROLMENT_OP_MAPPING_ARCH (
+    ID INTEGER NOT NULL,
+    ENROLMENT_ID INTEGER NOT NULL,
+    OPERATION_ID INTEGER NOT NULL,
+    STATUS VARCHAR(50) NULL,
+    CREATED_TIMESTAMP BIGINT NOT NULL,
+    UPDATED_TIMESTAMP BIGINT NOT NULL,
+    ARCHIVED_AT DATETIME2 DEFAULT GETDATE(),
+    PRIMARY KEY (ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_EN_OP_MAP_ARCH' AND OBJECT_ID = OBJECT_ID('DM_ENROLMENT_OP_MAPPING_ARCH'))
+CREATE INDEX IDX_EN_OP_MAP_ARCH ON DM_ENROLMENT_OP_MAPPING_ARCH(ARCHIVED_AT);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[DM_DEVICE_OPERATION_RESPONSE_ARCH]') AND TYPE IN (N'U'))
+CREATE TABLE DM_DEVICE_OPERATION_RESPONSE_ARCH (
+    ID INTEGER NOT NULL,
+    ENROLMENT_ID INTEGER NOT NULL,
+    OPERATION_ID INTEGER NOT NULL,
+    OPERATION_RESPONSE VARCHAR(1024) DEFAULT NULL,
+    RECEIVED_TIMESTAMP DATETIME2 DEFAULT NULL,
+    ARCHIVED_AT DATETIME2 DEFAULT GETDATE(),
+    IS_LARGE_RESPONSE BIT NOT NULL DEFAULT 0,
+    PRIMARY KEY (ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_OPR_RES_ARCH' AND OBJECT_ID = OBJECT_ID('DM_DEVICE_OPERATION_RESPONSE_ARCH'))
+CREATE INDEX IDX_OPR_RES_ARCH ON DM_DEVICE_OPERATION_RESPONSE_ARCH(ARCHIVED_AT);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH]') AND TYPE IN (N'U'))
+CREATE TABLE DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH (
+    ID INTEGER NOT NULL,
+    OPERATION_RESPONSE VARBINARY(MAX) DEFAULT NULL,
+    ARCHIVED_AT DATETIME2 DEFAULT GETDATE(),
+    PRIMARY KEY (ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_OPR_RES_LRG_ARCH' AND OBJECT_ID = OBJECT_ID('DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH'))
+CREATE INDEX IDX_OPR_RES_LRG_ARCH ON DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH(ARCHIVED_AT);
+
+IF NOT EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[DM_NOTIFICATION_ARCH]') AND TYPE IN (N'U'))
+CREATE TABLE DM_NOTIFICATION_ARCH (
+    NOTIFICATION_ID INTEGER NOT NULL,
+    DEVICE_ID INTEGER NOT NULL,
+    OPERATION_ID INTEGER NULL,
+    TENANT_ID INTEGER NOT NULL,
+    STATUS VARCHAR(10) NULL,
+    DESCRIPTION VARCHAR(1000) NULL,
+    ARCHIVED_AT DATETIME2 DEFAULT GETDATE(),
+    PRIMARY KEY (NOTIFICATION_ID)
+);
+
+IF NOT EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_NOT_ARCH' AND OBJECT_ID = OBJECT_ID('DM_NOTIFICATION_ARCH'))
+CREATE INDEX IDX_NOT_ARCH ON DM_NOTIFICATION_ARCH(ARCHIVED_AT);
@@ -0,0 +1,58 @@
+CREATE TABLE DM_OPERATION_ARCH (
+  ID NUMBER(10) NOT NULL,
+  TYPE VARCHAR2(50) NOT NULL,
+  CREATED_TIMESTAMP NUMBER(19) NOT NULL,
+  RECEIVED_TIMESTAMP NUMBER(19) NULL,
+  OPERATION_CODE VARCHAR2(1000) NOT NULL,
+  INITIATED_BY VARCHAR2(100) NULL,
+  OPERATION_DETAILS BLOB DEFAULT NULL,
+  OPERATION_PROPERTIES BLOB DEFAULT NULL,
+  ENABLED NUMBER(10) DEFAULT 0 NOT NULL,
+  ARCHIVED_AT TIMESTAMP(0) DEFAULT SYSTIMESTAMP,
+  CONSTRAINT PK_DM_OPERATION_ARCH PRIMARY KEY (ID)
+)
+/
+CREATE INDEX IDX_OPR_ARC ON DM_OPERATION_ARCH(ARCHIVED_AT)
+/
+
+CREATE TABLE DM_ENROLMENT_OP_MAPPING_ARCH (
+  ID NUMBER(10) NOT NULL,
+  ENROLMENT_ID NUMBER(10) NOT NULL,
+  OPERATION_ID NUMBER(10) NOT NULL,
+  STATUS VARCHAR2(50) NULL,
+  CREATED_TIMESTAMP NUMBER(14) NOT NULL,
+  UPDATED_TIMESTAMP NUMBER(14) NOT NULL,
+  ARCHIVED_AT TIMESTAMP(0) DEFAULT SYSTIMESTAMP,
+  CONSTRAINT PK_DM_ENROLMENT_OP_MAPPING_ARCH PRIMARY KEY (ID)
+)
+/
+CREATE INDEX IDX_EN_OP_MAP_ARCH ON DM_ENROLMENT_OP_MAPPING_ARCH(ARCHIVED_AT)
+/
+
+-- Oracle keeps every operation response in DM_DEVICE_OPERATION_RESPONSE, so there is no large response table
+CREATE TABLE DM_DEVICE_OPERATION_RESPONSE_ARCH (
+  ID NUMBER(10) NOT NULL,
+  ENROLMENT_ID NUMBER(10) NOT NULL,
+  OPERATION_ID NUMBER(10) NOT NULL,
+  OPERATION_RESPONSE BLOB DEFAULT NULL,
+  RECEIVED_TIMESTAMP TIMESTAMP(0) NULL,
+  ARCHIVED_AT TIMESTAMP(0) DEFAULT SYSTIMESTAMP,
+  CONSTRAINT PK_DM_DEVICE_OP_RESPONSE_ARCH PRIMARY KEY (ID)
+)
+/
+CREATE INDEX IDX_OPR_RES_ARCH ON DM_DEVICE_OPERATION_RESPONSE_ARCH(ARCHIVED_AT)
+/
+
+CREATE TABLE DM_NOTIFICATION_ARCH (
+  NOTIFICATION_ID NUMBER(10) NOT NULL,
+  DEVICE_ID NUMBER(10) NOT NULL,
+  OPERATION_ID NUMBER(10) NULL,
+  TENANT_ID NUMBER(10) NOT NULL,
+  STATUS VARCHAR2(10) NULL,
+  DESCRIPTION VARCHAR2(1000) NULL,
+  ARCHIVED_AT TIMESTAMP(0) DEFAULT SYSTIMESTAMP,
+  CONSTRAINT PK_DM_NOTIFICATION_ARCH PRIMARY KEY (NOTIFICATION_ID)
+)
+/
+CREATE INDEX IDX_NOT_ARCH ON DM_NOTIFICATION_ARCH(ARCHIVED_AT)
+/
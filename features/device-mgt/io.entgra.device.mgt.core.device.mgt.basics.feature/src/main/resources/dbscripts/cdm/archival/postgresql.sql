@@ -8,7 +8,8 @@ CREATE TABLE IF NOT EXISTS DM_OPERATION_ARCH (
     OPERATION_DETAILS BYTEA DEFAULT NULL,
     OPERATION_PROPERTIES BYTEA DEFAULT NULL,
     ENABLED BOOLEAN NOT NULL DEFAULT FALSE,
-    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW()
+    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW(),
+    PRIMARY KEY (ID)
 );
 
 CREATE INDEX IDX_OPR_ARC ON DM_OPERATION_ARCH(ARCHIVED_AT);
@@ -20,7 +21,8 @@ CREATE TABLE IF NOT EXISTS DM_ENROLMENT_OP_MAPPING_ARCH (
     STATUS VARCHAR(50) NULL,
     CREATED_TIMESTAMP INTEGER NOT NULL,
     UPDATED_TIMESTAMP INTEGER NOT NULL,
-    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW()
+    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW(),
+    PRIMARY KEY (ID)
 );
 
 CREATE INDEX IDX_EN_OP_MAP_ARCH ON DM_ENROLMENT_OP_MAPPING_ARCH(ARCHIVED_AT);
@@ -32,7 +34,8 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE_OPERATION_RESPONSE_ARCH  (
     OPERATION_RESPONSE VARCHAR(4096) DEFAULT NULL,
     RECEIVED_TIMESTAMP  TIMESTAMP(0) NULL,
     ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW(),
-    IS_LARGE_RESPONSE BOOLEAN NOT NULL DEFAULT FALSE
+    IS_LARGE_RESPONSE BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (ID)
 );
 
 CREATE INDEX IDX_OPR_RES_ARCH ON DM_DEVICE_OPERATION_RESPONSE_ARCH(ARCHIVED_AT);
@@ -40,7 +43,8 @@ CREATE INDEX IDX_OPR_RES_ARCH ON DM_DEVICE_OPERATION_RESPONSE_ARCH(ARCHIVED_AT);
 CREATE TABLE DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH (
     ID INT NOT NULL,
     OPERATION_RESPONSE BYTEA DEFAULT NULL,
-    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW()
+    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW(),
+    PRIMARY KEY (ID)
 );
 
 CREATE INDEX IDX_OPR_RES_LRG_ARCH ON DM_DEVICE_OPERATION_RESPONSE_LARGE_ARCH(ARCHIVED_AT);
@@ -52,7 +56,8 @@ CREATE TABLE IF NOT EXISTS DM_NOTIFICATION_ARCH (
     TENANT_ID INTEGER NOT NULL,
     STATUS VARCHAR(10) NULL,
     DESCRIPTION VARCHAR(1000) NULL,
-    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW()
+    ARCHIVED_AT TIMESTAMP(0) DEFAULT NOW(),
+    PRIMARY KEY (NOTIFICATION_ID)
 );
 
 CREATE INDEX IDX_NOT_ARCH ON DM_NOTIFICATION_ARCH(ARCHIVED_AT);
\ No newline at end of file
@@ -48,12 +48,16 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE (
      DEVICE_IDENTIFICATION VARCHAR(300) DEFAULT NULL,
      LAST_UPDATED_TIMESTAMP TIMESTAMP NOT NULL,
      TENANT_ID INTEGER DEFAULT 0,
+     PARTITION_BUCKET INTEGER NOT NULL DEFAULT 0,
      PRIMARY KEY (ID),
      CONSTRAINT fk_DM_DEVICE_DM_DEVICE_TYPE2 FOREIGN KEY (DEVICE_TYPE_ID)
      REFERENCES DM_DEVICE_TYPE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION,
      CONSTRAINT uk_DM_DEVICE UNIQUE (NAME, DEVICE_TYPE_ID, DEVICE_IDENTIFICATION, TENANT_ID)
 );
 
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TYPE_LAST_UPDATED_TIMESTAMP ON DM_DEVICE(DEVICE_TYPE_ID, LAST_UPDATED_TIMESTAMP);
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TYPE_PARTITION_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET);
+
 CREATE TABLE IF NOT EXISTS DM_DEVICE_PROPERTIES (
      DEVICE_TYPE_NAME VARCHAR(300) NOT NULL,
      DEVICE_IDENTIFICATION VARCHAR(300) NOT NULL,
@@ -0,0 +1,10 @@
+-- Adds the task partition bucket of the devices to a database created before the buckets were introduced.
+-- The bucket of a device is ID % 1024, which is the bucket the server assigns to newly enrolled devices.
+
+IF NOT EXISTS (SELECT * FROM SYS.COLUMNS WHERE NAME = 'PARTITION_BUCKET' AND OBJECT_ID = OBJECT_ID('DM_DEVICE'))
+ALTER TABLE DM_DEVICE ADD PARTITION_BUCKET INTEGER NOT NULL DEFAULT 0;
+
+UPDATE DM_DEVICE SET PARTITION_BUCKET = ID % 1024;
+
+IF NOT  EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_DM_DEVICE_TYPE_PARTITION_BUCKET' AND  OBJECT_ID = OBJECT_ID('DM_DEVICE'))
+CREATE INDEX IDX_DM_DEVICE_TYPE_PARTITION_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET);
@@ -0,0 +1,14 @@
+-- Adds the task partition bucket of the devices to a database created before the buckets were introduced.
+-- The bucket of a device is MOD(ID, 1024), which is the bucket the server assigns to newly enrolled devices.
+
+ALTER TABLE DM_DEVICE ADD PARTITION_BUCKET NUMBER(10) DEFAULT 0 NOT NULL
+/
+
+UPDATE DM_DEVICE SET PARTITION_BUCKET = MOD(ID, 1024)
+/
+
+COMMIT
+/
+
+CREATE INDEX IDX_DM_DEVICE_TYPE_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET)
+/
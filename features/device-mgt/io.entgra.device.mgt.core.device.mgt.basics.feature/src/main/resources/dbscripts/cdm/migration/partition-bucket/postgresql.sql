@@ -0,0 +1,8 @@
+-- Adds the task partition bucket of the devices to a database created before the buckets were introduced.
+-- The bucket of a device is MOD(ID, 1024), which is the bucket the server assigns to newly enrolled devices.
+
+ALTER TABLE DM_DEVICE ADD COLUMN IF NOT EXISTS PARTITION_BUCKET INTEGER NOT NULL DEFAULT 0;
+
+UPDATE DM_DEVICE SET PARTITION_BUCKET = MOD(ID, 1024);
+
+CREATE INDEX IF NOT EXISTS IDX_DM_DEVICE_TYPE_PARTITION_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET);
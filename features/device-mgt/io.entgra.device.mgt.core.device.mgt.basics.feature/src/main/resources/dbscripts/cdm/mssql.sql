@@ -70,6 +70,7 @@ CREATE TABLE DM_DEVICE (
      DEVICE_IDENTIFICATION VARCHAR(300) DEFAULT NULL,
      LAST_UPDATED_TIMESTAMP DATETIME2 NOT NULL,
      TENANT_ID INTEGER DEFAULT 0,
+     PARTITION_BUCKET INTEGER NOT NULL DEFAULT 0,
      PRIMARY KEY (ID),
      CONSTRAINT FK_DM_DEVICE_DM_DEVICE_TYPE2 FOREIGN KEY (DEVICE_TYPE_ID)
      REFERENCES DM_DEVICE_TYPE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
@@ -116,6 +117,12 @@ IF NOT EXISTS(SELECT *
 IF NOT  EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_DM_DEVICE' AND  OBJECT_ID = OBJECT_ID('DM_DEVICE'))
 CREATE INDEX IDX_DM_DEVICE ON DM_DEVICE(TENANT_ID, DEVICE_TYPE_ID);
 
+IF NOT  EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_DM_DEVICE_TYPE_LAST_UPDATED_TIMESTAMP' AND  OBJECT_ID = OBJECT_ID('DM_DEVICE'))
+CREATE INDEX IDX_DM_DEVICE_TYPE_LAST_UPDATED_TIMESTAMP ON DM_DEVICE(DEVICE_TYPE_ID, LAST_UPDATED_TIMESTAMP);
+
+IF NOT  EXISTS (SELECT * FROM SYS.INDEXES WHERE NAME = 'IDX_DM_DEVICE_TYPE_PARTITION_BUCKET' AND  OBJECT_ID = OBJECT_ID('DM_DEVICE'))
+CREATE INDEX IDX_DM_DEVICE_TYPE_PARTITION_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET);
+
 IF NOT  EXISTS (SELECT * FROM SYS.OBJECTS WHERE OBJECT_ID = OBJECT_ID(N'[DBO].[DM_OPERATION]') AND TYPE IN (N'U'))
 CREATE TABLE DM_OPERATION (
     ID INTEGER IDENTITY(1,1) NOT NULL,
@@ -107,6 +107,7 @@ CREATE TABLE DM_DEVICE (
   DEVICE_IDENTIFICATION VARCHAR2(300) DEFAULT NULL,
   LAST_UPDATED_TIMESTAMP TIMESTAMP NOT NULL,
   TENANT_ID NUMBER(10) DEFAULT 0,
+  PARTITION_BUCKET NUMBER(10) DEFAULT 0 NOT NULL,
   CONSTRAINT PK_DM_DEVICE PRIMARY KEY (ID),
   CONSTRAINT FK_DM_DEVICE_DM_DEVICE_TYPE2 FOREIGN KEY (DEVICE_TYPE_ID )
   REFERENCES DM_DEVICE_TYPE (ID)
@@ -126,6 +127,12 @@ WHEN (NEW.ID IS NULL)
   END;
 /
 
+CREATE INDEX IDX_DM_DEVICE_TYPE_LAST_UPD ON DM_DEVICE(DEVICE_TYPE_ID, LAST_UPDATED_TIMESTAMP)
+/
+
+CREATE INDEX IDX_DM_DEVICE_TYPE_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET)
+/
+
 CREATE TABLE DM_DEVICE_PROPERTIES (
      DEVICE_TYPE_NAME VARCHAR2(300) NOT NULL,
      DEVICE_IDENTIFICATION VARCHAR2(300) NOT NULL,
@@ -53,6 +53,7 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE (
     DEVICE_IDENTIFICATION VARCHAR(300) DEFAULT NULL,
     LAST_UPDATED_TIMESTAMP TIMESTAMP(0) NOT NULL,
     TENANT_ID INTEGER DEFAULT 0,
+    PARTITION_BUCKET INTEGER NOT NULL DEFAULT 0,
     PRIMARY KEY (ID),
     CONSTRAINT fk_DM_DEVICE_DM_DEVICE_TYPE2 FOREIGN KEY (DEVICE_TYPE_ID)
      REFERENCES DM_DEVICE_TYPE (ID) ON DELETE NO ACTION ON UPDATE NO ACTION
@@ -60,6 +61,8 @@ CREATE TABLE IF NOT EXISTS DM_DEVICE (
 
 CREATE INDEX IDX_DM_DEVICE ON DM_DEVICE(TENANT_ID, DEVICE_TYPE_ID);
 CREATE INDEX IDX_DM_DEVICE_TYPE_ID_DEVICE_IDENTIFICATION ON DM_DEVICE(TENANT_ID, DEVICE_TYPE_ID,DEVICE_IDENTIFICATION);
+CREATE INDEX IDX_DM_DEVICE_TYPE_LAST_UPDATED_TIMESTAMP ON DM_DEVICE(DEVICE_TYPE_ID, LAST_UPDATED_TIMESTAMP);
+CREATE INDEX IDX_DM_DEVICE_TYPE_PARTITION_BUCKET ON DM_DEVICE(DEVICE_TYPE_ID, PARTITION_BUCKET);
 
 CREATE TABLE IF NOT EXISTS DM_DEVICE_PROPERTIES (
     DEVICE_TYPE_NAME VARCHAR(300) NOT NULL,